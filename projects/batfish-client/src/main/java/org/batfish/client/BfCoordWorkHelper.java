@@ -33,6 +33,8 @@ import org.glassfish.jersey.media.multipart.MultiPartFeature;
 
 public class BfCoordWorkHelper {
 
+   // shared by all requests so connections to the coordinator can be reused
+   private Client _client;
    private String _coordWorkMgr;
    private BatfishLogger _logger;
    private Settings _settings;
@@ -61,7 +63,7 @@ public class BfCoordWorkHelper {
 
    public String checkApiKey() {
       try {
-         Client client = getClientBuilder().build();
+         Client client = getClient();
          WebTarget webTarget = getTarget(
                client,
                CoordConsts.SVC_RSC_CHECK_API_KEY);
@@ -91,7 +93,7 @@ public class BfCoordWorkHelper {
          String delQuestionsStr) {
       try {
 
-         Client client = getClientBuilder().build();
+         Client client = getClient();
          WebTarget webTarget = getTarget(
                client,
                CoordConsts.SVC_RSC_CONFIGURE_ANALYSIS);
@@ -140,7 +142,7 @@ public class BfCoordWorkHelper {
    public boolean delAnalysis(String containerName, String analysisName) {
       try {
 
-         Client client = getClientBuilder().build();
+         Client client = getClient();
          WebTarget webTarget = getTarget(
                client,
                CoordConsts.SVC_RSC_DEL_ANALYSIS);
@@ -168,7 +170,7 @@ public class BfCoordWorkHelper {
 
    public boolean delContainer(String containerName) {
       try {
-         Client client = getClientBuilder().build();
+         Client client = getClient();
          WebTarget webTarget = getTarget(
                client,
                CoordConsts.SVC_RSC_DEL_CONTAINER);
@@ -195,7 +197,7 @@ public class BfCoordWorkHelper {
          String containerName, String testrigName,
          String envName) {
       try {
-         Client client = getClientBuilder().build();
+         Client client = getClient();
          WebTarget webTarget = getTarget(
                client,
                CoordConsts.SVC_RSC_DEL_ENVIRONMENT);
@@ -225,7 +227,7 @@ public class BfCoordWorkHelper {
          String containerName, String testrigName,
          String questionName) {
       try {
-         Client client = getClientBuilder().build();
+         Client client = getClient();
          WebTarget webTarget = getTarget(
                client,
                CoordConsts.SVC_RSC_DEL_QUESTION);
@@ -254,7 +256,7 @@ public class BfCoordWorkHelper {
 
    public boolean delTestrig(String containerName, String testrigName) {
       try {
-         Client client = getClientBuilder().build();
+         Client client = getClient();
          WebTarget webTarget = getTarget(
                client,
                CoordConsts.SVC_RSC_DEL_TESTRIG);
@@ -334,7 +336,7 @@ public class BfCoordWorkHelper {
          String analysisName) {
       try {
 
-         Client client = getClientBuilder().build();
+         Client client = getClient();
          WebTarget webTarget = getTarget(
                client,
                CoordConsts.SVC_RSC_GET_ANALYSIS_ANSWERS);
@@ -389,7 +391,7 @@ public class BfCoordWorkHelper {
          String questionName) {
       try {
 
-         Client client = getClientBuilder().build();
+         Client client = getClient();
          WebTarget webTarget = getTarget(
                client,
                CoordConsts.SVC_RSC_GET_ANSWER);
@@ -438,6 +440,13 @@ public class BfCoordWorkHelper {
       }
    }
 
+   private synchronized Client getClient() throws Exception {
+      if (_client == null) {
+         _client = getClientBuilder().build();
+      }
+      return _client;
+   }
+
    private ClientBuilder getClientBuilder() throws Exception {
       return CommonUtil.createHttpClientBuilder(_settings.getSslDisable(),
             _settings.getSslTrustAllCerts(), _settings.getSslKeystoreFile(),
@@ -450,7 +459,7 @@ public class BfCoordWorkHelper {
    public Map<String, String> getInfo() {
       try {
 
-         Client client = getClientBuilder().build();
+         Client client = getClient();
          WebTarget webTarget = getTarget(client, "");
 
          Response response = webTarget.request(MediaType.APPLICATION_JSON)
@@ -500,7 +509,7 @@ public class BfCoordWorkHelper {
          String objectName) {
       try {
 
-         Client client = getClientBuilder().build();
+         Client client = getClient();
          WebTarget webTarget = getTarget(
                client,
                CoordConsts.SVC_RSC_GET_OBJECT);
@@ -666,9 +675,16 @@ public class BfCoordWorkHelper {
       return wItem;
    }
 
-   public Pair<WorkStatusCode, String> getWorkStatus(UUID parseWorkUUID) {
+   /**
+    * Returns the status of the given work. If {@code waitMs} is positive, the
+    * coordinator holds the request for up to that long until the work
+    * completes.
+    */
+   public Pair<WorkStatusCode, String> getWorkStatus(
+         UUID parseWorkUUID,
+         long waitMs) {
       try {
-         Client client = getClientBuilder().build();
+         Client client = getClient();
          WebTarget webTarget = getTarget(
                client,
                CoordConsts.SVC_RSC_GET_WORKSTATUS);
@@ -680,6 +696,10 @@ public class BfCoordWorkHelper {
                _settings.getApiKey());
          addTextMultiPart(multiPart, CoordConsts.SVC_KEY_WORKID,
                parseWorkUUID.toString());
+         if (waitMs > 0) {
+            addTextMultiPart(multiPart, CoordConsts.SVC_KEY_WAIT_MS,
+                  Long.toString(waitMs));
+         }
 
          JSONObject jObj = postData(webTarget, multiPart);
          if (jObj == null) {
@@ -714,7 +734,7 @@ public class BfCoordWorkHelper {
 
    public String initContainer(String containerName, String containerPrefix) {
       try {
-         Client client = getClientBuilder().build();
+         Client client = getClient();
          WebTarget webTarget = getTarget(
                client,
                CoordConsts.SVC_RSC_INIT_CONTAINER);
@@ -753,7 +773,7 @@ public class BfCoordWorkHelper {
       WebTarget webTarget = null;
 
       try {
-         Client client = getClientBuilder().build();
+         Client client = getClient();
          webTarget = getTarget(client, "");
 
          Response response = webTarget.request().get();
@@ -799,7 +819,7 @@ public class BfCoordWorkHelper {
 
    public JSONObject listAnalyses(String containerName) {
       try {
-         Client client = getClientBuilder().build();
+         Client client = getClient();
          WebTarget webTarget = getTarget(
                client,
                CoordConsts.SVC_RSC_LIST_ANALYSES);
@@ -835,7 +855,7 @@ public class BfCoordWorkHelper {
 
    public String[] listContainers() {
       try {
-         Client client = getClientBuilder().build();
+         Client client = getClient();
          WebTarget webTarget = getTarget(
                client,
                CoordConsts.SVC_RSC_LIST_CONTAINERS);
@@ -879,7 +899,7 @@ public class BfCoordWorkHelper {
 
    public String[] listEnvironments(String containerName, String testrigName) {
       try {
-         Client client = getClientBuilder().build();
+         Client client = getClient();
          WebTarget webTarget = getTarget(
                client,
                CoordConsts.SVC_RSC_LIST_ENVIRONMENTS);
@@ -926,7 +946,7 @@ public class BfCoordWorkHelper {
 
    public String[] listQuestions(String containerName, String testrigName) {
       try {
-         Client client = getClientBuilder().build();
+         Client client = getClient();
          WebTarget webTarget = getTarget(
                client,
                CoordConsts.SVC_RSC_LIST_QUESTIONS);
@@ -975,7 +995,7 @@ public class BfCoordWorkHelper {
 
    public Map<String, String> listTestrigs(String containerName) {
       try {
-         Client client = getClientBuilder().build();
+         Client client = getClient();
          WebTarget webTarget = getTarget(
                client,
                CoordConsts.SVC_RSC_LIST_TESTRIGS);
@@ -1077,7 +1097,7 @@ public class BfCoordWorkHelper {
    public boolean queueWork(WorkItem wItem) {
 
       try {
-         Client client = getClientBuilder().build();
+         Client client = getClient();
          WebTarget webTarget = getTarget(
                client,
                CoordConsts.SVC_RSC_QUEUE_WORK);
@@ -1105,7 +1125,7 @@ public class BfCoordWorkHelper {
          String objName, String objFileName) {
       try {
 
-         Client client = getClientBuilder().build();
+         Client client = getClient();
          WebTarget webTarget = getTarget(
                client,
                CoordConsts.SVC_RSC_PUT_OBJECT);
@@ -1142,7 +1162,7 @@ public class BfCoordWorkHelper {
          String containerName, String testrigName,
          String baseEnvName, String envName, String zipfileName) {
       try {
-         Client client = getClientBuilder().build();
+         Client client = getClient();
          WebTarget webTarget = getTarget(
                client,
                CoordConsts.SVC_RSC_UPLOAD_ENV);
@@ -1179,7 +1199,7 @@ public class BfCoordWorkHelper {
          String qName, String qFileName) {
       try {
 
-         Client client = getClientBuilder().build();
+         Client client = getClient();
          WebTarget webTarget = getTarget(
                client,
                CoordConsts.SVC_RSC_UPLOAD_QUESTION);
@@ -1216,7 +1236,7 @@ public class BfCoordWorkHelper {
          String containerName, String testrigName,
          String zipfileName) {
       try {
-         Client client = getClientBuilder().build();
+         Client client = getClient();
          WebTarget webTarget = getTarget(
                client,
                CoordConsts.SVC_RSC_UPLOAD_TESTRIG);
@@ -110,6 +110,8 @@ public class Client extends AbstractClient implements IClient {
 
    private static final String STARTUP_FILE = ".batfishclientrc";
 
+   private static final long WORK_STATUS_POLL_MS = 1 * 1000;
+
    /**
     * Verify that every non-optional variable has value assigned to it.
     *
@@ -999,8 +1001,11 @@ public class Client extends AbstractClient implements IClient {
       if (!queueWorkResult) {
          return queueWorkResult;
       }
+      // the coordinator holds each status request until the work completes
+      // or the poll period passes, so completion is seen right away
+      long requestTime = System.currentTimeMillis();
       Pair<WorkStatusCode, String> response = _workHelper
-            .getWorkStatus(wItem.getId());
+            .getWorkStatus(wItem.getId(), WORK_STATUS_POLL_MS);
       if (response == null) {
          return false;
       }
@@ -1009,15 +1014,22 @@ public class Client extends AbstractClient implements IClient {
             && status != WorkStatusCode.TERMINATEDNORMALLY
             && status != WorkStatusCode.ASSIGNMENTERROR) {
          printWorkStatusResponse(response);
+         // older coordinators answer immediately, so wait out the period
+         long remainingMs = requestTime + WORK_STATUS_POLL_MS
+               - System.currentTimeMillis();
          try {
-            Thread.sleep(1 * 1000);
+            if (remainingMs > 0) {
+               Thread.sleep(remainingMs);
+            }
          }
          catch (InterruptedException e) {
             throw new BatfishException(
                   "Interrupted while waiting for response",
                   e);
          }
-         response = _workHelper.getWorkStatus(wItem.getId());
+         requestTime = System.currentTimeMillis();
+         response = _workHelper.getWorkStatus(wItem.getId(),
+               WORK_STATUS_POLL_MS);
          if (response == null) {
             return false;
          }
@@ -92,6 +92,7 @@ public class BfConsts {
          "/org/batfish/coordinator/config/coordinator.properties";
    public static final String RELPATH_CONFIG_FILE_NAME_COORDINATOR = "coordinator.properties";
    public static final String RELPATH_CONFIGURATIONS_DIR = "configs";
+   public static final String RELPATH_CONVERSION_CACHE_DIR = "conversion_cache";
    public static final String RELPATH_CONVERT_ANSWER_PATH = "convert_answer";
    public static final String RELPATH_DATA_PLANE = "dp";
    public static final String RELPATH_DATA_PLANE_ANSWER_PATH = "dp_answer";
@@ -115,6 +116,7 @@ public class BfConsts {
    public static final String RELPATH_MULTIPATH_QUERY_PREFIX = "multipath-query";
    public static final String RELPATH_NODE_BLACKLIST_FILE = "node_blacklist";
    public static final String RELPATH_PARSE_ANSWER_PATH = "parse_answer";
+   public static final String RELPATH_PARSE_CACHE_DIR = "parse_cache";
    public static final String RELPATH_PRECOMPUTED_ROUTES = "precomputedroutes";
    public static final String RELPATH_QUERIES_DIR = "queries";
    public static final String RELPATH_QUESTION_FILE = "question.json";
@@ -125,7 +127,9 @@ public class BfConsts {
    public static final String RELPATH_TESTRIGS_DIR = "";
    public static final String RELPATH_TOPOLOGY_FILE = "topology";
    public static final String RELPATH_VENDOR_INDEPENDENT_CONFIG_DIR = "indep";
+   public static final String RELPATH_VENDOR_INDEPENDENT_CONFIG_INDEX = "indep_index";
    public static final String RELPATH_VENDOR_SPECIFIC_CONFIG_DIR = "vendor";
+   public static final String RELPATH_VENDOR_SPECIFIC_CONFIG_INDEX = "vendor_index";
    public static final String RELPATH_Z3_DATA_PLANE_FILE = "dataplane.smt2";
 
    public static final String SUFFIX_ANSWER_JSON_FILE = ".json";
@@ -63,6 +63,7 @@ public class CoordConsts {
    public static final String SVC_KEY_TESTRIG_LIST = "testriglist";
    public static final String SVC_KEY_TESTRIG_NAME = "testrigname";
    public static final String SVC_KEY_VERSION = "version";
+   public static final String SVC_KEY_WAIT_MS = "waitms";
    public static final String SVC_KEY_WORKID = "workid";
    public static final String SVC_KEY_WORKITEM = "workitem";
    public static final String SVC_KEY_WORKSPACE_NAME = "workspace";
@@ -92,6 +93,7 @@ public class CoordConsts {
    public static final String SVC_RSC_LIST_TESTRIGS = "listtestrigs";
    public static final String SVC_RSC_POOL_GETSTATUS = "getstatus";
    public static final String SVC_RSC_POOL_UPDATE = "updatepool";
+   public static final String SVC_RSC_POOL_UPDATE_TASK = "updatetask";
    public static final String SVC_RSC_PUT_OBJECT = "putobject";
    public static final String SVC_RSC_QUEUE_WORK = "queuework";
    public static final String SVC_RSC_UPLOAD_ENV = "uploadenvironment";
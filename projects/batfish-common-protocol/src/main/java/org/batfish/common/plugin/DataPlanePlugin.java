@@ -4,6 +4,7 @@ import java.util.List;
 import java.util.Set;
 import java.util.SortedMap;
 import java.util.SortedSet;
+import java.util.function.BiConsumer;
 import org.batfish.datamodel.AbstractRoute;
 import org.batfish.datamodel.Flow;
 import org.batfish.datamodel.FlowTrace;
@@ -47,6 +48,18 @@ public abstract class DataPlanePlugin extends BatfishPlugin
    protected void dataPlanePluginInitialize() {
    }
 
+   /**
+    * Passes each flow trace of the current data plane to {@code consumer}
+    * along with its flow, without first copying them all into lists
+    */
+   public void forEachHistoryFlowTrace(BiConsumer<Flow, FlowTrace> consumer) {
+      List<Flow> flows = getHistoryFlows();
+      List<FlowTrace> flowTraces = getHistoryFlowTraces();
+      for (int i = 0; i < flows.size(); i++) {
+         consumer.accept(flows.get(i), flowTraces.get(i));
+      }
+   }
+
    public abstract AdvertisementSet getAdvertisements();
 
    public abstract List<Flow> getHistoryFlows();
@@ -17,6 +17,7 @@ import org.batfish.datamodel.FlowHistory;
 import org.batfish.datamodel.ForwardingAction;
 import org.batfish.datamodel.HeaderSpace;
 import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.ReachabilityEngine;
 import org.batfish.datamodel.Topology;
 import org.batfish.datamodel.answers.AnswerElement;
 import org.batfish.datamodel.answers.ConvertConfigurationAnswerElement;
@@ -40,7 +41,8 @@ public interface IBatfish extends IPluginConsumer {
 
    AnswerElement answerAclReachability(
          String aclNameRegexStr,
-         NamedStructureEquivalenceSets<?> aclEqSets);
+         NamedStructureEquivalenceSets<?> aclEqSets,
+         ReachabilityEngine engine);
 
    void checkConfigurations();
 
@@ -112,7 +114,9 @@ public interface IBatfish extends IPluginConsumer {
 
    ParseVendorConfigurationAnswerElement loadParseVendorConfigurationAnswerElement();
 
-   AnswerElement multipath(HeaderSpace headerSpace);
+   AnswerElement multipath(
+         HeaderSpace headerSpace,
+         ReachabilityEngine engine);
 
    AtomicInteger newBatch(String description, int jobs);
 
@@ -156,7 +160,7 @@ public interface IBatfish extends IPluginConsumer {
          HeaderSpace headerSpace,
          Set<ForwardingAction> actions, String ingressNodeRegexStr,
          String notIngressNodeRegexStr, String finalNodeRegexStr,
-         String notFinalNodeRegexStr);
+         String notFinalNodeRegexStr, ReachabilityEngine engine);
 
    void writeDataPlane(DataPlane dp, DataPlaneAnswerElement ae);
 
@@ -1,13 +1,8 @@
 package org.batfish.common.plugin;
 
-import com.thoughtworks.xstream.XStream;
-import com.thoughtworks.xstream.io.xml.DomDriver;
-import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
@@ -21,7 +16,6 @@ import java.nio.file.Paths;
 import java.nio.file.SimpleFileVisitor;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Enumeration;
 import java.util.List;
 import java.util.jar.JarEntry;
@@ -31,30 +25,28 @@ import java.util.zip.GZIPOutputStream;
 import org.apache.commons.io.IOUtils;
 import org.batfish.common.BatfishException;
 import org.batfish.common.BfConsts;
-import org.batfish.common.util.BatfishObjectInputStream;
+import org.batfish.common.util.SerializationFormat;
 
 public abstract class PluginConsumer implements IPluginConsumer {
 
    private static final String CLASS_EXTENSION = ".class";
 
-   /**
-    * A byte-array containing the first 4 bytes of the header for a file that is
-    * the output of java serialization
-    */
-   private static final byte[] JAVA_SERIALIZED_OBJECT_HEADER = {
-         (byte) 0xac,
-         (byte) 0xed, (byte) 0x00, (byte) 0x05};
-
    private ClassLoader _currentClassLoader;
 
    private final List<Path> _pluginDirs;
 
-   private final boolean _serializeToText;
+   private final SerializationFormat _serializationFormat;
 
    public PluginConsumer(boolean serializeToText, List<Path> pluginDirs) {
+      this(serializeToText ? SerializationFormat.TEXT
+            : SerializationFormat.JAVA, pluginDirs);
+   }
+
+   public PluginConsumer(SerializationFormat serializationFormat,
+         List<Path> pluginDirs) {
       // _currentClassLoader = getClass().getClassLoader();
       _currentClassLoader = Thread.currentThread().getContextClassLoader();
-      _serializeToText = serializeToText;
+      _serializationFormat = serializationFormat;
       _pluginDirs = new ArrayList<>(pluginDirs);
       String questionPluginDirStr = System
             .getProperty(BfConsts.PROP_QUESTION_PLUGIN_DIR);
@@ -74,19 +66,12 @@ public abstract class PluginConsumer implements IPluginConsumer {
          byte[] data,
          Class<S> outputClass) {
       try {
-         boolean isJavaSerializationData = isJavaSerializationData(data);
-         ByteArrayInputStream bais = new ByteArrayInputStream(data);
-         ObjectInputStream ois;
-         if (!isJavaSerializationData) {
-            XStream xstream = new XStream(new DomDriver("UTF-8"));
-            xstream.setClassLoader(_currentClassLoader);
-            ois = xstream.createObjectInputStream(bais);
+         SerializationFormat format = SerializationFormat.detect(data);
+         if (format == null) {
+            format = SerializationFormat.TEXT;
          }
-         else {
-            ois = new BatfishObjectInputStream(bais, _currentClassLoader);
-         }
-         Object o = ois.readObject();
-         ois.close();
+         Object o = format.getSerializer().deserialize(data,
+               _currentClassLoader);
          return outputClass.cast(o);
       }
       catch (IOException | ClassNotFoundException | ClassCastException e) {
@@ -119,17 +104,12 @@ public abstract class PluginConsumer implements IPluginConsumer {
       return _currentClassLoader;
    }
 
-   public abstract PluginClientType getType();
-
-   private boolean isJavaSerializationData(byte[] fileBytes) {
-      int headerLength = JAVA_SERIALIZED_OBJECT_HEADER.length;
-      byte[] headerBytes = new byte[headerLength];
-      for (int i = 0; i < headerLength; i++) {
-         headerBytes[i] = fileBytes[i];
-      }
-      return Arrays.equals(headerBytes, JAVA_SERIALIZED_OBJECT_HEADER);
+   public SerializationFormat getSerializationFormat() {
+      return _serializationFormat;
    }
 
+   public abstract PluginClientType getType();
+
    private void loadPluginJar(Path path) {
       /*
        * Adapted from
@@ -244,16 +224,8 @@ public abstract class PluginConsumer implements IPluginConsumer {
       try {
          ByteArrayOutputStream baos = new ByteArrayOutputStream();
          GZIPOutputStream gos = new GZIPOutputStream(baos);
-         ObjectOutputStream oos;
-         if (_serializeToText) {
-            XStream xstream = new XStream(new DomDriver("UTF-8"));
-            oos = xstream.createObjectOutputStream(gos);
-         }
-         else {
-            oos = new ObjectOutputStream(gos);
-         }
-         oos.writeObject(object);
-         oos.close();
+         _serializationFormat.getSerializer().serialize(object, gos);
+         gos.close();
          byte[] data = baos.toByteArray();
          return data;
       }
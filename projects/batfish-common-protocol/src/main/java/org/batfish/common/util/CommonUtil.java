@@ -712,6 +712,10 @@ public class CommonUtil {
    }
 
    public static String sha256Digest(String saltedSecret) {
+      return sha256Digest(saltedSecret.getBytes(StandardCharsets.UTF_8));
+   }
+
+   public static String sha256Digest(byte[]... chunks) {
       MessageDigest digest = null;
       try {
          digest = MessageDigest.getInstance("SHA-256");
@@ -719,9 +723,10 @@ public class CommonUtil {
       catch (NoSuchAlgorithmException e) {
          throw new BatfishException("Could not initialize sha256 hasher", e);
       }
-      byte[] plainTextBytes = null;
-      plainTextBytes = saltedSecret.getBytes(StandardCharsets.UTF_8);
-      byte[] digestBytes = digest.digest(plainTextBytes);
+      for (byte[] chunk : chunks) {
+         digest.update(chunk);
+      }
+      byte[] digestBytes = digest.digest();
       StringBuffer sb = new StringBuffer();
       for (int i = 0; i < digestBytes.length; i++) {
          int digestByteAsInt = 0xff & digestBytes[i];
@@ -0,0 +1,56 @@
+package org.batfish.common.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+
+/**
+ * Plain java serialization
+ */
+public class JavaObjectSerializer implements ObjectSerializer {
+
+   /**
+    * The first 4 bytes of the output of java serialization
+    */
+   private static final byte[] JAVA_SERIALIZED_OBJECT_HEADER = {
+         (byte) 0xac,
+         (byte) 0xed, (byte) 0x00, (byte) 0x05};
+
+   private static boolean hasHeader(byte[] data, byte[] header, int offset) {
+      if (data.length < offset + header.length) {
+         return false;
+      }
+      for (int i = 0; i < header.length; i++) {
+         if (data[offset + i] != header[i]) {
+            return false;
+         }
+      }
+      return true;
+   }
+
+   @Override
+   public boolean canDeserialize(byte[] data) {
+      return hasHeader(data, JAVA_SERIALIZED_OBJECT_HEADER, 0);
+   }
+
+   @Override
+   public Object deserialize(byte[] data, ClassLoader classLoader)
+         throws IOException, ClassNotFoundException {
+      try (ObjectInputStream ois = new BatfishObjectInputStream(
+            new ByteArrayInputStream(data), classLoader)) {
+         return ois.readObject();
+      }
+   }
+
+   @Override
+   public void serialize(Serializable object, OutputStream out)
+         throws IOException {
+      ObjectOutputStream oos = new ObjectOutputStream(out);
+      oos.writeObject(object);
+      oos.flush();
+   }
+
+}
@@ -0,0 +1,246 @@
+package org.batfish.common.util;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * A sorted map whose keys are known up front but whose values are only
+ * produced by a loader the first time they are needed. Lookups of single keys
+ * load only those keys; operations over all values or entries load every
+ * remaining value first (in parallel). Loads of different keys do not wait
+ * for one another.
+ *
+ * <p>
+ * Unlike a regular map, {@link #put} and {@link #remove} return null rather
+ * than a previous value that has not been loaded yet.
+ * </p>
+ */
+public class LazySortedMap<K extends Comparable<? super K>, V>
+      extends AbstractMap<K, V> implements SortedMap<K, V> {
+
+   private final Function<K, V> _loader;
+
+   /**
+    * One lock per key that has been loaded, put or removed; there are never
+    * more than the keys, so they are not cleaned up
+    */
+   private final ConcurrentMap<Object, Object> _locks;
+
+   private final SortedSet<K> _unloaded;
+
+   private final SortedMap<K, V> _values;
+
+   public LazySortedMap(Collection<K> keys, Function<K, V> loader) {
+      _loader = loader;
+      _locks = new ConcurrentHashMap<>();
+      _unloaded = new ConcurrentSkipListSet<>(keys);
+      _values = new ConcurrentSkipListMap<>();
+   }
+
+   @Override
+   public Comparator<? super K> comparator() {
+      return null;
+   }
+
+   @Override
+   public boolean containsKey(Object key) {
+      return _values.containsKey(key) || _unloaded.contains(key);
+   }
+
+   @Override
+   public Set<Entry<K, V>> entrySet() {
+      loadAll();
+      return _values.entrySet();
+   }
+
+   @Override
+   public K firstKey() {
+      if (_unloaded.isEmpty()) {
+         return _values.firstKey();
+      }
+      else if (_values.isEmpty()) {
+         return _unloaded.first();
+      }
+      K first = _values.firstKey();
+      K firstUnloaded = _unloaded.first();
+      return first.compareTo(firstUnloaded) <= 0 ? first : firstUnloaded;
+   }
+
+   @Override
+   public V get(Object key) {
+      V value = _values.get(key);
+      if (value == null && _unloaded.contains(key)) {
+         value = withKeyLock(key, () -> {
+            V v = _values.get(key);
+            if (v == null && _unloaded.contains(key)) {
+               @SuppressWarnings("unchecked")
+               K k = (K) key;
+               v = _loader.apply(k);
+               _values.put(k, v);
+               _unloaded.remove(k);
+            }
+            return v;
+         });
+      }
+      return value;
+   }
+
+   @Override
+   public SortedMap<K, V> headMap(K toKey) {
+      loadAll();
+      return _values.headMap(toKey);
+   }
+
+   /**
+    * Returns true if the value for {@code key} has already been loaded (or
+    * put)
+    */
+   public boolean isLoaded(K key) {
+      return _values.containsKey(key);
+   }
+
+   /**
+    * Returns a live view of the keys, which does not load any values
+    */
+   @Override
+   public Set<K> keySet() {
+      return new AbstractSet<K>() {
+
+         @Override
+         public boolean contains(Object o) {
+            return containsKey(o);
+         }
+
+         @Override
+         public Iterator<K> iterator() {
+            List<K> keys = new ArrayList<>(size());
+            keys.addAll(_values.keySet());
+            keys.addAll(_unloaded);
+            keys.sort(null);
+            Iterator<K> keysIterator = keys.iterator();
+            return new Iterator<K>() {
+
+               private K _current;
+
+               @Override
+               public boolean hasNext() {
+                  return keysIterator.hasNext();
+               }
+
+               @Override
+               public K next() {
+                  _current = keysIterator.next();
+                  return _current;
+               }
+
+               @Override
+               public void remove() {
+                  LazySortedMap.this.remove(_current);
+               }
+
+            };
+         }
+
+         @Override
+         public boolean remove(Object o) {
+            boolean contained = containsKey(o);
+            LazySortedMap.this.remove(o);
+            return contained;
+         }
+
+         @Override
+         public int size() {
+            return LazySortedMap.this.size();
+         }
+
+      };
+   }
+
+   @Override
+   public K lastKey() {
+      if (_unloaded.isEmpty()) {
+         return _values.lastKey();
+      }
+      else if (_values.isEmpty()) {
+         return _unloaded.last();
+      }
+      K last = _values.lastKey();
+      K lastUnloaded = _unloaded.last();
+      return last.compareTo(lastUnloaded) >= 0 ? last : lastUnloaded;
+   }
+
+   /**
+    * Loads every value that has not been loaded yet
+    */
+   public void loadAll() {
+      if (_unloaded.isEmpty()) {
+         return;
+      }
+      new ArrayList<>(_unloaded).parallelStream().forEach(this::get);
+   }
+
+   @Override
+   public V put(K key, V value) {
+      return withKeyLock(key, () -> {
+         _unloaded.remove(key);
+         return _values.put(key, value);
+      });
+   }
+
+   @Override
+   public V remove(Object key) {
+      return withKeyLock(key, () -> {
+         _unloaded.remove(key);
+         return _values.remove(key);
+      });
+   }
+
+   @Override
+   public int size() {
+      return _values.size() + _unloaded.size();
+   }
+
+   @Override
+   public SortedMap<K, V> subMap(K fromKey, K toKey) {
+      loadAll();
+      return _values.subMap(fromKey, toKey);
+   }
+
+   @Override
+   public SortedMap<K, V> tailMap(K fromKey) {
+      loadAll();
+      return _values.tailMap(fromKey);
+   }
+
+   @Override
+   public Collection<V> values() {
+      loadAll();
+      return _values.values();
+   }
+
+   /**
+    * Runs {@code action} holding the lock of {@code key}, so that a value is
+    * never loaded over one that is being put or removed
+    */
+   private <T> T withKeyLock(Object key, Supplier<T> action) {
+      Object lock = _locks.computeIfAbsent(key, k -> new Object());
+      synchronized (lock) {
+         return action.get();
+      }
+   }
+
+}
@@ -0,0 +1,23 @@
+package org.batfish.common.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Serializable;
+
+/**
+ * Converts objects persisted by batfish to and from their uncompressed
+ * on-disk representation
+ */
+public interface ObjectSerializer {
+
+   /**
+    * Returns true if {@code data} looks like it was written by this serializer
+    */
+   boolean canDeserialize(byte[] data);
+
+   Object deserialize(byte[] data, ClassLoader classLoader)
+         throws IOException, ClassNotFoundException;
+
+   void serialize(Serializable object, OutputStream out) throws IOException;
+
+}
@@ -0,0 +1,34 @@
+package org.batfish.common.util;
+
+/**
+ * Formats in which batfish can persist serialized objects. Data in any of
+ * these formats can be read regardless of the format selected for writing.
+ */
+public enum SerializationFormat {
+   JAVA(new JavaObjectSerializer()),
+   TEXT(new XStreamObjectSerializer());
+
+   /**
+    * Returns the format in which {@code data} was written, or null if it
+    * matches none of them
+    */
+   public static SerializationFormat detect(byte[] data) {
+      for (SerializationFormat format : values()) {
+         if (format._serializer.canDeserialize(data)) {
+            return format;
+         }
+      }
+      return null;
+   }
+
+   private final ObjectSerializer _serializer;
+
+   private SerializationFormat(ObjectSerializer serializer) {
+      _serializer = serializer;
+   }
+
+   public ObjectSerializer getSerializer() {
+      return _serializer;
+   }
+
+}
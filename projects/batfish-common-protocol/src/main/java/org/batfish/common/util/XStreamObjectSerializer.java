@@ -0,0 +1,43 @@
+package org.batfish.common.util;
+
+import com.thoughtworks.xstream.XStream;
+import com.thoughtworks.xstream.io.xml.DomDriver;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+
+/**
+ * Human-readable XML serialization via XStream
+ */
+public class XStreamObjectSerializer implements ObjectSerializer {
+
+   @Override
+   public boolean canDeserialize(byte[] data) {
+      return data.length > 0 && data[0] == '<';
+   }
+
+   @Override
+   public Object deserialize(byte[] data, ClassLoader classLoader)
+         throws IOException, ClassNotFoundException {
+      XStream xstream = new XStream(new DomDriver("UTF-8"));
+      xstream.setClassLoader(classLoader);
+      try (ObjectInputStream ois = xstream
+            .createObjectInputStream(new ByteArrayInputStream(data))) {
+         return ois.readObject();
+      }
+   }
+
+   @Override
+   public void serialize(Serializable object, OutputStream out)
+         throws IOException {
+      XStream xstream = new XStream(new DomDriver("UTF-8"));
+      ObjectOutputStream oos = xstream.createObjectOutputStream(out);
+      oos.writeObject(object);
+      // closing finishes the enclosing XML document
+      oos.close();
+   }
+
+}
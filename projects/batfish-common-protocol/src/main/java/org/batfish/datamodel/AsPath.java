@@ -17,6 +17,8 @@ public class AsPath implements Serializable, Comparable<AsPath> {
 
    private final List<SortedSet<Integer>> _asSets;
 
+   private transient int _hashCode;
+
    @JsonCreator
    public AsPath(List<SortedSet<Integer>> asSets) {
       _asSets = copyAsSets(asSets);
@@ -115,7 +117,12 @@ public class AsPath implements Serializable, Comparable<AsPath> {
 
    @Override
    public int hashCode() {
-      return _asSets.hashCode();
+      int hashCode = _hashCode;
+      if (hashCode == 0) {
+         hashCode = _asSets.hashCode();
+         _hashCode = hashCode;
+      }
+      return hashCode;
    }
 
    public int size() {
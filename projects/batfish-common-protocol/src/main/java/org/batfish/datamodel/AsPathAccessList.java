@@ -10,10 +10,8 @@ import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Map;
+import org.apache.commons.collections4.map.LRUMap;
 import org.batfish.common.util.ComparableStructure;
 
 @JsonSchemaDescription("An AsPathAccessList is used to filter e/iBGP routes according to their AS-path attribute.")
@@ -22,17 +20,26 @@ public final class AsPathAccessList extends ComparableStructure<String>
 
    private static final String LINES_VAR = "lines";
 
+   private static final int MAX_CACHED_AS_PATHS = 4096;
+
    private static final long serialVersionUID = 1L;
 
-   private transient Set<AsPath> _deniedCache;
+   private static Map<AsPath, Boolean> newPermitsCache() {
+      return Collections.synchronizedMap(
+            new LRUMap<AsPath, Boolean>(MAX_CACHED_AS_PATHS, 16));
+   }
 
    private final List<AsPathAccessListLine> _lines;
 
-   private transient Set<AsPath> _permittedCache;
+   /**
+    * Whether each recently checked AS-path is permitted
+    */
+   private transient Map<AsPath, Boolean> _permitsCache;
 
    public AsPathAccessList(String name) {
       super(name);
       _lines = new ArrayList<>();
+      _permitsCache = newPermitsCache();
    }
 
    @JsonCreator
@@ -41,6 +48,7 @@ public final class AsPathAccessList extends ComparableStructure<String>
          @JsonProperty(LINES_VAR) List<AsPathAccessListLine> lines) {
       super(name);
       _lines = lines;
+      _permitsCache = newPermitsCache();
    }
 
    @Override
@@ -59,42 +67,28 @@ public final class AsPathAccessList extends ComparableStructure<String>
    }
 
    private boolean newPermits(AsPath asPath) {
-      boolean accept = false;
+      String asPathString = asPath.getAsPathString();
       for (AsPathAccessListLine line : _lines) {
-         String regex = line.getRegex();
-         Pattern p = Pattern.compile(regex);
-         String asPathString = asPath.getAsPathString();
-         Matcher matcher = p.matcher(asPathString);
-         boolean match = matcher.find();
-         if (match) {
-            accept = line.getAction() == LineAction.ACCEPT;
-            break;
+         if (line.getCompiledRegex().matcher(asPathString).find()) {
+            return line.getAction() == LineAction.ACCEPT;
          }
       }
-      if (accept) {
-         _permittedCache.add(asPath);
-      }
-      else {
-         _deniedCache.add(asPath);
-      }
-      return accept;
+      return false;
    }
 
    public boolean permits(AsPath asPath) {
-      if (_deniedCache.contains(asPath)) {
-         return false;
-      }
-      else if (_permittedCache.contains(asPath)) {
-         return true;
+      Boolean permits = _permitsCache.get(asPath);
+      if (permits == null) {
+         permits = newPermits(asPath);
+         _permitsCache.put(asPath, permits);
       }
-      return newPermits(asPath);
+      return permits;
    }
 
    private void readObject(ObjectInputStream in)
          throws IOException, ClassNotFoundException {
       in.defaultReadObject();
-      _deniedCache = Collections.newSetFromMap(new ConcurrentHashMap<>());
-      _permittedCache = Collections.newSetFromMap(new ConcurrentHashMap<>());
+      _permitsCache = newPermitsCache();
    }
 
 }
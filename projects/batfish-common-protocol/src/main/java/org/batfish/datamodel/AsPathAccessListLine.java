@@ -1,8 +1,10 @@
 package org.batfish.datamodel;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonPropertyDescription;
 import com.kjetland.jackson.jsonSchema.annotations.JsonSchemaDescription;
 import java.io.Serializable;
+import java.util.regex.Pattern;
 
 @JsonSchemaDescription("A line in an AsPathAccessList")
 public final class AsPathAccessListLine
@@ -12,6 +14,8 @@ public final class AsPathAccessListLine
 
    private LineAction _action;
 
+   private transient volatile Pattern _compiledRegex;
+
    private String _regex;
 
    @Override
@@ -40,6 +44,19 @@ public final class AsPathAccessListLine
       return _action;
    }
 
+   /**
+    * Returns {@link #getRegex()} compiled on first use
+    */
+   @JsonIgnore
+   public Pattern getCompiledRegex() {
+      Pattern compiledRegex = _compiledRegex;
+      if (compiledRegex == null) {
+         compiledRegex = Pattern.compile(_regex);
+         _compiledRegex = compiledRegex;
+      }
+      return compiledRegex;
+   }
+
    @JsonPropertyDescription("The regex against which a route's AS-path will be compared")
    public String getRegex() {
       return _regex;
@@ -60,6 +77,7 @@ public final class AsPathAccessListLine
 
    public void setRegex(String regex) {
       _regex = regex;
+      _compiledRegex = null;
    }
 
 }
@@ -3,8 +3,10 @@ package org.batfish.datamodel;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.collect.ImmutableSortedSet;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 import java.util.SortedSet;
 import java.util.TreeSet;
@@ -130,6 +132,12 @@ public class BgpRoute extends AbstractRoute {
 
    }
 
+   /**
+    * Canonical AS paths shared by all routes
+    */
+   private static final Interner<AsPath> AS_PATHS = Interners
+         .newWeakInterner();
+
    private static final String AS_PATH_VAR = "asPath";
 
    private static final String CLUSTER_LIST_VAR = "clusterList";
@@ -140,6 +148,12 @@ public class BgpRoute extends AbstractRoute {
 
    private static final String LOCAL_PREFERENCE_VAR = "localPreference";
 
+   /**
+    * Canonical community sets and cluster lists shared by all routes
+    */
+   private static final Interner<SortedSet<Long>> LONG_SETS = Interners
+         .newWeakInterner();
+
    private static final String ORIGIN_TYPE_VAR = "originType";
 
    private static final String ORIGINATOR_IP_VAR = "originatorIp";
@@ -156,6 +170,11 @@ public class BgpRoute extends AbstractRoute {
 
    private static final String WEIGHT_VAR = "weight";
 
+   private static SortedSet<Long> internLongs(SortedSet<Long> longs) {
+      return LONG_SETS.intern(longs != null ? ImmutableSortedSet.copyOf(longs)
+            : ImmutableSortedSet.of());
+   }
+
    private final int _admin;
 
    private final AsPath _asPath;
@@ -164,6 +183,8 @@ public class BgpRoute extends AbstractRoute {
 
    private final SortedSet<Long> _communities;
 
+   private transient int _hashCode;
+
    private final int _localPreference;
 
    private final int _med;
@@ -200,9 +221,9 @@ public class BgpRoute extends AbstractRoute {
          @JsonProperty(WEIGHT_VAR) int weight) {
       super(network);
       _admin = admin;
-      _asPath = asPath;
-      _clusterList = clusterList != null ? clusterList : new TreeSet<>();
-      _communities = communities != null ? communities : new TreeSet<>();
+      _asPath = asPath != null ? AS_PATHS.intern(asPath) : null;
+      _clusterList = internLongs(clusterList);
+      _communities = internLongs(communities);
       _localPreference = localPreference;
       _med = med;
       _nextHopIp = nextHopIp;
@@ -283,12 +304,12 @@ public class BgpRoute extends AbstractRoute {
 
    @JsonProperty(CLUSTER_LIST_VAR)
    public SortedSet<Long> getClusterList() {
-      return Collections.unmodifiableSortedSet(_clusterList);
+      return _clusterList;
    }
 
    @JsonProperty(COMMUNITIES_VAR)
    public SortedSet<Long> getCommunities() {
-      return Collections.unmodifiableSortedSet(_communities);
+      return _communities;
    }
 
    @JsonProperty(LOCAL_PREFERENCE_VAR)
@@ -354,6 +375,9 @@ public class BgpRoute extends AbstractRoute {
 
    @Override
    public int hashCode() {
+      if (_hashCode != 0) {
+         return _hashCode;
+      }
       final int prime = 31;
       int result = 1;
       result = prime * result + _admin;
@@ -372,6 +396,7 @@ public class BgpRoute extends AbstractRoute {
             + ((_originatorIp == null) ? 0 : _originatorIp.hashCode());
       result = prime * result + ((_protocol == null) ? 0 : _protocol.ordinal());
       result = prime * result + _weight;
+      _hashCode = result;
       return result;
    }
 
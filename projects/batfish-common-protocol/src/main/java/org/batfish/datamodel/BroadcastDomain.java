@@ -0,0 +1,66 @@
+package org.batfish.datamodel;
+
+import java.io.Serializable;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import org.batfish.datamodel.collections.EdgeSet;
+import org.batfish.datamodel.collections.NodeInterfacePair;
+
+/**
+ * A set of interfaces attached to the same layer-3 segment, every ordered
+ * pair of which is connected by an edge. Stands for those edges without
+ * enumerating them, so its size is linear in the number of interfaces.
+ */
+public class BroadcastDomain implements Serializable {
+
+   /**
+    *
+    */
+   private static final long serialVersionUID = 1L;
+
+   private final SortedSet<NodeInterfacePair> _interfaces;
+
+   private final Prefix _network;
+
+   public BroadcastDomain(Prefix network,
+         SortedSet<NodeInterfacePair> interfaces) {
+      _network = network;
+      _interfaces = new TreeSet<>(interfaces);
+   }
+
+   /**
+    * Returns the edge between every ordered pair of distinct interfaces in
+    * this domain
+    */
+   public EdgeSet getEdges() {
+      EdgeSet edges = new EdgeSet();
+      for (NodeInterfacePair i1 : _interfaces) {
+         for (NodeInterfacePair i2 : _interfaces) {
+            if (!i1.equals(i2)) {
+               edges.add(new Edge(i1, i2));
+            }
+         }
+      }
+      return edges;
+   }
+
+   public SortedSet<NodeInterfacePair> getInterfaces() {
+      return _interfaces;
+   }
+
+   /**
+    * Returns the subnet shared by the interfaces in this domain
+    */
+   public Prefix getNetwork() {
+      return _network;
+   }
+
+   public boolean removeInterface(NodeInterfacePair iface) {
+      return _interfaces.remove(iface);
+   }
+
+   public boolean removeNode(String hostname) {
+      return _interfaces.removeIf(i -> i.getHostname().equals(hostname));
+   }
+
+}
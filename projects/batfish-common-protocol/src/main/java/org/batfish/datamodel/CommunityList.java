@@ -8,10 +8,8 @@ import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.util.Collections;
 import java.util.List;
-import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Map;
+import org.apache.commons.collections4.map.LRUMap;
 import org.batfish.common.util.CommonUtil;
 import org.batfish.common.util.ComparableStructure;
 
@@ -20,12 +18,17 @@ public class CommunityList extends ComparableStructure<String> {
 
    private static final String LINES_VAR = "lines";
 
+   private static final int MAX_CACHED_COMMUNITIES = 1024;
+
    /**
     *
     */
    private static final long serialVersionUID = 1L;
 
-   private transient Set<Long> _deniedCache;
+   private static Map<Long, Boolean> newPermitsCache() {
+      return Collections.synchronizedMap(
+            new LRUMap<Long, Boolean>(MAX_CACHED_COMMUNITIES, 16));
+   }
 
    private boolean _invertMatch;
 
@@ -35,7 +38,10 @@ public class CommunityList extends ComparableStructure<String> {
     */
    private final List<CommunityListLine> _lines;
 
-   private transient Set<Long> _permittedCache;
+   /**
+    * Whether each recently checked community is permitted
+    */
+   private transient Map<Long, Boolean> _permitsCache;
 
    /**
     * Constructs a CommunityList with the given name for {@link #_name}, and
@@ -50,6 +56,7 @@ public class CommunityList extends ComparableStructure<String> {
          @JsonProperty(LINES_VAR) List<CommunityListLine> lines) {
       super(name);
       _lines = lines;
+      _permitsCache = newPermitsCache();
    }
 
    @Override
@@ -76,11 +83,9 @@ public class CommunityList extends ComparableStructure<String> {
       boolean accept = false;
       boolean match = false;
       Boolean matchingLineAccepts = null;
+      String communityStr = CommonUtil.longToCommunity(community);
       for (CommunityListLine line : _lines) {
-         Pattern p = Pattern.compile(line.getRegex());
-         String communityStr = CommonUtil.longToCommunity(community);
-         Matcher matcher = p.matcher(communityStr);
-         if (matcher.find()) {
+         if (line.getCompiledRegex().matcher(communityStr).find()) {
             match = true;
             matchingLineAccepts = line.getAction() == LineAction.ACCEPT;
             break;
@@ -94,34 +99,27 @@ public class CommunityList extends ComparableStructure<String> {
             accept = matchingLineAccepts;
          }
       }
-      if (accept) {
-         _permittedCache.add(community);
-      }
-      else {
-         _deniedCache.add(community);
-      }
       return accept;
    }
 
    public boolean permits(long community) {
-      // if (_permittedCache.contains(community)) {
-      // return true;
-      // }
-      // else if (_deniedCache.contains(community)) {
-      // return false;
-      // }
-      return newPermits(community);
+      Boolean permits = _permitsCache.get(community);
+      if (permits == null) {
+         permits = newPermits(community);
+         _permitsCache.put(community, permits);
+      }
+      return permits;
    }
 
    private void readObject(ObjectInputStream in)
          throws IOException, ClassNotFoundException {
       in.defaultReadObject();
-      _deniedCache = Collections.newSetFromMap(new ConcurrentHashMap<>());
-      _permittedCache = Collections.newSetFromMap(new ConcurrentHashMap<>());
+      _permitsCache = newPermitsCache();
    }
 
    public void setInvertMatch(boolean invertMatch) {
       _invertMatch = invertMatch;
+      _permitsCache.clear();
    }
 
 }
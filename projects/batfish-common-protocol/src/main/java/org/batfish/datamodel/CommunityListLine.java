@@ -1,6 +1,7 @@
 package org.batfish.datamodel;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonPropertyDescription;
 import com.kjetland.jackson.jsonSchema.annotations.JsonSchemaDescription;
@@ -22,6 +23,8 @@ public class CommunityListLine implements Serializable {
 
    private final LineAction _action;
 
+   private transient volatile Pattern _compiledRegex;
+
    private final String _regex;
 
    @JsonCreator
@@ -53,8 +56,21 @@ public class CommunityListLine implements Serializable {
       return _action;
    }
 
+   /**
+    * Returns {@link #getRegex()} compiled on first use
+    */
+   @JsonIgnore
+   public Pattern getCompiledRegex() {
+      Pattern compiledRegex = _compiledRegex;
+      if (compiledRegex == null) {
+         compiledRegex = Pattern.compile(_regex);
+         _compiledRegex = compiledRegex;
+      }
+      return compiledRegex;
+   }
+
    public Set<Long> getExactMatchingCommunities(Set<Long> allCommunities) {
-      Pattern p = Pattern.compile(_regex);
+      Pattern p = getCompiledRegex();
       Set<Long> matchingCommunitites = new LinkedHashSet<>();
       for (long candidateCommunity : allCommunities) {
          String candidateCommunityStr = CommonUtil
@@ -70,7 +86,7 @@ public class CommunityListLine implements Serializable {
    public Set<Long> getMatchingCommunities(
          Set<Long> allCommunities,
          boolean invertMatch) {
-      Pattern p = Pattern.compile(_regex);
+      Pattern p = getCompiledRegex();
       Set<Long> matchingCommunitites = new LinkedHashSet<>();
       for (long candidateCommunity : allCommunities) {
          String candidateCommunityStr = CommonUtil
@@ -141,6 +141,8 @@ public final class Configuration extends ComparableStructure<String> {
 
    private RoleSet _roles;
 
+   private transient boolean _routingPolicyReferencesResolved;
+
    private NavigableMap<String, Route6FilterList> _route6FilterLists;
 
    private NavigableMap<String, RouteFilterList> _routeFilterLists;
@@ -502,6 +504,21 @@ public final class Configuration extends ComparableStructure<String> {
       }
    }
 
+   /**
+    * Looks up the structures named within each routing policy once, ahead of
+    * processing many routes with them. Only the first call has any effect, so
+    * tasks sharing this configuration do not rewrite the resolved references.
+    */
+   public synchronized void resolveRoutingPolicyReferences() {
+      if (_routingPolicyReferencesResolved) {
+         return;
+      }
+      _routingPolicyReferencesResolved = true;
+      for (RoutingPolicy routingPolicy : _routingPolicies.values()) {
+         routingPolicy.resolveReferences();
+      }
+   }
+
    @JsonProperty(AS_PATH_ACCESS_LISTS_VAR)
    public void setAsPathAccessLists(
          NavigableMap<String, AsPathAccessList> asPathAccessLists) {
@@ -2,7 +2,6 @@ package org.batfish.datamodel;
 
 import java.io.Serializable;
 import java.util.SortedMap;
-import org.batfish.datamodel.collections.EdgeSet;
 import org.batfish.datamodel.collections.FibMap;
 import org.batfish.datamodel.collections.InterfaceSet;
 import org.batfish.datamodel.collections.PolicyRouteFibNodeMap;
@@ -17,6 +16,6 @@ public interface DataPlane extends Serializable {
 
    SortedMap<String, SortedMap<String, IRib<AbstractRoute>>> getRibs();
 
-   EdgeSet getTopologyEdges();
+   Topology getTopology();
 
 }
@@ -4,10 +4,11 @@ import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonIdentityInfo;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.ObjectIdGenerators;
+import java.io.Serializable;
 import org.batfish.common.BatfishException;
 
 @JsonIdentityInfo(generator = ObjectIdGenerators.IntSequenceGenerator.class, property = "@id")
-public final class Flow implements Comparable<Flow> {
+public final class Flow implements Comparable<Flow>, Serializable {
 
    public static class Builder {
 
@@ -348,6 +349,11 @@ public final class Flow implements Comparable<Flow> {
 
    private static final String PACKET_LENGTH_VAR = "packetLength";
 
+   /**
+    *
+    */
+   private static final long serialVersionUID = 1L;
+
    private static final String SRC_IP_VAR = "srcIp";
 
    private static final String SRC_PORT_VAR = "srcPort";
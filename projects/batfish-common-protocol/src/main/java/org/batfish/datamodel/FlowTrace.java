@@ -1,16 +1,22 @@
 package org.batfish.datamodel;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import java.io.Serializable;
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 
-public class FlowTrace implements Comparable<FlowTrace> {
+public class FlowTrace implements Comparable<FlowTrace>, Serializable {
 
    private final static String DISPOSITION_VAR = "disposition";
    private final static String HOPS_VAR = "hops";
    private final static String NOTES_VAR = "notes";
 
+   /**
+    *
+    */
+   private static final long serialVersionUID = 1L;
+
    private final FlowDisposition _disposition;
 
    private final List<FlowTraceHop> _hops;
@@ -3,23 +3,14 @@ package org.batfish.datamodel;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonValue;
 import java.io.Serializable;
-import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
-import java.util.BitSet;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 import org.batfish.common.BatfishException;
 
 public class Ip implements Comparable<Ip>, Serializable {
 
-   private static Map<Ip, BitSet> _addressBitsCache = new ConcurrentHashMap<>();
-
    public static final Ip AUTO = new Ip(-1l);
 
    public static final Ip MAX = new Ip(0xFFFFFFFFl);
 
-   private static final int NUM_BYTES = 4;
-
    private static final long serialVersionUID = 1L;
 
    public static final Ip ZERO = new Ip(0l);
@@ -94,23 +85,12 @@ public class Ip implements Comparable<Ip>, Serializable {
       return _ip == rhs._ip;
    }
 
-   public BitSet getAddressBits() {
-      BitSet bits = _addressBitsCache.get(this);
-      if (bits == null) {
-         int addressAsInt = (int) (_ip);
-         ByteBuffer b = ByteBuffer.allocate(NUM_BYTES);
-         b.order(ByteOrder.LITTLE_ENDIAN); // optional, the initial order of a
-         // byte
-         // buffer is always BIG_ENDIAN.
-         b.putInt(addressAsInt);
-         BitSet bitsWithHighestMostSignificant = BitSet.valueOf(b.array());
-         bits = new BitSet(Prefix.MAX_PREFIX_LENGTH);
-         for (int i = Prefix.MAX_PREFIX_LENGTH - 1, j = 0; i >= 0; i--, j++) {
-            bits.set(j, bitsWithHighestMostSignificant.get(i));
-         }
-         _addressBitsCache.put(this, bits);
-      }
-      return bits;
+   /**
+    * Returns the value of the bit at position {@code index} of this address,
+    * where index 0 is the most significant bit
+    */
+   public boolean getBit(int index) {
+      return ((_ip >> (Prefix.MAX_PREFIX_LENGTH - 1 - index)) & 1l) == 1l;
    }
 
    public Ip getClassMask() {
@@ -12,6 +12,11 @@ public class IpAccessList extends ComparableStructure<String> {
 
    private static final String LINES_VAR = "lines";
 
+   /**
+    * Lists with fewer lines than this are always evaluated linearly
+    */
+   private static final int MIN_COMPILED_LINES = 8;
+
    private static final long serialVersionUID = 1L;
 
    static boolean bothNullOrSameName(IpAccessList a, IpAccessList b) {
@@ -40,6 +45,12 @@ public class IpAccessList extends ComparableStructure<String> {
 
    private List<IpAccessListLine> _lines;
 
+   /**
+    * Compiled form of {@link #_lines}, built on the first call to
+    * {@link #filter} and discarded by {@link #setLines}
+    */
+   private transient IpAccessListMatcher _matcher;
+
    @JsonCreator
    public IpAccessList(@JsonProperty(NAME_VAR) String name) {
       super(name);
@@ -59,7 +70,28 @@ public class IpAccessList extends ComparableStructure<String> {
       return other._lines.equals(_lines);
    }
 
+   /**
+    * Returns the result of filtering {@code flow} with this list. Long lists
+    * are compiled into an index over their lines on first use, so lines must
+    * not be modified in place afterwards.
+    */
    public FilterResult filter(Flow flow) {
+      if (_lines.size() < MIN_COMPILED_LINES) {
+         return filterLinear(flow);
+      }
+      IpAccessListMatcher matcher = _matcher;
+      if (matcher == null) {
+         matcher = new IpAccessListMatcher(_lines);
+         _matcher = matcher;
+      }
+      return matcher.filter(flow);
+   }
+
+   /**
+    * Returns the result of filtering {@code flow} by checking each line in
+    * order
+    */
+   FilterResult filterLinear(Flow flow) {
       for (int i = 0; i < _lines.size(); i++) {
          IpAccessListLine line = _lines.get(i);
          if (line.matches(flow)) {
@@ -90,6 +122,7 @@ public class IpAccessList extends ComparableStructure<String> {
    @JsonProperty(LINES_VAR)
    public void setLines(List<IpAccessListLine> lines) {
       _lines = lines;
+      _matcher = null;
    }
 
    @Override
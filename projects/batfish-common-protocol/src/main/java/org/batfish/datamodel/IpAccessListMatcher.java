@@ -0,0 +1,225 @@
+package org.batfish.datamodel;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.function.Function;
+
+/**
+ * Compiled form of the lines of an {@link IpAccessList}. Per-field indexes on
+ * source and destination IP, source and destination port, and IP protocol
+ * each yield the set of lines that can possibly match a flow; only the lines
+ * in the intersection of those sets are then checked in order with
+ * {@link IpAccessListLine#matches}, so the result is always that of
+ * evaluating the lines linearly.
+ */
+final class IpAccessListMatcher {
+
+   /**
+    * Index from an IP address to the lines whose wildcards on one field might
+    * contain it. Lines whose wildcards are all prefixes are stored in a binary
+    * trie; the rest are always candidates.
+    */
+   private static final class IpIndex {
+
+      private static final class Node {
+
+         private Node _left;
+
+         private final BitSet _lines = new BitSet();
+
+         private Node _right;
+
+      }
+
+      private final BitSet _alwaysCandidates;
+
+      private final Node _root;
+
+      public IpIndex(List<IpAccessListLine> lines,
+            Function<HeaderSpace, SortedSet<IpWildcard>> field) {
+         _alwaysCandidates = new BitSet();
+         _root = new Node();
+         for (int i = 0; i < lines.size(); i++) {
+            SortedSet<IpWildcard> wildcards = field.apply(lines.get(i));
+            if (wildcards.isEmpty()
+                  || !wildcards.stream().allMatch(IpWildcard::isPrefix)) {
+               _alwaysCandidates.set(i);
+               continue;
+            }
+            for (IpWildcard wildcard : wildcards) {
+               Ip ip = wildcard.getIp();
+               long wildcardBits = wildcard.getWildcard().asLong();
+               int prefixLength = Prefix.MAX_PREFIX_LENGTH
+                     - Long.numberOfTrailingZeros(wildcardBits + 1);
+               Node node = _root;
+               for (int bit = 0; bit < prefixLength; bit++) {
+                  if (ip.getBit(bit)) {
+                     if (node._right == null) {
+                        node._right = new Node();
+                     }
+                     node = node._right;
+                  }
+                  else {
+                     if (node._left == null) {
+                        node._left = new Node();
+                     }
+                     node = node._left;
+                  }
+               }
+               node._lines.set(i);
+            }
+         }
+      }
+
+      public BitSet candidates(Ip ip) {
+         BitSet candidates = (BitSet) _alwaysCandidates.clone();
+         Node node = _root;
+         for (int bit = 0; node != null; bit++) {
+            candidates.or(node._lines);
+            if (bit == Prefix.MAX_PREFIX_LENGTH) {
+               break;
+            }
+            node = ip.getBit(bit) ? node._right : node._left;
+         }
+         return candidates;
+      }
+
+   }
+
+   /**
+    * Index from a number to the lines whose ranges on one field might contain
+    * it. The number line is split into the intervals delimited by the range
+    * endpoints of all lines, each with the lines containing it.
+    */
+   private static final class RangeIndex {
+
+      /**
+       * Lines for each interval, where the first interval lies below
+       * {@link #_starts}[0]
+       */
+      private final BitSet[] _intervalLines;
+
+      private final int[] _starts;
+
+      public RangeIndex(List<IpAccessListLine> lines,
+            Function<HeaderSpace, SortedSet<SubRange>> field) {
+         SortedSet<Integer> starts = new TreeSet<>();
+         for (IpAccessListLine line : lines) {
+            for (SubRange range : field.apply(line)) {
+               starts.add(range.getStart());
+               starts.add(range.getEnd() + 1);
+            }
+         }
+         _starts = starts.stream().mapToInt(Integer::intValue).toArray();
+         _intervalLines = new BitSet[_starts.length + 1];
+         for (int j = 0; j < _intervalLines.length; j++) {
+            _intervalLines[j] = new BitSet();
+         }
+         for (int i = 0; i < lines.size(); i++) {
+            SortedSet<SubRange> ranges = field.apply(lines.get(i));
+            if (ranges.isEmpty()) {
+               for (BitSet intervalLines : _intervalLines) {
+                  intervalLines.set(i);
+               }
+               continue;
+            }
+            for (SubRange range : ranges) {
+               int first = interval(range.getStart());
+               int last = interval(range.getEnd());
+               for (int j = first; j <= last; j++) {
+                  _intervalLines[j].set(i);
+               }
+            }
+         }
+      }
+
+      public BitSet candidates(int num) {
+         return _intervalLines[interval(num)];
+      }
+
+      private int interval(int num) {
+         int index = Arrays.binarySearch(_starts, num);
+         return index >= 0 ? index + 1 : -index - 1;
+      }
+
+   }
+
+   private final BitSet _anyProtocolLines;
+
+   private final IpIndex _dstIps;
+
+   private final RangeIndex _dstPorts;
+
+   /**
+    * Lines that may match each IP protocol, including those matching any
+    */
+   private final Map<IpProtocol, BitSet> _ipProtocolLines;
+
+   private final List<IpAccessListLine> _lines;
+
+   private final IpIndex _srcIps;
+
+   private final RangeIndex _srcPorts;
+
+   public IpAccessListMatcher(List<IpAccessListLine> lines) {
+      _lines = new ArrayList<>(lines);
+      _dstIps = new IpIndex(_lines, HeaderSpace::getDstIps);
+      _srcIps = new IpIndex(_lines, HeaderSpace::getSrcIps);
+      _dstPorts = new RangeIndex(_lines, HeaderSpace::getDstPorts);
+      _srcPorts = new RangeIndex(_lines, HeaderSpace::getSrcPorts);
+      _anyProtocolLines = new BitSet();
+      _ipProtocolLines = new EnumMap<>(IpProtocol.class);
+      for (int i = 0; i < _lines.size(); i++) {
+         SortedSet<IpProtocol> ipProtocols = _lines.get(i).getIpProtocols();
+         if (ipProtocols.isEmpty()) {
+            _anyProtocolLines.set(i);
+         }
+         for (IpProtocol ipProtocol : ipProtocols) {
+            _ipProtocolLines
+                  .computeIfAbsent(ipProtocol, p -> new BitSet())
+                  .set(i);
+         }
+      }
+      _ipProtocolLines.values()
+            .forEach(protocolLines -> protocolLines.or(_anyProtocolLines));
+   }
+
+   public FilterResult filter(Flow flow) {
+      BitSet candidates;
+      if (flow.getDstIp() != null) {
+         candidates = _dstIps.candidates(flow.getDstIp());
+      }
+      else {
+         candidates = new BitSet();
+         candidates.set(0, _lines.size());
+      }
+      if (flow.getSrcIp() != null) {
+         candidates.and(_srcIps.candidates(flow.getSrcIp()));
+      }
+      if (flow.getDstPort() != null) {
+         candidates.and(_dstPorts.candidates(flow.getDstPort()));
+      }
+      if (flow.getSrcPort() != null) {
+         candidates.and(_srcPorts.candidates(flow.getSrcPort()));
+      }
+      if (flow.getIpProtocol() != null) {
+         candidates.and(_ipProtocolLines.getOrDefault(flow.getIpProtocol(),
+               _anyProtocolLines));
+      }
+      for (int i = candidates.nextSetBit(0); i >= 0; i = candidates
+            .nextSetBit(i + 1)) {
+         IpAccessListLine line = _lines.get(i);
+         if (line.matches(flow)) {
+            return new FilterResult(i, line.getAction());
+         }
+      }
+      return new FilterResult(null, LineAction.REJECT);
+   }
+
+}
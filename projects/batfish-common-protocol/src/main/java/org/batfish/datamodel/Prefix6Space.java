@@ -4,11 +4,6 @@ import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonValue;
 import java.io.Serializable;
-import java.math.BigInteger;
-import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
-import java.util.Arrays;
-import java.util.BitSet;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -30,8 +25,8 @@ public class Prefix6Space implements Serializable {
       public void addPrefix6Range(Prefix6Range prefix6Range) {
          Prefix6 prefix6 = prefix6Range.getPrefix6();
          int prefixLength = prefix6.getPrefixLength();
-         BitSet bits = getAddressBits(prefix6.getAddress());
-         _root.addPrefix6Range(prefix6Range, bits, prefixLength, 0);
+         Ip6 address = prefix6.getAddress();
+         _root.addPrefix6Range(prefix6Range, address, prefixLength, 0);
       }
 
       public void addTrieNodeSpace(BitTrieNode node) {
@@ -49,8 +44,8 @@ public class Prefix6Space implements Serializable {
       public boolean containsPrefix6Range(Prefix6Range prefix6Range) {
          Prefix6 prefix6 = prefix6Range.getPrefix6();
          int prefixLength = prefix6.getPrefixLength();
-         BitSet bits = getAddressBits(prefix6.getAddress());
-         return _root.containsPrefix6Range(prefix6Range, bits, prefixLength, 0);
+         Ip6 address = prefix6.getAddress();
+         return _root.containsPrefix6Range(prefix6Range, address, prefixLength, 0);
       }
 
       public Set<Prefix6Range> getPrefix6Ranges() {
@@ -79,7 +74,7 @@ public class Prefix6Space implements Serializable {
       }
 
       public void addPrefix6Range(
-            Prefix6Range prefix6Range, BitSet bits,
+            Prefix6Range prefix6Range, Ip6 address,
             int prefixLength, int depth) {
          for (Prefix6Range nodeRange : _prefix6Ranges) {
             if (nodeRange.includesPrefix6Range(prefix6Range)) {
@@ -91,19 +86,19 @@ public class Prefix6Space implements Serializable {
             prune(prefix6Range);
          }
          else {
-            boolean currentBit = bits.get(depth);
+            boolean currentBit = address.getBit(depth);
             if (currentBit) {
                if (_right == null) {
                   _right = new BitTrieNode();
                }
-               _right.addPrefix6Range(prefix6Range, bits, prefixLength,
+               _right.addPrefix6Range(prefix6Range, address, prefixLength,
                      depth + 1);
             }
             else {
                if (_left == null) {
                   _left = new BitTrieNode();
                }
-               _left.addPrefix6Range(prefix6Range, bits, prefixLength,
+               _left.addPrefix6Range(prefix6Range, address, prefixLength,
                      depth + 1);
             }
          }
@@ -121,7 +116,7 @@ public class Prefix6Space implements Serializable {
 
       public boolean containsPrefix6Range(
             Prefix6Range prefix6Range,
-            BitSet bits, int prefixLength, int depth) {
+            Ip6 address, int prefixLength, int depth) {
          for (Prefix6Range nodeRange : _prefix6Ranges) {
             if (nodeRange.includesPrefix6Range(prefix6Range)) {
                return true;
@@ -131,13 +126,13 @@ public class Prefix6Space implements Serializable {
             return false;
          }
          else {
-            boolean currentBit = bits.get(depth);
+            boolean currentBit = address.getBit(depth);
             if (currentBit) {
                if (_right == null) {
                   return false;
                }
                else {
-                  return _right.containsPrefix6Range(prefix6Range, bits,
+                  return _right.containsPrefix6Range(prefix6Range, address,
                         prefixLength, depth + 1);
                }
             }
@@ -146,7 +141,7 @@ public class Prefix6Space implements Serializable {
                   return false;
                }
                else {
-                  return _left.containsPrefix6Range(prefix6Range, bits,
+                  return _left.containsPrefix6Range(prefix6Range, address,
                         prefixLength, depth + 1);
                }
             }
@@ -182,31 +177,11 @@ public class Prefix6Space implements Serializable {
 
    }
 
-   private static final int NUM_BITS = 128;
-
    /**
     *
     */
    private static final long serialVersionUID = 1L;
 
-   // TODO: verify that this has been correctly modified for Ip6 / BigInteger
-   private static BitSet getAddressBits(Ip6 address) {
-      int numBytes = NUM_BITS / 8;
-      BigInteger addressAsBigInteger = address.asBigInteger();
-      byte[] addressAsByteArray = addressAsBigInteger.toByteArray();
-      byte[] addressAs128BitByteArray = Arrays.copyOfRange(addressAsByteArray,
-            0, numBytes);
-      ByteBuffer b = ByteBuffer.allocate(numBytes);
-      b.order(ByteOrder.LITTLE_ENDIAN);
-      b.put(addressAs128BitByteArray);
-      BitSet bitsWithHighestMostSignificant = BitSet.valueOf(b.array());
-      BitSet bits = new BitSet(NUM_BITS);
-      for (int i = NUM_BITS - 1, j = 0; i >= 0; i--, j++) {
-         bits.set(j, bitsWithHighestMostSignificant.get(i));
-      }
-      return bits;
-   }
-
    private BitTrie _trie;
 
    public Prefix6Space() {
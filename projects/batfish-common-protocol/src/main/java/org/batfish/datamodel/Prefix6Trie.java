@@ -3,7 +3,6 @@ package org.batfish.datamodel;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonValue;
 import java.io.Serializable;
-import java.util.BitSet;
 import java.util.Collections;
 import java.util.SortedSet;
 import java.util.TreeSet;
@@ -25,19 +24,18 @@ public class Prefix6Trie implements Serializable {
 
       public void addPrefix(Prefix6 prefix6) {
          int prefixLength = prefix6.getPrefixLength();
-         BitSet bits = prefix6.getAddress().getAddressBits();
-         _root.addPrefix6(prefix6, bits, prefixLength, 0);
+         Ip6 address6 = prefix6.getAddress();
+         _root.addPrefix6(prefix6, address6, prefixLength, 0);
       }
 
       public boolean containsPathFromPrefix(Prefix6 prefix6) {
          int prefixLength = prefix6.getPrefixLength();
-         BitSet bits = prefix6.getAddress().getAddressBits();
-         return _root.containsPathFromPrefix(bits, prefixLength, 0);
+         Ip6 address6 = prefix6.getAddress();
+         return _root.containsPathFromPrefix(address6, prefixLength, 0);
       }
 
       public Prefix6 getLongestPrefixMatch(Ip6 address6) {
-         BitSet address6Bits = address6.getAddressBits();
-         return _root.getLongestPrefixMatch(address6, address6Bits, 0);
+         return _root.getLongestPrefixMatch(address6, 0);
       }
 
    }
@@ -56,31 +54,31 @@ public class Prefix6Trie implements Serializable {
       private ByteTrieNode _right;
 
       public void addPrefix6(
-            Prefix6 prefix6, BitSet bits, int prefixLength,
+            Prefix6 prefix6, Ip6 address6, int prefixLength,
             int depth) {
          if (prefixLength == depth) {
             _prefix6 = prefix6;
             return;
          }
          else {
-            boolean currentBit = bits.get(depth);
+            boolean currentBit = address6.getBit(depth);
             if (currentBit) {
                if (_right == null) {
                   _right = new ByteTrieNode();
                }
-               _right.addPrefix6(prefix6, bits, prefixLength, depth + 1);
+               _right.addPrefix6(prefix6, address6, prefixLength, depth + 1);
             }
             else {
                if (_left == null) {
                   _left = new ByteTrieNode();
                }
-               _left.addPrefix6(prefix6, bits, prefixLength, depth + 1);
+               _left.addPrefix6(prefix6, address6, prefixLength, depth + 1);
             }
          }
       }
 
       public boolean containsPathFromPrefix(
-            BitSet bits, int prefixLength,
+            Ip6 address6, int prefixLength,
             int depth) {
          if (prefixLength == depth) {
             if (depth == 0 && _prefix6 == null) {
@@ -91,13 +89,13 @@ public class Prefix6Trie implements Serializable {
             }
          }
          else {
-            boolean currentBit = bits.get(depth);
+            boolean currentBit = address6.getBit(depth);
             if (currentBit) {
                if (_right == null) {
                   return false;
                }
                else {
-                  return _right.containsPathFromPrefix(bits, prefixLength,
+                  return _right.containsPathFromPrefix(address6, prefixLength,
                         depth + 1);
                }
             }
@@ -106,14 +104,14 @@ public class Prefix6Trie implements Serializable {
                   return false;
                }
                else {
-                  return _left.containsPathFromPrefix(bits, prefixLength,
+                  return _left.containsPathFromPrefix(address6, prefixLength,
                         depth + 1);
                }
             }
          }
       }
 
-      private Prefix6 getLongestPrefixMatch(Ip6 address6, BitSet bits) {
+      private Prefix6 getLongestPrefixMatch(Ip6 address6) {
          if (_prefix6.contains(address6)) {
             return _prefix6;
          }
@@ -123,23 +121,23 @@ public class Prefix6Trie implements Serializable {
       }
 
       public Prefix6 getLongestPrefixMatch(
-            Ip6 address6, BitSet bits,
+            Ip6 address6,
             int index) {
-         Prefix6 longestPrefixMatch = getLongestPrefixMatch(address6, bits);
+         Prefix6 longestPrefixMatch = getLongestPrefixMatch(address6);
          if (index == Prefix6.MAX_PREFIX_LENGTH) {
             return longestPrefixMatch;
          }
-         boolean currentBit = bits.get(index);
+         boolean currentBit = address6.getBit(index);
          Prefix6 longerMatch = null;
          if (currentBit) {
             if (_right != null) {
-               longerMatch = _right.getLongestPrefixMatch(address6, bits,
+               longerMatch = _right.getLongestPrefixMatch(address6,
                      index + 1);
             }
          }
          else {
             if (_left != null) {
-               longerMatch = _left.getLongestPrefixMatch(address6, bits,
+               longerMatch = _left.getLongestPrefixMatch(address6,
                      index + 1);
             }
          }
@@ -6,9 +6,6 @@ import com.fasterxml.jackson.annotation.JsonValue;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.Serializable;
-import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
-import java.util.BitSet;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -32,8 +29,8 @@ public class PrefixSpace implements Serializable {
       public void addPrefixRange(PrefixRange prefixRange) {
          Prefix prefix = prefixRange.getPrefix();
          int prefixLength = prefix.getPrefixLength();
-         BitSet bits = getAddressBits(prefix.getAddress());
-         _root.addPrefixRange(prefixRange, bits, prefixLength, 0);
+         Ip address = prefix.getAddress();
+         _root.addPrefixRange(prefixRange, address, prefixLength, 0);
       }
 
       public void addTrieNodeSpace(BitTrieNode node) {
@@ -51,8 +48,8 @@ public class PrefixSpace implements Serializable {
       public boolean containsPrefixRange(PrefixRange prefixRange) {
          Prefix prefix = prefixRange.getPrefix();
          int prefixLength = prefix.getPrefixLength();
-         BitSet bits = getAddressBits(prefix.getAddress());
-         return _root.containsPrefixRange(prefixRange, bits, prefixLength, 0);
+         Ip address = prefix.getAddress();
+         return _root.containsPrefixRange(prefixRange, address, prefixLength, 0);
       }
 
       public Set<PrefixRange> getPrefixRanges() {
@@ -81,7 +78,7 @@ public class PrefixSpace implements Serializable {
       }
 
       public void addPrefixRange(
-            PrefixRange prefixRange, BitSet bits,
+            PrefixRange prefixRange, Ip address,
             int prefixLength, int depth) {
          for (PrefixRange nodeRange : _prefixRanges) {
             if (nodeRange.includesPrefixRange(prefixRange)) {
@@ -93,19 +90,19 @@ public class PrefixSpace implements Serializable {
             prune(prefixRange);
          }
          else {
-            boolean currentBit = bits.get(depth);
+            boolean currentBit = address.getBit(depth);
             if (currentBit) {
                if (_right == null) {
                   _right = new BitTrieNode();
                }
-               _right.addPrefixRange(prefixRange, bits, prefixLength,
+               _right.addPrefixRange(prefixRange, address, prefixLength,
                      depth + 1);
             }
             else {
                if (_left == null) {
                   _left = new BitTrieNode();
                }
-               _left.addPrefixRange(prefixRange, bits, prefixLength, depth + 1);
+               _left.addPrefixRange(prefixRange, address, prefixLength, depth + 1);
             }
          }
       }
@@ -121,7 +118,7 @@ public class PrefixSpace implements Serializable {
       }
 
       public boolean containsPrefixRange(
-            PrefixRange prefixRange, BitSet bits,
+            PrefixRange prefixRange, Ip address,
             int prefixLength, int depth) {
          for (PrefixRange nodeRange : _prefixRanges) {
             if (nodeRange.includesPrefixRange(prefixRange)) {
@@ -132,13 +129,13 @@ public class PrefixSpace implements Serializable {
             return false;
          }
          else {
-            boolean currentBit = bits.get(depth);
+            boolean currentBit = address.getBit(depth);
             if (currentBit) {
                if (_right == null) {
                   return false;
                }
                else {
-                  return _right.containsPrefixRange(prefixRange, bits,
+                  return _right.containsPrefixRange(prefixRange, address,
                         prefixLength, depth + 1);
                }
             }
@@ -147,7 +144,7 @@ public class PrefixSpace implements Serializable {
                   return false;
                }
                else {
-                  return _left.containsPrefixRange(prefixRange, bits,
+                  return _left.containsPrefixRange(prefixRange, address,
                         prefixLength, depth + 1);
                }
             }
@@ -188,19 +185,6 @@ public class PrefixSpace implements Serializable {
     */
    private static final long serialVersionUID = 1L;
 
-   private static BitSet getAddressBits(Ip address) {
-      int addressAsInt = (int) (address.asLong());
-      ByteBuffer b = ByteBuffer.allocate(4);
-      b.order(ByteOrder.LITTLE_ENDIAN);
-      b.putInt(addressAsInt);
-      BitSet bitsWithHighestMostSignificant = BitSet.valueOf(b.array());
-      BitSet bits = new BitSet(Prefix.MAX_PREFIX_LENGTH);
-      for (int i = Prefix.MAX_PREFIX_LENGTH - 1, j = 0; i >= 0; i--, j++) {
-         bits.set(j, bitsWithHighestMostSignificant.get(i));
-      }
-      return bits;
-   }
-
    private transient ConcurrentMap<Prefix, Boolean> _cache;
 
    private BitTrie _trie;
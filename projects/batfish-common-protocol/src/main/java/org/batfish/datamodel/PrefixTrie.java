@@ -3,7 +3,6 @@ package org.batfish.datamodel;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonValue;
 import java.io.Serializable;
-import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.SortedSet;
@@ -27,19 +26,18 @@ public class PrefixTrie implements Serializable {
 
       public void addPrefix(Prefix prefix) {
          int prefixLength = prefix.getPrefixLength();
-         BitSet bits = prefix.getAddress().getAddressBits();
-         _root.addPrefix(prefix, bits, prefixLength, 0);
+         Ip address = prefix.getAddress();
+         _root.addPrefix(prefix, address, prefixLength, 0);
       }
 
       public boolean containsPathFromPrefix(Prefix prefix) {
          int prefixLength = prefix.getPrefixLength();
-         BitSet bits = prefix.getAddress().getAddressBits();
-         return _root.containsPathFromPrefix(bits, prefixLength, 0);
+         Ip address = prefix.getAddress();
+         return _root.containsPathFromPrefix(address, prefixLength, 0);
       }
 
       public Prefix getLongestPrefixMatch(Ip address) {
-         BitSet addressBits = address.getAddressBits();
-         return _root.getLongestPrefixMatch(address, addressBits, 0);
+         return _root.getLongestPrefixMatch(address, 0);
       }
 
    }
@@ -58,31 +56,31 @@ public class PrefixTrie implements Serializable {
       private ByteTrieNode _right;
 
       public void addPrefix(
-            Prefix prefix, BitSet bits, int prefixLength,
+            Prefix prefix, Ip address, int prefixLength,
             int depth) {
          if (prefixLength == depth) {
             _prefix = prefix;
             return;
          }
          else {
-            boolean currentBit = bits.get(depth);
+            boolean currentBit = address.getBit(depth);
             if (currentBit) {
                if (_right == null) {
                   _right = new ByteTrieNode();
                }
-               _right.addPrefix(prefix, bits, prefixLength, depth + 1);
+               _right.addPrefix(prefix, address, prefixLength, depth + 1);
             }
             else {
                if (_left == null) {
                   _left = new ByteTrieNode();
                }
-               _left.addPrefix(prefix, bits, prefixLength, depth + 1);
+               _left.addPrefix(prefix, address, prefixLength, depth + 1);
             }
          }
       }
 
       public boolean containsPathFromPrefix(
-            BitSet bits, int prefixLength,
+            Ip address, int prefixLength,
             int depth) {
          if (prefixLength == depth) {
             if (depth == 0 && _prefix == null) {
@@ -93,13 +91,13 @@ public class PrefixTrie implements Serializable {
             }
          }
          else {
-            boolean currentBit = bits.get(depth);
+            boolean currentBit = address.getBit(depth);
             if (currentBit) {
                if (_right == null) {
                   return false;
                }
                else {
-                  return _right.containsPathFromPrefix(bits, prefixLength,
+                  return _right.containsPathFromPrefix(address, prefixLength,
                         depth + 1);
                }
             }
@@ -108,14 +106,14 @@ public class PrefixTrie implements Serializable {
                   return false;
                }
                else {
-                  return _left.containsPathFromPrefix(bits, prefixLength,
+                  return _left.containsPathFromPrefix(address, prefixLength,
                         depth + 1);
                }
             }
          }
       }
 
-      private Prefix getLongestPrefixMatch(Ip address, BitSet bits) {
+      private Prefix getLongestPrefixMatch(Ip address) {
          if (_prefix != null && _prefix.contains(address)) {
             return _prefix;
          }
@@ -124,23 +122,21 @@ public class PrefixTrie implements Serializable {
          }
       }
 
-      public Prefix getLongestPrefixMatch(Ip address, BitSet bits, int index) {
-         Prefix longestPrefixMatch = getLongestPrefixMatch(address, bits);
+      public Prefix getLongestPrefixMatch(Ip address, int index) {
+         Prefix longestPrefixMatch = getLongestPrefixMatch(address);
          if (index == Prefix.MAX_PREFIX_LENGTH) {
             return longestPrefixMatch;
          }
-         boolean currentBit = bits.get(index);
+         boolean currentBit = address.getBit(index);
          Prefix longerMatch = null;
          if (currentBit) {
             if (_right != null) {
-               longerMatch = _right.getLongestPrefixMatch(address, bits,
-                     index + 1);
+               longerMatch = _right.getLongestPrefixMatch(address, index + 1);
             }
          }
          else {
             if (_left != null) {
-               longerMatch = _left.getLongestPrefixMatch(address, bits,
-                     index + 1);
+               longerMatch = _left.getLongestPrefixMatch(address, index + 1);
             }
          }
          if (longerMatch == null) {
@@ -9,8 +9,8 @@ import java.io.ObjectInputStream;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Map;
+import org.apache.commons.collections4.map.LRUMap;
 import org.batfish.common.util.ComparableStructure;
 
 @JsonSchemaDescription("An access-list used to filter IPV6 routes")
@@ -18,22 +18,37 @@ public class Route6FilterList extends ComparableStructure<String> {
 
    private static final String LINES_VAR = "lines";
 
+   private static final int MAX_CACHED_PREFIXES = 4096;
+
    private static final long serialVersionUID = 1L;
 
-   private transient Set<Prefix6> _deniedCache;
+   private static Map<Prefix6, Boolean> newPermitsCache() {
+      return Collections.synchronizedMap(
+            new LRUMap<Prefix6, Boolean>(MAX_CACHED_PREFIXES, 16));
+   }
 
    private List<Route6FilterLine> _lines;
 
-   private transient Set<Prefix6> _permittedCache;
+   /**
+    * Whether each recently checked prefix is permitted
+    */
+   private transient Map<Prefix6, Boolean> _permitsCache;
+
+   /**
+    * Index of the lines by prefix, built on first use
+    */
+   private transient volatile RouteFilterLineTrie _trie;
 
    @JsonCreator
    public Route6FilterList(@JsonProperty(NAME_VAR) String name) {
       super(name);
       _lines = new ArrayList<>();
+      _permitsCache = newPermitsCache();
    }
 
    public void addLine(Route6FilterLine r) {
       _lines.add(r);
+      invalidate();
    }
 
    @Override
@@ -51,57 +66,60 @@ public class Route6FilterList extends ComparableStructure<String> {
       return _lines;
    }
 
+   private void invalidate() {
+      _permitsCache.clear();
+      _trie = null;
+   }
+
    private boolean newPermits(Prefix6 prefix) {
-      boolean accept = false;
-      for (Route6FilterLine line : _lines) {
+      RouteFilterLineTrie trie = _trie;
+      if (trie == null) {
+         trie = newTrie();
+         _trie = trie;
+      }
+      Ip6 address = prefix.getAddress();
+      int lineIndex = trie.getFirstMatch(address::getBit,
+            prefix.getPrefixLength());
+      return lineIndex != -1
+            && _lines.get(lineIndex).getAction() == LineAction.ACCEPT;
+   }
+
+   private RouteFilterLineTrie newTrie() {
+      RouteFilterLineTrie trie = new RouteFilterLineTrie(_lines.size(),
+            Prefix6.MAX_PREFIX_LENGTH);
+      for (int i = 0; i < _lines.size(); i++) {
+         Route6FilterLine line = _lines.get(i);
          Prefix6 linePrefix = line.getPrefix();
-         int lineBits = linePrefix.getPrefixLength();
-         Prefix6 truncatedLinePrefix = new Prefix6(
-               linePrefix.getAddress(),
-               lineBits);
-         Prefix6 relevantPortion = new Prefix6(prefix.getAddress(), lineBits)
-               .getNetworkPrefix();
-         if (relevantPortion.equals(truncatedLinePrefix)) {
-            int prefixLength = prefix.getPrefixLength();
-            SubRange range = line.getLengthRange();
-            int min = range.getStart();
-            int max = range.getEnd();
-            if (prefixLength >= min && prefixLength <= max) {
-               accept = line.getAction() == LineAction.ACCEPT;
-               break;
-            }
+         // a line whose prefix has bits set past its length matches nothing
+         if (!linePrefix.equals(linePrefix.getNetworkPrefix())) {
+            continue;
          }
-
-      }
-      if (accept) {
-         _permittedCache.add(prefix);
+         Ip6 lineAddress = linePrefix.getAddress();
+         trie.add(i, lineAddress::getBit, linePrefix.getPrefixLength(),
+               line.getLengthRange());
       }
-      else {
-         _deniedCache.add(prefix);
-      }
-      return accept;
+      return trie;
    }
 
    public boolean permits(Prefix6 prefix) {
-      if (_deniedCache.contains(prefix)) {
-         return false;
-      }
-      else if (_permittedCache.contains(prefix)) {
-         return true;
+      Boolean permits = _permitsCache.get(prefix);
+      if (permits == null) {
+         permits = newPermits(prefix);
+         _permitsCache.put(prefix, permits);
       }
-      return newPermits(prefix);
+      return permits;
    }
 
    private void readObject(ObjectInputStream in)
          throws IOException, ClassNotFoundException {
       in.defaultReadObject();
-      _deniedCache = Collections.newSetFromMap(new ConcurrentHashMap<>());
-      _permittedCache = Collections.newSetFromMap(new ConcurrentHashMap<>());
+      _permitsCache = newPermitsCache();
    }
 
    @JsonProperty(LINES_VAR)
    public void setLines(List<Route6FilterLine> lines) {
       _lines = lines;
+      invalidate();
    }
 
 }
@@ -0,0 +1,102 @@
+package org.batfish.datamodel;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntPredicate;
+
+/**
+ * Index of the lines of a route filter list by the bits of their prefixes.
+ * Each node holds, in order, the lines whose prefix ends there, so the first
+ * line matching a route is found by walking the single path its address
+ * takes from the root.
+ */
+final class RouteFilterLineTrie {
+
+   private static final class Node {
+
+      private Node _left;
+
+      private List<Integer> _lineIndices;
+
+      private Node _right;
+
+   }
+
+   private final int[] _maxLengths;
+
+   private final int _maxPrefixLength;
+
+   private final int[] _minLengths;
+
+   private final Node _root;
+
+   RouteFilterLineTrie(int numLines, int maxPrefixLength) {
+      _maxLengths = new int[numLines];
+      _maxPrefixLength = maxPrefixLength;
+      _minLengths = new int[numLines];
+      _root = new Node();
+   }
+
+   /**
+    * Adds line number {@code lineIndex}, which matches routes whose address
+    * agrees with {@code addressBits} on the first {@code prefixLength} bits
+    * and whose length is within {@code lengthRange}. Lines must be added in
+    * order.
+    */
+   void add(int lineIndex, IntPredicate addressBits, int prefixLength,
+         SubRange lengthRange) {
+      _minLengths[lineIndex] = lengthRange.getStart();
+      _maxLengths[lineIndex] = lengthRange.getEnd();
+      Node node = _root;
+      for (int depth = 0; depth < prefixLength; depth++) {
+         if (addressBits.test(depth)) {
+            if (node._right == null) {
+               node._right = new Node();
+            }
+            node = node._right;
+         }
+         else {
+            if (node._left == null) {
+               node._left = new Node();
+            }
+            node = node._left;
+         }
+      }
+      if (node._lineIndices == null) {
+         node._lineIndices = new ArrayList<>(1);
+      }
+      node._lineIndices.add(lineIndex);
+   }
+
+   /**
+    * Returns the number of the first line matching a route with address bits
+    * {@code addressBits} and length {@code prefixLength}, or -1 if no line
+    * matches
+    */
+   int getFirstMatch(IntPredicate addressBits, int prefixLength) {
+      int firstMatch = -1;
+      Node node = _root;
+      int depth = 0;
+      while (node != null) {
+         if (node._lineIndices != null) {
+            for (int lineIndex : node._lineIndices) {
+               if (firstMatch != -1 && lineIndex > firstMatch) {
+                  break;
+               }
+               if (_minLengths[lineIndex] <= prefixLength
+                     && prefixLength <= _maxLengths[lineIndex]) {
+                  firstMatch = lineIndex;
+                  break;
+               }
+            }
+         }
+         if (depth == _maxPrefixLength) {
+            break;
+         }
+         node = addressBits.test(depth) ? node._right : node._left;
+         depth++;
+      }
+      return firstMatch;
+   }
+
+}
@@ -9,8 +9,8 @@ import java.io.ObjectInputStream;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Map;
+import org.apache.commons.collections4.map.LRUMap;
 import org.batfish.common.util.ComparableStructure;
 
 @JsonSchemaDescription("An access-list used to filter IPV4 routes")
@@ -18,22 +18,37 @@ public class RouteFilterList extends ComparableStructure<String> {
 
    private static final String LINES_VAR = "lines";
 
+   private static final int MAX_CACHED_PREFIXES = 4096;
+
    private static final long serialVersionUID = 1L;
 
-   private transient Set<Prefix> _deniedCache;
+   private static Map<Prefix, Boolean> newPermitsCache() {
+      return Collections.synchronizedMap(
+            new LRUMap<Prefix, Boolean>(MAX_CACHED_PREFIXES, 16));
+   }
 
    private List<RouteFilterLine> _lines;
 
-   private transient Set<Prefix> _permittedCache;
+   /**
+    * Whether each recently checked prefix is permitted
+    */
+   private transient Map<Prefix, Boolean> _permitsCache;
+
+   /**
+    * Index of the lines by prefix, built on first use
+    */
+   private transient volatile RouteFilterLineTrie _trie;
 
    @JsonCreator
    public RouteFilterList(@JsonProperty(NAME_VAR) String name) {
       super(name);
       _lines = new ArrayList<>();
+      _permitsCache = newPermitsCache();
    }
 
    public void addLine(RouteFilterLine r) {
       _lines.add(r);
+      invalidate();
    }
 
    @Override
@@ -51,57 +66,60 @@ public class RouteFilterList extends ComparableStructure<String> {
       return _lines;
    }
 
+   private void invalidate() {
+      _permitsCache.clear();
+      _trie = null;
+   }
+
    private boolean newPermits(Prefix prefix) {
-      boolean accept = false;
-      for (RouteFilterLine line : _lines) {
+      RouteFilterLineTrie trie = _trie;
+      if (trie == null) {
+         trie = newTrie();
+         _trie = trie;
+      }
+      Ip address = prefix.getAddress();
+      int lineIndex = trie.getFirstMatch(address::getBit,
+            prefix.getPrefixLength());
+      return lineIndex != -1
+            && _lines.get(lineIndex).getAction() == LineAction.ACCEPT;
+   }
+
+   private RouteFilterLineTrie newTrie() {
+      RouteFilterLineTrie trie = new RouteFilterLineTrie(_lines.size(),
+            Prefix.MAX_PREFIX_LENGTH);
+      for (int i = 0; i < _lines.size(); i++) {
+         RouteFilterLine line = _lines.get(i);
          Prefix linePrefix = line.getPrefix();
-         int lineBits = linePrefix.getPrefixLength();
-         Prefix truncatedLinePrefix = new Prefix(
-               linePrefix.getAddress(),
-               lineBits);
-         Prefix relevantPortion = new Prefix(prefix.getAddress(), lineBits)
-               .getNetworkPrefix();
-         if (relevantPortion.equals(truncatedLinePrefix)) {
-            int prefixLength = prefix.getPrefixLength();
-            SubRange range = line.getLengthRange();
-            int min = range.getStart();
-            int max = range.getEnd();
-            if (prefixLength >= min && prefixLength <= max) {
-               accept = line.getAction() == LineAction.ACCEPT;
-               break;
-            }
+         // a line whose prefix has bits set past its length matches nothing
+         if (!linePrefix.equals(linePrefix.getNetworkPrefix())) {
+            continue;
          }
-
-      }
-      if (accept) {
-         _permittedCache.add(prefix);
+         Ip lineAddress = linePrefix.getAddress();
+         trie.add(i, lineAddress::getBit, linePrefix.getPrefixLength(),
+               line.getLengthRange());
       }
-      else {
-         _deniedCache.add(prefix);
-      }
-      return accept;
+      return trie;
    }
 
    public boolean permits(Prefix prefix) {
-      if (_deniedCache.contains(prefix)) {
-         return false;
-      }
-      else if (_permittedCache.contains(prefix)) {
-         return true;
+      Boolean permits = _permitsCache.get(prefix);
+      if (permits == null) {
+         permits = newPermits(prefix);
+         _permitsCache.put(prefix, permits);
       }
-      return newPermits(prefix);
+      return permits;
    }
 
    private void readObject(ObjectInputStream in)
          throws IOException, ClassNotFoundException {
       in.defaultReadObject();
-      _deniedCache = Collections.newSetFromMap(new ConcurrentHashMap<>());
-      _permittedCache = Collections.newSetFromMap(new ConcurrentHashMap<>());
+      _permitsCache = newPermitsCache();
    }
 
    @JsonProperty(LINES_VAR)
    public void setLines(List<RouteFilterLine> lines) {
       _lines = lines;
+      invalidate();
    }
 
 }
@@ -4,15 +4,73 @@ import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonValue;
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
 import org.batfish.datamodel.collections.EdgeSet;
 import org.batfish.datamodel.collections.NodeInterfacePair;
 
+/**
+ * Layer-3 adjacencies between interfaces, made up of explicit edges and of
+ * {@link BroadcastDomain}s. The pairwise edges of the broadcast domains are
+ * only enumerated when a consumer asks for edges.
+ */
 public class Topology implements Serializable {
 
+   /**
+    * The broadcast domains and explicit edges at each interface
+    */
+   private static final class Adjacencies {
+
+      private final Map<NodeInterfacePair, List<BroadcastDomain>> _broadcastDomains;
+
+      /**
+       * Explicit edges indexed by both of their interfaces
+       */
+      private final Map<NodeInterfacePair, EdgeSet> _explicitEdges;
+
+      private final Map<String, SortedSet<NodeInterfacePair>> _nodeInterfaces;
+
+      private Adjacencies(EdgeSet explicitEdges,
+            List<BroadcastDomain> broadcastDomains) {
+         _broadcastDomains = new HashMap<>();
+         _explicitEdges = new HashMap<>();
+         _nodeInterfaces = new HashMap<>();
+         for (Edge edge : explicitEdges) {
+            _explicitEdges
+                  .computeIfAbsent(edge.getInterface1(), i -> new EdgeSet())
+                  .add(edge);
+            _explicitEdges
+                  .computeIfAbsent(edge.getInterface2(), i -> new EdgeSet())
+                  .add(edge);
+            addNodeInterface(edge.getInterface1());
+            addNodeInterface(edge.getInterface2());
+         }
+         for (BroadcastDomain broadcastDomain : broadcastDomains) {
+            if (broadcastDomain.getInterfaces().size() < 2) {
+               continue;
+            }
+            for (NodeInterfacePair iface : broadcastDomain.getInterfaces()) {
+               _broadcastDomains.computeIfAbsent(iface, i -> new ArrayList<>())
+                     .add(broadcastDomain);
+               addNodeInterface(iface);
+            }
+         }
+      }
+
+      private void addNodeInterface(NodeInterfacePair iface) {
+         _nodeInterfaces
+               .computeIfAbsent(iface.getHostname(), n -> new TreeSet<>())
+               .add(iface);
+      }
+
+   }
+
    private static final long serialVersionUID = 1L;
 
    @JsonCreator
@@ -20,88 +78,187 @@ public class Topology implements Serializable {
       return new Topology(new EdgeSet(edges));
    }
 
-   private final EdgeSet _edges;
+   private transient volatile Adjacencies _adjacencies;
 
-   private final Map<NodeInterfacePair, EdgeSet> _interfaceEdges;
+   private final List<BroadcastDomain> _broadcastDomains;
 
-   private final Map<String, EdgeSet> _nodeEdges;
+   private transient volatile Set<Edge> _edges;
 
-   public Topology(EdgeSet edges) {
-      _edges = edges;
-      _nodeEdges = new HashMap<>();
-      _interfaceEdges = new HashMap<>();
-      for (Edge edge : edges) {
-         String node1 = edge.getNode1();
-         String node2 = edge.getNode2();
-         NodeInterfacePair int1 = edge.getInterface1();
-         NodeInterfacePair int2 = edge.getInterface2();
-
-         EdgeSet node1Edges = _nodeEdges.get(node1);
-         if (node1Edges == null) {
-            node1Edges = new EdgeSet();
-            _nodeEdges.put(node1, node1Edges);
-         }
-         node1Edges.add(edge);
+   private final EdgeSet _explicitEdges;
 
-         EdgeSet node2Edges = _nodeEdges.get(node2);
-         if (node2Edges == null) {
-            node2Edges = new EdgeSet();
-            _nodeEdges.put(node2, node2Edges);
-         }
-         node2Edges.add(edge);
+   /**
+    * Edges removed from broadcast domains without removing either interface
+    */
+   private final EdgeSet _removedEdges;
 
-         EdgeSet interface1Edges = _interfaceEdges.get(int1);
-         if (interface1Edges == null) {
-            interface1Edges = new EdgeSet();
-            _interfaceEdges.put(int1, interface1Edges);
-         }
-         interface1Edges.add(edge);
+   public Topology(EdgeSet edges) {
+      this(edges, Collections.emptyList());
+   }
 
-         EdgeSet interface2Edges = _interfaceEdges.get(int2);
-         if (interface2Edges == null) {
-            interface2Edges = new EdgeSet();
-            _interfaceEdges.put(int2, interface2Edges);
-         }
-         interface2Edges.add(edge);
+   public Topology(EdgeSet explicitEdges,
+         List<BroadcastDomain> broadcastDomains) {
+      _explicitEdges = explicitEdges;
+      _broadcastDomains = new ArrayList<>(broadcastDomains);
+      _removedEdges = new EdgeSet();
+   }
+
+   private Adjacencies getAdjacencies() {
+      Adjacencies adjacencies = _adjacencies;
+      if (adjacencies == null) {
+         adjacencies = new Adjacencies(_explicitEdges, _broadcastDomains);
+         _adjacencies = adjacencies;
       }
+      return adjacencies;
    }
 
    @JsonIgnore
-   public EdgeSet getEdges() {
-      return _edges;
+   public List<BroadcastDomain> getBroadcastDomains() {
+      return _broadcastDomains;
    }
 
+   /**
+    * Returns all pairwise edges, enumerating those of the broadcast domains
+    * on first use. Meant for output; iterate over {@link #getNeighbors} of
+    * the interfaces of interest instead when computing over the topology.
+    */
    @JsonIgnore
-   public Map<NodeInterfacePair, EdgeSet> getInterfaceEdges() {
-      return _interfaceEdges;
+   public Set<Edge> getEdges() {
+      Set<Edge> edges = _edges;
+      if (edges == null) {
+         EdgeSet edgeSet = new EdgeSet();
+         edgeSet.addAll(_explicitEdges);
+         for (BroadcastDomain broadcastDomain : _broadcastDomains) {
+            edgeSet.addAll(broadcastDomain.getEdges());
+         }
+         edgeSet.removeAll(_removedEdges);
+         edges = Collections.unmodifiableSet(edgeSet);
+         _edges = edges;
+      }
+      return edges;
    }
 
+   /**
+    * Returns the interfaces with at least one edge, without enumerating
+    * edges
+    */
    @JsonIgnore
-   public Map<String, EdgeSet> getNodeEdges() {
-      return _nodeEdges;
+   public Set<NodeInterfacePair> getInterfaces() {
+      Adjacencies adjacencies = getAdjacencies();
+      Set<NodeInterfacePair> interfaces = new TreeSet<>();
+      for (SortedSet<NodeInterfacePair> nodeInterfaces : adjacencies._nodeInterfaces
+            .values()) {
+         interfaces.addAll(nodeInterfaces);
+      }
+      if (!_removedEdges.isEmpty()) {
+         // removed edges may leave interfaces without any edge
+         interfaces.removeIf(iface -> !hasEdge(iface));
+      }
+      return interfaces;
+   }
+
+   /**
+    * Returns the interfaces at the other end of the edges leaving
+    * {@code iface}, enumerating only the broadcast domains containing it
+    */
+   public SortedSet<NodeInterfacePair> getNeighbors(NodeInterfacePair iface) {
+      Adjacencies adjacencies = getAdjacencies();
+      SortedSet<NodeInterfacePair> neighbors = new TreeSet<>();
+      EdgeSet explicitEdges = adjacencies._explicitEdges.get(iface);
+      if (explicitEdges != null) {
+         for (Edge edge : explicitEdges) {
+            if (edge.getInterface1().equals(iface)) {
+               neighbors.add(edge.getInterface2());
+            }
+         }
+      }
+      List<BroadcastDomain> broadcastDomains = adjacencies._broadcastDomains
+            .get(iface);
+      if (broadcastDomains != null) {
+         for (BroadcastDomain broadcastDomain : broadcastDomains) {
+            neighbors.addAll(broadcastDomain.getInterfaces());
+         }
+         neighbors.remove(iface);
+      }
+      if (!_removedEdges.isEmpty()) {
+         neighbors.removeIf(
+               neighbor -> _removedEdges.contains(new Edge(iface, neighbor)));
+      }
+      return neighbors;
+   }
+
+   /**
+    * Returns the interfaces of {@code hostname} with at least one edge, so
+    * that {@link #getNeighbors} of each yields the edges leaving the node
+    */
+   public SortedSet<NodeInterfacePair> getNodeInterfaces(String hostname) {
+      SortedSet<NodeInterfacePair> interfaces = getAdjacencies()._nodeInterfaces
+            .get(hostname);
+      return interfaces != null ? Collections.unmodifiableSortedSet(interfaces)
+            : Collections.emptySortedSet();
+   }
+
+   /**
+    * Returns the edges leaving {@code iface}
+    */
+   public EdgeSet getOutgoingEdges(NodeInterfacePair iface) {
+      EdgeSet edges = new EdgeSet();
+      for (NodeInterfacePair neighbor : getNeighbors(iface)) {
+         edges.add(new Edge(iface, neighbor));
+      }
+      return edges;
+   }
+
+   private boolean hasEdge(NodeInterfacePair iface) {
+      Adjacencies adjacencies = getAdjacencies();
+      if (adjacencies._explicitEdges.containsKey(iface)) {
+         return true;
+      }
+      List<BroadcastDomain> broadcastDomains = adjacencies._broadcastDomains
+            .get(iface);
+      if (broadcastDomains != null) {
+         for (BroadcastDomain broadcastDomain : broadcastDomains) {
+            for (NodeInterfacePair peer : broadcastDomain.getInterfaces()) {
+               if (!peer.equals(iface)
+                     && (!_removedEdges.contains(new Edge(iface, peer))
+                           || !_removedEdges.contains(new Edge(peer, iface)))) {
+                  return true;
+               }
+            }
+         }
+      }
+      return false;
    }
 
    public void removeEdge(Edge edge) {
-      _edges.remove(edge);
+      _explicitEdges.remove(edge);
+      _removedEdges.add(edge);
+      _adjacencies = null;
+      _edges = null;
    }
 
    public void removeInterface(NodeInterfacePair iface) {
-      EdgeSet interfaceEdges = _interfaceEdges.get(iface);
-      if (interfaceEdges != null) {
-         _edges.removeAll(interfaceEdges);
+      _explicitEdges.removeIf(edge -> edge.getInterface1().equals(iface)
+            || edge.getInterface2().equals(iface));
+      for (BroadcastDomain broadcastDomain : _broadcastDomains) {
+         broadcastDomain.removeInterface(iface);
       }
+      _adjacencies = null;
+      _edges = null;
    }
 
    public void removeNode(String hostname) {
-      EdgeSet nodeEdges = _nodeEdges.get(hostname);
-      if (nodeEdges != null) {
-         _edges.removeAll(nodeEdges);
+      _explicitEdges.removeIf(edge -> edge.getNode1().equals(hostname)
+            || edge.getNode2().equals(hostname));
+      for (BroadcastDomain broadcastDomain : _broadcastDomains) {
+         broadcastDomain.removeNode(hostname);
       }
+      _adjacencies = null;
+      _edges = null;
    }
 
    @JsonValue
    public SortedSet<Edge> sortedEdges() {
-      return new TreeSet<>(_edges);
+      return new TreeSet<>(getEdges());
    }
 
 }
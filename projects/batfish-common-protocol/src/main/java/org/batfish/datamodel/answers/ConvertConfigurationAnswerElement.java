@@ -18,6 +18,10 @@ public class ConvertConfigurationAnswerElement
     */
    private static final long serialVersionUID = 1L;
 
+   private int _cacheHits;
+
+   private int _cacheMisses;
+
    private Set<String> _failed;
 
    private SortedMap<String, SortedMap<String, SortedMap<String, SortedMap<String, SortedSet<Integer>>>>>
@@ -40,6 +44,18 @@ public class ConvertConfigurationAnswerElement
       _errors = new TreeMap<>();
    }
 
+   /**
+    * Returns the number of configurations reused from an earlier conversion
+    * of identical vendor configurations
+    */
+   public int getCacheHits() {
+      return _cacheHits;
+   }
+
+   public int getCacheMisses() {
+      return _cacheMisses;
+   }
+
    public Set<String> getFailed() {
       return _failed;
    }
@@ -68,6 +84,10 @@ public class ConvertConfigurationAnswerElement
    public String prettyPrint() {
       StringBuilder sb = new StringBuilder(
             "Results from converting vendor configurations\n");
+      if (_cacheHits > 0) {
+         sb.append("  Reused " + _cacheHits + " of "
+               + (_cacheHits + _cacheMisses) + " earlier conversions\n");
+      }
       _warnings.forEach((name, warnings) -> {
          sb.append("\n  " + name + "[Conversion warnings]\n");
          for (Warning warning : warnings.getRedFlagWarnings()) {
@@ -114,6 +134,14 @@ public class ConvertConfigurationAnswerElement
       return sb.toString();
    }
 
+   public void setCacheHits(int cacheHits) {
+      _cacheHits = cacheHits;
+   }
+
+   public void setCacheMisses(int cacheMisses) {
+      _cacheMisses = cacheMisses;
+   }
+
    public void setFailed(Set<String> failed) {
       _failed = failed;
    }
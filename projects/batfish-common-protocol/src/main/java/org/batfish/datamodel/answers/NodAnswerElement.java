@@ -1,4 +1,25 @@
 package org.batfish.datamodel.answers;
 
+import java.util.SortedMap;
+import java.util.TreeMap;
+
 public class NodAnswerElement implements AnswerElement {
+
+   private SortedMap<String, Long> _solveTimes;
+
+   public NodAnswerElement() {
+      _solveTimes = new TreeMap<>();
+   }
+
+   /**
+    * Time in milliseconds taken by each job, by the ingress points it queried
+    */
+   public SortedMap<String, Long> getSolveTimes() {
+      return _solveTimes;
+   }
+
+   public void setSolveTimes(SortedMap<String, Long> solveTimes) {
+      _solveTimes = solveTimes;
+   }
+
 }
@@ -0,0 +1,44 @@
+package org.batfish.datamodel.collections;
+
+import java.io.Serializable;
+import java.util.Map;
+import org.batfish.datamodel.Configuration;
+
+/**
+ * Summary of a set of serialized vendor-independent configurations, so that
+ * computations can tell which configurations they need without
+ * deserializing all of them
+ */
+public class ConfigurationIndex implements Serializable {
+
+   /**
+    *
+    */
+   private static final long serialVersionUID = 1L;
+
+   private final NodeSet _hostnames;
+
+   private final NodeSet _ipsecVpnHostnames;
+
+   public ConfigurationIndex(Map<String, Configuration> configurations) {
+      _hostnames = new NodeSet(configurations.keySet());
+      _ipsecVpnHostnames = new NodeSet();
+      configurations.forEach((hostname, c) -> {
+         if (!c.getIpsecVpns().isEmpty()) {
+            _ipsecVpnHostnames.add(hostname);
+         }
+      });
+   }
+
+   public NodeSet getHostnames() {
+      return _hostnames;
+   }
+
+   /**
+    * Returns the hostnames of the configurations that have IPsec VPNs
+    */
+   public NodeSet getIpsecVpnHostnames() {
+      return _ipsecVpnHostnames;
+   }
+
+}
@@ -0,0 +1,32 @@
+package org.batfish.datamodel.collections;
+
+import java.io.Serializable;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Summary of a set of serialized vendor configurations, so that conversion
+ * can tell which of them it has converted before without deserializing them
+ */
+public class VendorConfigurationIndex implements Serializable {
+
+   /**
+    *
+    */
+   private static final long serialVersionUID = 1L;
+
+   private final SortedMap<String, String> _sourceKeys;
+
+   public VendorConfigurationIndex() {
+      _sourceKeys = new TreeMap<>();
+   }
+
+   /**
+    * Returns, by name, a key identifying the input each vendor configuration
+    * was built from, for those whose input is known
+    */
+   public SortedMap<String, String> getSourceKeys() {
+      return _sourceKeys;
+   }
+
+}
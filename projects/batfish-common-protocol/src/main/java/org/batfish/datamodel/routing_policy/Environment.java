@@ -17,7 +17,7 @@ public class Environment {
 
    private boolean _callStatementContext;
 
-   private final Configuration _configuration;
+   private Configuration _configuration;
 
    private boolean _defaultAction;
 
@@ -29,17 +29,17 @@ public class Environment {
 
    private boolean _localDefaultAction;
 
-   private final AbstractRoute _originalRoute;
+   private AbstractRoute _originalRoute;
 
    private AbstractRoute6 _originalRoute6;
 
-   private final AbstractRouteBuilder<?> _outputRoute;
+   private AbstractRouteBuilder<?> _outputRoute;
 
-   private final Ip _peerAddress;
+   private Ip _peerAddress;
 
    private boolean _readFromIntermediateBgpAttributes;
 
-   private final boolean _useOutputAttributes;
+   private boolean _useOutputAttributes;
 
    private Vrf _vrf;
 
@@ -49,15 +49,22 @@ public class Environment {
          Configuration configuration, String vrf,
          AbstractRoute originalRoute, AbstractRoute6 originalRoute6,
          AbstractRouteBuilder<?> outputRoute, Ip peerAddress) {
-      _configuration = configuration;
-      _vrf = configuration.getVrfs().get(vrf);
-      _originalRoute = originalRoute;
-      _outputRoute = outputRoute;
-      _peerAddress = peerAddress;
-      ConfigurationFormat format = _configuration.getConfigurationFormat();
-      _useOutputAttributes = format == ConfigurationFormat.JUNIPER
-            || format == ConfigurationFormat.JUNIPER_SWITCH
-            || format == ConfigurationFormat.FLAT_JUNIPER;
+      reset(configuration, vrf, originalRoute, originalRoute6, outputRoute,
+            peerAddress);
+   }
+
+   /**
+    * Drops the references to the configuration and routes last processed,
+    * so that an idle pooled environment does not keep them reachable
+    */
+   void clear() {
+      _configuration = null;
+      _intermediateBgpAttributes = null;
+      _originalRoute = null;
+      _originalRoute6 = null;
+      _outputRoute = null;
+      _peerAddress = null;
+      _vrf = null;
    }
 
    public boolean getBuffered() {
@@ -128,6 +135,36 @@ public class Environment {
       return _writeToIntermediateBgpAttributes;
    }
 
+   /**
+    * Prepares this environment to process another route, leaving it as if it
+    * had just been constructed with the given arguments
+    */
+   void reset(
+         Configuration configuration, String vrf,
+         AbstractRoute originalRoute, AbstractRoute6 originalRoute6,
+         AbstractRouteBuilder<?> outputRoute, Ip peerAddress) {
+      _buffered = false;
+      _callExprContext = false;
+      _callStatementContext = false;
+      _configuration = configuration;
+      _defaultAction = false;
+      _defaultPolicy = null;
+      _error = false;
+      _intermediateBgpAttributes = null;
+      _localDefaultAction = false;
+      _originalRoute = originalRoute;
+      _originalRoute6 = originalRoute6;
+      _outputRoute = outputRoute;
+      _peerAddress = peerAddress;
+      _readFromIntermediateBgpAttributes = false;
+      _vrf = configuration.getVrfs().get(vrf);
+      _writeToIntermediateBgpAttributes = false;
+      ConfigurationFormat format = configuration.getConfigurationFormat();
+      _useOutputAttributes = format == ConfigurationFormat.JUNIPER
+            || format == ConfigurationFormat.JUNIPER_SWITCH
+            || format == ConfigurationFormat.FLAT_JUNIPER;
+   }
+
    public void setBuffered(boolean buffered) {
       _buffered = buffered;
    }
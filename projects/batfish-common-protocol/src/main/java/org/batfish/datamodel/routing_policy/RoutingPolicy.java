@@ -22,6 +22,12 @@ public class RoutingPolicy extends ComparableStructure<String> {
     */
    private static final long serialVersionUID = 1L;
 
+   /**
+    * An idle environment per thread, reused by {@link #process} rather than
+    * allocating one per route
+    */
+   private static final ThreadLocal<Environment> POOLED_ENVIRONMENT = new ThreadLocal<>();
+
    private static final String STATEMENTS_VAR = "statements";
 
    private Configuration _owner;
@@ -79,10 +85,35 @@ public class RoutingPolicy extends ComparableStructure<String> {
    public boolean process(
          AbstractRoute inputRoute,
          AbstractRouteBuilder<?> outputRoute, Ip peerAddress, String vrf) {
-      Environment environment = new Environment(_owner, vrf, inputRoute, null,
-            outputRoute, peerAddress);
-      Result result = call(environment);
-      return result.getBooleanValue();
+      Environment environment = POOLED_ENVIRONMENT.get();
+      if (environment == null) {
+         // none pooled yet, or taken by a call further up this thread
+         environment = new Environment(_owner, vrf, inputRoute, null,
+               outputRoute, peerAddress);
+      }
+      else {
+         POOLED_ENVIRONMENT.set(null);
+         environment.reset(_owner, vrf, inputRoute, null, outputRoute,
+               peerAddress);
+      }
+      try {
+         Result result = call(environment);
+         return result.getBooleanValue();
+      }
+      finally {
+         environment.clear();
+         POOLED_ENVIRONMENT.set(environment);
+      }
+   }
+
+   /**
+    * Looks up the structures named within this policy in its owner once, so
+    * that processing routes need not
+    */
+   public void resolveReferences() {
+      for (Statement statement : _statements) {
+         statement.resolveReferences(_owner);
+      }
    }
 
    @JsonProperty(STATEMENTS_VAR)
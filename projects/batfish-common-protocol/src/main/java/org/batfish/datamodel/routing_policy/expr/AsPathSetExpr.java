@@ -2,6 +2,7 @@ package org.batfish.datamodel.routing_policy.expr;
 
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
 import java.io.Serializable;
+import org.batfish.datamodel.Configuration;
 import org.batfish.datamodel.routing_policy.Environment;
 
 @JsonTypeInfo(use = JsonTypeInfo.Id.CLASS, include = JsonTypeInfo.As.PROPERTY, property = "class")
@@ -20,4 +21,12 @@ public abstract class AsPathSetExpr implements Serializable {
 
    public abstract boolean matches(Environment environment);
 
+   /**
+    * Looks up the structures named within this set in {@code owner}
+    * once, so evaluation need not. Names missing from {@code owner} are still
+    * looked up and reported when evaluated.
+    */
+   public void resolveReferences(Configuration owner) {
+   }
+
 }
@@ -2,6 +2,7 @@ package org.batfish.datamodel.routing_policy.expr;
 
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
 import java.io.Serializable;
+import org.batfish.datamodel.Configuration;
 import org.batfish.datamodel.routing_policy.Environment;
 import org.batfish.datamodel.routing_policy.Result;
 
@@ -27,6 +28,14 @@ public abstract class BooleanExpr implements Serializable {
    @Override
    public abstract int hashCode();
 
+   /**
+    * Looks up the structures named within this expression in {@code owner}
+    * once, so evaluation need not. Names missing from {@code owner} are still
+    * looked up and reported when evaluated.
+    */
+   public void resolveReferences(Configuration owner) {
+   }
+
    public void setComment(String comment) {
       _comment = comment;
    }
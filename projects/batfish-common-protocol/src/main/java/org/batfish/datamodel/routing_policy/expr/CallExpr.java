@@ -2,6 +2,7 @@ package org.batfish.datamodel.routing_policy.expr;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import org.batfish.datamodel.Configuration;
 import org.batfish.datamodel.routing_policy.Environment;
 import org.batfish.datamodel.routing_policy.Result;
 import org.batfish.datamodel.routing_policy.RoutingPolicy;
@@ -15,6 +16,11 @@ public class CallExpr extends BooleanExpr {
     */
    private static final long serialVersionUID = 1L;
 
+   /**
+    * The policy named by this call, once resolved
+    */
+   private transient volatile RoutingPolicy _calledPolicy;
+
    private String _calledPolicyName;
 
    @JsonCreator
@@ -50,8 +56,11 @@ public class CallExpr extends BooleanExpr {
 
    @Override
    public Result evaluate(Environment environment) {
-      RoutingPolicy policy = environment.getConfiguration().getRoutingPolicies()
-            .get(_calledPolicyName);
+      RoutingPolicy policy = _calledPolicy;
+      if (policy == null) {
+         policy = environment.getConfiguration().getRoutingPolicies()
+               .get(_calledPolicyName);
+      }
       Result result;
       if (policy == null) {
          result = new Result();
@@ -84,9 +93,15 @@ public class CallExpr extends BooleanExpr {
       return result;
    }
 
+   @Override
+   public void resolveReferences(Configuration owner) {
+      _calledPolicy = owner.getRoutingPolicies().get(_calledPolicyName);
+   }
+
    @JsonProperty(CALLED_POLICY_NAME_VAR)
    public void setCalledPolicyName(String calledPolicyName) {
       _calledPolicyName = calledPolicyName;
+      _calledPolicy = null;
    }
 
    @Override
@@ -3,6 +3,7 @@ package org.batfish.datamodel.routing_policy.expr;
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
 import java.io.Serializable;
 import java.util.SortedSet;
+import org.batfish.datamodel.Configuration;
 import org.batfish.datamodel.routing_policy.Environment;
 
 @JsonTypeInfo(use = JsonTypeInfo.Id.CLASS, include = JsonTypeInfo.As.PROPERTY, property = "class")
@@ -25,6 +26,14 @@ public abstract class CommunitySetExpr implements Serializable {
    @Override
    public abstract int hashCode();
 
+   /**
+    * Looks up the structures named within this set in {@code owner}
+    * once, so evaluation need not. Names missing from {@code owner} are still
+    * looked up and reported when evaluated.
+    */
+   public void resolveReferences(Configuration owner) {
+   }
+
    public abstract boolean matchSingleCommunity(
          Environment environment,
          SortedSet<Long> communities);
@@ -2,6 +2,7 @@ package org.batfish.datamodel.routing_policy.expr;
 
 import java.util.ArrayList;
 import java.util.List;
+import org.batfish.datamodel.Configuration;
 import org.batfish.datamodel.routing_policy.Environment;
 import org.batfish.datamodel.routing_policy.Result;
 
@@ -14,6 +15,11 @@ public class Conjunction extends BooleanExpr {
 
    private List<BooleanExpr> _conjuncts;
 
+   /**
+    * The conjuncts with nested conjunctions spliced in, once resolved
+    */
+   private transient volatile List<BooleanExpr> _flatConjuncts;
+
    public Conjunction() {
       _conjuncts = new ArrayList<>();
    }
@@ -43,7 +49,11 @@ public class Conjunction extends BooleanExpr {
 
    @Override
    public Result evaluate(Environment environment) {
-      for (BooleanExpr conjunct : _conjuncts) {
+      List<BooleanExpr> conjuncts = _flatConjuncts;
+      if (conjuncts == null) {
+         conjuncts = _conjuncts;
+      }
+      for (BooleanExpr conjunct : conjuncts) {
          Result conjunctResult = conjunct.evaluate(environment);
          if (conjunctResult.getExit()) {
             return conjunctResult;
@@ -71,8 +81,28 @@ public class Conjunction extends BooleanExpr {
       return result;
    }
 
+   @Override
+   public void resolveReferences(Configuration owner) {
+      List<BooleanExpr> flatConjuncts = new ArrayList<>();
+      for (BooleanExpr conjunct : _conjuncts) {
+         conjunct.resolveReferences(owner);
+         List<BooleanExpr> nestedConjuncts = conjunct instanceof Conjunction
+               ? ((Conjunction) conjunct)._flatConjuncts
+               : null;
+         if (nestedConjuncts != null) {
+            // evaluates exactly like its conjuncts in place
+            flatConjuncts.addAll(nestedConjuncts);
+         }
+         else {
+            flatConjuncts.add(conjunct);
+         }
+      }
+      _flatConjuncts = flatConjuncts;
+   }
+
    public void setConjuncts(List<BooleanExpr> conjuncts) {
       _conjuncts = conjuncts;
+      _flatConjuncts = null;
    }
 
    @Override
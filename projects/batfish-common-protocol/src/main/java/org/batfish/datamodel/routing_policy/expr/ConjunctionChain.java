@@ -3,6 +3,7 @@ package org.batfish.datamodel.routing_policy.expr;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import java.util.List;
 import org.batfish.common.BatfishException;
+import org.batfish.datamodel.Configuration;
 import org.batfish.datamodel.routing_policy.Environment;
 import org.batfish.datamodel.routing_policy.Result;
 
@@ -95,6 +96,13 @@ public class ConjunctionChain extends BooleanExpr {
       return result;
    }
 
+   @Override
+   public void resolveReferences(Configuration owner) {
+      for (BooleanExpr subroutine : _subroutines) {
+         subroutine.resolveReferences(owner);
+      }
+   }
+
    public void setSubroutines(List<BooleanExpr> subroutines) {
       _subroutines = subroutines;
    }
@@ -2,6 +2,7 @@ package org.batfish.datamodel.routing_policy.expr;
 
 import java.util.ArrayList;
 import java.util.List;
+import org.batfish.datamodel.Configuration;
 import org.batfish.datamodel.routing_policy.Environment;
 import org.batfish.datamodel.routing_policy.Result;
 
@@ -14,6 +15,11 @@ public class Disjunction extends BooleanExpr {
 
    private List<BooleanExpr> _disjuncts;
 
+   /**
+    * The disjuncts with nested disjunctions spliced in, once resolved
+    */
+   private transient volatile List<BooleanExpr> _flatDisjuncts;
+
    public Disjunction() {
       _disjuncts = new ArrayList<>();
    }
@@ -43,7 +49,11 @@ public class Disjunction extends BooleanExpr {
 
    @Override
    public Result evaluate(Environment environment) {
-      for (BooleanExpr disjunct : _disjuncts) {
+      List<BooleanExpr> disjuncts = _flatDisjuncts;
+      if (disjuncts == null) {
+         disjuncts = _disjuncts;
+      }
+      for (BooleanExpr disjunct : disjuncts) {
          Result disjunctResult = disjunct.evaluate(environment);
          if (disjunctResult.getExit()) {
             return disjunctResult;
@@ -71,8 +81,28 @@ public class Disjunction extends BooleanExpr {
       return result;
    }
 
+   @Override
+   public void resolveReferences(Configuration owner) {
+      List<BooleanExpr> flatDisjuncts = new ArrayList<>();
+      for (BooleanExpr disjunct : _disjuncts) {
+         disjunct.resolveReferences(owner);
+         List<BooleanExpr> nestedDisjuncts = disjunct instanceof Disjunction
+               ? ((Disjunction) disjunct)._flatDisjuncts
+               : null;
+         if (nestedDisjuncts != null) {
+            // evaluates exactly like its disjuncts in place
+            flatDisjuncts.addAll(nestedDisjuncts);
+         }
+         else {
+            flatDisjuncts.add(disjunct);
+         }
+      }
+      _flatDisjuncts = flatDisjuncts;
+   }
+
    public void setDisjuncts(List<BooleanExpr> disjuncts) {
       _disjuncts = disjuncts;
+      _flatDisjuncts = null;
    }
 
    @Override
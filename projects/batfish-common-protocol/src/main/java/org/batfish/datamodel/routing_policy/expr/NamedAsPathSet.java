@@ -4,6 +4,7 @@ import com.fasterxml.jackson.annotation.JsonCreator;
 import org.batfish.datamodel.AsPath;
 import org.batfish.datamodel.AsPathAccessList;
 import org.batfish.datamodel.BgpRoute;
+import org.batfish.datamodel.Configuration;
 import org.batfish.datamodel.routing_policy.Environment;
 
 public class NamedAsPathSet extends AsPathSetExpr {
@@ -15,6 +16,11 @@ public class NamedAsPathSet extends AsPathSetExpr {
 
    private String _name;
 
+   /**
+    * The list named by this set, once resolved
+    */
+   private transient volatile AsPathAccessList _list;
+
    @JsonCreator
    private NamedAsPathSet() {
    }
@@ -60,8 +66,11 @@ public class NamedAsPathSet extends AsPathSetExpr {
 
    @Override
    public boolean matches(Environment environment) {
-      AsPathAccessList list = environment.getConfiguration()
-            .getAsPathAccessLists().get(_name);
+      AsPathAccessList list = _list;
+      if (list == null) {
+         list = environment.getConfiguration().getAsPathAccessLists()
+               .get(_name);
+      }
       if (list != null) {
          boolean match = false;
          AsPath inputAsPath = null;
@@ -90,8 +99,14 @@ public class NamedAsPathSet extends AsPathSetExpr {
       }
    }
 
+   @Override
+   public void resolveReferences(Configuration owner) {
+      _list = owner.getAsPathAccessLists().get(_name);
+   }
+
    public void setName(String name) {
       _name = name;
+      _list = null;
    }
 
 }
@@ -6,6 +6,7 @@ import java.util.SortedSet;
 import java.util.TreeSet;
 import org.batfish.datamodel.CommunityList;
 import org.batfish.datamodel.CommunityListLine;
+import org.batfish.datamodel.Configuration;
 import org.batfish.datamodel.routing_policy.Environment;
 
 public class NamedCommunitySet extends CommunitySetExpr {
@@ -17,6 +18,11 @@ public class NamedCommunitySet extends CommunitySetExpr {
 
    private String _name;
 
+   /**
+    * The list named by this set, once resolved
+    */
+   private transient volatile CommunityList _list;
+
    @JsonCreator
    private NamedCommunitySet() {
    }
@@ -28,8 +34,7 @@ public class NamedCommunitySet extends CommunitySetExpr {
    @Override
    public SortedSet<Long> communities(Environment environment) {
       SortedSet<Long> out = new TreeSet<>();
-      CommunityList cl = environment.getConfiguration().getCommunityLists()
-            .get(_name);
+      CommunityList cl = getCommunityList(environment);
       for (CommunityListLine line : cl.getLines()) {
          Long community = line.toLiteralCommunity();
          out.add(community);
@@ -42,9 +47,8 @@ public class NamedCommunitySet extends CommunitySetExpr {
          Environment environment,
          SortedSet<Long> communityCandidates) {
       SortedSet<Long> matchingCommunities = new TreeSet<>();
+      CommunityList cl = getCommunityList(environment);
       for (Long community : communityCandidates) {
-         CommunityList cl = environment.getConfiguration().getCommunityLists()
-               .get(_name);
          if (cl.permits(community)) {
             matchingCommunities.add(community);
          }
@@ -75,6 +79,14 @@ public class NamedCommunitySet extends CommunitySetExpr {
       return true;
    }
 
+   private CommunityList getCommunityList(Environment environment) {
+      CommunityList list = _list;
+      if (list != null) {
+         return list;
+      }
+      return environment.getConfiguration().getCommunityLists().get(_name);
+   }
+
    public String getName() {
       return _name;
    }
@@ -91,8 +103,7 @@ public class NamedCommunitySet extends CommunitySetExpr {
    public boolean matchSingleCommunity(
          Environment environment,
          SortedSet<Long> communities) {
-      CommunityList cl = environment.getConfiguration().getCommunityLists()
-            .get(_name);
+      CommunityList cl = getCommunityList(environment);
       for (Long community : communities) {
          if (cl.permits(community)) {
             return true;
@@ -101,8 +112,14 @@ public class NamedCommunitySet extends CommunitySetExpr {
       return false;
    }
 
+   @Override
+   public void resolveReferences(Configuration owner) {
+      _list = owner.getCommunityLists().get(_name);
+   }
+
    public void setName(String name) {
       _name = name;
+      _list = null;
    }
 
 }
@@ -1,6 +1,7 @@
 package org.batfish.datamodel.routing_policy.expr;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
+import org.batfish.datamodel.Configuration;
 import org.batfish.datamodel.Prefix6;
 import org.batfish.datamodel.Route6FilterList;
 import org.batfish.datamodel.routing_policy.Environment;
@@ -14,6 +15,11 @@ public class NamedPrefix6Set extends Prefix6SetExpr {
 
    private String _name;
 
+   /**
+    * The list named by this set, once resolved
+    */
+   private transient volatile Route6FilterList _list;
+
    @JsonCreator
    private NamedPrefix6Set() {
    }
@@ -59,8 +65,11 @@ public class NamedPrefix6Set extends Prefix6SetExpr {
 
    @Override
    public boolean matches(Prefix6 prefix, Environment environment) {
-      Route6FilterList list = environment.getConfiguration()
-            .getRoute6FilterLists().get(_name);
+      Route6FilterList list = _list;
+      if (list == null) {
+         list = environment.getConfiguration().getRoute6FilterLists()
+               .get(_name);
+      }
       if (list != null) {
          return list.permits(prefix);
       }
@@ -70,8 +79,14 @@ public class NamedPrefix6Set extends Prefix6SetExpr {
       }
    }
 
+   @Override
+   public void resolveReferences(Configuration owner) {
+      _list = owner.getRoute6FilterLists().get(_name);
+   }
+
    public void setName(String name) {
       _name = name;
+      _list = null;
    }
 
 }
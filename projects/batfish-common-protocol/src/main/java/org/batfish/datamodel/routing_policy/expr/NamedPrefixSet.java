@@ -1,6 +1,7 @@
 package org.batfish.datamodel.routing_policy.expr;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
+import org.batfish.datamodel.Configuration;
 import org.batfish.datamodel.Prefix;
 import org.batfish.datamodel.RouteFilterList;
 import org.batfish.datamodel.routing_policy.Environment;
@@ -14,6 +15,11 @@ public class NamedPrefixSet extends PrefixSetExpr {
 
    private String _name;
 
+   /**
+    * The list named by this set, once resolved
+    */
+   private transient volatile RouteFilterList _list;
+
    @JsonCreator
    private NamedPrefixSet() {
    }
@@ -59,8 +65,10 @@ public class NamedPrefixSet extends PrefixSetExpr {
 
    @Override
    public boolean matches(Prefix prefix, Environment environment) {
-      RouteFilterList list = environment.getConfiguration()
-            .getRouteFilterLists().get(_name);
+      RouteFilterList list = _list;
+      if (list == null) {
+         list = environment.getConfiguration().getRouteFilterLists().get(_name);
+      }
       if (list != null) {
          return list.permits(prefix);
       }
@@ -70,8 +78,14 @@ public class NamedPrefixSet extends PrefixSetExpr {
       }
    }
 
+   @Override
+   public void resolveReferences(Configuration owner) {
+      _list = owner.getRouteFilterLists().get(_name);
+   }
+
    public void setName(String name) {
       _name = name;
+      _list = null;
    }
 
 }
@@ -2,6 +2,7 @@ package org.batfish.datamodel.routing_policy.expr;
 
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
 import java.io.Serializable;
+import org.batfish.datamodel.Configuration;
 import org.batfish.datamodel.Prefix;
 import org.batfish.datamodel.routing_policy.Environment;
 
@@ -21,4 +22,12 @@ public abstract class PrefixSetExpr implements Serializable {
 
    public abstract boolean matches(Prefix prefix, Environment environment);
 
+   /**
+    * Looks up the structures named within this set in {@code owner}
+    * once, so evaluation need not. Names missing from {@code owner} are still
+    * looked up and reported when evaluated.
+    */
+   public void resolveReferences(Configuration owner) {
+   }
+
 }
@@ -2,6 +2,7 @@ package org.batfish.datamodel.routing_policy.expr;
 
 import java.util.ArrayList;
 import java.util.List;
+import org.batfish.datamodel.Configuration;
 import org.batfish.datamodel.routing_policy.Environment;
 import org.batfish.datamodel.routing_policy.Result;
 import org.batfish.datamodel.routing_policy.statement.Statement;
@@ -121,6 +122,20 @@ public class WithEnvironmentExpr extends BooleanExpr {
       return result;
    }
 
+   @Override
+   public void resolveReferences(Configuration owner) {
+      _expr.resolveReferences(owner);
+      for (Statement statement : _preStatements) {
+         statement.resolveReferences(owner);
+      }
+      for (Statement statement : _postStatements) {
+         statement.resolveReferences(owner);
+      }
+      for (Statement statement : _postTrueStatements) {
+         statement.resolveReferences(owner);
+      }
+   }
+
    public void setExpr(BooleanExpr expr) {
       _expr = expr;
    }
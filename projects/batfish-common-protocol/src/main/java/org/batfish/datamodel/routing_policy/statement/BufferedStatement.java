@@ -1,6 +1,7 @@
 package org.batfish.datamodel.routing_policy.statement;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
+import org.batfish.datamodel.Configuration;
 import org.batfish.datamodel.routing_policy.Environment;
 import org.batfish.datamodel.routing_policy.Result;
 
@@ -64,6 +65,11 @@ public class BufferedStatement extends Statement {
       return result;
    }
 
+   @Override
+   public void resolveReferences(Configuration owner) {
+      _statement.resolveReferences(owner);
+   }
+
    public void setStatement(Statement statement) {
       _statement = statement;
    }
@@ -4,6 +4,7 @@ import com.fasterxml.jackson.annotation.JsonCreator;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import org.batfish.datamodel.Configuration;
 import org.batfish.datamodel.routing_policy.Environment;
 import org.batfish.datamodel.routing_policy.Result;
 import org.batfish.datamodel.routing_policy.expr.BooleanExpr;
@@ -110,6 +111,17 @@ public class If extends Statement {
       return result;
    }
 
+   @Override
+   public void resolveReferences(Configuration owner) {
+      _guard.resolveReferences(owner);
+      for (Statement statement : _trueStatements) {
+         statement.resolveReferences(owner);
+      }
+      for (Statement statement : _falseStatements) {
+         statement.resolveReferences(owner);
+      }
+   }
+
    public void setFalseStatements(List<Statement> falseStatements) {
       _falseStatements = falseStatements;
    }
@@ -6,6 +6,7 @@ import com.fasterxml.jackson.annotation.JsonTypeInfo;
 import java.io.Serializable;
 import java.util.Collections;
 import java.util.List;
+import org.batfish.datamodel.Configuration;
 import org.batfish.datamodel.routing_policy.Environment;
 import org.batfish.datamodel.routing_policy.Result;
 
@@ -54,6 +55,14 @@ public abstract class Statement implements Serializable {
    @Override
    public abstract int hashCode();
 
+   /**
+    * Looks up the structures named within this statement in {@code owner}
+    * once, so evaluation need not. Names missing from {@code owner} are still
+    * looked up and reported when evaluated.
+    */
+   public void resolveReferences(Configuration owner) {
+   }
+
    @JsonProperty(COMMENT_VAR)
    public final void setComment(String comment) {
       _comment = comment;
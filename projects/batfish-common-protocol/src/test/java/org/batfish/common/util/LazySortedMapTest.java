@@ -0,0 +1,90 @@
+package org.batfish.common.util;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+/**
+ * Tests for {@link LazySortedMap}
+ */
+public class LazySortedMapTest {
+
+   private static LazySortedMap<String, String> newMap(Set<String> loaded) {
+      return new LazySortedMap<>(Arrays.asList("c", "a", "b"), key -> {
+         loaded.add(key);
+         return key.toUpperCase();
+      });
+   }
+
+   @Test
+   public void testGetLoadsSingleKey() {
+      Set<String> loaded = new TreeSet<>();
+      LazySortedMap<String, String> map = newMap(loaded);
+      assertThat(map.size(), equalTo(3));
+      assertThat(map.keySet(), contains("a", "b", "c"));
+      assertThat(loaded, empty());
+      assertThat(map.get("b"), equalTo("B"));
+      assertThat(map.get("b"), equalTo("B"));
+      assertThat(loaded, contains("b"));
+      assertThat(map.isLoaded("b"), is(true));
+      assertThat(map.isLoaded("a"), is(false));
+      assertThat(map.get("d"), equalTo(null));
+   }
+
+   @Test
+   public void testLoadsOfDifferentKeysDoNotWait() throws Exception {
+      CountDownLatch aLoading = new CountDownLatch(1);
+      CountDownLatch bLoaded = new CountDownLatch(1);
+      LazySortedMap<String, String> map = new LazySortedMap<>(
+            Arrays.asList("a", "b"), key -> {
+               if (key.equals("b")) {
+                  bLoaded.countDown();
+                  return "B";
+               }
+               aLoading.countDown();
+               try {
+                  return bLoaded.await(10, TimeUnit.SECONDS) ? "A" : "timeout";
+               }
+               catch (InterruptedException e) {
+                  throw new RuntimeException(e);
+               }
+            });
+      ExecutorService executor = Executors.newSingleThreadExecutor();
+      try {
+         Future<String> a = executor.submit(() -> map.get("a"));
+         aLoading.await();
+         assertThat(map.get("b"), equalTo("B"));
+         assertThat(a.get(), equalTo("A"));
+      }
+      finally {
+         executor.shutdownNow();
+      }
+   }
+
+   @Test
+   public void testPutAndRemoveWithoutLoading() {
+      Set<String> loaded = new TreeSet<>();
+      LazySortedMap<String, String> map = newMap(loaded);
+      map.put("a", "x");
+      map.keySet().remove("c");
+      assertThat(map.keySet(), contains("a", "b"));
+      assertThat(map.firstKey(), equalTo("a"));
+      assertThat(map.lastKey(), equalTo("b"));
+      assertThat(loaded, empty());
+      assertThat(map.values(), contains("x", "B"));
+      assertThat(loaded, contains("b"));
+   }
+
+}
@@ -0,0 +1,57 @@
+package org.batfish.common.util;
+
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.Prefix;
+import org.junit.Test;
+
+/**
+ * Tests for {@link SerializationFormat}
+ */
+public class SerializationFormatTest {
+
+   /**
+    * Builds a map of strings, addresses, and prefixes, as parsed
+    * configurations hold
+    */
+   private static TreeMap<String, List<Serializable>> configurationLikeObject() {
+      TreeMap<String, List<Serializable>> object = new TreeMap<>();
+      for (int i = 0; i < 100; i++) {
+         List<Serializable> values = new ArrayList<>();
+         values.add("GigabitEthernet0/0");
+         values.add(new Ip("10.0.0.1"));
+         values.add(new Prefix("10.0.0.0/24"));
+         object.put("interface" + i, values);
+      }
+      return object;
+   }
+
+   private static byte[] serialize(SerializationFormat format,
+         Serializable object) throws IOException {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      format.getSerializer().serialize(object, out);
+      return out.toByteArray();
+   }
+
+   @Test
+   public void testRoundTrip() throws IOException, ClassNotFoundException {
+      TreeMap<String, List<Serializable>> object = configurationLikeObject();
+      for (SerializationFormat format : SerializationFormat.values()) {
+         byte[] data = serialize(format, object);
+         assertThat(SerializationFormat.detect(data), is(format));
+         Object deserialized = format.getSerializer().deserialize(data,
+               getClass().getClassLoader());
+         assertThat(deserialized, equalTo(object));
+      }
+   }
+
+}
@@ -0,0 +1,58 @@
+package org.batfish.datamodel;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import org.junit.Test;
+
+/**
+ * Tests for {@link AsPathAccessList}
+ */
+public class AsPathAccessListTest {
+
+   private static AsPath asPath(Integer... asns) {
+      List<SortedSet<Integer>> asSets = new ArrayList<>();
+      for (Integer asn : asns) {
+         asSets.add(new TreeSet<>(Arrays.asList(asn)));
+      }
+      return new AsPath(asSets);
+   }
+
+   private static AsPathAccessListLine line(LineAction action, String regex) {
+      AsPathAccessListLine line = new AsPathAccessListLine();
+      line.setAction(action);
+      line.setRegex(regex);
+      return line;
+   }
+
+   @Test
+   public void testFirstMatchingLineWins() {
+      AsPathAccessList list = new AsPathAccessList("list",
+            Arrays.asList(line(LineAction.REJECT, "^65001 "),
+                  line(LineAction.ACCEPT, "65001"),
+                  line(LineAction.ACCEPT, "^$")));
+      AsPath denied = asPath(65001, 3);
+      AsPath permitted = asPath(2, 65001);
+      AsPath unmatched = asPath(4);
+      for (int i = 0; i < 2; i++) {
+         assertThat(list.permits(denied), is(false));
+         assertThat(list.permits(permitted), is(true));
+         assertThat(list.permits(unmatched), is(false));
+         assertThat(list.permits(asPath()), is(true));
+      }
+   }
+
+   @Test
+   public void testSetRegexRecompiles() {
+      AsPathAccessListLine line = line(LineAction.ACCEPT, "1");
+      assertThat(line.getCompiledRegex().matcher("1").find(), is(true));
+      line.setRegex("2");
+      assertThat(line.getCompiledRegex().matcher("1").find(), is(false));
+   }
+
+}
@@ -0,0 +1,55 @@
+package org.batfish.datamodel;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import org.junit.Test;
+
+/**
+ * Tests for {@link BgpRoute} attribute sharing
+ */
+public class BgpRouteTest {
+
+   private static BgpRoute route(long community, long clusterId, int as) {
+      BgpRoute.Builder builder = new BgpRoute.Builder();
+      builder.setNetwork(new Prefix("1.2.3.0/24"));
+      builder.setOriginatorIp(new Ip("1.1.1.1"));
+      builder.setOriginType(OriginType.IGP);
+      builder.setProtocol(RoutingProtocol.BGP);
+      builder.getCommunities().add(community);
+      builder.getClusterList().add(clusterId);
+      builder.getAsPath().add(new TreeSet<>(Collections.singleton(as)));
+      return builder.build();
+   }
+
+   @Test
+   public void testEqualAttributesAreShared() {
+      BgpRoute route1 = route(5L, 7L, 65001);
+      BgpRoute route2 = route(5L, 7L, 65001);
+      assertThat(route2.getAsPath(), sameInstance(route1.getAsPath()));
+      assertThat(route2.getCommunities(),
+            sameInstance(route1.getCommunities()));
+      assertThat(route2.getClusterList(),
+            sameInstance(route1.getClusterList()));
+      assertThat(route2, equalTo(route1));
+      assertThat(route2.hashCode(), equalTo(route1.hashCode()));
+   }
+
+   @Test
+   public void testAttributesAreCopied() {
+      SortedSet<Long> communities = new TreeSet<>(Arrays.asList(1L, 2L));
+      BgpRoute route = new BgpRoute(new Prefix("1.2.3.0/24"), null, 20, null,
+            communities, BgpRoute.DEFAULT_LOCAL_PREFERENCE, 0,
+            new Ip("1.1.1.1"), null, false, OriginType.IGP,
+            RoutingProtocol.BGP, null, 0);
+      communities.add(3L);
+      assertThat(route.getCommunities(),
+            equalTo(new TreeSet<>(Arrays.asList(1L, 2L))));
+   }
+
+}
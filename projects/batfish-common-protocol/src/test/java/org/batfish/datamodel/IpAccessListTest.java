@@ -0,0 +1,128 @@
+package org.batfish.datamodel;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+
+/**
+ * Tests for {@link IpAccessList} filtering with compiled lines, checked
+ * against evaluating the lines linearly
+ */
+public class IpAccessListTest {
+
+   private static final IpProtocol[] IP_PROTOCOLS = { IpProtocol.TCP,
+         IpProtocol.UDP, IpProtocol.ICMP };
+
+   private static final int NUM_FLOWS = 5000;
+
+   private static final int NUM_LINES = 200;
+
+   private static Ip randomIp(Random random) {
+      // confine addresses to a few /16s so that lines overlap
+      return new Ip((10L << 24) | (random.nextInt(4) << 16)
+            | random.nextInt(1 << 16));
+   }
+
+   private static IpWildcard randomIpWildcard(Random random) {
+      if (random.nextInt(8) == 0) {
+         // non-prefix wildcard, matching any value of the third octet
+         return new IpWildcard(randomIp(random), new Ip(0xFF00L));
+      }
+      return new IpWildcard(new Prefix(randomIp(random),
+            random.nextInt(Prefix.MAX_PREFIX_LENGTH + 1)));
+   }
+
+   private static IpAccessListLine randomLine(Random random) {
+      IpAccessListLine line = new IpAccessListLine();
+      line.setAction(random.nextBoolean() ? LineAction.ACCEPT
+            : LineAction.REJECT);
+      if (random.nextInt(3) > 0) {
+         for (int i = 0; i <= random.nextInt(2); i++) {
+            line.getDstIps().add(randomIpWildcard(random));
+         }
+      }
+      if (random.nextBoolean()) {
+         line.getSrcIps().add(randomIpWildcard(random));
+      }
+      if (random.nextInt(8) == 0) {
+         line.getNotDstIps().add(randomIpWildcard(random));
+      }
+      if (random.nextBoolean()) {
+         line.getDstPorts().add(randomSubRange(random));
+      }
+      if (random.nextInt(4) == 0) {
+         line.getSrcPorts().add(randomSubRange(random));
+      }
+      if (random.nextInt(8) == 0) {
+         line.getNotSrcPorts().add(randomSubRange(random));
+      }
+      if (random.nextBoolean()) {
+         line.getIpProtocols()
+               .add(IP_PROTOCOLS[random.nextInt(IP_PROTOCOLS.length)]);
+      }
+      return line;
+   }
+
+   private static SubRange randomSubRange(Random random) {
+      int start = random.nextInt(1024);
+      return new SubRange(start, start + random.nextInt(64));
+   }
+
+   private static Flow randomFlow(Random random) {
+      Flow.Builder builder = new Flow.Builder();
+      builder.setIngressNode("node");
+      builder.setTag("tag");
+      builder.setDstIp(randomIp(random));
+      builder.setSrcIp(randomIp(random));
+      builder.setDstPort(random.nextInt(1100));
+      builder.setSrcPort(random.nextInt(1100));
+      builder.setIpProtocol(IP_PROTOCOLS[random.nextInt(IP_PROTOCOLS.length)]);
+      return builder.build();
+   }
+
+   private static void assertSameResult(FilterResult actual,
+         FilterResult expected) {
+      assertThat(actual.getMatchLine(), equalTo(expected.getMatchLine()));
+      assertThat(actual.getAction(), equalTo(expected.getAction()));
+   }
+
+   @Test
+   public void testFilterMatchesLinear() {
+      Random random = new Random(0);
+      List<IpAccessListLine> lines = new ArrayList<>();
+      for (int i = 0; i < NUM_LINES; i++) {
+         lines.add(randomLine(random));
+      }
+      IpAccessList acl = new IpAccessList("acl", lines);
+      for (int i = 0; i < NUM_FLOWS; i++) {
+         Flow flow = randomFlow(random);
+         assertSameResult(acl.filter(flow), acl.filterLinear(flow));
+      }
+   }
+
+   @Test
+   public void testSetLinesDiscardsCompiledLines() {
+      Random random = new Random(1);
+      List<IpAccessListLine> lines = new ArrayList<>();
+      for (int i = 0; i < NUM_LINES; i++) {
+         lines.add(randomLine(random));
+      }
+      IpAccessList acl = new IpAccessList("acl", lines);
+      Flow flow = randomFlow(random);
+      acl.filter(flow);
+      IpAccessListLine acceptAll = new IpAccessListLine();
+      acceptAll.setAction(LineAction.ACCEPT);
+      List<IpAccessListLine> newLines = new ArrayList<>();
+      for (int i = 0; i < NUM_LINES; i++) {
+         newLines.add(acceptAll);
+      }
+      acl.setLines(newLines);
+      assertSameResult(acl.filter(flow),
+            new FilterResult(0, LineAction.ACCEPT));
+   }
+
+}
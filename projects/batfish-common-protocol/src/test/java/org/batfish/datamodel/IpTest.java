@@ -0,0 +1,115 @@
+package org.batfish.datamodel;
+
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+
+/**
+ * Tests for {@link Ip} and {@link Ip6} bit access
+ */
+public class IpTest {
+
+   /**
+    * Runs the collector until {@code ref} is cleared or it has been given
+    * ample chance to be
+    */
+   private static void awaitCollection(WeakReference<?> ref)
+         throws InterruptedException {
+      for (int i = 0; i < 50 && ref.get() != null; i++) {
+         System.gc();
+         Thread.sleep(10);
+      }
+   }
+
+   private static List<String> staticCollectionFields(Class<?> clazz) {
+      List<String> fields = new ArrayList<>();
+      for (Field field : clazz.getDeclaredFields()) {
+         if (Modifier.isStatic(field.getModifiers())
+               && (Map.class.isAssignableFrom(field.getType())
+                     || Collection.class.isAssignableFrom(field.getType()))) {
+            fields.add(field.getName());
+         }
+      }
+      return fields;
+   }
+
+   @Test
+   public void testGetBit() {
+      Ip ip = new Ip("128.0.0.1");
+      assertThat(ip.getBit(0), is(true));
+      assertThat(ip.getBit(1), is(false));
+      assertThat(ip.getBit(30), is(false));
+      assertThat(ip.getBit(31), is(true));
+   }
+
+   @Test
+   public void testGetBitMatchesNetworkAddress() {
+      Ip ip = new Ip("10.128.255.3");
+      long rebuilt = 0;
+      for (int i = 0; i < Prefix.MAX_PREFIX_LENGTH; i++) {
+         rebuilt = (rebuilt << 1) | (ip.getBit(i) ? 1l : 0l);
+      }
+      assertThat(rebuilt, is(ip.asLong()));
+   }
+
+   @Test
+   public void testGetBitIp6() {
+      Ip6 ip6 = new Ip6("8000::1");
+      assertThat(ip6.getBit(0), is(true));
+      assertThat(ip6.getBit(1), is(false));
+      assertThat(ip6.getBit(126), is(false));
+      assertThat(ip6.getBit(127), is(true));
+      Ip6 low = new Ip6("::2");
+      assertThat(low.getBit(0), is(false));
+      assertThat(low.getBit(126), is(true));
+      assertThat(low.getBit(127), is(false));
+   }
+
+   /**
+    * Looking an address up in a prefix trie must not keep it reachable once
+    * the caller drops it. Before the address-bits caches were removed, a
+    * million lookups retained about 100 MB.
+    */
+   @Test
+   public void testLookedUpAddressesAreNotRetained()
+         throws InterruptedException {
+      PrefixTrie trie = new PrefixTrie();
+      trie.add(new Prefix("10.0.0.0/8"));
+      Ip ip = new Ip("10.1.2.3");
+      assertThat(trie.containsIp(ip), is(true));
+      Prefix6Trie trie6 = new Prefix6Trie();
+      trie6.add(new Prefix6("8000::/1"));
+      Ip6 ip6 = new Ip6("8000::1");
+      assertThat(trie6.containsPathFromPrefix(new Prefix6(ip6, 1)), is(true));
+      WeakReference<Ip> ipRef = new WeakReference<>(ip);
+      WeakReference<Ip6> ip6Ref = new WeakReference<>(ip6);
+      ip = null;
+      ip6 = null;
+      awaitCollection(ipRef);
+      awaitCollection(ip6Ref);
+      assertThat(ipRef.get(), nullValue());
+      assertThat(ip6Ref.get(), nullValue());
+   }
+
+   /**
+    * Addresses are created for every interface, route and flow of every
+    * testrig a long-lived worker analyzes, so they must not be retained by
+    * any global structure.
+    */
+   @Test
+   public void testNoStaticAddressCaches() {
+      assertThat(staticCollectionFields(Ip.class), empty());
+      assertThat(staticCollectionFields(Ip6.class), empty());
+   }
+
+}
@@ -0,0 +1,83 @@
+package org.batfish.datamodel;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.Random;
+import org.junit.Test;
+
+/**
+ * Tests for {@link RouteFilterList}
+ */
+public class RouteFilterListTest {
+
+   private static boolean linearPermits(RouteFilterList list, Prefix prefix) {
+      for (RouteFilterLine line : list.getLines()) {
+         int lineBits = line.getPrefix().getPrefixLength();
+         Prefix relevantPortion = new Prefix(prefix.getAddress(), lineBits)
+               .getNetworkPrefix();
+         SubRange range = line.getLengthRange();
+         if (relevantPortion.equals(line.getPrefix())
+               && prefix.getPrefixLength() >= range.getStart()
+               && prefix.getPrefixLength() <= range.getEnd()) {
+            return line.getAction() == LineAction.ACCEPT;
+         }
+      }
+      return false;
+   }
+
+   private static Prefix randomPrefix(Random random, int minLength,
+         int maxLength) {
+      int length = minLength + random.nextInt(maxLength - minLength + 1);
+      Ip address = new Ip(random.nextLong() & 0xFFFFFFFFL);
+      return new Prefix(address.getNetworkAddress(length), length);
+   }
+
+   @Test
+   public void testFirstMatchingLineWins() {
+      RouteFilterList list = new RouteFilterList("list");
+      list.addLine(new RouteFilterLine(LineAction.REJECT,
+            new Prefix("10.1.0.0/16"), new SubRange(24, 24)));
+      list.addLine(new RouteFilterLine(LineAction.ACCEPT,
+            new Prefix("10.0.0.0/8"), new SubRange(8, 32)));
+      assertThat(list.permits(new Prefix("10.1.2.0/24")), is(false));
+      assertThat(list.permits(new Prefix("10.1.2.0/25")), is(true));
+      assertThat(list.permits(new Prefix("10.0.0.0/8")), is(true));
+      assertThat(list.permits(new Prefix("11.0.0.0/8")), is(false));
+   }
+
+   @Test
+   public void testLinesAddedAfterUseAreMatched() {
+      RouteFilterList list = new RouteFilterList("list");
+      Prefix prefix = new Prefix("10.0.0.0/8");
+      assertThat(list.permits(prefix), is(false));
+      list.addLine(new RouteFilterLine(LineAction.ACCEPT, prefix,
+            new SubRange(8, 8)));
+      assertThat(list.permits(prefix), is(true));
+   }
+
+   @Test
+   public void testMatchesLinearScanOnLargeList() {
+      Random random = new Random(0);
+      RouteFilterList list = new RouteFilterList("irr");
+      for (int i = 0; i < 10000; i++) {
+         Prefix prefix = randomPrefix(random, 8, 24);
+         int start = prefix.getPrefixLength() + random.nextInt(3);
+         LineAction action = random.nextInt(10) == 0 ? LineAction.REJECT
+               : LineAction.ACCEPT;
+         list.addLine(new RouteFilterLine(action, prefix,
+               new SubRange(start, start + random.nextInt(8))));
+      }
+      for (int i = 0; i < 2000; i++) {
+         RouteFilterLine line = list.getLines()
+               .get(random.nextInt(list.getLines().size()));
+         // routes within some line's prefix, and arbitrary ones
+         Prefix prefix = random.nextBoolean()
+               ? new Prefix(line.getPrefix().getAddress(),
+                     line.getLengthRange().getStart())
+               : randomPrefix(random, 0, 32);
+         assertThat(list.permits(prefix), is(linearPermits(list, prefix)));
+      }
+   }
+
+}
@@ -0,0 +1,57 @@
+package org.batfish.datamodel;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.TreeSet;
+import org.batfish.datamodel.collections.EdgeSet;
+import org.batfish.datamodel.collections.NodeInterfacePair;
+import org.junit.Test;
+
+/**
+ * Tests for {@link Topology} with {@link BroadcastDomain}s
+ */
+public class TopologyTest {
+
+   private static final NodeInterfacePair A = new NodeInterfacePair("a", "e0");
+
+   private static final NodeInterfacePair B = new NodeInterfacePair("b", "e0");
+
+   private static final NodeInterfacePair C = new NodeInterfacePair("c", "e0");
+
+   private static Topology newTopology() {
+      BroadcastDomain domain = new BroadcastDomain(new Prefix("10.0.0.0/24"),
+            new TreeSet<>(Arrays.asList(A, B, C)));
+      return new Topology(new EdgeSet(), Collections.singletonList(domain));
+   }
+
+   @Test
+   public void testBroadcastDomainEdges() {
+      Topology topology = newTopology();
+      assertThat(topology.getInterfaces(), contains(A, B, C));
+      assertThat(topology.getEdges().size(), equalTo(6));
+      assertThat(topology.getEdges().contains(new Edge(C, A)), is(true));
+      assertThat(topology.getNeighbors(B), contains(A, C));
+      assertThat(topology.getNodeInterfaces("b"), contains(B));
+   }
+
+   @Test
+   public void testRemoveEdgeAndNode() {
+      Topology topology = newTopology();
+      topology.getEdges();
+      topology.removeEdge(new Edge(A, B));
+      assertThat(topology.getEdges().size(), equalTo(5));
+      assertThat(topology.getEdges().contains(new Edge(A, B)), is(false));
+      assertThat(topology.getNeighbors(A), contains(C));
+      assertThat(topology.getNeighbors(B), contains(A, C));
+      topology.removeNode("c");
+      assertThat(topology.getEdges(), contains(new Edge(B, A)));
+      assertThat(topology.getInterfaces(), containsInAnyOrder(A, B));
+   }
+
+}
@@ -0,0 +1,100 @@
+package org.batfish.datamodel.routing_policy;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.Arrays;
+import java.util.Collections;
+import org.batfish.datamodel.AbstractRoute;
+import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.ConnectedRoute;
+import org.batfish.datamodel.Prefix;
+import org.batfish.datamodel.RoutingProtocol;
+import org.batfish.datamodel.StaticRoute;
+import org.batfish.datamodel.routing_policy.expr.BooleanExpr;
+import org.batfish.datamodel.routing_policy.expr.CallExpr;
+import org.batfish.datamodel.routing_policy.expr.Conjunction;
+import org.batfish.datamodel.routing_policy.expr.DestinationNetwork;
+import org.batfish.datamodel.routing_policy.expr.MatchPrefixSet;
+import org.batfish.datamodel.routing_policy.expr.MatchProtocol;
+import org.batfish.datamodel.routing_policy.expr.NamedPrefixSet;
+import org.batfish.datamodel.routing_policy.statement.If;
+import org.batfish.datamodel.routing_policy.statement.Statements;
+import org.junit.Test;
+
+/**
+ * Tests for {@link RoutingPolicy}
+ */
+public class RoutingPolicyTest {
+
+   private static Conjunction conjunction(BooleanExpr... conjuncts) {
+      Conjunction conjunction = new Conjunction();
+      conjunction.setConjuncts(Arrays.asList(conjuncts));
+      return conjunction;
+   }
+
+   private static RoutingPolicy policy(Configuration c, String name,
+         BooleanExpr guard) {
+      If i = new If();
+      i.setGuard(guard);
+      i.setTrueStatements(Collections
+            .singletonList(Statements.ReturnTrue.toStaticStatement()));
+      i.setFalseStatements(Collections
+            .singletonList(Statements.ReturnFalse.toStaticStatement()));
+      RoutingPolicy policy = new RoutingPolicy(name, c);
+      policy.setStatements(Collections.singletonList(i));
+      c.getRoutingPolicies().put(name, policy);
+      return policy;
+   }
+
+   private static StaticRoute route(String prefix) {
+      return new StaticRoute(new Prefix(prefix), null, null, 1, 0);
+   }
+
+   @Test
+   public void testMissingReferenceIsStillAnError() {
+      Configuration c = new Configuration("r1");
+      RoutingPolicy policy = policy(c, "p", new MatchPrefixSet(
+            new DestinationNetwork(), new NamedPrefixSet("missing")));
+      c.resolveRoutingPolicyReferences();
+      Environment environment = new Environment(c,
+            Configuration.DEFAULT_VRF_NAME, route("10.0.0.0/8"), null, null,
+            null);
+      policy.call(environment);
+      assertThat(environment.getError(), is(true));
+   }
+
+   @Test
+   public void testPooledEnvironmentStartsFresh() {
+      Configuration c = new Configuration("r1");
+      RoutingPolicy accepting = new RoutingPolicy("accepting", c);
+      accepting.setStatements(Collections.singletonList(
+            Statements.SetDefaultActionAccept.toStaticStatement()));
+      RoutingPolicy empty = new RoutingPolicy("empty", c);
+      String vrf = Configuration.DEFAULT_VRF_NAME;
+      assertThat(accepting.process(route("10.0.0.0/8"), null, null, vrf),
+            is(true));
+      // the default action set by the first policy must not carry over
+      assertThat(empty.process(route("10.0.0.0/8"), null, null, vrf),
+            is(false));
+   }
+
+   @Test
+   public void testResolvedPolicyMatchesUnresolved() {
+      Configuration c = new Configuration("r1");
+      policy(c, "q", new MatchProtocol(RoutingProtocol.STATIC));
+      RoutingPolicy policy = policy(c, "p", conjunction(
+            conjunction(new CallExpr("q")), new CallExpr("q")));
+      AbstractRoute connected = new ConnectedRoute(new Prefix("10.0.0.0/8"),
+            "e0");
+      String vrf = Configuration.DEFAULT_VRF_NAME;
+      assertThat(policy.process(route("10.0.0.0/8"), null, null, vrf),
+            is(true));
+      assertThat(policy.process(connected, null, null, vrf), is(false));
+      c.resolveRoutingPolicyReferences();
+      assertThat(policy.process(route("10.0.0.0/8"), null, null, vrf),
+            is(true));
+      assertThat(policy.process(connected, null, null, vrf), is(false));
+   }
+
+}
@@ -0,0 +1,242 @@
+package org.batfish.bdd;
+
+import java.util.Arrays;
+
+/**
+ * Builds and combines reduced ordered binary decision diagrams over a fixed
+ * number of variables, ordered by index. Diagrams are identified by int
+ * handles into the manager's node table; nodes are never freed, so a manager
+ * should live only as long as one analysis. Not thread-safe.
+ */
+public final class BddManager {
+
+   private static final int CACHE_SIZE = 1 << 18;
+
+   public static final int FALSE = 0;
+
+   private static final int INITIAL_NODES = 1 << 12;
+
+   private static final int OP_AND = 0;
+
+   private static final int OP_NOT = 1;
+
+   private static final int OP_OR = 2;
+
+   public static final int TRUE = 1;
+
+   private final int[] _cacheA;
+
+   private final int[] _cacheB;
+
+   private final int[] _cacheOp;
+
+   private final int[] _cacheResult;
+
+   private int[] _high;
+
+   private int[] _low;
+
+   private int _numNodes;
+
+   private final int _numVars;
+
+   /**
+    * Open-addressed unique table of node handles; 0 marks an empty slot,
+    * since the FALSE terminal is never stored
+    */
+   private int[] _unique;
+
+   private int[] _var;
+
+   public BddManager(int numVars) {
+      _numVars = numVars;
+      _high = new int[INITIAL_NODES];
+      _low = new int[INITIAL_NODES];
+      _var = new int[INITIAL_NODES];
+      _unique = new int[INITIAL_NODES * 2];
+      _cacheA = new int[CACHE_SIZE];
+      _cacheB = new int[CACHE_SIZE];
+      _cacheOp = new int[CACHE_SIZE];
+      _cacheResult = new int[CACHE_SIZE];
+      Arrays.fill(_cacheOp, -1);
+      // terminals sit below every variable
+      _var[FALSE] = numVars;
+      _var[TRUE] = numVars;
+      _numNodes = 2;
+   }
+
+   public int and(int a, int b) {
+      if (a == b || b == TRUE) {
+         return a;
+      }
+      if (a == FALSE || b == FALSE) {
+         return FALSE;
+      }
+      if (a == TRUE) {
+         return b;
+      }
+      if (a > b) {
+         int t = a;
+         a = b;
+         b = t;
+      }
+      int slot = cacheSlot(OP_AND, a, b);
+      if (cacheHit(slot, OP_AND, a, b)) {
+         return _cacheResult[slot];
+      }
+      int v = Math.min(_var[a], _var[b]);
+      int low = and(_var[a] == v ? _low[a] : a, _var[b] == v ? _low[b] : b);
+      int high = and(_var[a] == v ? _high[a] : a,
+            _var[b] == v ? _high[b] : b);
+      int result = mk(v, low, high);
+      cachePut(slot, OP_AND, a, b, result);
+      return result;
+   }
+
+   /**
+    * Returns a ⇔ b
+    */
+   public int biimp(int a, int b) {
+      return or(and(a, b), and(not(a), not(b)));
+   }
+
+   private boolean cacheHit(int slot, int op, int a, int b) {
+      return _cacheOp[slot] == op && _cacheA[slot] == a && _cacheB[slot] == b;
+   }
+
+   private void cachePut(int slot, int op, int a, int b, int result) {
+      _cacheOp[slot] = op;
+      _cacheA[slot] = a;
+      _cacheB[slot] = b;
+      _cacheResult[slot] = result;
+   }
+
+   private int cacheSlot(int op, int a, int b) {
+      int h = (a * 31 + b) * 31 + op;
+      return (h ^ (h >>> 16)) & (CACHE_SIZE - 1);
+   }
+
+   public int getNumNodes() {
+      return _numNodes;
+   }
+
+   public int getNumVars() {
+      return _numVars;
+   }
+
+   private void grow() {
+      int capacity = _var.length * 2;
+      _high = Arrays.copyOf(_high, capacity);
+      _low = Arrays.copyOf(_low, capacity);
+      _var = Arrays.copyOf(_var, capacity);
+      _unique = new int[capacity * 2];
+      for (int node = 2; node < _numNodes; node++) {
+         int slot = uniqueSlot(_var[node], _low[node], _high[node]);
+         while (_unique[slot] != 0) {
+            slot = (slot + 1) & (_unique.length - 1);
+         }
+         _unique[slot] = node;
+      }
+   }
+
+   private int mk(int var, int low, int high) {
+      if (low == high) {
+         return low;
+      }
+      int slot = uniqueSlot(var, low, high);
+      for (int node = _unique[slot]; node != 0; node = _unique[slot]) {
+         if (_var[node] == var && _low[node] == low && _high[node] == high) {
+            return node;
+         }
+         slot = (slot + 1) & (_unique.length - 1);
+      }
+      if (_numNodes == _var.length) {
+         grow();
+         return mk(var, low, high);
+      }
+      int node = _numNodes++;
+      _var[node] = var;
+      _low[node] = low;
+      _high[node] = high;
+      _unique[slot] = node;
+      return node;
+   }
+
+   public int not(int a) {
+      if (a == FALSE) {
+         return TRUE;
+      }
+      if (a == TRUE) {
+         return FALSE;
+      }
+      int slot = cacheSlot(OP_NOT, a, 0);
+      if (cacheHit(slot, OP_NOT, a, 0)) {
+         return _cacheResult[slot];
+      }
+      int result = mk(_var[a], not(_low[a]), not(_high[a]));
+      cachePut(slot, OP_NOT, a, 0, result);
+      return result;
+   }
+
+   public int or(int a, int b) {
+      if (a == b || b == FALSE) {
+         return a;
+      }
+      if (a == TRUE || b == TRUE) {
+         return TRUE;
+      }
+      if (a == FALSE) {
+         return b;
+      }
+      if (a > b) {
+         int t = a;
+         a = b;
+         b = t;
+      }
+      int slot = cacheSlot(OP_OR, a, b);
+      if (cacheHit(slot, OP_OR, a, b)) {
+         return _cacheResult[slot];
+      }
+      int v = Math.min(_var[a], _var[b]);
+      int low = or(_var[a] == v ? _low[a] : a, _var[b] == v ? _low[b] : b);
+      int high = or(_var[a] == v ? _high[a] : a, _var[b] == v ? _high[b] : b);
+      int result = mk(v, low, high);
+      cachePut(slot, OP_OR, a, b, result);
+      return result;
+   }
+
+   /**
+    * Returns one assignment satisfying {@code a}, preferring false for every
+    * variable, or null if {@code a} is unsatisfiable
+    */
+   public boolean[] satOne(int a) {
+      if (a == FALSE) {
+         return null;
+      }
+      boolean[] assignment = new boolean[_numVars];
+      int node = a;
+      while (node != TRUE) {
+         if (_low[node] != FALSE) {
+            node = _low[node];
+         }
+         else {
+            assignment[_var[node]] = true;
+            node = _high[node];
+         }
+      }
+      return assignment;
+   }
+
+   private int uniqueSlot(int var, int low, int high) {
+      int h = (var * 31 + low) * 31 + high;
+      h ^= h >>> 16;
+      h *= 0x85ebca6b;
+      h ^= h >>> 13;
+      return h & (_unique.length - 1);
+   }
+
+   public int var(int index) {
+      return mk(index, FALSE, TRUE);
+   }
+
+}
@@ -2,7 +2,7 @@ package org.batfish.bdp;
 
 import java.io.Serializable;
 import java.util.ArrayList;
-import java.util.BitSet;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -20,22 +20,44 @@ import org.batfish.datamodel.collections.TreeMultiSet;
 
 public abstract class AbstractRib<R extends AbstractRoute> implements IRib<R> {
 
-   private class ByteTrie implements Serializable {
+   /**
+    * Path-compressed binary trie over IPv4 prefixes. Each node is keyed on the
+    * network bits of its prefix held in a primitive int, so that insertion and
+    * longest-prefix match only require integer masking and
+    * {@link Integer#numberOfLeadingZeros(int)}. Nodes that exist only to branch
+    * hold no routes.
+    */
+   private class RibTree implements Serializable {
 
       /**
        *
        */
       private static final long serialVersionUID = 1L;
 
-      private ByteTrieNode _root;
+      private final RibTreeNode _root;
 
-      public ByteTrie() {
-         _root = new ByteTrieNode(Prefix.ZERO);
+      public RibTree() {
+         _root = new RibTreeNode(0, 0);
       }
 
       public Set<R> getLongestPrefixMatch(Ip address) {
-         BitSet addressBits = address.getAddressBits();
-         return _root.getLongestPrefixMatch(address, addressBits, 0);
+         int addressBits = (int) address.asLong();
+         RibTreeNode node = _root;
+         RibTreeNode longestMatch = null;
+         while (node != null
+               && ((addressBits ^ node._bits) & mask(node._length)) == 0) {
+            if (node._routes != null) {
+               longestMatch = node;
+            }
+            if (node._length == Prefix.MAX_PREFIX_LENGTH) {
+               break;
+            }
+            node = bitAt(addressBits, node._length) ? node._right : node._left;
+         }
+         if (longestMatch == null) {
+            return Collections.emptySet();
+         }
+         return Collections.unmodifiableSet(longestMatch._routes);
       }
 
       public Set<R> getRoutes() {
@@ -45,32 +67,73 @@ public abstract class AbstractRib<R extends AbstractRoute> implements IRib<R> {
       }
 
       public boolean mergeRoute(R route) {
-         Prefix prefix = route.getNetwork();
-         int prefixLength = prefix.getPrefixLength();
-         BitSet bits = prefix.getAddress().getAddressBits();
-         return _root.mergeRoute(route, bits, prefixLength, 0);
+         Prefix network = route.getNetwork();
+         int prefixLength = network.getPrefixLength();
+         int bits = (int) network.getAddress().asLong() & mask(prefixLength);
+         RibTreeNode node = _root;
+         while (node._length != prefixLength) {
+            boolean right = bitAt(bits, node._length);
+            RibTreeNode child = right ? node._right : node._left;
+            if (child == null) {
+               node.setChild(right, new RibTreeNode(bits, prefixLength, route));
+               return true;
+            }
+            int commonLength = Math.min(
+                  Integer.numberOfLeadingZeros(bits ^ child._bits),
+                  Math.min(child._length, prefixLength));
+            if (commonLength == child._length) {
+               node = child;
+               continue;
+            }
+            RibTreeNode newChild;
+            if (commonLength == prefixLength) {
+               // new route's network contains the child's network
+               newChild = new RibTreeNode(bits, prefixLength, route);
+               newChild.setChild(bitAt(child._bits, prefixLength), child);
+            }
+            else {
+               // networks diverge, so branch on first differing bit
+               newChild = new RibTreeNode(bits & mask(commonLength),
+                     commonLength);
+               boolean newRouteRight = bitAt(bits, commonLength);
+               newChild.setChild(newRouteRight,
+                     new RibTreeNode(bits, prefixLength, route));
+               newChild.setChild(!newRouteRight, child);
+            }
+            node.setChild(right, newChild);
+            return true;
+         }
+         return node.mergeRoute(route);
       }
 
    }
 
-   private class ByteTrieNode implements Serializable {
+   private class RibTreeNode implements Serializable {
 
       /**
        *
        */
       private static final long serialVersionUID = 1L;
 
-      private ByteTrieNode _left;
+      private final int _bits;
+
+      private RibTreeNode _left;
 
-      private Prefix _prefix;
+      private final int _length;
 
-      private ByteTrieNode _right;
+      private RibTreeNode _right;
 
-      private final Set<R> _routes;
+      private Set<R> _routes;
 
-      public ByteTrieNode(Prefix prefix) {
+      public RibTreeNode(int bits, int length) {
+         _bits = bits;
+         _length = length;
+      }
+
+      public RibTreeNode(int bits, int length, R route) {
+         this(bits, length);
          _routes = new HashSet<>();
-         _prefix = prefix;
+         _routes.add(route);
       }
 
       public void collectRoutes(Set<R> routes) {
@@ -80,221 +143,71 @@ public abstract class AbstractRib<R extends AbstractRoute> implements IRib<R> {
          if (_right != null) {
             _right.collectRoutes(routes);
          }
-         routes.addAll(_routes);
-      }
-
-      private Set<R> getLongestPrefixMatch(Ip address) {
-         Set<R> longestPrefixMatches = new HashSet<>();
-         for (R route : _routes) {
-            Prefix prefix = route.getNetwork();
-            if (prefix.contains(address)) {
-               longestPrefixMatches.add(route);
-            }
+         if (_routes != null) {
+            routes.addAll(_routes);
          }
-         return longestPrefixMatches;
       }
 
-      public Set<R> getLongestPrefixMatch(Ip address, BitSet bits, int index) {
-         Set<R> longestPrefixMatches = getLongestPrefixMatch(address);
-         if (index == Prefix.MAX_PREFIX_LENGTH) {
-            return longestPrefixMatches;
-         }
-         boolean currentBit = bits.get(index);
-         Set<R> longerMatches = null;
-         if (currentBit) {
-            if (_right != null) {
-               longerMatches = _right.getLongestPrefixMatch(address, bits,
-                     _right._prefix.getPrefixLength());
-            }
+      public boolean mergeRoute(R route) {
+         // no routes with this prefix, so just add it
+         if (_routes == null) {
+            _routes = new HashSet<>();
+            _routes.add(route);
+            return true;
          }
-         else {
-            if (_left != null) {
-               longerMatches = _left.getLongestPrefixMatch(address, bits,
-                     _left._prefix.getPrefixLength());
-            }
+         // suitability check
+         R rhs = _routes.iterator().next();
+         int preferenceComparison = comparePreference(route, rhs);
+         if (preferenceComparison < 0) {
+            // less preferable, so it doesn't get added
+            return false;
          }
-         if (longerMatches == null || longerMatches.isEmpty()) {
-            return longestPrefixMatches;
+         else if (preferenceComparison == 0) {
+            // equal preference, so add for multipath routing (no-op if route
+            // is already here)
+            return _routes.add(route);
          }
          else {
-            return longerMatches;
+            // better than all pre-existing routes for this prefix, so replace
+            // them with this one
+            _routes.clear();
+            _routes.add(route);
+            return true;
          }
       }
 
-      public boolean mergeRoute(
-            R route, BitSet bits, int prefixLength,
-            int firstUnmatchedBitIndex) {
-         if (prefixLength == _prefix.getPrefixLength()) {
-            // no routes with this prefix, so just add it
-            if (_routes.isEmpty()) {
-               _routes.add(route);
-               return true;
-            }
-            else {
-               // suitability check
-               R rhs = _routes.iterator().next();
-               int preferenceComparison = comparePreference(route, rhs);
-               if (preferenceComparison < 0) {
-                  // less preferable, so it doesn't get added
-                  return false;
-               }
-               else if (preferenceComparison == 0) {
-                  // equal preference, so add for multipath routing
-                  if (!_routes.contains(route)) {
-                     _routes.add(route);
-                     return true;
-                  }
-                  else {
-                     // route is already here, so nothing to do
-                     return false;
-                  }
-               }
-               else {
-                  // better than all pre-existing routes for this prefix, so
-                  // replace them with this one
-                  _routes.clear();
-                  _routes.add(route);
-                  return true;
-               }
-            }
+      public void setChild(boolean right, RibTreeNode child) {
+         if (right) {
+            _right = child;
          }
          else {
-            boolean currentBit = bits.get(firstUnmatchedBitIndex);
-            if (currentBit) {
-               if (_right == null) {
-                  _right = new ByteTrieNode(route.getNetwork());
-                  _right._routes.add(route);
-                  return true;
-               }
-               else {
-                  Prefix rightPrefix = _right._prefix;
-                  int rightPrefixLength = rightPrefix.getPrefixLength();
-                  Ip rightAddress = rightPrefix.getAddress();
-                  BitSet rightAddressBits = rightAddress.getAddressBits();
-                  int nextUnmatchedBit;
-                  boolean currentAddressBit = false;
-                  boolean currentRightAddressBit;
-                  for (nextUnmatchedBit = firstUnmatchedBitIndex
-                        + 1; nextUnmatchedBit < rightPrefixLength
-                        && nextUnmatchedBit < prefixLength; nextUnmatchedBit++) {
-                     currentAddressBit = bits.get(nextUnmatchedBit);
-                     currentRightAddressBit = rightAddressBits
-                           .get(nextUnmatchedBit);
-                     if (currentRightAddressBit != currentAddressBit) {
-                        break;
-                     }
-                  }
-                  if (nextUnmatchedBit == rightPrefixLength) {
-                     return _right.mergeRoute(route, bits, prefixLength,
-                           nextUnmatchedBit);
-                  }
-                  else if (nextUnmatchedBit == prefixLength) {
-                     currentRightAddressBit = rightAddressBits
-                           .get(nextUnmatchedBit);
-                     ByteTrieNode oldRight = _right;
-                     _right = new ByteTrieNode(route.getNetwork());
-                     _right._routes.add(route);
-                     if (currentRightAddressBit) {
-                        _right._right = oldRight;
-                     }
-                     else {
-                        _right._left = oldRight;
-                     }
-                     return true;
-                  }
-                  else {
-                     ByteTrieNode oldRight = _right;
-
-                     Prefix newNetwork = new Prefix(
-                           route.getNetwork().getAddress(), nextUnmatchedBit)
-                           .getNetworkPrefix();
-                     _right = new ByteTrieNode(newNetwork);
-                     if (currentAddressBit) {
-                        _right._left = oldRight;
-                        _right._right = new ByteTrieNode(route.getNetwork());
-                        _right._right._routes.add(route);
-                     }
-                     else {
-                        _right._right = oldRight;
-                        _right._left = new ByteTrieNode(route.getNetwork());
-                        _right._left._routes.add(route);
-                     }
-                     return true;
-                  }
-               }
-            }
-            else {
-               if (_left == null) {
-                  _left = new ByteTrieNode(route.getNetwork());
-                  _left._routes.add(route);
-                  return true;
-               }
-               else {
-                  Prefix leftPrefix = _left._prefix;
-                  int leftPrefixLength = leftPrefix.getPrefixLength();
-                  Ip leftAddress = leftPrefix.getAddress();
-                  BitSet leftAddressBits = leftAddress.getAddressBits();
-                  int nextUnmatchedBit;
-                  boolean currentAddressBit = false;
-                  boolean currentLeftAddressBit;
-                  for (nextUnmatchedBit = firstUnmatchedBitIndex
-                        + 1; nextUnmatchedBit < leftPrefixLength
-                        && nextUnmatchedBit < prefixLength; nextUnmatchedBit++) {
-                     currentAddressBit = bits.get(nextUnmatchedBit);
-                     currentLeftAddressBit = leftAddressBits
-                           .get(nextUnmatchedBit);
-                     if (currentLeftAddressBit != currentAddressBit) {
-                        break;
-                     }
-                  }
-                  if (nextUnmatchedBit == leftPrefixLength) {
-                     return _left.mergeRoute(route, bits, prefixLength,
-                           nextUnmatchedBit);
-                  }
-                  else if (nextUnmatchedBit == prefixLength) {
-                     currentLeftAddressBit = leftAddressBits
-                           .get(nextUnmatchedBit);
-                     ByteTrieNode oldLeft = _left;
-                     _left = new ByteTrieNode(route.getNetwork());
-                     _left._routes.add(route);
-                     if (currentLeftAddressBit) {
-                        _left._right = oldLeft;
-                     }
-                     else {
-                        _left._left = oldLeft;
-                     }
-                     return true;
-                  }
-                  else {
-                     ByteTrieNode oldLeft = _left;
-                     Prefix newPrefix = new Prefix(
-                           route.getNetwork().getAddress(), nextUnmatchedBit)
-                           .getNetworkPrefix();
-                     _left = new ByteTrieNode(newPrefix);
-                     if (currentAddressBit) {
-                        _left._left = oldLeft;
-                        _left._right = new ByteTrieNode(route.getNetwork());
-                        _left._right._routes.add(route);
-                     }
-                     else {
-                        _left._right = oldLeft;
-                        _left._left = new ByteTrieNode(route.getNetwork());
-                        _left._left._routes.add(route);
-                     }
-                     return true;
-                  }
-               }
-            }
+            _left = child;
          }
       }
 
       @Override
       public String toString() {
-         return _prefix.toString();
+         return new Ip(_bits & 0xFFFFFFFFL).networkString(_length);
       }
 
    }
 
+   /**
+    * Returns whether the bit at index {@code index} (0 being most significant)
+    * of {@code bits} is set
+    */
+   private static boolean bitAt(int bits, int index) {
+      return (bits << index) < 0;
+   }
+
+   /**
+    * Returns an int network mask whose {@code length} most significant bits are
+    * set
+    */
+   private static int mask(int length) {
+      return length == 0 ? 0 : -1 << (Prefix.MAX_PREFIX_LENGTH - length);
+   }
+
    /**
     *
     */
@@ -302,10 +215,10 @@ public abstract class AbstractRib<R extends AbstractRoute> implements IRib<R> {
 
    protected VirtualRouter _owner;
 
-   private ByteTrie _trie;
+   private RibTree _trie;
 
    public AbstractRib(VirtualRouter owner) {
-      _trie = new ByteTrie();
+      _trie = new RibTree();
       _owner = owner;
    }
 
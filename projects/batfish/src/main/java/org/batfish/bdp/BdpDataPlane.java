@@ -17,7 +17,6 @@ import org.batfish.datamodel.AbstractRoute;
 import org.batfish.datamodel.Configuration;
 import org.batfish.datamodel.ConnectedRoute;
 import org.batfish.datamodel.DataPlane;
-import org.batfish.datamodel.Edge;
 import org.batfish.datamodel.GeneratedRoute;
 import org.batfish.datamodel.IRib;
 import org.batfish.datamodel.Interface;
@@ -26,7 +25,6 @@ import org.batfish.datamodel.Prefix;
 import org.batfish.datamodel.Route;
 import org.batfish.datamodel.StaticRoute;
 import org.batfish.datamodel.Topology;
-import org.batfish.datamodel.collections.EdgeSet;
 import org.batfish.datamodel.collections.FibMap;
 import org.batfish.datamodel.collections.FibRow;
 import org.batfish.datamodel.collections.FibSet;
@@ -95,37 +93,32 @@ public class BdpDataPlane implements Serializable, DataPlane {
 
                   Set<FibRow> currentRows = new HashSet<>();
                   interfaceRouteRows.put(route, currentRows);
-                  EdgeSet edges = _topology.getInterfaceEdges()
-                        .get(new NodeInterfacePair(hostname, outInt));
-                  if (edges != null) {
-                     for (Edge edge : edges) {
-                        if (edge.getNode1().equals(hostname)) {
-                           // add interface route rows that are non-dropping for
-                           // recursive
-                           // matches to this route (for ips NOT in the
-                           // connected
-                           // subnet)
-                           String nextHopName = edge.getNode2();
-                           String nextHopInIntName = edge.getInt2();
-                           FibRow currentRow = new FibRow(network, outInt,
-                                 nextHopName, nextHopInIntName);
-                           currentRows.add(currentRow);
+                  for (NodeInterfacePair neighbor : _topology
+                        .getNeighbors(new NodeInterfacePair(hostname, outInt))) {
+                     // add interface route rows that are non-dropping for
+                     // recursive
+                     // matches to this route (for ips NOT in the
+                     // connected
+                     // subnet)
+                     String nextHopName = neighbor.getHostname();
+                     String nextHopInIntName = neighbor.getInterface();
+                     FibRow currentRow = new FibRow(network, outInt,
+                           nextHopName, nextHopInIntName);
+                     currentRows.add(currentRow);
 
-                           // handle connected neighbors
-                           Configuration nextHop = _nodes.get(nextHopName)._c;
-                           Interface nextHopInInt = nextHop.getInterfaces()
-                                 .get(nextHopInIntName);
-                           for (Prefix prefix : nextHopInInt.getAllPrefixes()) {
-                              Ip address = prefix.getAddress();
-                              if (network.contains(address)) {
-                                 Prefix neighborPrefix = new Prefix(
-                                       address,
-                                       Prefix.MAX_PREFIX_LENGTH);
-                                 FibRow neighborRow = new FibRow(neighborPrefix,
-                                       outInt, nextHopName, nextHopInIntName);
-                                 fibSet.add(neighborRow);
-                              }
-                           }
+                     // handle connected neighbors
+                     Configuration nextHop = _nodes.get(nextHopName)._c;
+                     Interface nextHopInInt = nextHop.getInterfaces()
+                           .get(nextHopInIntName);
+                     for (Prefix prefix : nextHopInInt.getAllPrefixes()) {
+                        Ip address = prefix.getAddress();
+                        if (network.contains(address)) {
+                           Prefix neighborPrefix = new Prefix(
+                                 address,
+                                 Prefix.MAX_PREFIX_LENGTH);
+                           FibRow neighborRow = new FibRow(neighborPrefix,
+                                 outInt, nextHopName, nextHopInIntName);
+                           fibSet.add(neighborRow);
                         }
                      }
                   }
@@ -156,20 +149,17 @@ public class BdpDataPlane implements Serializable, DataPlane {
                      }
                      else {
                         Set<FibRow> currentRows = new HashSet<>();
-                        EdgeSet edges = _topology.getInterfaceEdges()
-                              .get(new NodeInterfacePair(
-                                    hostname,
-                                    srNextHopInterface));
                         interfaceRouteRows.put(route, currentRows);
-                        for (Edge edge : edges) {
-                           if (edge.getNode1().equals(hostname)) {
-                              String nextHop = edge.getNode2();
-                              String nextHopInInt = edge.getInt2();
-                              FibRow row = new FibRow(network,
-                                    srNextHopInterface, nextHop, nextHopInInt);
-                              fibSet.add(row);
-                              currentRows.add(row);
-                           }
+                        for (NodeInterfacePair neighbor : _topology
+                              .getNeighbors(new NodeInterfacePair(
+                                    hostname,
+                                    srNextHopInterface))) {
+                           String nextHop = neighbor.getHostname();
+                           String nextHopInInt = neighbor.getInterface();
+                           FibRow row = new FibRow(network,
+                                 srNextHopInterface, nextHop, nextHopInInt);
+                           fibSet.add(row);
+                           currentRows.add(row);
                         }
                      }
                      break;
@@ -193,20 +183,17 @@ public class BdpDataPlane implements Serializable, DataPlane {
                      }
                      else {
                         Set<FibRow> currentRows = new HashSet<>();
-                        EdgeSet edges = _topology.getInterfaceEdges()
-                              .get(new NodeInterfacePair(
-                                    hostname,
-                                    srNextHopInterface));
                         interfaceRouteRows.put(route, currentRows);
-                        for (Edge edge : edges) {
-                           if (edge.getNode1().equals(hostname)) {
-                              String nextHop = edge.getNode2();
-                              String nextHopInInt = edge.getInt2();
-                              FibRow row = new FibRow(network,
-                                    srNextHopInterface, nextHop, nextHopInInt);
-                              fibSet.add(row);
-                              currentRows.add(row);
-                           }
+                        for (NodeInterfacePair neighbor : _topology
+                              .getNeighbors(new NodeInterfacePair(
+                                    hostname,
+                                    srNextHopInterface))) {
+                           String nextHop = neighbor.getHostname();
+                           String nextHopInInt = neighbor.getInterface();
+                           FibRow row = new FibRow(network,
+                                 srNextHopInterface, nextHop, nextHopInInt);
+                           fibSet.add(row);
+                           currentRows.add(row);
                         }
                      }
                      break;
@@ -324,8 +311,8 @@ public class BdpDataPlane implements Serializable, DataPlane {
    }
 
    @Override
-   public EdgeSet getTopologyEdges() {
-      return _topology.getEdges();
+   public Topology getTopology() {
+      return _topology;
    }
 
    protected void initIpOwners(
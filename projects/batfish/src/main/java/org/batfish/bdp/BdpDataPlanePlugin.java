@@ -12,8 +12,8 @@ import java.util.SortedMap;
 import java.util.SortedSet;
 import java.util.TreeMap;
 import java.util.TreeSet;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
 import org.apache.commons.collections4.map.LRUMap;
 import org.batfish.common.BatfishException;
 import org.batfish.common.Version;
@@ -67,14 +67,20 @@ public class BdpDataPlanePlugin extends DataPlanePlugin {
 
    private static final String TRACEROUTE_INGRESS_NODE_NAME = "traceroute_source_node";
 
-   private final Map<BdpDataPlane, Map<Flow, Set<FlowTrace>>> _flowTraces;
+   /**
+    * Number of hops in one batch of flow traces past which the batch is
+    * spilled to disk
+    */
+   private static final int MAX_IN_MEMORY_FLOW_TRACE_HOPS = 1000000;
+
+   private final FlowTraceStore _flowTraces;
 
    public BdpDataPlanePlugin() {
-      _flowTraces = new HashMap<>();
+      _flowTraces = new FlowTraceStore(MAX_IN_MEMORY_FLOW_TRACE_HOPS, true);
    }
 
    private void collectFlowTraces(
-         BdpDataPlane dp, String currentNodeName,
+         BdpDataPlane dp, TracerouteBatch batch, String currentNodeName,
          Set<Edge> visitedEdges, List<FlowTraceHop> hopsSoFar,
          Set<FlowTrace> flowTraces, Flow originalFlow, Flow transformedFlow) {
       Ip dstIp = transformedFlow.getDstIp();
@@ -96,52 +102,13 @@ public class BdpDataPlanePlugin extends DataPlanePlugin {
             vrfName = currentNode._c.getInterfaces().get(receivingInterface)
                   .getVrf().getName();
          }
-         VirtualRouter currentVirtualRouter = currentNode._virtualRouters
-               .get(vrfName);
-         Map<AbstractRoute, Map<String, Map<Ip, Set<AbstractRoute>>>> nextHopInterfacesByRoute =
-               currentVirtualRouter._fib
-                     .getNextHopInterfacesByRoute(dstIp);
-         Map<String, Map<Ip, Set<AbstractRoute>>> nextHopInterfacesWithRoutes =
-               currentVirtualRouter._fib
-                     .getNextHopInterfaces(dstIp);
-         if (!nextHopInterfacesWithRoutes.isEmpty()) {
-            for (String nextHopInterfaceName : nextHopInterfacesWithRoutes
-                  .keySet()) {
-               // SortedSet<String> routesForThisNextHopInterface = new
-               // TreeSet<>(
-               // nextHopInterfacesWithRoutes.get(nextHopInterfaceName)
-               // .stream().map(ar -> ar.toString())
-               // .collect(Collectors.toSet()));
-               SortedSet<String> routesForThisNextHopInterface = new TreeSet<>();
-               Ip finalNextHopIp = null;
-               for (Entry<AbstractRoute, Map<String, Map<Ip, Set<AbstractRoute>>>> e : nextHopInterfacesByRoute
-                     .entrySet()) {
-                  AbstractRoute routeCandidate = e.getKey();
-                  Map<String, Map<Ip, Set<AbstractRoute>>> routeCandidateNextHopInterfaces = e
-                        .getValue();
-                  if (routeCandidateNextHopInterfaces
-                        .containsKey(nextHopInterfaceName)) {
-                     Ip nextHopIp = routeCandidate.getNextHopIp();
-                     if (!nextHopIp.equals(Route.UNSET_ROUTE_NEXT_HOP_IP)) {
-                        Set<Ip> finalNextHopIps = routeCandidateNextHopInterfaces
-                              .get(nextHopInterfaceName).keySet();
-                        if (finalNextHopIps.size() > 1) {
-                           throw new BatfishException(
-                                 "Can not currently handle multiple final next hop ips across multiple routes leading to one next hop interface");
-                        }
-                        Ip newFinalNextHopIp = finalNextHopIps.iterator()
-                              .next();
-                        if (finalNextHopIp != null
-                              && !newFinalNextHopIp.equals(finalNextHopIp)) {
-                           throw new BatfishException(
-                                 "Can not currently handle multiple final next hop ips for same next hop interface");
-                        }
-                        finalNextHopIp = newFinalNextHopIp;
-                     }
-                     routesForThisNextHopInterface.add(routeCandidate.toString()
-                           + "_fnhip:" + finalNextHopIp);
-                  }
-               }
+         List<TracerouteBatch.NextHop> nextHops = batch.getNextHops(
+               currentNode, vrfName, dstIp);
+         if (!nextHops.isEmpty()) {
+            for (TracerouteBatch.NextHop nextHop : nextHops) {
+               String nextHopInterfaceName = nextHop._interfaceName;
+               SortedSet<String> routesForThisNextHopInterface = nextHop._routes;
+               Ip finalNextHopIp = nextHop._finalNextHopIp;
                NodeInterfacePair nextHopInterface = new NodeInterfacePair(
                      currentNodeName, nextHopInterfaceName);
                if (nextHopInterfaceName.equals(Interface.NULL_INTERFACE_NAME)) {
@@ -198,12 +165,12 @@ public class BdpDataPlanePlugin extends DataPlanePlugin {
                         }
                      }
                   }
-                  EdgeSet edges = dp._topology.getInterfaceEdges()
-                        .get(nextHopInterface);
-                  if (edges != null) {
+                  EdgeSet edges = dp._topology
+                        .getOutgoingEdges(nextHopInterface);
+                  if (!edges.isEmpty()) {
                      boolean continueToNextNextHopInterface = false;
                      continueToNextNextHopInterface = processCurrentNextHopInterfaceEdges(
-                           dp, currentNodeName, visitedEdges, hopsSoFar,
+                           dp, batch, currentNodeName, visitedEdges, hopsSoFar,
                            flowTraces, originalFlow, transformedFlow, dstIp,
                            dstIpOwners, nextHopInterfaceName,
                            routesForThisNextHopInterface, finalNextHopIp,
@@ -276,6 +243,8 @@ public class BdpDataPlanePlugin extends DataPlanePlugin {
       Map<Ip, String> ipOwnersSimple = _batfish.computeIpOwnersSimple(ipOwners);
       dp.initIpOwners(configurations, ipOwners, ipOwnersSimple);
       _batfish.initRemoteBgpNeighbors(configurations, dp.getIpOwners());
+      configurations.values()
+            .forEach(c -> c.resolveRoutingPolicyReferences());
       Map<String, Node> nodes = new TreeMap<>();
       configurations.values()
             .forEach(c -> nodes.put(c.getHostname(), new Node(c, nodes)));
@@ -387,6 +356,24 @@ public class BdpDataPlanePlugin extends DataPlanePlugin {
       });
       // END DONE ONCE
 
+      /*
+       * Record which routers read the routes of each router, so that each
+       * iteration only recomputes routers with a pending delta
+       */
+      nodes.values().forEach(n -> {
+         for (VirtualRouter vr : n._virtualRouters.values()) {
+            vr._dependentRouters = new ArrayList<>();
+            vr._hasPendingDelta = true;
+         }
+      });
+      nodes.values().forEach(n -> {
+         for (VirtualRouter vr : n._virtualRouters.values()) {
+            for (VirtualRouter source : vr.getSourceRouters(topology)) {
+               source._dependentRouters.add(vr);
+            }
+         }
+      });
+
       Map<Integer, Integer> iterationByHashCode = new HashMap<>();
       Map<Integer, Integer> iterationHashCodes = new TreeMap<>();
       Map<Integer, RouteSet> iterationRoutes = null;
@@ -407,6 +394,11 @@ public class BdpDataPlanePlugin extends DataPlanePlugin {
                      + ": Reinitialize dependent routes", nodes.size());
          nodes.values().parallelStream().forEach(n -> {
             for (VirtualRouter vr : n._virtualRouters.values()) {
+               if (!vr._hasPendingDelta) {
+                  // recomputing would reproduce the routes it already has
+                  vr.reuseDependentRoutes();
+                  continue;
+               }
 
                /*
                 * RIBs that are read from
@@ -479,8 +471,8 @@ public class BdpDataPlanePlugin extends DataPlanePlugin {
          nodes.values().parallelStream().forEach(n -> {
             boolean staticChanged = true;
             while (staticChanged) {
-               for (VirtualRouter vr : n._virtualRouters.values()) {
-                  staticChanged = false;
+               staticChanged = false;
+               for (VirtualRouter vr : pendingVirtualRouters(n)) {
                   if (vr.activateStaticRoutes()) {
                      staticChanged = true;
                   }
@@ -496,7 +488,7 @@ public class BdpDataPlanePlugin extends DataPlanePlugin {
                            + ": Recompute aggregate/generated routes",
                      nodes.size());
          nodes.values().parallelStream().forEach(n -> {
-            for (VirtualRouter vr : n._virtualRouters.values()) {
+            for (VirtualRouter vr : pendingVirtualRouters(n)) {
                boolean generatedChanged = true;
                vr._generatedRib = new Rib(vr);
                while (generatedChanged) {
@@ -513,7 +505,7 @@ public class BdpDataPlanePlugin extends DataPlanePlugin {
          // OSPF external routes
          // recompute exports
          nodes.values().parallelStream().forEach(n -> {
-            for (VirtualRouter vr : n._virtualRouters.values()) {
+            for (VirtualRouter vr : pendingVirtualRouters(n)) {
                vr.initOspfExports();
             }
          });
@@ -529,7 +521,7 @@ public class BdpDataPlanePlugin extends DataPlanePlugin {
                         + ospfExternalSubIterations, nodes.size());
             ospfExternalChanged[0] = false;
             nodes.values().parallelStream().forEach(n -> {
-               for (VirtualRouter vr : n._virtualRouters.values()) {
+               for (VirtualRouter vr : pendingVirtualRouters(n)) {
                   if (vr.propagateOspfExternalRoutes(nodes, topology)) {
                      synchronized (routesChangedMonitor) {
                         ospfExternalChanged[0] = true;
@@ -543,7 +535,7 @@ public class BdpDataPlanePlugin extends DataPlanePlugin {
                         + ": Unstage OSPF external routes: subIteration: "
                         + ospfExternalSubIterations, nodes.size());
             nodes.values().parallelStream().forEach(n -> {
-               for (VirtualRouter vr : n._virtualRouters.values()) {
+               for (VirtualRouter vr : pendingVirtualRouters(n)) {
                   vr.unstageOspfExternalRoutes();
                }
                unstageOspfExternalCompleted.incrementAndGet();
@@ -553,7 +545,7 @@ public class BdpDataPlanePlugin extends DataPlanePlugin {
                .newBatch("Iteration " + dependentRoutesIterations
                      + ": Unstage OSPF external routes", nodes.size());
          nodes.values().parallelStream().forEach(n -> {
-            for (VirtualRouter vr : n._virtualRouters.values()) {
+            for (VirtualRouter vr : pendingVirtualRouters(n)) {
                vr.importRib(vr._ospfRib, vr._ospfExternalType1Rib);
                vr.importRib(vr._ospfRib, vr._ospfExternalType2Rib);
                vr.importRib(vr._mainRib, vr._ospfRib);
@@ -564,7 +556,7 @@ public class BdpDataPlanePlugin extends DataPlanePlugin {
          // BGP routes
          // first let's initialize nodes-level generated/aggregate routes
          nodes.values().parallelStream().forEach(n -> {
-            for (VirtualRouter vr : n._virtualRouters.values()) {
+            for (VirtualRouter vr : pendingVirtualRouters(n)) {
                if (vr._vrf.getBgpProcess() != null) {
                   vr.initBgpAggregateRoutes();
                }
@@ -575,7 +567,7 @@ public class BdpDataPlanePlugin extends DataPlanePlugin {
                      + dependentRoutesIterations + ": Propagate BGP routes",
                nodes.size());
          nodes.values().parallelStream().forEach(n -> {
-            for (VirtualRouter vr : n._virtualRouters.values()) {
+            for (VirtualRouter vr : pendingVirtualRouters(n)) {
                vr.propagateBgpRoutes(nodes, dp.getIpOwners());
             }
             propagateBgpCompleted.incrementAndGet();
@@ -585,7 +577,7 @@ public class BdpDataPlanePlugin extends DataPlanePlugin {
                      + ": Import BGP routes into respective RIBs",
                nodes.size());
          nodes.values().parallelStream().forEach(n -> {
-            for (VirtualRouter vr : n._virtualRouters.values()) {
+            for (VirtualRouter vr : pendingVirtualRouters(n)) {
                vr.unstageBgpRoutes();
                BgpProcess proc = vr._vrf.getBgpProcess();
                if (proc != null && proc.getMultipathEbgp()) {
@@ -668,8 +660,10 @@ public class BdpDataPlanePlugin extends DataPlanePlugin {
             }
          }
 
+         List<VirtualRouter> changedRouters = Collections
+               .synchronizedList(new ArrayList<>());
          nodes.values().parallelStream().forEach(n -> {
-            for (VirtualRouter vr : n._virtualRouters.values()) {
+            for (VirtualRouter vr : pendingVirtualRouters(n)) {
                boolean changed = false;
                if (!vr._mainRib.getRoutes()
                      .equals(vr._prevMainRib.getRoutes())) {
@@ -688,33 +682,53 @@ public class BdpDataPlanePlugin extends DataPlanePlugin {
                      dependentRoutesChanged[0] = true;
                   }
                }
+               // BGP peers also read the BGP RIBs
+               if (changed
+                     || !vr._bgpMultipathRib.getRoutes()
+                           .equals(vr._prevBgpRib.getRoutes())
+                     || !vr._bgpBestPathRib.getRoutes()
+                           .equals(vr._prevBgpBestPathRib.getRoutes())
+                     || !vr._ebgpBestPathRib.getRoutes()
+                           .equals(vr._prevEbgpBestPathRib.getRoutes())) {
+                  changedRouters.add(vr);
+               }
             }
             checkFixedPointCompleted.incrementAndGet();
          });
+
+         // only routers reading routes that changed have a pending delta
+         nodes.values().forEach(n -> {
+            for (VirtualRouter vr : n._virtualRouters.values()) {
+               vr._hasPendingDelta = false;
+            }
+         });
+         for (VirtualRouter vr : changedRouters) {
+            vr._hasPendingDelta = true;
+            for (VirtualRouter dependent : vr._dependentRouters) {
+               dependent._hasPendingDelta = true;
+            }
+         }
       }
+      nodes.values().parallelStream().forEach(n -> {
+         for (VirtualRouter vr : n._virtualRouters.values()) {
+            vr.clearPropagationState();
+         }
+      });
       ae.setOspfInternalIterations(ospfInternalIterations);
       ae.setDependentRoutesIterations(dependentRoutesIterations);
    }
 
    private int computeIterationHashCode(Map<String, Node> nodes) {
-      int mainHash = nodes.values().parallelStream()
-            .mapToInt(n -> n._virtualRouters.values().stream()
-                  .mapToInt(vr -> vr._mainRib.getRoutes().hashCode()).sum())
-            .sum();
-      int ospfExternalType1Hash = nodes.values().parallelStream()
-            .mapToInt(n -> n._virtualRouters.values().stream()
-                  .mapToInt(
-                        vr -> vr._ospfExternalType1Rib.getRoutes().hashCode())
-                  .sum())
-            .sum();
-      int ospfExternalType2Hash = nodes.values().parallelStream()
-            .mapToInt(n -> n._virtualRouters.values().stream()
-                  .mapToInt(
-                        vr -> vr._ospfExternalType2Rib.getRoutes().hashCode())
-                  .sum())
-            .sum();
-      int hash = mainHash + ospfExternalType1Hash + ospfExternalType2Hash;
-      return hash;
+      // routers without a pending delta kept their routes, and so their hash
+      return nodes.values().parallelStream()
+            .mapToInt(n -> n._virtualRouters.values().stream().mapToInt(vr -> {
+               if (vr._hasPendingDelta) {
+                  vr._fixedPointHashCode = vr._mainRib.getRoutes().hashCode()
+                        + vr._ospfExternalType1Rib.getRoutes().hashCode()
+                        + vr._ospfExternalType2Rib.getRoutes().hashCode();
+               }
+               return vr._fixedPointHashCode;
+            }).sum()).sum();
    }
 
    private RouteSet computeOutputRoutes(
@@ -833,6 +847,11 @@ public class BdpDataPlanePlugin extends DataPlanePlugin {
       return denied;
    }
 
+   @Override
+   public void forEachHistoryFlowTrace(BiConsumer<Flow, FlowTrace> consumer) {
+      _flowTraces.forEach(loadDataPlane(), consumer);
+   }
+
    @Override
    public AdvertisementSet getAdvertisements() {
       AdvertisementSet adverts = new AdvertisementSet();
@@ -850,11 +869,7 @@ public class BdpDataPlanePlugin extends DataPlanePlugin {
    public List<Flow> getHistoryFlows() {
       BdpDataPlane dp = loadDataPlane();
       List<Flow> flowList = new ArrayList<>();
-      _flowTraces.get(dp).forEach((flow, flowTraces) -> {
-         for (int i = 0; i < flowTraces.size(); i++) {
-            flowList.add(flow);
-         }
-      });
+      _flowTraces.forEach(dp, (flow, flowTrace) -> flowList.add(flow));
       return flowList;
    }
 
@@ -862,11 +877,8 @@ public class BdpDataPlanePlugin extends DataPlanePlugin {
    public List<FlowTrace> getHistoryFlowTraces() {
       BdpDataPlane dp = loadDataPlane();
       List<FlowTrace> flowTraceList = new ArrayList<>();
-      _flowTraces.get(dp).forEach((flow, flowTraces) -> {
-         for (FlowTrace flowTrace : flowTraces) {
-            flowTraceList.add(flowTrace);
-         }
-      });
+      _flowTraces.forEach(dp,
+            (flow, flowTrace) -> flowTraceList.add(flowTrace));
       return flowTraceList;
    }
 
@@ -941,8 +953,22 @@ public class BdpDataPlanePlugin extends DataPlanePlugin {
       return trace;
    }
 
+   /**
+    * Returns the virtual routers of {@code node} whose dependent routes must
+    * be recomputed in the current iteration
+    */
+   private static List<VirtualRouter> pendingVirtualRouters(Node node) {
+      List<VirtualRouter> pending = new ArrayList<>();
+      for (VirtualRouter vr : node._virtualRouters.values()) {
+         if (vr._hasPendingDelta) {
+            pending.add(vr);
+         }
+      }
+      return pending;
+   }
+
    private boolean processCurrentNextHopInterfaceEdges(
-         BdpDataPlane dp,
+         BdpDataPlane dp, TracerouteBatch batch,
          String currentNodeName, Set<Edge> visitedEdges,
          List<FlowTraceHop> hopsSoFar, Set<FlowTrace> flowTraces,
          Flow originalFlow, Flow transformedFlow, Ip dstIp,
@@ -1058,7 +1084,7 @@ public class BdpDataPlanePlugin extends DataPlanePlugin {
             }
          }
          // recurse
-         collectFlowTraces(dp, nextNodeName, newVisitedEdges, newHops,
+         collectFlowTraces(dp, batch, nextNodeName, newVisitedEdges, newHops,
                flowTraces, originalFlow, transformedFlow);
       }
       if (arp) {
@@ -1077,20 +1103,23 @@ public class BdpDataPlanePlugin extends DataPlanePlugin {
    @Override
    public void processFlows(Set<Flow> flows) {
       BdpDataPlane dp = loadDataPlane();
-      Map<Flow, Set<FlowTrace>> flowTraces = new ConcurrentHashMap<>();
-      flows.parallelStream().forEach(flow -> {
-         Set<FlowTrace> currentFlowTraces = new TreeSet<>();
-         flowTraces.put(flow, currentFlowTraces);
-         String ingressNodeName = flow.getIngressNode();
-         if (ingressNodeName == null) {
+      for (Flow flow : flows) {
+         if (flow.getIngressNode() == null) {
             throw new BatfishException(
                   "Cannot construct flow trace since ingressNode is not specified");
          }
-         Ip dstIp = flow.getDstIp();
-         if (dstIp == null) {
+         if (flow.getDstIp() == null) {
             throw new BatfishException(
                   "Cannot construct flow trace since dstIp is not specified");
          }
+      }
+      TracerouteBatch batch = new TracerouteBatch(dp);
+      FlowTraceStore.Batch flowTraces = _flowTraces.newBatch();
+      batch.classify(flows).parallelStream().forEach(flowClass -> {
+         Flow flow = flowClass.get(0);
+         Set<FlowTrace> currentFlowTraces = new TreeSet<>();
+         String ingressNodeName = flow.getIngressNode();
+         Ip dstIp = flow.getDstIp();
          Set<Edge> visitedEdges = Collections.emptySet();
          List<FlowTraceHop> hops = new ArrayList<>();
          Set<String> dstIpOwners = dp._ipOwners.get(dstIp);
@@ -1100,17 +1129,24 @@ public class BdpDataPlanePlugin extends DataPlanePlugin {
             edges.add(new Edge(TRACEROUTE_INGRESS_NODE_NAME,
                   TRACEROUTE_INGRESS_NODE_INTERFACE_NAME, ingressNodeName,
                   ingressInterfaceName));
-            processCurrentNextHopInterfaceEdges(dp,
+            processCurrentNextHopInterfaceEdges(dp, batch,
                   TRACEROUTE_INGRESS_NODE_NAME, visitedEdges, hops,
                   currentFlowTraces, flow, flow, dstIp, dstIpOwners, null,
                   new TreeSet<>(), null, null, edges, false);
          }
          else {
-            collectFlowTraces(dp, ingressNodeName, visitedEdges, hops,
+            collectFlowTraces(dp, batch, ingressNodeName, visitedEdges, hops,
                   currentFlowTraces, flow, flow);
          }
+         Map<Flow, Set<FlowTrace>> classFlowTraces = new HashMap<>();
+         classFlowTraces.put(flow, currentFlowTraces);
+         for (Flow member : flowClass.subList(1, flowClass.size())) {
+            classFlowTraces.put(member,
+                  batch.fanOut(currentFlowTraces, member));
+         }
+         flowTraces.add(classFlowTraces);
       });
-      _flowTraces.put(dp, new TreeMap<>(flowTraces));
+      _flowTraces.put(dp, flowTraces);
    }
 
 }
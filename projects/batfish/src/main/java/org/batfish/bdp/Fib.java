@@ -1,8 +1,10 @@
 package org.batfish.bdp;
 
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
@@ -15,79 +17,183 @@ import org.batfish.datamodel.Route;
 
 public class Fib implements Serializable {
 
-   private static final int MAX_DEPTH = 10;
-
    /**
-    *
+    * Next-hop interfaces reached by recursively resolving a route or a
+    * next-hop IP
     */
-   private static final long serialVersionUID = 1L;
+   private static final class Resolution {
 
-   private final Map<AbstractRoute, Map<String, Map<Ip, Set<AbstractRoute>>>> _nextHopInterfaces;
+      private static final Resolution CUT = new Resolution(new TreeMap<>(), 0,
+            true);
 
-   private final Rib _rib;
+      /**
+       * Whether resolution stopped at a network already on the recursion
+       * path, in which case the result depends on that path
+       */
+      private final boolean _cut;
 
-   public Fib(Rib rib) {
-      _rib = rib;
-      _nextHopInterfaces = new HashMap<>();
-      for (AbstractRoute route : rib.getRoutes()) {
-         Map<String, Map<Ip, Set<AbstractRoute>>> nextHopInterfaces = new TreeMap<>();
-         collectNextHopInterfaces(route, Route.UNSET_ROUTE_NEXT_HOP_IP,
-               nextHopInterfaces, new HashSet<>(), 0);
-         _nextHopInterfaces.put(route, nextHopInterfaces);
+      /**
+       * Number of recursion levels below the one that produced this
+       * resolution
+       */
+      private final int _height;
+
+      private final Map<String, Map<Ip, Set<AbstractRoute>>> _nextHopInterfaces;
+
+      private Resolution(
+            Map<String, Map<Ip, Set<AbstractRoute>>> nextHopInterfaces,
+            int height, boolean cut) {
+         _nextHopInterfaces = nextHopInterfaces;
+         _height = height;
+         _cut = cut;
       }
+
    }
 
-   private void collectNextHopInterfaces(
-         AbstractRoute route,
-         Ip mostRecentNextHopIp,
-         Map<String, Map<Ip, Set<AbstractRoute>>> nextHopInterfaces,
-         Set<Prefix> seenNetworks, int depth) {
-      Prefix network = route.getNetwork();
-      if (seenNetworks.contains(network)) {
-         return;
-      }
-      Set<Prefix> newSeenNetworks = new HashSet<>(seenNetworks);
-      newSeenNetworks.add(network);
-      if (depth > MAX_DEPTH) {
-         throw new BatfishException(
-               "Exceeded max route recursion depth: " + MAX_DEPTH);
+   /**
+    * Resolves the routes of a RIB, sharing the resolution of each next-hop IP
+    * among all routes that recurse through it
+    */
+   private static final class Resolver {
+
+      /**
+       * Networks of the routes on the current recursion path
+       */
+      private final Set<Prefix> _path;
+
+      /**
+       * Resolutions of next-hop IPs that do not depend on the recursion path
+       */
+      private final Map<Ip, Resolution> _resolutions;
+
+      private final Rib _rib;
+
+      private Resolver(Rib rib) {
+         _rib = rib;
+         _path = new HashSet<>();
+         _resolutions = new HashMap<>();
       }
-      Ip nextHopIp = route.getNextHopIp();
-      if (!nextHopIp.equals(Route.UNSET_ROUTE_NEXT_HOP_IP)) {
-         Set<AbstractRoute> nextHopLongestPrefixMatchRoutes = _rib
-               .longestPrefixMatch(nextHopIp);
-         for (AbstractRoute nextHopLongestPrefixMatchRoute : nextHopLongestPrefixMatchRoutes) {
-            collectNextHopInterfaces(nextHopLongestPrefixMatchRoute, nextHopIp,
-                  nextHopInterfaces, newSeenNetworks, depth + 1);
+
+      private Resolution resolveNextHopIp(Ip nextHopIp, int depth) {
+         Resolution resolution = _resolutions.get(nextHopIp);
+         if (resolution != null) {
+            if (depth + resolution._height > MAX_DEPTH) {
+               throw new BatfishException(
+                     "Exceeded max route recursion depth: " + MAX_DEPTH);
+            }
+            return resolution;
+         }
+         List<Resolution> routeResolutions = new ArrayList<>();
+         for (AbstractRoute nextHopLongestPrefixMatchRoute : _rib
+               .longestPrefixMatch(nextHopIp)) {
+            routeResolutions.add(resolveRoute(nextHopLongestPrefixMatchRoute,
+                  nextHopIp, depth));
+         }
+         resolution = merge(routeResolutions);
+         if (!resolution._cut) {
+            _resolutions.put(nextHopIp, resolution);
          }
+         return resolution;
       }
-      else {
-         String nextHopInterface = route.getNextHopInterface();
-         if (nextHopInterface != null) {
-
-            Map<Ip, Set<AbstractRoute>> nextHopInterfaceRoutesByFinalNextHopIp = nextHopInterfaces
-                  .get(nextHopInterface);
-            if (nextHopInterfaceRoutesByFinalNextHopIp == null) {
-               nextHopInterfaceRoutesByFinalNextHopIp = new HashMap<>();
-               nextHopInterfaces.put(
-                     nextHopInterface,
-                     nextHopInterfaceRoutesByFinalNextHopIp);
+
+      private Resolution resolveRoute(AbstractRoute route,
+            Ip mostRecentNextHopIp, int depth) {
+         Prefix network = route.getNetwork();
+         if (_path.contains(network)) {
+            return Resolution.CUT;
+         }
+         if (depth > MAX_DEPTH) {
+            throw new BatfishException(
+                  "Exceeded max route recursion depth: " + MAX_DEPTH);
+         }
+         Ip nextHopIp = route.getNextHopIp();
+         if (!nextHopIp.equals(Route.UNSET_ROUTE_NEXT_HOP_IP)) {
+            _path.add(network);
+            try {
+               Resolution resolution = resolveNextHopIp(nextHopIp, depth + 1);
+               return new Resolution(resolution._nextHopInterfaces,
+                     resolution._height + 1, resolution._cut);
             }
-            Set<AbstractRoute> nextHopInterfaceRoutes = nextHopInterfaceRoutesByFinalNextHopIp
-                  .get(mostRecentNextHopIp);
-            if (nextHopInterfaceRoutes == null) {
-               nextHopInterfaceRoutes = new TreeSet<>();
-               nextHopInterfaceRoutesByFinalNextHopIp.put(
-                     mostRecentNextHopIp,
-                     nextHopInterfaceRoutes);
+            finally {
+               _path.remove(network);
             }
-            nextHopInterfaceRoutes.add(route);
          }
          else {
-            throw new BatfishException(
-                  "Encountered route with neither nextHopIp nor nextHopInterface");
+            String nextHopInterface = route.getNextHopInterface();
+            if (nextHopInterface != null) {
+               Set<AbstractRoute> nextHopInterfaceRoutes = new TreeSet<>();
+               nextHopInterfaceRoutes.add(route);
+               Map<Ip, Set<AbstractRoute>> nextHopInterfaceRoutesByFinalNextHopIp = new HashMap<>();
+               nextHopInterfaceRoutesByFinalNextHopIp.put(mostRecentNextHopIp,
+                     nextHopInterfaceRoutes);
+               Map<String, Map<Ip, Set<AbstractRoute>>> nextHopInterfaces = new TreeMap<>();
+               nextHopInterfaces.put(nextHopInterface,
+                     nextHopInterfaceRoutesByFinalNextHopIp);
+               return new Resolution(nextHopInterfaces, 0, false);
+            }
+            else {
+               throw new BatfishException(
+                     "Encountered route with neither nextHopIp nor nextHopInterface");
+            }
          }
       }
+
+   }
+
+   private static final int MAX_DEPTH = 10;
+
+   /**
+    *
+    */
+   private static final long serialVersionUID = 1L;
+
+   /**
+    * Returns the union of {@code resolutions}, reusing the maps of a single
+    * resolution rather than copying them
+    */
+   private static Resolution merge(List<Resolution> resolutions) {
+      if (resolutions.size() == 1) {
+         return resolutions.get(0);
+      }
+      Map<String, Map<Ip, Set<AbstractRoute>>> nextHopInterfaces = new TreeMap<>();
+      int height = 0;
+      boolean cut = false;
+      for (Resolution resolution : resolutions) {
+         height = Math.max(height, resolution._height);
+         cut |= resolution._cut;
+         resolution._nextHopInterfaces.forEach(
+               (nextHopInterface, nextHopInterfaceRoutesByFinalNextHopIp) -> {
+                  Map<Ip, Set<AbstractRoute>> mergedRoutesByFinalNextHopIp = nextHopInterfaces
+                        .computeIfAbsent(nextHopInterface,
+                              i -> new HashMap<>());
+                  nextHopInterfaceRoutesByFinalNextHopIp
+                        .forEach((finalNextHopIp, routes) -> {
+                           mergedRoutesByFinalNextHopIp
+                                 .computeIfAbsent(finalNextHopIp,
+                                       ip -> new TreeSet<>())
+                                 .addAll(routes);
+                        });
+               });
+      }
+      return new Resolution(nextHopInterfaces, height, cut);
+   }
+
+   /**
+    * Resolved next-hop interfaces of each route. Routes recursing through
+    * the same next-hop IP share the same maps, which must not be modified.
+    */
+   private final Map<AbstractRoute, Map<String, Map<Ip, Set<AbstractRoute>>>> _nextHopInterfaces;
+
+   private final Rib _rib;
+
+   public Fib(Rib rib) {
+      _rib = rib;
+      _nextHopInterfaces = new HashMap<>();
+      Resolver resolver = new Resolver(rib);
+      for (AbstractRoute route : rib.getRoutes()) {
+         _nextHopInterfaces.put(route, resolver.resolveRoute(route,
+               Route.UNSET_ROUTE_NEXT_HOP_IP, 0)._nextHopInterfaces);
+      }
    }
 
    public Map<String, Map<Ip, Set<AbstractRoute>>> getNextHopInterfaces(Ip ip) {
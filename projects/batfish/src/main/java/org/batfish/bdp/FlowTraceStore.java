@@ -0,0 +1,347 @@
+package org.batfish.bdp;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.lang.ref.PhantomReference;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import org.batfish.common.BatfishException;
+import org.batfish.datamodel.Edge;
+import org.batfish.datamodel.Flow;
+import org.batfish.datamodel.FlowTrace;
+import org.batfish.datamodel.FlowTraceHop;
+
+/**
+ * Holds the flow traces of the last batch of flows processed against each
+ * data plane. Entries go away with their data plane, hops share interned
+ * edges and route sets, and once a batch holds more hops than fit in memory
+ * it is written to a temporary file as it is built and read back one flow
+ * at a time.
+ */
+final class FlowTraceStore {
+
+   /**
+    * The traces of one batch, in memory until they pass the hop limit and in
+    * a spill file from then on
+    */
+   final class Batch {
+
+      private SortedMap<Flow, Set<FlowTrace>> _flowTraces;
+
+      private long _numHops;
+
+      private SortedMap<Flow, Long> _offsets;
+
+      private SpillFile _spillFile;
+
+      private Batch() {
+         _flowTraces = new TreeMap<>();
+      }
+
+      /**
+       * Adds the traces of a group of flows, such as one traced class. Flows
+       * of the group may share their trace set, in which case it is stored
+       * once.
+       */
+      synchronized void add(Map<Flow, Set<FlowTrace>> flowTraces) {
+         Map<Set<FlowTrace>, Set<FlowTrace>> compacted = new IdentityHashMap<>();
+         Map<Set<FlowTrace>, Long> written = new IdentityHashMap<>();
+         for (Entry<Flow, Set<FlowTrace>> e : flowTraces.entrySet()) {
+            Set<FlowTrace> traces = e.getValue();
+            if (_spillFile != null) {
+               Long offset = written.get(traces);
+               if (offset == null) {
+                  offset = _spillFile.write(traces);
+                  written.put(traces, offset);
+               }
+               _offsets.put(e.getKey(), offset);
+               continue;
+            }
+            Set<FlowTrace> compactTraces = compacted.get(traces);
+            if (compactTraces == null) {
+               compactTraces = compact(traces);
+               compacted.put(traces, compactTraces);
+               for (FlowTrace trace : compactTraces) {
+                  _numHops += trace.getHops().size();
+               }
+            }
+            _flowTraces.put(e.getKey(), compactTraces);
+         }
+         if (_spillFile == null && _spill && _numHops > _maxInMemoryHops) {
+            spill();
+         }
+      }
+
+      private synchronized void delete() {
+         if (_spillFile != null) {
+            _spillFile.delete();
+            _spillFile = null;
+            _offsets = null;
+         }
+         // a reader that raced with the replacement sees an empty batch
+         _flowTraces = new TreeMap<>();
+      }
+
+      private synchronized void forEach(BiConsumer<Flow, FlowTrace> consumer) {
+         if (_spillFile == null) {
+            _flowTraces.forEach((flow, flowTraces) -> {
+               for (FlowTrace flowTrace : flowTraces) {
+                  consumer.accept(flow, flowTrace);
+               }
+            });
+            return;
+         }
+         long lastOffset = -1;
+         Set<FlowTrace> flowTraces = null;
+         for (Entry<Flow, Long> e : _offsets.entrySet()) {
+            long offset = e.getValue();
+            // flows sharing a trace set are usually adjacent
+            if (offset != lastOffset) {
+               flowTraces = _spillFile.read(offset);
+               lastOffset = offset;
+            }
+            for (FlowTrace flowTrace : flowTraces) {
+               consumer.accept(e.getKey(), flowTrace);
+            }
+         }
+      }
+
+      private void spill() {
+         _spillFile = new SpillFile(this);
+         _offsets = new TreeMap<>();
+         Map<Set<FlowTrace>, Long> written = new IdentityHashMap<>();
+         for (Entry<Flow, Set<FlowTrace>> e : _flowTraces.entrySet()) {
+            Set<FlowTrace> traces = e.getValue();
+            Long offset = written.get(traces);
+            if (offset == null) {
+               offset = _spillFile.write(traces);
+               written.put(traces, offset);
+            }
+            _offsets.put(e.getKey(), offset);
+         }
+         _flowTraces = null;
+      }
+
+   }
+
+   /**
+    * A temporary file holding length-prefixed serialized trace sets. It is
+    * deleted when its batch is replaced, or once its batch is collected
+    * without having been replaced.
+    */
+   private static final class SpillFile extends PhantomReference<Batch> {
+
+      private final FileChannel _channel;
+
+      private final Path _path;
+
+      private SpillFile(Batch batch) {
+         super(batch, SPILL_FILE_QUEUE);
+         Path path = null;
+         try {
+            path = Files.createTempFile("batfish-flowtraces", ".ser");
+            _channel = FileChannel.open(path, StandardOpenOption.READ,
+                  StandardOpenOption.WRITE);
+         }
+         catch (IOException e) {
+            if (path != null) {
+               path.toFile().delete();
+            }
+            throw new BatfishException(
+                  "Could not create flow trace spill file: " + path, e);
+         }
+         _path = path;
+         SPILL_FILES.add(this);
+      }
+
+      private void delete() {
+         clear();
+         SPILL_FILES.remove(this);
+         try {
+            _channel.close();
+            Files.deleteIfExists(_path);
+         }
+         catch (IOException e) {
+            throw new BatfishException(
+                  "Could not delete flow trace spill file: " + _path, e);
+         }
+      }
+
+      @SuppressWarnings("unchecked")
+      private Set<FlowTrace> read(long offset) {
+         try {
+            ByteBuffer length = ByteBuffer.allocate(Integer.BYTES);
+            readFully(length, offset);
+            ByteBuffer bytes = ByteBuffer.allocate(length.getInt(0));
+            readFully(bytes, offset + Integer.BYTES);
+            try (ObjectInputStream in = new ObjectInputStream(
+                  new ByteArrayInputStream(bytes.array()))) {
+               return (Set<FlowTrace>) in.readObject();
+            }
+         }
+         catch (IOException | ClassNotFoundException e) {
+            throw new BatfishException(
+                  "Could not read flow traces from: " + _path, e);
+         }
+      }
+
+      private void readFully(ByteBuffer buffer, long position)
+            throws IOException {
+         while (buffer.hasRemaining()) {
+            int read = _channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+               throw new IOException("Unexpected end of file");
+            }
+         }
+      }
+
+      /**
+       * Appends {@code traces} and returns the offset to read them back from
+       */
+      private long write(Set<FlowTrace> traces) {
+         try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+               out.writeObject(traces);
+            }
+            long offset = _channel.size();
+            ByteBuffer buffer = ByteBuffer
+                  .allocate(Integer.BYTES + bytes.size());
+            buffer.putInt(bytes.size());
+            buffer.put(bytes.toByteArray());
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+               _channel.write(buffer, offset + buffer.position());
+            }
+            return offset;
+         }
+         catch (IOException e) {
+            throw new BatfishException(
+                  "Could not spill flow traces to: " + _path, e);
+         }
+      }
+
+   }
+
+   private static final ReferenceQueue<Batch> SPILL_FILE_QUEUE = new ReferenceQueue<>();
+
+   /**
+    * Keeps every live spill file reachable until it is deleted
+    */
+   private static final Set<SpillFile> SPILL_FILES = ConcurrentHashMap
+         .newKeySet();
+
+   /**
+    * Deletes the spill files of batches that were collected without being
+    * replaced, e.g. because their data plane was evicted from the cache
+    */
+   private static void deleteUnreachableSpillFiles() {
+      Reference<? extends Batch> spillFile;
+      while ((spillFile = SPILL_FILE_QUEUE.poll()) != null) {
+         ((SpillFile) spillFile).delete();
+      }
+   }
+
+   private final Map<BdpDataPlane, Batch> _batches;
+
+   private final Interner<Edge> _edges;
+
+   private final int _maxInMemoryHops;
+
+   private final Interner<SortedSet<String>> _routes;
+
+   private final boolean _spill;
+
+   /**
+    * @param maxInMemoryHops
+    *           Number of hops past which a batch is spilled to disk
+    * @param spill
+    *           Whether to spill large batches at all, rather than keep every
+    *           batch in memory
+    */
+   FlowTraceStore(int maxInMemoryHops, boolean spill) {
+      _batches = new WeakHashMap<>();
+      _edges = Interners.newWeakInterner();
+      _maxInMemoryHops = maxInMemoryHops;
+      _routes = Interners.newWeakInterner();
+      _spill = spill;
+   }
+
+   private Set<FlowTrace> compact(Set<FlowTrace> traces) {
+      Set<FlowTrace> compactTraces = new TreeSet<>();
+      for (FlowTrace trace : traces) {
+         List<FlowTraceHop> hops = new ArrayList<>(trace.getHops().size());
+         for (FlowTraceHop hop : trace.getHops()) {
+            SortedSet<String> routes = hop.getRoutes();
+            hops.add(new FlowTraceHop(_edges.intern(hop.getEdge()),
+                  routes == null ? null : _routes.intern(routes),
+                  hop.getTransformedFlow()));
+         }
+         compactTraces.add(
+               new FlowTrace(trace.getDisposition(), hops, trace.getNotes()));
+      }
+      return compactTraces;
+   }
+
+   /**
+    * Passes each trace stored for {@code dp} to {@code consumer} along with
+    * its flow, in flow order
+    */
+   void forEach(BdpDataPlane dp, BiConsumer<Flow, FlowTrace> consumer) {
+      deleteUnreachableSpillFiles();
+      Batch batch;
+      synchronized (this) {
+         batch = _batches.get(dp);
+      }
+      if (batch != null) {
+         batch.forEach(consumer);
+      }
+   }
+
+   /**
+    * Returns an empty batch to be filled and then passed to
+    * {@link #put(BdpDataPlane, Batch)}
+    */
+   Batch newBatch() {
+      deleteUnreachableSpillFiles();
+      return new Batch();
+   }
+
+   /**
+    * Replaces the traces stored for {@code dp}
+    */
+   void put(BdpDataPlane dp, Batch batch) {
+      deleteUnreachableSpillFiles();
+      Batch oldBatch;
+      synchronized (this) {
+         oldBatch = _batches.put(dp, batch);
+      }
+      if (oldBatch != null) {
+         oldBatch.delete();
+      }
+   }
+
+}
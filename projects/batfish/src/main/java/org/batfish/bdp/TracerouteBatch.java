@@ -0,0 +1,380 @@
+package org.batfish.bdp;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import org.batfish.common.BatfishException;
+import org.batfish.datamodel.AbstractRoute;
+import org.batfish.datamodel.Flow;
+import org.batfish.datamodel.FlowTrace;
+import org.batfish.datamodel.FlowTraceHop;
+import org.batfish.datamodel.HeaderSpace;
+import org.batfish.datamodel.IcmpCode;
+import org.batfish.datamodel.IcmpType;
+import org.batfish.datamodel.Interface;
+import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.IpAccessList;
+import org.batfish.datamodel.IpAccessListLine;
+import org.batfish.datamodel.IpProtocol;
+import org.batfish.datamodel.Route;
+import org.batfish.datamodel.SourceNat;
+import org.batfish.datamodel.State;
+
+/**
+ * State shared by the traces of one batch of flows: the next-hop decisions
+ * made for each (node, vrf, dstIp), and the header fields that some filter in
+ * the data plane may inspect. Flows that differ only in fields no filter
+ * inspects are traced once, as a single equivalence class.
+ */
+final class TracerouteBatch {
+
+   /**
+    * Flows that no device on any path can tell apart
+    */
+   private static final class FlowClass {
+
+      private final Flow _flow;
+
+      private final String _ingressInterface;
+
+      private FlowClass(Flow flow) {
+         _flow = flow;
+         // not part of flow equality
+         _ingressInterface = flow.getIngressInterface();
+      }
+
+      @Override
+      public boolean equals(Object obj) {
+         if (this == obj) {
+            return true;
+         }
+         if (!(obj instanceof FlowClass)) {
+            return false;
+         }
+         FlowClass other = (FlowClass) obj;
+         return _flow.equals(other._flow)
+               && Objects.equals(_ingressInterface, other._ingressInterface);
+      }
+
+      @Override
+      public int hashCode() {
+         return 31 * _flow.hashCode() + Objects.hashCode(_ingressInterface);
+      }
+
+   }
+
+   /**
+    * Header fields besides the destination ip that filters may inspect
+    */
+   private enum FlowField {
+      DSCP,
+      DST_PORT,
+      ECN,
+      FRAGMENT_OFFSET,
+      ICMP_CODE,
+      ICMP_TYPE,
+      IP_PROTOCOL,
+      PACKET_LENGTH,
+      SRC_IP,
+      SRC_PORT,
+      STATE,
+      TCP_FLAGS
+   }
+
+   /**
+    * The routes and final next-hop ip leading a flow out of one interface
+    */
+   static final class NextHop {
+
+      final Ip _finalNextHopIp;
+
+      final String _interfaceName;
+
+      final SortedSet<String> _routes;
+
+      private NextHop(String interfaceName, SortedSet<String> routes,
+            Ip finalNextHopIp) {
+         _interfaceName = interfaceName;
+         _routes = Collections.unmodifiableSortedSet(routes);
+         _finalNextHopIp = finalNextHopIp;
+      }
+
+   }
+
+   private static final String CLASS_TAG = "class";
+
+   /**
+    * Adds to {@code fields} the flow fields that matching {@code headerSpace}
+    * reads, following {@link HeaderSpace#matches(Flow)}
+    */
+   private static void addInspectedFields(HeaderSpace headerSpace,
+         Set<FlowField> fields) {
+      if (!headerSpace.getDscps().isEmpty()
+            || !headerSpace.getNotDscps().isEmpty()) {
+         fields.add(FlowField.DSCP);
+      }
+      if (!headerSpace.getDstPorts().isEmpty()
+            || !headerSpace.getNotDstPorts().isEmpty()) {
+         fields.add(FlowField.DST_PORT);
+      }
+      if (!headerSpace.getDstProtocols().isEmpty()
+            || !headerSpace.getNotDstProtocols().isEmpty()) {
+         fields.add(FlowField.DST_PORT);
+         fields.add(FlowField.IP_PROTOCOL);
+      }
+      if (!headerSpace.getEcns().isEmpty()
+            || !headerSpace.getNotEcns().isEmpty()) {
+         fields.add(FlowField.ECN);
+      }
+      if (!headerSpace.getFragmentOffsets().isEmpty()
+            || !headerSpace.getNotFragmentOffsets().isEmpty()) {
+         fields.add(FlowField.FRAGMENT_OFFSET);
+      }
+      if (!headerSpace.getIcmpCodes().isEmpty()) {
+         fields.add(FlowField.ICMP_CODE);
+      }
+      if (!headerSpace.getIcmpTypes().isEmpty()) {
+         fields.add(FlowField.ICMP_TYPE);
+      }
+      // the negated icmp matches compare against the fragment offset
+      if (!headerSpace.getNotIcmpCodes().isEmpty()
+            || !headerSpace.getNotIcmpTypes().isEmpty()) {
+         fields.add(FlowField.FRAGMENT_OFFSET);
+      }
+      if (!headerSpace.getIpProtocols().isEmpty()
+            || !headerSpace.getNotIpProtocols().isEmpty()) {
+         fields.add(FlowField.IP_PROTOCOL);
+      }
+      if (!headerSpace.getPacketLengths().isEmpty()
+            || !headerSpace.getNotPacketLengths().isEmpty()) {
+         fields.add(FlowField.PACKET_LENGTH);
+      }
+      if (!headerSpace.getSrcIps().isEmpty()
+            || !headerSpace.getNotSrcIps().isEmpty()
+            || !headerSpace.getSrcOrDstIps().isEmpty()) {
+         fields.add(FlowField.SRC_IP);
+      }
+      if (!headerSpace.getSrcOrDstPorts().isEmpty()) {
+         fields.add(FlowField.DST_PORT);
+         fields.add(FlowField.SRC_PORT);
+      }
+      if (!headerSpace.getSrcOrDstProtocols().isEmpty()) {
+         fields.add(FlowField.DST_PORT);
+         fields.add(FlowField.IP_PROTOCOL);
+         fields.add(FlowField.SRC_PORT);
+      }
+      if (!headerSpace.getSrcPorts().isEmpty()
+            || !headerSpace.getNotSrcPorts().isEmpty()) {
+         fields.add(FlowField.SRC_PORT);
+      }
+      if (!headerSpace.getSrcProtocols().isEmpty()
+            || !headerSpace.getNotSrcProtocols().isEmpty()) {
+         fields.add(FlowField.IP_PROTOCOL);
+         fields.add(FlowField.SRC_PORT);
+      }
+      if (!headerSpace.getStates().isEmpty()) {
+         fields.add(FlowField.STATE);
+      }
+      if (!headerSpace.getTcpFlags().isEmpty()) {
+         fields.add(FlowField.TCP_FLAGS);
+      }
+   }
+
+   private static List<NextHop> computeNextHops(VirtualRouter vr, Ip dstIp) {
+      Map<AbstractRoute, Map<String, Map<Ip, Set<AbstractRoute>>>> nextHopInterfacesByRoute = vr._fib
+            .getNextHopInterfacesByRoute(dstIp);
+      Map<String, Map<Ip, Set<AbstractRoute>>> nextHopInterfacesWithRoutes = vr._fib
+            .getNextHopInterfaces(dstIp);
+      List<NextHop> nextHops = new ArrayList<>();
+      for (String nextHopInterfaceName : nextHopInterfacesWithRoutes
+            .keySet()) {
+         SortedSet<String> routesForThisNextHopInterface = new TreeSet<>();
+         Ip finalNextHopIp = null;
+         for (Entry<AbstractRoute, Map<String, Map<Ip, Set<AbstractRoute>>>> e : nextHopInterfacesByRoute
+               .entrySet()) {
+            AbstractRoute routeCandidate = e.getKey();
+            Map<String, Map<Ip, Set<AbstractRoute>>> routeCandidateNextHopInterfaces = e
+                  .getValue();
+            if (routeCandidateNextHopInterfaces
+                  .containsKey(nextHopInterfaceName)) {
+               Ip nextHopIp = routeCandidate.getNextHopIp();
+               if (!nextHopIp.equals(Route.UNSET_ROUTE_NEXT_HOP_IP)) {
+                  Set<Ip> finalNextHopIps = routeCandidateNextHopInterfaces
+                        .get(nextHopInterfaceName).keySet();
+                  if (finalNextHopIps.size() > 1) {
+                     throw new BatfishException(
+                           "Can not currently handle multiple final next hop ips across multiple routes leading to one next hop interface");
+                  }
+                  Ip newFinalNextHopIp = finalNextHopIps.iterator().next();
+                  if (finalNextHopIp != null
+                        && !newFinalNextHopIp.equals(finalNextHopIp)) {
+                     throw new BatfishException(
+                           "Can not currently handle multiple final next hop ips for same next hop interface");
+                  }
+                  finalNextHopIp = newFinalNextHopIp;
+               }
+               routesForThisNextHopInterface.add(routeCandidate.toString()
+                     + "_fnhip:" + finalNextHopIp);
+            }
+         }
+         nextHops.add(new NextHop(nextHopInterfaceName,
+               routesForThisNextHopInterface, finalNextHopIp));
+      }
+      return Collections.unmodifiableList(nextHops);
+   }
+
+   /**
+    * Node -> vrf -> dstIp -> next-hop decisions
+    */
+   private final Map<String, Map<String, Map<Ip, List<NextHop>>>> _nextHops;
+
+   /**
+    * Fields no filter in the data plane inspects
+    */
+   private final Set<FlowField> _uninspectedFields;
+
+   TracerouteBatch(BdpDataPlane dp) {
+      _nextHops = new ConcurrentHashMap<>();
+      EnumSet<FlowField> inspectedFields = EnumSet.noneOf(FlowField.class);
+      for (Node node : dp._nodes.values()) {
+         for (Interface iface : node._c.getInterfaces().values()) {
+            List<IpAccessList> filters = new ArrayList<>();
+            filters.add(iface.getIncomingFilter());
+            filters.add(iface.getOutgoingFilter());
+            SourceNat sourceNat = iface.getSourceNat();
+            if (sourceNat != null) {
+               filters.add(sourceNat.getAcl());
+            }
+            for (IpAccessList filter : filters) {
+               if (filter == null) {
+                  continue;
+               }
+               for (IpAccessListLine line : filter.getLines()) {
+                  addInspectedFields(line, inspectedFields);
+               }
+            }
+         }
+      }
+      _uninspectedFields = EnumSet.complementOf(inspectedFields);
+   }
+
+   /**
+    * Groups {@code flows} into classes whose members take the same paths and
+    * meet the same filter decisions. The first flow of each class stands for
+    * it.
+    */
+   Collection<List<Flow>> classify(Set<Flow> flows) {
+      Map<FlowClass, List<Flow>> classes = new HashMap<>();
+      for (Flow flow : flows) {
+         Flow.Builder builder = new Flow.Builder(flow);
+         builder.setTag(CLASS_TAG);
+         for (FlowField field : _uninspectedFields) {
+            switch (field) {
+            case DSCP:
+               builder.setDscp(0);
+               break;
+            case DST_PORT:
+               builder.setDstPort(0);
+               break;
+            case ECN:
+               builder.setEcn(0);
+               break;
+            case FRAGMENT_OFFSET:
+               builder.setFragmentOffset(0);
+               break;
+            case ICMP_CODE:
+               builder.setIcmpCode(IcmpCode.UNSET);
+               break;
+            case ICMP_TYPE:
+               builder.setIcmpType(IcmpType.UNSET);
+               break;
+            case IP_PROTOCOL:
+               builder.setIpProtocol(IpProtocol.IP);
+               break;
+            case PACKET_LENGTH:
+               builder.setPacketLength(0);
+               break;
+            case SRC_IP:
+               builder.setSrcIp(Ip.ZERO);
+               break;
+            case SRC_PORT:
+               builder.setSrcPort(0);
+               break;
+            case STATE:
+               builder.setState(State.NEW);
+               break;
+            case TCP_FLAGS:
+               builder.setTcpFlagsAck(0);
+               builder.setTcpFlagsCwr(0);
+               builder.setTcpFlagsEce(0);
+               builder.setTcpFlagsFin(0);
+               builder.setTcpFlagsPsh(0);
+               builder.setTcpFlagsRst(0);
+               builder.setTcpFlagsSyn(0);
+               builder.setTcpFlagsUrg(0);
+               break;
+            default:
+               throw new BatfishException("Unsupported flow field: " + field);
+            }
+         }
+         classes.computeIfAbsent(new FlowClass(builder.build()),
+               k -> new ArrayList<>()).add(flow);
+      }
+      return classes.values();
+   }
+
+   /**
+    * Returns the traces of {@code member} given those of the representative
+    * of its class, rewriting the transformed flows recorded in hops
+    */
+   Set<FlowTrace> fanOut(Set<FlowTrace> representativeTraces, Flow member) {
+      boolean transformed = representativeTraces.stream()
+            .anyMatch(trace -> trace.getHops().stream()
+                  .anyMatch(hop -> hop.getTransformedFlow() != null));
+      if (!transformed) {
+         return representativeTraces;
+      }
+      Set<FlowTrace> memberTraces = new TreeSet<>();
+      for (FlowTrace trace : representativeTraces) {
+         List<FlowTraceHop> hops = new ArrayList<>();
+         for (FlowTraceHop hop : trace.getHops()) {
+            Flow transformedFlow = hop.getTransformedFlow();
+            if (transformedFlow != null) {
+               // source nat is the only transformation along a path
+               Flow.Builder builder = new Flow.Builder(member);
+               builder.setSrcIp(transformedFlow.getSrcIp());
+               transformedFlow = builder.build();
+            }
+            hops.add(new FlowTraceHop(hop.getEdge(), hop.getRoutes(),
+                  transformedFlow));
+         }
+         memberTraces.add(
+               new FlowTrace(trace.getDisposition(), hops, trace.getNotes()));
+      }
+      return memberTraces;
+   }
+
+   /**
+    * Returns the next-hop decisions of {@code vrf} on {@code node} for
+    * {@code dstIp}, computing them at most once per batch
+    */
+   List<NextHop> getNextHops(Node node, String vrf, Ip dstIp) {
+      return _nextHops
+            .computeIfAbsent(node._c.getHostname(),
+                  n -> new ConcurrentHashMap<>())
+            .computeIfAbsent(vrf, v -> new ConcurrentHashMap<>())
+            .computeIfAbsent(dstIp,
+                  ip -> computeNextHops(node._virtualRouters.get(vrf), ip));
+   }
+
+}
@@ -1,7 +1,9 @@
 package org.batfish.bdp;
 
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
@@ -39,11 +41,38 @@ import org.batfish.datamodel.StaticRoute;
 import org.batfish.datamodel.Topology;
 import org.batfish.datamodel.Vrf;
 import org.batfish.datamodel.collections.AdvertisementSet;
-import org.batfish.datamodel.collections.EdgeSet;
+import org.batfish.datamodel.collections.NodeInterfacePair;
 import org.batfish.datamodel.routing_policy.RoutingPolicy;
 
 public class VirtualRouter extends ComparableStructure<String> {
 
+   /**
+    * Result of offering one remote route over one BGP session: the
+    * advertisements recorded and the route (if any) received. It depends only
+    * on the remote route and on static configuration, so it can be replayed in
+    * later iterations as long as the remote router keeps offering the same
+    * route.
+    */
+   private static class BgpSessionOutcome {
+
+      private BgpAdvertisement _receivedAdvert;
+
+      private BgpRoute _receivedRoute;
+
+      private BgpAdvertisement _sentAdvert;
+
+      public boolean replay(VirtualRouter vr, BgpMultipathRib targetRib) {
+         if (_sentAdvert != null) {
+            vr._sentBgpAdvertisements.add(_sentAdvert);
+         }
+         if (_receivedAdvert != null) {
+            vr._receivedBgpAdvertisements.add(_receivedAdvert);
+         }
+         return _receivedRoute != null && targetRib.mergeRoute(_receivedRoute);
+      }
+
+   }
+
    /**
     *
     */
@@ -55,12 +84,24 @@ public class VirtualRouter extends ComparableStructure<String> {
 
    transient BgpBestPathRib _bgpBestPathRib;
 
+   /**
+    * Outcomes of the previous BGP propagation round, per local session and
+    * keyed by the identity of the remote route offered over it
+    */
+   transient Map<BgpNeighbor, Map<AbstractRoute, BgpSessionOutcome>> _bgpSessionOutcomes;
+
    transient BgpMultipathRib _bgpMultipathRib;
 
    final Configuration _c;
 
    transient ConnectedRib _connectedRib;
 
+   /**
+    * Routers that read the routes of this router while computing their
+    * dependent routes
+    */
+   transient List<VirtualRouter> _dependentRouters;
+
    transient BgpBestPathRib _ebgpBestPathRib;
 
    transient BgpMultipathRib _ebgpMultipathRib;
@@ -69,8 +110,20 @@ public class VirtualRouter extends ComparableStructure<String> {
 
    Fib _fib;
 
+   /**
+    * Hash of the routes checked for a fixed point, as of the last iteration
+    * that recomputed them
+    */
+   transient int _fixedPointHashCode;
+
    transient Rib _generatedRib;
 
+   /**
+    * Whether routes read by this router changed in the previous iteration, so
+    * that its dependent routes must be recomputed in the next one
+    */
+   transient boolean _hasPendingDelta;
+
    transient BgpBestPathRib _ibgpBestPathRib;
 
    transient BgpMultipathRib _ibgpMultipathRib;
@@ -91,6 +144,18 @@ public class VirtualRouter extends ComparableStructure<String> {
 
    transient OspfExternalType2Rib _ospfExternalType2StagingRib;
 
+   /**
+    * Outcomes of the previous OSPF external propagation round, per edge and
+    * keyed by the identity of the neighbor route propagated over it
+    */
+   transient Map<Edge, Map<OspfExternalRoute, OspfExternalRoute>> _ospfExternalPropagations;
+
+   /**
+    * OSPF export decisions of the previous iteration, keyed by the identity of
+    * the main RIB route considered for export (null value if not exported)
+    */
+   transient Map<AbstractRoute, OspfExternalRoute> _ospfExports;
+
    transient OspfInterAreaRib _ospfInterAreaRib;
 
    transient OspfInterAreaRib _ospfInterAreaStagingRib;
@@ -275,6 +340,48 @@ public class VirtualRouter extends ComparableStructure<String> {
       return changed;
    }
 
+   /**
+    * Returns the routers whose routes this router reads while computing its
+    * dependent routes: its OSPF neighbors and its BGP peers, whether or not
+    * they end up contributing routes
+    */
+   public Set<VirtualRouter> getSourceRouters(Topology topology) {
+      Set<VirtualRouter> sources = Collections
+            .newSetFromMap(new IdentityHashMap<>());
+      String hostname = _c.getHostname();
+      if (_vrf.getOspfProcess() != null) {
+         for (String ifaceName : _vrf.getInterfaces().keySet()) {
+            for (NodeInterfacePair neighborPair : topology
+                  .getNeighbors(new NodeInterfacePair(hostname, ifaceName))) {
+               Node neighbor = _nodes.get(neighborPair.getHostname());
+               Interface neighborInterface = neighbor._c.getInterfaces()
+                     .get(neighborPair.getInterface());
+               VirtualRouter neighborVirtualRouter = neighbor._virtualRouters
+                     .get(neighborInterface.getVrfName());
+               if (neighborVirtualRouter != null) {
+                  sources.add(neighborVirtualRouter);
+               }
+            }
+         }
+      }
+      if (_vrf.getBgpProcess() != null) {
+         for (BgpNeighbor neighbor : _vrf.getBgpProcess().getNeighbors()
+               .values()) {
+            BgpNeighbor remoteBgpNeighbor = neighbor.getRemoteBgpNeighbor();
+            if (remoteBgpNeighbor != null) {
+               Node remoteNode = _nodes
+                     .get(remoteBgpNeighbor.getOwner().getHostname());
+               VirtualRouter remoteVirtualRouter = remoteNode._virtualRouters
+                     .get(remoteBgpNeighbor.getVrf());
+               if (remoteVirtualRouter != null) {
+                  sources.add(remoteVirtualRouter);
+               }
+            }
+         }
+      }
+      return sources;
+   }
+
    public <U extends AbstractRoute, T extends U> void importRib(
          AbstractRib<U> importingRib, AbstractRib<T> exportingRib) {
       for (T route : exportingRib.getRoutes()) {
@@ -288,6 +395,9 @@ public class VirtualRouter extends ComparableStructure<String> {
       _bgpMultipathRib = new BgpMultipathRib(this);
       _baseEbgpRib = new BgpMultipathRib(this);
       _baseIbgpRib = new BgpMultipathRib(this);
+      _bgpSessionOutcomes = new IdentityHashMap<>();
+      _ospfExternalPropagations = new HashMap<>();
+      _ospfExports = new IdentityHashMap<>();
 
       if (_vrf.getBgpProcess() != null) {
          int ebgpAdmin = RoutingProtocol.BGP
@@ -634,7 +744,22 @@ public class VirtualRouter extends ComparableStructure<String> {
             RoutingPolicy exportPolicy = _c.getRoutingPolicies()
                   .get(exportPolicyName);
             if (exportPolicy != null) {
+               /*
+                * Main RIB routes that were already considered for export in
+                * the previous iteration reuse that decision
+                */
+               Map<AbstractRoute, OspfExternalRoute> prevExports = _ospfExports;
+               _ospfExports = new IdentityHashMap<>();
                for (AbstractRoute potentialExport : _prevMainRib.getRoutes()) {
+                  if (prevExports.containsKey(potentialExport)) {
+                     OspfExternalRoute outputRoute = prevExports
+                           .get(potentialExport);
+                     _ospfExports.put(potentialExport, outputRoute);
+                     if (outputRoute != null) {
+                        mergeOspfExport(outputRoute);
+                     }
+                     continue;
+                  }
                   OspfExternalRoute.Builder outputRouteBuilder = new OspfExternalRoute.Builder();
                   boolean accept = exportPolicy.process(potentialExport,
                         outputRouteBuilder, null, _key);
@@ -649,15 +774,11 @@ public class VirtualRouter extends ComparableStructure<String> {
                      outputRouteBuilder.setAdvertiser(_c.getHostname());
                      OspfExternalRoute outputRoute = outputRouteBuilder.build();
                      outputRoute.setNonRouting(true);
-                     // shouldn't be null
-                     if (outputRoute.getOspfMetricType() == OspfMetricType.E1) {
-                        _ospfExternalType1Rib
-                              .mergeRoute((OspfExternalType1Route) outputRoute);
-                     }
-                     else {
-                        _ospfExternalType2Rib
-                              .mergeRoute((OspfExternalType2Route) outputRoute);
-                     }
+                     _ospfExports.put(potentialExport, outputRoute);
+                     mergeOspfExport(outputRoute);
+                  }
+                  else {
+                     _ospfExports.put(potentialExport, null);
                   }
                }
             }
@@ -665,6 +786,16 @@ public class VirtualRouter extends ComparableStructure<String> {
       }
    }
 
+   private void mergeOspfExport(OspfExternalRoute outputRoute) {
+      // shouldn't be null
+      if (outputRoute.getOspfMetricType() == OspfMetricType.E1) {
+         _ospfExternalType1Rib.mergeRoute((OspfExternalType1Route) outputRoute);
+      }
+      else {
+         _ospfExternalType2Rib.mergeRoute((OspfExternalType2Route) outputRoute);
+      }
+   }
+
    public void initRibs() {
       _bgpMultipathRib = new BgpMultipathRib(this);
       _connectedRib = new ConnectedRib(this);
@@ -687,6 +818,17 @@ public class VirtualRouter extends ComparableStructure<String> {
       _staticInterfaceRib = new StaticRib(this);
    }
 
+   /**
+    * Drop state only needed between iterations of the dependent-routes
+    * fixed-point computation
+    */
+   public void clearPropagationState() {
+      _bgpSessionOutcomes = null;
+      _dependentRouters = null;
+      _ospfExternalPropagations = null;
+      _ospfExports = null;
+   }
+
    public void initStaticRib() {
       for (StaticRoute sr : _vrf.getStaticRoutes()) {
          String nextHopInt = sr.getNextHopInterface();
@@ -809,7 +951,29 @@ public class VirtualRouter extends ComparableStructure<String> {
                      remoteCandidateRoutes.add(remoteCandidateRoute);
                   }
                }
+               /*
+                * Only routes that are new to this session since the previous
+                * iteration are run through the export and import policies.
+                * The outcome for every other candidate is replayed from the
+                * previous iteration, and outcomes for routes no longer
+                * offered are dropped.
+                */
+               Map<AbstractRoute, BgpSessionOutcome> prevOutcomes = _bgpSessionOutcomes
+                     .get(neighbor);
+               Map<AbstractRoute, BgpSessionOutcome> outcomes = new IdentityHashMap<>();
+               _bgpSessionOutcomes.put(neighbor, outcomes);
                for (AbstractRoute remoteRoute : remoteCandidateRoutes) {
+                  BgpSessionOutcome outcome = prevOutcomes != null
+                        ? prevOutcomes.get(remoteRoute) : null;
+                  if (outcome != null) {
+                     outcomes.put(remoteRoute, outcome);
+                     if (outcome.replay(this, targetRib)) {
+                        numRoutes++;
+                     }
+                     continue;
+                  }
+                  outcome = new BgpSessionOutcome();
+                  outcomes.put(remoteRoute, outcome);
                   BgpRoute.Builder transformedOutgoingRouteBuilder = new BgpRoute.Builder();
                   RoutingProtocol remoteRouteProtocol = remoteRoute
                         .getProtocol();
@@ -1065,6 +1229,7 @@ public class VirtualRouter extends ComparableStructure<String> {
                            sentAsPath, new TreeSet<>(sentCommunities),
                            new TreeSet<>(sentClusterList), sentWeight);
                      _sentBgpAdvertisements.add(sentAdvert);
+                     outcome._sentAdvert = sentAdvert;
 
                      /*
                       * CREATE INCOMING ROUTE
@@ -1120,6 +1285,8 @@ public class VirtualRouter extends ComparableStructure<String> {
                               new TreeSet<>(receivedClusterList),
                               receivedWeight);
                         _receivedBgpAdvertisements.add(receivedAdvert);
+                        outcome._receivedAdvert = receivedAdvert;
+                        outcome._receivedRoute = transformedIncomingRoute;
 
                         if (targetRib.mergeRoute(transformedIncomingRoute)) {
                            numRoutes++;
@@ -1141,74 +1308,88 @@ public class VirtualRouter extends ComparableStructure<String> {
       if (_vrf.getOspfProcess() != null) {
          int admin = RoutingProtocol.OSPF
                .getDefaultAdministrativeCost(_c.getConfigurationFormat());
-         EdgeSet edges = topology.getNodeEdges().get(node);
-         if (edges == null) {
-            // there are no edges, so OSPF won't produce anything
-            return false;
-         }
-         for (Edge edge : edges) {
-            if (!edge.getNode1().equals(node)) {
-               continue;
-            }
-            String connectingInterfaceName = edge.getInt1();
+         for (NodeInterfacePair connectingPair : topology
+               .getNodeInterfaces(node)) {
             Interface connectingInterface = _vrf.getInterfaces()
-                  .get(connectingInterfaceName);
+                  .get(connectingPair.getInterface());
             if (connectingInterface == null) {
                // wrong vrf, so skip
                continue;
             }
-            String neighborName = edge.getNode2();
-            Node neighbor = nodes.get(neighborName);
-            String neighborInterfaceName = edge.getInt2();
-            OspfArea area = connectingInterface.getOspfArea();
-            Configuration nc = neighbor._c;
-            Interface neighborInterface = nc.getInterfaces()
-                  .get(neighborInterfaceName);
-            String neighborVrfName = neighborInterface.getVrfName();
-            VirtualRouter neighborVirtualRouter = _nodes
-                  .get(neighborName)._virtualRouters.get(neighborVrfName);
-
-            OspfArea neighborArea = neighborInterface.getOspfArea();
-            if (connectingInterface.getOspfEnabled()
-                  && !connectingInterface.getOspfPassive()
-                  && neighborInterface.getOspfEnabled()
-                  && !neighborInterface.getOspfPassive() && area != null
-                  && neighborArea != null) {
-               /*
-                * We have an ospf neighbor relationship on this edge. So we
-                * should add all ospf external type 1(2) routes from this
-                * neighbor into our ospf external type 1(2) staging rib. For
-                * type 1, the cost of the route increases each time. For type 2,
-                * the cost remains constant, but we must keep track of cost to
-                * advertiser as a tie-breaker.
-                */
-               int connectingInterfaceCost = connectingInterface.getOspfCost();
-               for (OspfExternalType1Route neighborRoute : neighborVirtualRouter._prevOspfExternalType1Rib
-                     .getRoutes()) {
-                  int newMetric = neighborRoute.getMetric()
-                        + connectingInterfaceCost;
-                  int newCostToAdvertiser = neighborRoute.getCostToAdvertiser()
-                        + connectingInterfaceCost;
-                  OspfExternalType1Route newRoute = new OspfExternalType1Route(
-                        neighborRoute.getNetwork(),
-                        neighborInterface.getPrefix().getAddress(), admin,
-                        newMetric, newCostToAdvertiser,
-                        neighborRoute.getAdvertiser());
-                  if (_ospfExternalType1StagingRib.mergeRoute(newRoute)) {
-                     changed = true;
+            for (NodeInterfacePair neighborPair : topology
+                  .getNeighbors(connectingPair)) {
+               Edge edge = new Edge(connectingPair, neighborPair);
+               String neighborName = neighborPair.getHostname();
+               Node neighbor = nodes.get(neighborName);
+               String neighborInterfaceName = neighborPair.getInterface();
+               OspfArea area = connectingInterface.getOspfArea();
+               Configuration nc = neighbor._c;
+               Interface neighborInterface = nc.getInterfaces()
+                     .get(neighborInterfaceName);
+               String neighborVrfName = neighborInterface.getVrfName();
+               VirtualRouter neighborVirtualRouter = _nodes
+                     .get(neighborName)._virtualRouters.get(neighborVrfName);
+
+               OspfArea neighborArea = neighborInterface.getOspfArea();
+               if (connectingInterface.getOspfEnabled()
+                     && !connectingInterface.getOspfPassive()
+                     && neighborInterface.getOspfEnabled()
+                     && !neighborInterface.getOspfPassive() && area != null
+                     && neighborArea != null) {
+                  /*
+                   * We have an ospf neighbor relationship on this edge. So we
+                   * should add all ospf external type 1(2) routes from this
+                   * neighbor into our ospf external type 1(2) staging rib. For
+                   * type 1, the cost of the route increases each time. For type 2,
+                   * the cost remains constant, but we must keep track of cost to
+                   * advertiser as a tie-breaker.
+                   */
+                  int connectingInterfaceCost = connectingInterface.getOspfCost();
+                  Map<OspfExternalRoute, OspfExternalRoute> prevPropagated = _ospfExternalPropagations
+                        .get(edge);
+                  Map<OspfExternalRoute, OspfExternalRoute> propagated = new IdentityHashMap<>();
+                  _ospfExternalPropagations.put(edge, propagated);
+                  for (OspfExternalType1Route neighborRoute : neighborVirtualRouter._prevOspfExternalType1Rib
+                        .getRoutes()) {
+                     OspfExternalType1Route newRoute = prevPropagated != null
+                           ? (OspfExternalType1Route) prevPropagated
+                                 .get(neighborRoute)
+                           : null;
+                     if (newRoute == null) {
+                        int newMetric = neighborRoute.getMetric()
+                              + connectingInterfaceCost;
+                        int newCostToAdvertiser = neighborRoute
+                              .getCostToAdvertiser() + connectingInterfaceCost;
+                        newRoute = new OspfExternalType1Route(
+                              neighborRoute.getNetwork(),
+                              neighborInterface.getPrefix().getAddress(), admin,
+                              newMetric, newCostToAdvertiser,
+                              neighborRoute.getAdvertiser());
+                     }
+                     propagated.put(neighborRoute, newRoute);
+                     if (_ospfExternalType1StagingRib.mergeRoute(newRoute)) {
+                        changed = true;
+                     }
                   }
-               }
-               for (OspfExternalType2Route neighborRoute : neighborVirtualRouter._prevOspfExternalType2Rib
-                     .getRoutes()) {
-                  int newCostToAdvertiser = neighborRoute.getCostToAdvertiser()
-                        + connectingInterfaceCost;
-                  OspfExternalType2Route newRoute = new OspfExternalType2Route(
-                        neighborRoute.getNetwork(),
-                        neighborInterface.getPrefix().getAddress(), admin,
-                        neighborRoute.getMetric(), newCostToAdvertiser,
-                        neighborRoute.getAdvertiser());
-                  if (_ospfExternalType2StagingRib.mergeRoute(newRoute)) {
-                     changed = true;
+                  for (OspfExternalType2Route neighborRoute : neighborVirtualRouter._prevOspfExternalType2Rib
+                        .getRoutes()) {
+                     OspfExternalType2Route newRoute = prevPropagated != null
+                           ? (OspfExternalType2Route) prevPropagated
+                                 .get(neighborRoute)
+                           : null;
+                     if (newRoute == null) {
+                        int newCostToAdvertiser = neighborRoute
+                              .getCostToAdvertiser() + connectingInterfaceCost;
+                        newRoute = new OspfExternalType2Route(
+                              neighborRoute.getNetwork(),
+                              neighborInterface.getPrefix().getAddress(), admin,
+                              neighborRoute.getMetric(), newCostToAdvertiser,
+                              neighborRoute.getAdvertiser());
+                     }
+                     propagated.put(neighborRoute, newRoute);
+                     if (_ospfExternalType2StagingRib.mergeRoute(newRoute)) {
+                        changed = true;
+                     }
                   }
                }
             }
@@ -1225,126 +1406,151 @@ public class VirtualRouter extends ComparableStructure<String> {
       if (_vrf.getOspfProcess() != null) {
          int admin = RoutingProtocol.OSPF
                .getDefaultAdministrativeCost(_c.getConfigurationFormat());
-         EdgeSet edges = topology.getNodeEdges().get(node);
-         if (edges == null) {
-            // there are no edges, so OSPF won't produce anything
-            return false;
-         }
-         for (Edge edge : edges) {
-            if (!edge.getNode1().equals(node)) {
-               continue;
-            }
-            String connectingInterfaceName = edge.getInt1();
+         for (NodeInterfacePair connectingPair : topology
+               .getNodeInterfaces(node)) {
             Interface connectingInterface = _vrf.getInterfaces()
-                  .get(connectingInterfaceName);
+                  .get(connectingPair.getInterface());
             if (connectingInterface == null) {
                // wrong vrf, so skip
                continue;
             }
-            String neighborName = edge.getNode2();
-            Node neighbor = nodes.get(neighborName);
-            String neighborInterfaceName = edge.getInt2();
-            OspfArea area = connectingInterface.getOspfArea();
-            Configuration nc = neighbor._c;
-            Interface neighborInterface = nc.getInterfaces()
-                  .get(neighborInterfaceName);
-            String neighborVrfName = neighborInterface.getVrfName();
-            VirtualRouter neighborVirtualRouter = _nodes
-                  .get(neighborName)._virtualRouters.get(neighborVrfName);
-            OspfArea neighborArea = neighborInterface.getOspfArea();
-            if (connectingInterface.getOspfEnabled()
-                  && !connectingInterface.getOspfPassive()
-                  && neighborInterface.getOspfEnabled()
-                  && !neighborInterface.getOspfPassive() && area != null
-                  && neighborArea != null) {
-
-               if (area.getName().equals(neighborArea.getName())) {
-                  /*
-                   * We have an ospf intra-area neighbor relationship on this
-                   * edge. So we should add all ospf routes from this neighbor
-                   * into our ospf intra-area staging rib, adding the cost of
-                   * the connecting interface, and using the neighborInterface's
-                   * address as the next hop ip
-                   */
-                  int connectingInterfaceCost = connectingInterface
-                        .getOspfCost();
-                  long areaNum = area.getName();
-                  for (OspfIntraAreaRoute neighborRoute : neighborVirtualRouter._ospfIntraAreaRib
-                        .getRoutes()) {
-                     int newCost = neighborRoute.getMetric()
-                           + connectingInterfaceCost;
-                     Ip nextHopIp = neighborInterface.getPrefix().getAddress();
-                     OspfIntraAreaRoute newRoute = new OspfIntraAreaRoute(
-                           neighborRoute.getNetwork(), nextHopIp, admin,
-                           newCost, areaNum);
-                     if (_ospfIntraAreaStagingRib.mergeRoute(newRoute)) {
-                        changed = true;
-                     }
-                  }
-                  // we also propagate inter-area routes that have already made
-                  // it into this area, unless they originate in this area
-                  for (OspfInterAreaRoute neighborRoute : neighborVirtualRouter._ospfInterAreaRib
-                        .getRoutes()) {
-                     long neighborRouteArea = neighborRoute.getArea();
-                     if (neighborRouteArea != areaNum) {
-                        Prefix neighborRouteNetwork = neighborRoute
-                              .getNetwork();
-                        String neighborSummaryFilterName = neighborArea
-                              .getSummaryFilter();
-                        boolean hasSummaryFilter = neighborSummaryFilterName != null;
-                        boolean allowed = !hasSummaryFilter;
-                        if (hasSummaryFilter) {
-                           RouteFilterList neighborSummaryFilter = neighbor._c
-                                 .getRouteFilterLists()
-                                 .get(neighborSummaryFilterName);
-                           allowed = neighborSummaryFilter
-                                 .permits(neighborRouteNetwork);
+            for (NodeInterfacePair neighborPair : topology
+                  .getNeighbors(connectingPair)) {
+               String neighborName = neighborPair.getHostname();
+               Node neighbor = nodes.get(neighborName);
+               String neighborInterfaceName = neighborPair.getInterface();
+               OspfArea area = connectingInterface.getOspfArea();
+               Configuration nc = neighbor._c;
+               Interface neighborInterface = nc.getInterfaces()
+                     .get(neighborInterfaceName);
+               String neighborVrfName = neighborInterface.getVrfName();
+               VirtualRouter neighborVirtualRouter = _nodes
+                     .get(neighborName)._virtualRouters.get(neighborVrfName);
+               OspfArea neighborArea = neighborInterface.getOspfArea();
+               if (connectingInterface.getOspfEnabled()
+                     && !connectingInterface.getOspfPassive()
+                     && neighborInterface.getOspfEnabled()
+                     && !neighborInterface.getOspfPassive() && area != null
+                     && neighborArea != null) {
+
+                  if (area.getName().equals(neighborArea.getName())) {
+                     /*
+                      * We have an ospf intra-area neighbor relationship on this
+                      * edge. So we should add all ospf routes from this neighbor
+                      * into our ospf intra-area staging rib, adding the cost of
+                      * the connecting interface, and using the neighborInterface's
+                      * address as the next hop ip
+                      */
+                     int connectingInterfaceCost = connectingInterface
+                           .getOspfCost();
+                     long areaNum = area.getName();
+                     for (OspfIntraAreaRoute neighborRoute : neighborVirtualRouter._ospfIntraAreaRib
+                           .getRoutes()) {
+                        int newCost = neighborRoute.getMetric()
+                              + connectingInterfaceCost;
+                        Ip nextHopIp = neighborInterface.getPrefix().getAddress();
+                        OspfIntraAreaRoute newRoute = new OspfIntraAreaRoute(
+                              neighborRoute.getNetwork(), nextHopIp, admin,
+                              newCost, areaNum);
+                        if (_ospfIntraAreaStagingRib.mergeRoute(newRoute)) {
+                           changed = true;
                         }
-                        if (allowed) {
-                           int newCost = neighborRoute.getMetric()
-                                 + connectingInterfaceCost;
-                           Ip nextHopIp = neighborInterface.getPrefix()
-                                 .getAddress();
-                           OspfInterAreaRoute newRoute = new OspfInterAreaRoute(
-                                 neighborRouteNetwork, nextHopIp, admin,
-                                 newCost, areaNum);
-                           if (_ospfInterAreaStagingRib.mergeRoute(newRoute)) {
-                              changed = true;
+                     }
+                     // we also propagate inter-area routes that have already made
+                     // it into this area, unless they originate in this area
+                     for (OspfInterAreaRoute neighborRoute : neighborVirtualRouter._ospfInterAreaRib
+                           .getRoutes()) {
+                        long neighborRouteArea = neighborRoute.getArea();
+                        if (neighborRouteArea != areaNum) {
+                           Prefix neighborRouteNetwork = neighborRoute
+                                 .getNetwork();
+                           String neighborSummaryFilterName = neighborArea
+                                 .getSummaryFilter();
+                           boolean hasSummaryFilter = neighborSummaryFilterName != null;
+                           boolean allowed = !hasSummaryFilter;
+                           if (hasSummaryFilter) {
+                              RouteFilterList neighborSummaryFilter = neighbor._c
+                                    .getRouteFilterLists()
+                                    .get(neighborSummaryFilterName);
+                              allowed = neighborSummaryFilter
+                                    .permits(neighborRouteNetwork);
+                           }
+                           if (allowed) {
+                              int newCost = neighborRoute.getMetric()
+                                    + connectingInterfaceCost;
+                              Ip nextHopIp = neighborInterface.getPrefix()
+                                    .getAddress();
+                              OspfInterAreaRoute newRoute = new OspfInterAreaRoute(
+                                    neighborRouteNetwork, nextHopIp, admin,
+                                    newCost, areaNum);
+                              if (_ospfInterAreaStagingRib.mergeRoute(newRoute)) {
+                                 changed = true;
+                              }
                            }
                         }
                      }
                   }
-               }
-               else if (area.getName().equals(0l)
-                     || neighborArea.getName().equals(0l)) {
-                  /*
-                   * We have an ospf inter-area neighbor relationship on this
-                   * edge. So we should add all ospf routes from this neighbor
-                   * into our ospf inter-area staging rib, adding the cost of
-                   * the connecting interface, and using the neighborInterface's
-                   * address as the next hop ip
-                   *
-                   */
-                  int connectingInterfaceCost = connectingInterface
-                        .getOspfCost();
-                  long areaNum = area.getName();
-                  // inter-area routes can only be sent FROM area 0 when sender
-                  // is in different area, unless the route is from the
-                  // neighbor's area
-                  for (OspfInterAreaRoute neighborRoute : neighborVirtualRouter._ospfInterAreaRib
-                        .getRoutes()) {
-                     // do not receive inter-area routes that originally came
-                     // from this area
-                     long neighborRouteArea = neighborRoute.getArea();
-                     if (areaNum != neighborRouteArea
-                           && (neighborArea.getName().equals(0l) || neighborArea
-                           .getName().equals(neighborRouteArea))) {
-                        Prefix neighborRouteNetwork = neighborRoute
-                              .getNetwork();
+                  else if (area.getName().equals(0l)
+                        || neighborArea.getName().equals(0l)) {
+                     /*
+                      * We have an ospf inter-area neighbor relationship on this
+                      * edge. So we should add all ospf routes from this neighbor
+                      * into our ospf inter-area staging rib, adding the cost of
+                      * the connecting interface, and using the neighborInterface's
+                      * address as the next hop ip
+                      *
+                      */
+                     int connectingInterfaceCost = connectingInterface
+                           .getOspfCost();
+                     long areaNum = area.getName();
+                     // inter-area routes can only be sent FROM area 0 when sender
+                     // is in different area, unless the route is from the
+                     // neighbor's area
+                     for (OspfInterAreaRoute neighborRoute : neighborVirtualRouter._ospfInterAreaRib
+                           .getRoutes()) {
+                        // do not receive inter-area routes that originally came
+                        // from this area
+                        long neighborRouteArea = neighborRoute.getArea();
+                        if (areaNum != neighborRouteArea
+                              && (neighborArea.getName().equals(0l) || neighborArea
+                              .getName().equals(neighborRouteArea))) {
+                           Prefix neighborRouteNetwork = neighborRoute
+                                 .getNetwork();
+                           String neighborSummaryFilterName = neighborArea
+                                 .getSummaryFilter();
+                           boolean hasSummaryFilter = neighborSummaryFilterName != null;
+                           boolean allowed = !hasSummaryFilter;
+                           if (hasSummaryFilter) {
+                              RouteFilterList neighborSummaryFilter = neighbor._c
+                                    .getRouteFilterLists()
+                                    .get(neighborSummaryFilterName);
+                              allowed = neighborSummaryFilter
+                                    .permits(neighborRouteNetwork);
+                           }
+                           if (allowed) {
+                              int newCost = neighborRoute.getMetric()
+                                    + connectingInterfaceCost;
+                              Ip nextHopIp = neighborInterface.getPrefix()
+                                    .getAddress();
+                              OspfIntraAreaRoute newRoute = new OspfIntraAreaRoute(
+                                    neighborRouteNetwork, nextHopIp, admin,
+                                    newCost, areaNum);
+                              if (_ospfIntraAreaStagingRib.mergeRoute(newRoute)) {
+                                 changed = true;
+                              }
+                           }
+
+                        }
+                     }
+                     // intra-area routes may be turned into inter-area routes
+                     // going either to or from area 0
+                     for (OspfInterAreaRoute neighborRoute : neighborVirtualRouter._ospfInterAreaRib
+                           .getRoutes()) {
                         String neighborSummaryFilterName = neighborArea
                               .getSummaryFilter();
                         boolean hasSummaryFilter = neighborSummaryFilterName != null;
                         boolean allowed = !hasSummaryFilter;
+                        Prefix neighborRouteNetwork = neighborRoute.getNetwork();
                         if (hasSummaryFilter) {
                            RouteFilterList neighborSummaryFilter = neighbor._c
                                  .getRouteFilterLists()
@@ -1357,43 +1563,13 @@ public class VirtualRouter extends ComparableStructure<String> {
                                  + connectingInterfaceCost;
                            Ip nextHopIp = neighborInterface.getPrefix()
                                  .getAddress();
-                           OspfIntraAreaRoute newRoute = new OspfIntraAreaRoute(
-                                 neighborRouteNetwork, nextHopIp, admin,
-                                 newCost, areaNum);
-                           if (_ospfIntraAreaStagingRib.mergeRoute(newRoute)) {
+                           OspfInterAreaRoute newRoute = new OspfInterAreaRoute(
+                                 neighborRouteNetwork, nextHopIp, admin, newCost,
+                                 areaNum);
+                           if (_ospfInterAreaStagingRib.mergeRoute(newRoute)) {
                               changed = true;
                            }
                         }
-
-                     }
-                  }
-                  // intra-area routes may be turned into inter-area routes
-                  // going either to or from area 0
-                  for (OspfInterAreaRoute neighborRoute : neighborVirtualRouter._ospfInterAreaRib
-                        .getRoutes()) {
-                     String neighborSummaryFilterName = neighborArea
-                           .getSummaryFilter();
-                     boolean hasSummaryFilter = neighborSummaryFilterName != null;
-                     boolean allowed = !hasSummaryFilter;
-                     Prefix neighborRouteNetwork = neighborRoute.getNetwork();
-                     if (hasSummaryFilter) {
-                        RouteFilterList neighborSummaryFilter = neighbor._c
-                              .getRouteFilterLists()
-                              .get(neighborSummaryFilterName);
-                        allowed = neighborSummaryFilter
-                              .permits(neighborRouteNetwork);
-                     }
-                     if (allowed) {
-                        int newCost = neighborRoute.getMetric()
-                              + connectingInterfaceCost;
-                        Ip nextHopIp = neighborInterface.getPrefix()
-                              .getAddress();
-                        OspfInterAreaRoute newRoute = new OspfInterAreaRoute(
-                              neighborRouteNetwork, nextHopIp, admin, newCost,
-                              areaNum);
-                        if (_ospfInterAreaStagingRib.mergeRoute(newRoute)) {
-                           changed = true;
-                        }
                      }
                   }
                }
@@ -1403,6 +1579,23 @@ public class VirtualRouter extends ComparableStructure<String> {
       return changed;
    }
 
+   /**
+    * Makes the dependent routes computed in the last iteration the input of
+    * the next one without recomputing them, for routers none of whose inputs
+    * changed
+    */
+   public void reuseDependentRoutes() {
+      _prevMainRib = _mainRib;
+      _prevOspfExternalType1Rib = _ospfExternalType1Rib;
+      _prevOspfExternalType2Rib = _ospfExternalType2Rib;
+      _prevBgpRib = _bgpMultipathRib;
+      _prevBgpBestPathRib = _bgpBestPathRib;
+      _prevEbgpRib = _ebgpMultipathRib;
+      _prevEbgpBestPathRib = _ebgpBestPathRib;
+      _prevIbgpBestPathRib = _ibgpBestPathRib;
+      _prevIbgpRib = _ibgpMultipathRib;
+   }
+
    public void unstageBgpRoutes() {
       importRib(_ebgpMultipathRib, _ebgpStagingRib);
       importRib(_ebgpBestPathRib, _ebgpStagingRib);
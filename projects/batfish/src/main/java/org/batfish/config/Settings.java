@@ -4,6 +4,7 @@ import java.nio.file.Path;
 import java.util.Collections;
 import java.util.List;
 import org.batfish.common.BaseSettings;
+import org.batfish.common.BatfishException;
 import org.batfish.common.BatfishLogger;
 import org.batfish.common.BfConsts;
 import org.batfish.common.CoordConsts;
@@ -11,6 +12,7 @@ import org.batfish.common.PedanticBatfishException;
 import org.batfish.common.RedFlagBatfishException;
 import org.batfish.common.UnimplementedBatfishException;
 import org.batfish.common.util.CommonUtil;
+import org.batfish.common.util.SerializationFormat;
 import org.batfish.grammar.GrammarSettings;
 
 public final class Settings extends BaseSettings implements GrammarSettings {
@@ -411,12 +413,16 @@ public final class Settings extends BaseSettings implements GrammarSettings {
 
    private static final String ARG_NO_SHUFFLE = "noshuffle";
 
+   private static final String ARG_PARSE_CACHE_MB = "parsecachemb";
+
    private static final String ARG_PRINT_PARSE_TREES = "ppt";
 
    private static final String ARG_PRINT_SYMMETRIC_EDGES = "printsymmetricedges";
 
    private static final String ARG_SEQUENTIAL = "sequential";
 
+   private static final String ARG_SERIALIZATION_FORMAT = "serializationformat";
+
    private static final String ARG_SERIALIZE_TO_TEXT = "stext";
 
    private static final String ARG_SERVICE_BIND_HOST = "servicebindhost";
@@ -427,14 +433,26 @@ public final class Settings extends BaseSettings implements GrammarSettings {
 
    private static final String ARG_SERVICE_PORT = "serviceport";
 
+   private static final String ARG_SERVICE_TASK_MEMORY_MB = "servicetaskmemorymb";
+
+   private static final String ARG_SERVICE_TASK_SLOTS = "servicetaskslots";
+
    private static final String ARG_THROW_ON_LEXER_ERROR = "throwlexer";
 
    private static final String ARG_THROW_ON_PARSER_ERROR = "throwparser";
 
    private static final String ARG_TIMESTAMP = "timestamp";
 
+   private static final String ARG_Z3_SOLVE_TIMES = "z3solvetimes";
+
+   private static final String ARG_Z3_TIMEOUT = "z3timeout";
+
+   private static final String ARG_Z3_WITNESS_ONLY = "z3witnessonly";
+
    private static final String ARGNAME_AS = "as";
 
+   private static final String ARGNAME_FORMAT = "format-name";
+
    private static final String ARGNAME_HOSTNAME = "hostname";
 
    private static final String ARGNAME_JAVA_REGEX = "java-regex";
@@ -557,6 +575,8 @@ public final class Settings extends BaseSettings implements GrammarSettings {
 
    private String _outputEnvironmentName;
 
+   private int _parseCacheMb;
+
    private boolean _pedanticAsError;
 
    private boolean _pedanticRecord;
@@ -585,6 +605,8 @@ public final class Settings extends BaseSettings implements GrammarSettings {
 
    private boolean _sequential;
 
+   private SerializationFormat _serializationFormat;
+
    private boolean _serializeIndependent;
 
    private boolean _serializeToText;
@@ -597,6 +619,10 @@ public final class Settings extends BaseSettings implements GrammarSettings {
 
    private int _servicePort;
 
+   private int _serviceTaskMemoryMb;
+
+   private int _serviceTaskSlots;
+
    private boolean _shuffleJobs;
 
    private boolean _simplify;
@@ -637,6 +663,12 @@ public final class Settings extends BaseSettings implements GrammarSettings {
 
    private boolean _verboseParse;
 
+   private boolean _z3SolveTimes;
+
+   private int _z3TimeoutMs;
+
+   private boolean _z3WitnessOnly;
+
    public Settings() {
       this(new String[]{});
    }
@@ -842,6 +874,14 @@ public final class Settings extends BaseSettings implements GrammarSettings {
       return _outputEnvironmentName;
    }
 
+   /**
+    * Returns the size in megabytes past which least recently used parse
+    * results are evicted from the container's parse cache; 0 disables it
+    */
+   public int getParseCacheMb() {
+      return _parseCacheMb;
+   }
+
    public boolean getPedanticAsError() {
       return _pedanticAsError;
    }
@@ -886,6 +926,10 @@ public final class Settings extends BaseSettings implements GrammarSettings {
       return _sequential;
    }
 
+   public SerializationFormat getSerializationFormat() {
+      return _serializationFormat;
+   }
+
    public boolean getSerializeIndependent() {
       return _serializeIndependent;
    }
@@ -910,6 +954,14 @@ public final class Settings extends BaseSettings implements GrammarSettings {
       return _servicePort;
    }
 
+   public int getServiceTaskMemoryMb() {
+      return _serviceTaskMemoryMb;
+   }
+
+   public int getServiceTaskSlots() {
+      return _serviceTaskSlots;
+   }
+
    public boolean getShuffleJobs() {
       return _shuffleJobs;
    }
@@ -992,6 +1044,18 @@ public final class Settings extends BaseSettings implements GrammarSettings {
       return _verboseParse;
    }
 
+   public boolean getZ3SolveTimes() {
+      return _z3SolveTimes;
+   }
+
+   public int getZ3TimeoutMs() {
+      return _z3TimeoutMs;
+   }
+
+   public boolean getZ3WitnessOnly() {
+      return _z3WitnessOnly;
+   }
+
    public List<String> ignoreFilesWithStrings() {
       return _ignoreFilesWithStrings;
    }
@@ -1046,6 +1110,7 @@ public final class Settings extends BaseSettings implements GrammarSettings {
       setDefaultProperty(ARG_MAX_PARSER_CONTEXT_TOKENS, 10);
       setDefaultProperty(ARG_MAX_RUNTIME_MS, 0);
       setDefaultProperty(ARG_NO_SHUFFLE, false);
+      setDefaultProperty(ARG_PARSE_CACHE_MB, 1024);
       setDefaultProperty(BfConsts.ARG_OUTPUT_ENV, null);
       setDefaultProperty(BfConsts.ARG_PEDANTIC_AS_ERROR, false);
       setDefaultProperty(BfConsts.ARG_PEDANTIC_SUPPRESS, false);
@@ -1059,11 +1124,15 @@ public final class Settings extends BaseSettings implements GrammarSettings {
       setDefaultProperty(BfConsts.ARG_RED_FLAG_AS_ERROR, false);
       setDefaultProperty(BfConsts.ARG_RED_FLAG_SUPPRESS, false);
       setDefaultProperty(ARG_SEQUENTIAL, false);
+      setDefaultProperty(ARG_SERIALIZATION_FORMAT,
+            SerializationFormat.JAVA.toString());
       setDefaultProperty(ARG_SERIALIZE_TO_TEXT, false);
       setDefaultProperty(ARG_SERVICE_BIND_HOST, "0.0.0.0");
       setDefaultProperty(ARG_SERVICE_HOST, "localhost");
       setDefaultProperty(ARG_SERVICE_MODE, false);
       setDefaultProperty(ARG_SERVICE_PORT, BfConsts.SVC_PORT);
+      setDefaultProperty(ARG_SERVICE_TASK_MEMORY_MB, 0);
+      setDefaultProperty(ARG_SERVICE_TASK_SLOTS, 1);
       setDefaultProperty(
             BfConsts.ARG_SSL_DISABLE,
             CoordConsts.SVC_CFG_POOL_SSL_DISABLE);
@@ -1082,6 +1151,9 @@ public final class Settings extends BaseSettings implements GrammarSettings {
       setDefaultProperty(BfConsts.ARG_UNIMPLEMENTED_AS_ERROR, false);
       setDefaultProperty(BfConsts.ARG_UNIMPLEMENTED_SUPPRESS, true);
       setDefaultProperty(BfConsts.ARG_VERBOSE_PARSE, false);
+      setDefaultProperty(ARG_Z3_SOLVE_TIMES, false);
+      setDefaultProperty(ARG_Z3_TIMEOUT, 0);
+      setDefaultProperty(ARG_Z3_WITNESS_ONLY, false);
       setDefaultProperty(BfConsts.COMMAND_ANALYZE, false);
       setDefaultProperty(BfConsts.COMMAND_ANSWER, false);
       setDefaultProperty(BfConsts.COMMAND_COMPILE_DIFF_ENVIRONMENT, false);
@@ -1236,6 +1308,10 @@ public final class Settings extends BaseSettings implements GrammarSettings {
 
       addBooleanOption(ARG_NO_SHUFFLE, "do not shuffle parallel jobs");
 
+      addOption(ARG_PARSE_CACHE_MB,
+            "max size (in MB) of cached parse results, and of cached conversion results, per container; 0 to disable both",
+            ARGNAME_NUMBER);
+
       addOption(BfConsts.ARG_OUTPUT_ENV, "name of output environment",
             ARGNAME_NAME);
 
@@ -1272,7 +1348,12 @@ public final class Settings extends BaseSettings implements GrammarSettings {
 
       addBooleanOption(ARG_SEQUENTIAL, "force sequential operation");
 
-      addBooleanOption(ARG_SERIALIZE_TO_TEXT, "serialize to text");
+      addOption(ARG_SERIALIZATION_FORMAT,
+            "format of serialized objects written to disk: java or text",
+            ARGNAME_FORMAT);
+
+      addBooleanOption(ARG_SERIALIZE_TO_TEXT,
+            "serialize to text (same as text serialization format)");
 
       addOption(
             ARG_SERVICE_BIND_HOST,
@@ -1286,6 +1367,13 @@ public final class Settings extends BaseSettings implements GrammarSettings {
 
       addOption(ARG_SERVICE_PORT, "port for batfish service", ARGNAME_PORT);
 
+      addOption(ARG_SERVICE_TASK_MEMORY_MB,
+            "free heap (in MB) required to start a task while others are running",
+            ARGNAME_NUMBER);
+
+      addOption(ARG_SERVICE_TASK_SLOTS,
+            "number of tasks the service may run concurrently", ARGNAME_NUMBER);
+
       addBooleanOption(
             BfConsts.ARG_SSL_DISABLE,
             "whether to disable SSL during communication with coordinator");
@@ -1334,6 +1422,16 @@ public final class Settings extends BaseSettings implements GrammarSettings {
             BfConsts.ARG_VERBOSE_PARSE,
             "(developer option) include parse/convert data in init-testrig answer");
 
+      addBooleanOption(ARG_Z3_SOLVE_TIMES,
+            "include the solve time of each NoD job in reachability answers");
+
+      addOption(ARG_Z3_TIMEOUT,
+            "maximum time (in ms) to allow a single z3 query to run",
+            ARGNAME_NUMBER);
+
+      addBooleanOption(ARG_Z3_WITNESS_ONLY,
+            "stop z3 reachability queries once any query produces a flow");
+
       addBooleanOption(BfConsts.COMMAND_ANALYZE, "run provided analysis");
 
       addBooleanOption(BfConsts.COMMAND_ANSWER, "answer provided question");
@@ -1425,6 +1523,7 @@ public final class Settings extends BaseSettings implements GrammarSettings {
             ARG_MAX_PARSER_CONTEXT_TOKENS);
       _maxRuntimeMs = getIntOptionValue(ARG_MAX_RUNTIME_MS);
       _outputEnvironmentName = getStringOptionValue(BfConsts.ARG_OUTPUT_ENV);
+      _parseCacheMb = getIntOptionValue(ARG_PARSE_CACHE_MB);
       _pedanticAsError = getBooleanOptionValue(BfConsts.ARG_PEDANTIC_AS_ERROR);
       _pedanticRecord = !getBooleanOptionValue(BfConsts.ARG_PEDANTIC_SUPPRESS);
       _prettyPrintAnswer = getBooleanOptionValue(
@@ -1440,11 +1539,28 @@ public final class Settings extends BaseSettings implements GrammarSettings {
       _serializeIndependent = getBooleanOptionValue(
             BfConsts.COMMAND_PARSE_VENDOR_INDEPENDENT);
       _serializeToText = getBooleanOptionValue(ARG_SERIALIZE_TO_TEXT);
+      if (_serializeToText) {
+         _serializationFormat = SerializationFormat.TEXT;
+      }
+      else {
+         String serializationFormatStr = getStringOptionValue(
+               ARG_SERIALIZATION_FORMAT);
+         try {
+            _serializationFormat = SerializationFormat
+                  .valueOf(serializationFormatStr.toUpperCase());
+         }
+         catch (IllegalArgumentException e) {
+            throw new BatfishException("Invalid serialization format: '"
+                  + serializationFormatStr + "'", e);
+         }
+      }
       _serializeVendor = getBooleanOptionValue(
             BfConsts.COMMAND_PARSE_VENDOR_SPECIFIC);
       _serviceBindHost = getStringOptionValue(ARG_SERVICE_BIND_HOST);
       _serviceHost = getStringOptionValue(ARG_SERVICE_HOST);
       _servicePort = getIntOptionValue(ARG_SERVICE_PORT);
+      _serviceTaskMemoryMb = getIntOptionValue(ARG_SERVICE_TASK_MEMORY_MB);
+      _serviceTaskSlots = getIntOptionValue(ARG_SERVICE_TASK_SLOTS);
       _shuffleJobs = !getBooleanOptionValue(ARG_NO_SHUFFLE);
       _simplify = !getBooleanOptionValue(ARG_DISABLE_Z3_SIMPLIFICATION);
       _sslDisable = getBooleanOptionValue(BfConsts.ARG_SSL_DISABLE);
@@ -1472,6 +1588,9 @@ public final class Settings extends BaseSettings implements GrammarSettings {
       _unrecognizedAsRedFlag = getBooleanOptionValue(
             BfConsts.ARG_UNRECOGNIZED_AS_RED_FLAG);
       _verboseParse = getBooleanOptionValue(BfConsts.ARG_VERBOSE_PARSE);
+      _z3SolveTimes = getBooleanOptionValue(ARG_Z3_SOLVE_TIMES);
+      _z3TimeoutMs = getIntOptionValue(ARG_Z3_TIMEOUT);
+      _z3WitnessOnly = getBooleanOptionValue(ARG_Z3_WITNESS_ONLY);
    }
 
    public boolean prettyPrintAnswer() {
@@ -19,4 +19,12 @@ public abstract class BatfishJob<R extends BatfishJobResult<?, ?>>
 
    }
 
+   /**
+    * Returns a rough measure of how long this job will run relative to other
+    * jobs of its kind, or 0 if unknown. Costlier jobs are started first.
+    */
+   public long getCostEstimate() {
+      return 0;
+   }
+
 }
@@ -2,12 +2,22 @@ package org.batfish.job;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
 import org.apache.commons.lang.exception.ExceptionUtils;
 import org.batfish.common.BatfishException;
 import org.batfish.common.BatfishLogger;
@@ -19,7 +29,79 @@ import org.batfish.main.Driver;
 
 public class BatfishJobExecutor<Job extends BatfishJob<JobResult>, AE extends AnswerElement, JobResult extends BatfishJobResult<Output, AE>, Output> {
 
-   private static final long JOB_POLLING_PERIOD_MS = 1000l;
+   /**
+    * Counts the jobs of one batch that are running, so that the batch is not
+    * left while any of them is. Jobs that have not started once the batch is
+    * stopped do not run at all.
+    */
+   private static final class RunningJobs {
+
+      private int _running;
+
+      private boolean _stopped;
+
+      /**
+       * Waits until no job of the batch is running. Native solvers ignore
+       * interrupts, so this does not give up when interrupted.
+       */
+      synchronized void await() {
+         boolean interrupted = false;
+         while (_running > 0) {
+            try {
+               wait();
+            }
+            catch (InterruptedException e) {
+               interrupted = true;
+            }
+         }
+         if (interrupted) {
+            Thread.currentThread().interrupt();
+         }
+      }
+
+      synchronized void finish() {
+         _running--;
+         notifyAll();
+      }
+
+      synchronized boolean start() {
+         if (_stopped) {
+            return false;
+         }
+         _running++;
+         return true;
+      }
+
+      synchronized void stop() {
+         _stopped = true;
+      }
+
+   }
+
+   /**
+    * Long-lived job pools, by number of threads
+    */
+   private static final Map<Integer, ExecutorService> POOLS = new ConcurrentHashMap<>();
+
+   /**
+    * Returns the shared pool on which jobs run with the given settings. The
+    * pool is never shut down; its threads are daemon threads.
+    */
+   public static ExecutorService getPool(Settings settings) {
+      int numThreads = settings.getSequential() ? 1
+            : Math.min(Runtime.getRuntime().availableProcessors(),
+                  settings.getJobs());
+      return POOLS.computeIfAbsent(numThreads, n -> {
+         AtomicInteger threadIndex = new AtomicInteger();
+         ThreadFactory threadFactory = r -> {
+            Thread thread = new Thread(r, "batfish-job-" + n + "-"
+                  + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+         };
+         return Executors.newFixedThreadPool(n, threadFactory);
+      });
+   }
 
    private final String _description;
 
@@ -39,104 +121,126 @@ public class BatfishJobExecutor<Job extends BatfishJob<JobResult>, AE extends An
    }
 
    public void executeJobs(List<Job> jobs, Output output, AE answerElement) {
-      ExecutorService pool;
-      boolean shuffle;
-      if (!_settings.getSequential()) {
-         int maxConcurrentThreads = Runtime.getRuntime().availableProcessors();
-         int numConcurrentThreads = Math.min(
-               maxConcurrentThreads,
-               _settings.getJobs());
-         pool = Executors.newFixedThreadPool(numConcurrentThreads);
-         shuffle = _settings.getShuffleJobs();
-      }
-      else {
-         pool = Executors.newSingleThreadExecutor();
-         shuffle = false;
+      executeJobs(jobs, output, answerElement, o -> false);
+   }
+
+   /**
+    * Runs {@code jobs}, applying each result to {@code output} as it
+    * completes. Once {@code done} holds for {@code output}, the remaining jobs
+    * are cancelled. Does not return or throw while any job it started is still
+    * running, so callers may free what the jobs use once it does.
+    */
+   public void executeJobs(List<Job> jobs, Output output, AE answerElement,
+         Predicate<Output> done) {
+      long startTime = System.currentTimeMillis();
+      if (jobs.stream().anyMatch(job -> job.getCostEstimate() > 0)) {
+         // costliest first, so that the pool is not left waiting on one
+         // expensive job started last
+         jobs.sort(Comparator.comparingLong(
+               (Job job) -> job.getCostEstimate()).reversed());
       }
-      if (shuffle) {
+      else if (!_settings.getSequential() && _settings.getShuffleJobs()) {
          Collections.shuffle(jobs);
       }
-      List<Future<JobResult>> futures = new ArrayList<>();
+      CompletionService<JobResult> completionService = new ExecutorCompletionService<>(
+            getPool(_settings));
+      Set<Future<JobResult>> pending = new HashSet<>();
+      RunningJobs running = new RunningJobs();
       for (Job job : jobs) {
-         Future<JobResult> future = pool.submit(job);
-         futures.add(future);
+         pending.add(completionService.submit(() -> {
+            if (!running.start()) {
+               throw new CancellationException();
+            }
+            try {
+               return job.call();
+            }
+            finally {
+               running.finish();
+            }
+         }));
       }
       boolean processingError = false;
       int finishedJobs = 0;
       int totalJobs = jobs.size();
+      long totalJobTime = 0;
+      long maxJobTime = 0;
       AtomicInteger completed = Driver.newBatch(_settings, _description,
             totalJobs);
       double finishedPercent;
       List<BatfishException> failureCauses = new ArrayList<>();
-      while (!futures.isEmpty()) {
-         List<Future<JobResult>> currentFutures = new ArrayList<>();
-         currentFutures.addAll(futures);
-         for (Future<JobResult> future : currentFutures) {
-            if (future.isDone()) {
-               futures.remove(future);
-               finishedJobs++;
-               completed.incrementAndGet();
-               finishedPercent = 100 * ((double) finishedJobs) / totalJobs;
-               JobResult result = null;
-               try {
-                  result = future.get();
-               }
-               catch (InterruptedException | ExecutionException e) {
-                  throw new BatfishException("Error executing job", e);
-               }
-               String time = CommonUtil.getTime(result.getElapsedTime());
-               Throwable failureCause = result.getFailureCause();
-               if (failureCause == null) {
-                  result.applyTo(output, _logger, answerElement);
+      try {
+         while (!pending.isEmpty()) {
+            Future<JobResult> future = completionService.take();
+            pending.remove(future);
+            finishedJobs++;
+            completed.incrementAndGet();
+            finishedPercent = 100 * ((double) finishedJobs) / totalJobs;
+            JobResult result = future.get();
+            totalJobTime += result.getElapsedTime();
+            maxJobTime = Math.max(maxJobTime, result.getElapsedTime());
+            String time = CommonUtil.getTime(result.getElapsedTime());
+            Throwable failureCause = result.getFailureCause();
+            if (failureCause == null) {
+               result.applyTo(output, _logger, answerElement);
+               _logger.infof(
+                     "Job terminated successfully with result: %s after elapsed time: %s - %d/%d (%.1f%%) complete\n",
+                     result.toString(), time, finishedJobs, totalJobs,
+                     finishedPercent);
+               if (!pending.isEmpty() && done.test(output)) {
                   _logger.infof(
-                        "Job terminated successfully with result: %s after elapsed time: %s - %d/%d (%.1f%%) complete\n",
-                        result.toString(), time, finishedJobs, totalJobs,
-                        finishedPercent);
+                        "%s: stopping early, cancelling %d remaining jobs\n",
+                        _description, pending.size());
+                  break;
+               }
+            }
+            else {
+               String failureMessage = "Failure running job after elapsed time: "
+                     + time + "\n-----BEGIN JOB LOG-----\n"
+                     + result.getHistory()
+                     .toString(BatfishLogger
+                           .getLogLevel(_settings.getLogLevel()))
+                     + "\n-----END JOB LOG-----";
+               BatfishException bfc = new BatfishException(
+                     failureMessage,
+                     failureCause);
+               if (_settings.getExitOnFirstError()) {
+                  result.appendHistory(_logger);
+                  throw bfc;
                }
                else {
-                  String failureMessage = "Failure running job after elapsed time: "
-                        + time + "\n-----BEGIN JOB LOG-----\n"
-                        + result.getHistory()
-                        .toString(BatfishLogger
-                              .getLogLevel(_settings.getLogLevel()))
-                        + "\n-----END JOB LOG-----";
-                  BatfishException bfc = new BatfishException(
-                        failureMessage,
-                        failureCause);
-                  if (_settings.getExitOnFirstError()) {
-                     result.appendHistory(_logger);
-                     throw bfc;
-                  }
-                  else {
-                     processingError = true;
-                     result.appendHistory(_logger);
-                     _logger.error(failureMessage + ":\n\t"
-                           + ExceptionUtils.getStackTrace(failureCause));
-                     failureCauses.add(bfc);
-                     if (!_haltOnProcessingError) {
-                        result.applyTo(output, _logger, answerElement);
-                     }
+                  processingError = true;
+                  result.appendHistory(_logger);
+                  _logger.error(failureMessage + ":\n\t"
+                        + ExceptionUtils.getStackTrace(failureCause));
+                  failureCauses.add(bfc);
+                  if (!_haltOnProcessingError) {
+                     result.applyTo(output, _logger, answerElement);
                   }
                }
             }
-            else {
-               continue;
-            }
          }
-         if (!futures.isEmpty()) {
-            try {
-               Thread.sleep(JOB_POLLING_PERIOD_MS);
-            }
-            catch (InterruptedException e) {
-               throw new BatfishException("interrupted while sleeping", e);
-            }
+      }
+      catch (InterruptedException | ExecutionException e) {
+         throw new BatfishException("Error executing job", e);
+      }
+      finally {
+         // the pool is shared, so only cancel the jobs of this batch
+         running.stop();
+         for (Future<JobResult> future : pending) {
+            future.cancel(true);
          }
+         running.await();
       }
-      pool.shutdown();
+      long elapsedTime = System.currentTimeMillis() - startTime;
+      _logger.infof(
+            "%s: %d jobs finished after elapsed time: %s (mean job time: %s, max job time: %s)\n",
+            _description, finishedJobs, CommonUtil.getTime(elapsedTime),
+            CommonUtil.getTime(
+                  finishedJobs == 0 ? 0 : totalJobTime / finishedJobs),
+            CommonUtil.getTime(maxJobTime));
       if (processingError) {
-         int numJobs = jobs.size();
-         int numFailed = numJobs - failureCauses.size();
-         int numSucceeded = numJobs - numFailed;
+         int numFailed = failureCauses.size();
+         int numSucceeded = finishedJobs - numFailed;
          if (!_logger.isActive(BatfishLogger.LEVEL_INFO)) {
             _logger.infof("%d jobs succeeded; %d jobs failed\n", numSucceeded,
                   numFailed);
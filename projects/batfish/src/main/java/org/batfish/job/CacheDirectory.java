@@ -0,0 +1,113 @@
+package org.batfish.job;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A directory of cache entries, one file each, bounded in size. Once the
+ * entries outgrow the size limit, the least recently used ones are evicted.
+ * The modification time of an entry doubles as its last use.
+ */
+final class CacheDirectory {
+
+   /**
+    * Suffix of the files entries are written to before they are moved into
+    * place
+    */
+   private static final String TMP_SUFFIX = ".tmp";
+
+   private final Path _dir;
+
+   /**
+    * Size of the entries as of the last scan plus the entries put since, or
+    * -1 before the first scan
+    */
+   private long _estimatedBytes;
+
+   private final long _maxBytes;
+
+   CacheDirectory(Path dir, long maxBytes) {
+      _dir = dir;
+      _maxBytes = maxBytes;
+      _estimatedBytes = -1;
+   }
+
+   /**
+    * Creates the file to which the entry with {@code key} is written before
+    * it is moved into place
+    */
+   Path createTempFile(String key) throws IOException {
+      Files.createDirectories(_dir);
+      return Files.createTempFile(_dir, key, TMP_SUFFIX);
+   }
+
+   /**
+    * Accounts for a new entry of {@code entryBytes} bytes, and if the size
+    * limit may have been passed, deletes least recently used entries until
+    * the rest fit. Entries still being written by other threads or processes
+    * are neither counted nor deleted.
+    */
+   synchronized void evict(long entryBytes) throws IOException {
+      if (_estimatedBytes >= 0) {
+         _estimatedBytes += entryBytes;
+         if (_estimatedBytes <= _maxBytes) {
+            return;
+         }
+      }
+      Map<Path, BasicFileAttributes> attributesByPath = new HashMap<>();
+      long totalBytes = 0;
+      try (DirectoryStream<Path> stream = Files.newDirectoryStream(_dir)) {
+         for (Path entryPath : stream) {
+            if (entryPath.getFileName().toString().endsWith(TMP_SUFFIX)) {
+               continue;
+            }
+            BasicFileAttributes attributes;
+            try {
+               attributes = Files.readAttributes(entryPath,
+                     BasicFileAttributes.class);
+            }
+            catch (IOException e) {
+               // evicted or replaced concurrently
+               continue;
+            }
+            attributesByPath.put(entryPath, attributes);
+            totalBytes += attributes.size();
+         }
+      }
+      if (totalBytes > _maxBytes) {
+         List<Path> entryPaths = new ArrayList<>(attributesByPath.keySet());
+         entryPaths.sort(Comparator.comparing(
+               entryPath -> attributesByPath.get(entryPath).lastModifiedTime()));
+         for (Path entryPath : entryPaths) {
+            if (totalBytes <= _maxBytes) {
+               break;
+            }
+            Files.deleteIfExists(entryPath);
+            totalBytes -= attributesByPath.get(entryPath).size();
+         }
+      }
+      _estimatedBytes = totalBytes;
+   }
+
+   Path resolve(String key) {
+      return _dir.resolve(key);
+   }
+
+   /**
+    * Marks the entry at {@code entryPath} as just used
+    */
+   void touch(Path entryPath) throws IOException {
+      Files.setLastModifiedTime(entryPath,
+            FileTime.fromMillis(System.currentTimeMillis()));
+   }
+
+}
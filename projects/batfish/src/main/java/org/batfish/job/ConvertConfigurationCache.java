@@ -0,0 +1,129 @@
+package org.batfish.job;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import org.batfish.common.BatfishException;
+import org.batfish.common.BatfishLogger.BatfishLoggerHistory;
+import org.batfish.common.Warnings;
+import org.batfish.common.util.CommonUtil;
+import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.answers.ConvertConfigurationAnswerElement;
+
+/**
+ * Results of converting vendor configurations, kept on disk across runs and
+ * keyed by a hash of the key of the input the vendor configuration was built
+ * from together with a salt naming the converter build and the settings that
+ * shape conversion output. A testrig re-uploaded with a few edited devices
+ * then only has those devices converted again. Once the entries outgrow the
+ * size limit, the least recently used ones are evicted.
+ */
+public final class ConvertConfigurationCache {
+
+   private static final class Entry implements Serializable {
+
+      /**
+       *
+       */
+      private static final long serialVersionUID = 1L;
+
+      private final ConvertConfigurationAnswerElement _answerElement;
+
+      private final Map<String, Configuration> _configurations;
+
+      private final Warnings _warnings;
+
+      private Entry(ConvertConfigurationResult result) {
+         _answerElement = result.getAnswerElement();
+         _configurations = result.getConfigurations();
+         _warnings = result.getWarnings();
+      }
+
+   }
+
+   private final CacheDirectory _dir;
+
+   private final byte[] _salt;
+
+   public ConvertConfigurationCache(Path dir, String salt, long maxBytes) {
+      _dir = new CacheDirectory(dir, maxBytes);
+      _salt = salt.getBytes(StandardCharsets.UTF_8);
+   }
+
+   /**
+    * Returns the cached result of converting the vendor configuration with
+    * {@code key}, or null if there is none
+    */
+   public ConvertConfigurationResult get(String key, String name,
+         BatfishLoggerHistory history) {
+      Path entryPath = _dir.resolve(key);
+      if (!Files.exists(entryPath)) {
+         return null;
+      }
+      try (ObjectInputStream in = new ObjectInputStream(
+            new BufferedInputStream(Files.newInputStream(entryPath)))) {
+         Entry entry = (Entry) in.readObject();
+         _dir.touch(entryPath);
+         return new ConvertConfigurationResult(0, history, entry._warnings,
+               name, entry._configurations, entry._answerElement);
+      }
+      catch (IOException | ClassNotFoundException | ClassCastException e) {
+         // entries evicted meanwhile or written by an incompatible build are
+         // simply misses
+         return null;
+      }
+   }
+
+   /**
+    * Returns the key for the vendor configuration built from the input with
+    * key {@code sourceKey}
+    */
+   public String getKey(String sourceKey) {
+      return CommonUtil.sha256Digest(_salt,
+            sourceKey.getBytes(StandardCharsets.UTF_8));
+   }
+
+   /**
+    * Stores a successful conversion result under {@code key}, then evicts
+    * entries as needed. The entry is written to a temporary file first, so
+    * concurrent readers never see a partial entry.
+    */
+   public void put(String key, ConvertConfigurationResult result) {
+      Path tmpPath = null;
+      try {
+         tmpPath = _dir.createTempFile(key);
+         try (ObjectOutputStream out = new ObjectOutputStream(
+               new BufferedOutputStream(Files.newOutputStream(tmpPath)))) {
+            out.writeObject(new Entry(result));
+         }
+         long entryBytes = Files.size(tmpPath);
+         Files.move(tmpPath, _dir.resolve(key),
+               StandardCopyOption.REPLACE_EXISTING,
+               StandardCopyOption.ATOMIC_MOVE);
+         _dir.evict(entryBytes);
+      }
+      catch (IOException e) {
+         throw new BatfishException(
+               "Could not cache converted configuration: " + key, e);
+      }
+      finally {
+         if (tmpPath != null) {
+            try {
+               Files.deleteIfExists(tmpPath);
+            }
+            catch (IOException e) {
+               // nothing more to clean up
+            }
+         }
+      }
+   }
+
+}
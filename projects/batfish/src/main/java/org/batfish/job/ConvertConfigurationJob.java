@@ -14,16 +14,29 @@ import org.batfish.vendor.VendorConfiguration;
 public class ConvertConfigurationJob
       extends BatfishJob<ConvertConfigurationResult> {
 
+   private final ConvertConfigurationCache _cache;
+
+   private final String _cacheKey;
+
    private Object _configObject;
 
    private String _name;
 
    private Warnings _warnings;
 
+   /**
+    * @param cache
+    *           Where to store the result on success, or null
+    * @param cacheKey
+    *           Key of {@code configObject} in {@code cache}
+    */
    public ConvertConfigurationJob(
          Settings settings, Object configObject,
-         String name, Warnings warnings) {
+         String name, Warnings warnings, ConvertConfigurationCache cache,
+         String cacheKey) {
       super(settings);
+      _cache = cache;
+      _cacheKey = cacheKey;
       _configObject = configObject;
       _name = name;
       _warnings = warnings;
@@ -73,7 +86,18 @@ public class ConvertConfigurationJob
          Batfish.logWarnings(_logger, _warnings);
       }
       elapsedTime = System.currentTimeMillis() - startTime;
-      return new ConvertConfigurationResult(elapsedTime, _logger.getHistory(),
-            _warnings, _name, configurations, answerElement);
+      ConvertConfigurationResult result = new ConvertConfigurationResult(
+            elapsedTime, _logger.getHistory(), _warnings, _name,
+            configurations, answerElement);
+      if (_cache != null && _cacheKey != null) {
+         try {
+            _cache.put(_cacheKey, result);
+         }
+         catch (BatfishException e) {
+            _logger.warnf("Not caching conversion of '%s': %s\n", _name,
+                  e.getMessage());
+         }
+      }
+      return result;
    }
 }
@@ -85,6 +85,10 @@ public class ConvertConfigurationResult extends
       }
    }
 
+   public ConvertConfigurationAnswerElement getAnswerElement() {
+      return _answerElement;
+   }
+
    public Map<String, Configuration> getConfigurations() {
       return _configurations;
    }
@@ -98,6 +102,10 @@ public class ConvertConfigurationResult extends
       return _name;
    }
 
+   public Warnings getWarnings() {
+      return _warnings;
+   }
+
    @Override
    public String toString() {
       if (_configurations != null) {
@@ -0,0 +1,136 @@
+package org.batfish.job;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import org.batfish.common.BatfishException;
+import org.batfish.common.BatfishLogger.BatfishLoggerHistory;
+import org.batfish.common.ParseTreeSentences;
+import org.batfish.common.Warnings;
+import org.batfish.common.util.CommonUtil;
+import org.batfish.datamodel.ConfigurationFormat;
+import org.batfish.vendor.VendorConfiguration;
+
+/**
+ * Results of parsing configuration files, kept on disk across testrigs of a
+ * container and keyed by a hash of the file's path within its testrig, its
+ * format, its text, and a salt naming the build of the grammars and the
+ * settings that shape parser output. Once the entries outgrow the size
+ * limit, the least recently used ones are evicted.
+ */
+public final class ParseVendorConfigurationCache {
+
+   private static final class Entry implements Serializable {
+
+      /**
+       *
+       */
+      private static final long serialVersionUID = 1L;
+
+      private final ParseTreeSentences _parseTree;
+
+      private final boolean _unrecognized;
+
+      private final VendorConfiguration _vc;
+
+      private final Warnings _warnings;
+
+      private Entry(ParseVendorConfigurationResult result) {
+         _parseTree = result.getParseTree();
+         _vc = result.getVendorConfiguration();
+         // transient in the vendor configuration itself
+         _unrecognized = _vc.getUnrecognized();
+         _warnings = result.getWarnings();
+      }
+
+   }
+
+   private final CacheDirectory _dir;
+
+   private final byte[] _salt;
+
+   public ParseVendorConfigurationCache(Path dir, String salt, long maxBytes) {
+      _dir = new CacheDirectory(dir, maxBytes);
+      _salt = salt.getBytes(StandardCharsets.UTF_8);
+   }
+
+   /**
+    * Returns the cached result of parsing {@code file} with {@code key}, or
+    * null if there is none
+    */
+   public ParseVendorConfigurationResult get(String key, Path file,
+         long elapsedTime, BatfishLoggerHistory history) {
+      Path entryPath = _dir.resolve(key);
+      if (!Files.exists(entryPath)) {
+         return null;
+      }
+      try (ObjectInputStream in = new ObjectInputStream(
+            new BufferedInputStream(Files.newInputStream(entryPath)))) {
+         Entry entry = (Entry) in.readObject();
+         _dir.touch(entryPath);
+         entry._vc.setUnrecognized(entry._unrecognized);
+         return new ParseVendorConfigurationResult(elapsedTime, history, file,
+               entry._vc, entry._warnings, entry._parseTree);
+      }
+      catch (IOException | ClassNotFoundException | ClassCastException e) {
+         // entries evicted meanwhile or written by an incompatible build are
+         // simply misses
+         return null;
+      }
+   }
+
+   /**
+    * Returns the key for the configuration file at {@code relativePath}
+    * within its testrig with text {@code fileText}, to be parsed as
+    * {@code format}
+    */
+   public String getKey(String relativePath, ConfigurationFormat format,
+         String fileText) {
+      return CommonUtil.sha256Digest(_salt,
+            (relativePath + ":" + format).getBytes(StandardCharsets.UTF_8),
+            fileText.getBytes(StandardCharsets.UTF_8));
+   }
+
+   /**
+    * Stores a successful parse result under {@code key}, then evicts entries
+    * as needed. The entry is written to a temporary file first, so
+    * concurrent readers never see a partial entry.
+    */
+   public void put(String key, ParseVendorConfigurationResult result) {
+      Path tmpPath = null;
+      try {
+         tmpPath = _dir.createTempFile(key);
+         try (ObjectOutputStream out = new ObjectOutputStream(
+               new BufferedOutputStream(Files.newOutputStream(tmpPath)))) {
+            out.writeObject(new Entry(result));
+         }
+         long entryBytes = Files.size(tmpPath);
+         Files.move(tmpPath, _dir.resolve(key),
+               StandardCopyOption.REPLACE_EXISTING,
+               StandardCopyOption.ATOMIC_MOVE);
+         _dir.evict(entryBytes);
+      }
+      catch (IOException e) {
+         throw new BatfishException(
+               "Could not cache parse result: " + key, e);
+      }
+      finally {
+         if (tmpPath != null) {
+            try {
+               Files.deleteIfExists(tmpPath);
+            }
+            catch (IOException e) {
+               // nothing more to clean up
+            }
+         }
+      }
+   }
+
+}
@@ -70,6 +70,8 @@ public class ParseVendorConfigurationJob
       }
    }
 
+   private final ParseVendorConfigurationCache _cache;
+
    private Path _file;
 
    private String _fileText;
@@ -80,11 +82,18 @@ public class ParseVendorConfigurationJob
 
    private Warnings _warnings;
 
+   /**
+    * @param cache
+    *           Where to look for an earlier result of parsing the same text
+    *           before parsing, and to store the result after, or null
+    */
    public ParseVendorConfigurationJob(
          Settings settings, String fileText,
          Path file, Warnings warnings,
-         ConfigurationFormat configurationFormat) {
+         ConfigurationFormat configurationFormat,
+         ParseVendorConfigurationCache cache) {
       super(settings);
+      _cache = cache;
       _fileText = fileText;
       _file = file;
       _ptSentences = new ParseTreeSentences();
@@ -118,6 +127,19 @@ public class ParseVendorConfigurationJob
          format = VendorConfigurationFormatDetector
                .identifyConfigurationFormat(_fileText);
       }
+
+      String cacheKey = null;
+      if (_cache != null) {
+         cacheKey = _cache.getKey(relativePathStr, format, _fileText);
+         ParseVendorConfigurationResult cachedResult = _cache.get(cacheKey,
+               _file, System.currentTimeMillis() - startTime,
+               _logger.getHistory());
+         if (cachedResult != null) {
+            _logger.info("\tReusing earlier parse result\n");
+            cachedResult.setCacheKey(cacheKey);
+            return cachedResult;
+         }
+      }
       switch (format) {
 
       case EMPTY:
@@ -352,8 +374,21 @@ public class ParseVendorConfigurationJob
          vc.setHostname(guessedHostname);
       }
       elapsedTime = System.currentTimeMillis() - startTime;
-      return new ParseVendorConfigurationResult(elapsedTime,
-            _logger.getHistory(), _file, vc, _warnings, _ptSentences);
+      ParseVendorConfigurationResult result = new ParseVendorConfigurationResult(
+            elapsedTime, _logger.getHistory(), _file, vc, _warnings,
+            _ptSentences);
+      if (_cache != null) {
+         // the key identifies the input even if the result is not cached
+         result.setCacheKey(cacheKey);
+         try {
+            _cache.put(cacheKey, result);
+         }
+         catch (BatfishException e) {
+            _logger.warnf("Not caching parse result of '%s': %s\n",
+                  relativePathStr, e.getMessage());
+         }
+      }
+      return result;
    }
 
 }
@@ -2,6 +2,7 @@ package org.batfish.job;
 
 import java.nio.file.Path;
 import java.util.Map;
+import java.util.Set;
 import org.batfish.common.BatfishException;
 import org.batfish.common.BatfishLogger;
 import org.batfish.common.BatfishLogger.BatfishLoggerHistory;
@@ -14,6 +15,8 @@ import org.batfish.vendor.VendorConfiguration;
 public class ParseVendorConfigurationResult extends
       BatfishJobResult<Map<String, VendorConfiguration>, ParseVendorConfigurationAnswerElement> {
 
+   private String _cacheKey;
+
    private final Path _file;
 
    private ParseTreeSentences _parseTree;
@@ -81,35 +84,33 @@ public class ParseVendorConfigurationResult extends
          if (vendorConfigurations.containsKey(hostname)) {
             throw new BatfishException("Duplicate hostname: " + hostname);
          }
-         else {
-            vendorConfigurations.put(hostname, _vc);
-            if (!_warnings.isEmpty()) {
-               answerElement.getWarnings().put(hostname, _warnings);
-            }
-            if (!_parseTree.isEmpty()) {
-               answerElement.getParseTrees().put(hostname, _parseTree);
-            }
-            if (_vc.getUnrecognized()) {
-               answerElement.getParseStatus().put(
-                     hostname,
-                     ParseStatus.PARTIALLY_UNRECOGNIZED);
-            }
-            else {
-               answerElement.getParseStatus().put(hostname, ParseStatus.PASSED);
-               answerElement.getFileMap().put(
-                     hostname,
-                     _file.getFileName().toString());
-            }
-         }
+         vendorConfigurations.put(hostname, _vc);
       }
-      else {
-         String filename = _file.getFileName().toString();
-         answerElement.getParseStatus().put(filename, _status);
-         if (_status == ParseStatus.FAILED) {
-            answerElement.getErrors().put(filename,
-                  ((BatfishException)_failureCause).getBatfishStackTrace());
-         }
+      recordParseStatus(answerElement);
+   }
+
+   /**
+    * Records this result as {@link BatfishJobResult#applyTo} does, but keeps
+    * only the hostname in {@code hostnames}, for callers that write each
+    * vendor configuration out rather than keeping it
+    */
+   public void applyTo(
+         Set<String> hostnames, BatfishLogger logger,
+         ParseVendorConfigurationAnswerElement answerElement) {
+      appendHistory(logger);
+      if (_vc != null && !hostnames.add(_vc.getHostname())) {
+         throw new BatfishException(
+               "Duplicate hostname: " + _vc.getHostname());
       }
+      recordParseStatus(answerElement);
+   }
+
+   /**
+    * Returns the key of this result in the parse cache, or null when there is
+    * no parse cache
+    */
+   public String getCacheKey() {
+      return _cacheKey;
    }
 
    public Path getFile() {
@@ -121,10 +122,54 @@ public class ParseVendorConfigurationResult extends
       return _history;
    }
 
+   public ParseTreeSentences getParseTree() {
+      return _parseTree;
+   }
+
    public VendorConfiguration getVendorConfiguration() {
       return _vc;
    }
 
+   public Warnings getWarnings() {
+      return _warnings;
+   }
+
+   private void recordParseStatus(
+         ParseVendorConfigurationAnswerElement answerElement) {
+      if (_vc != null) {
+         String hostname = _vc.getHostname();
+         if (!_warnings.isEmpty()) {
+            answerElement.getWarnings().put(hostname, _warnings);
+         }
+         if (!_parseTree.isEmpty()) {
+            answerElement.getParseTrees().put(hostname, _parseTree);
+         }
+         if (_vc.getUnrecognized()) {
+            answerElement.getParseStatus().put(
+                  hostname,
+                  ParseStatus.PARTIALLY_UNRECOGNIZED);
+         }
+         else {
+            answerElement.getParseStatus().put(hostname, ParseStatus.PASSED);
+            answerElement.getFileMap().put(
+                  hostname,
+                  _file.getFileName().toString());
+         }
+      }
+      else {
+         String filename = _file.getFileName().toString();
+         answerElement.getParseStatus().put(filename, _status);
+         if (_status == ParseStatus.FAILED) {
+            answerElement.getErrors().put(filename,
+                  ((BatfishException)_failureCause).getBatfishStackTrace());
+         }
+      }
+   }
+
+   public void setCacheKey(String cacheKey) {
+      _cacheKey = cacheKey;
+   }
+
    @Override
    public String toString() {
       if (_vc == null) {
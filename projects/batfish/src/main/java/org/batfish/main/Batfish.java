@@ -4,15 +4,23 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.Uninterruptibles;
 import java.io.File;
 import java.io.IOException;
 import java.io.Serializable;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.DirectoryStream;
 import java.nio.file.FileVisitOption;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -28,10 +36,16 @@ import java.util.SortedMap;
 import java.util.SortedSet;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletionService;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiFunction;
+import java.util.function.Predicate;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
@@ -48,8 +62,10 @@ import org.batfish.common.Answerer;
 import org.batfish.common.BatfishException;
 import org.batfish.common.BatfishException.BatfishStackTrace;
 import org.batfish.common.BatfishLogger;
+import org.batfish.common.BatfishLogger.BatfishLoggerHistory;
 import org.batfish.common.BfConsts;
 import org.batfish.common.CleanBatfishException;
+import org.batfish.common.CompositeBatfishException;
 import org.batfish.common.Directory;
 import org.batfish.common.Pair;
 import org.batfish.common.Version;
@@ -63,6 +79,7 @@ import org.batfish.common.plugin.PluginClientType;
 import org.batfish.common.plugin.PluginConsumer;
 import org.batfish.common.util.BatfishObjectMapper;
 import org.batfish.common.util.CommonUtil;
+import org.batfish.common.util.LazySortedMap;
 import org.batfish.config.Settings;
 import org.batfish.config.Settings.EnvironmentSettings;
 import org.batfish.config.Settings.TestrigSettings;
@@ -71,13 +88,13 @@ import org.batfish.datamodel.BgpAdvertisement;
 import org.batfish.datamodel.BgpAdvertisement.BgpAdvertisementType;
 import org.batfish.datamodel.BgpNeighbor;
 import org.batfish.datamodel.BgpProcess;
+import org.batfish.datamodel.BroadcastDomain;
 import org.batfish.datamodel.Configuration;
 import org.batfish.datamodel.ConfigurationFormat;
 import org.batfish.datamodel.DataPlane;
 import org.batfish.datamodel.Edge;
 import org.batfish.datamodel.Flow;
 import org.batfish.datamodel.FlowHistory;
-import org.batfish.datamodel.FlowTrace;
 import org.batfish.datamodel.ForwardingAction;
 import org.batfish.datamodel.GenericConfigObject;
 import org.batfish.datamodel.HeaderSpace;
@@ -91,6 +108,7 @@ import org.batfish.datamodel.OspfArea;
 import org.batfish.datamodel.OspfNeighbor;
 import org.batfish.datamodel.OspfProcess;
 import org.batfish.datamodel.Prefix;
+import org.batfish.datamodel.ReachabilityEngine;
 import org.batfish.datamodel.Route;
 import org.batfish.datamodel.SubRange;
 import org.batfish.datamodel.Topology;
@@ -119,6 +137,7 @@ import org.batfish.datamodel.answers.StringAnswerElement;
 import org.batfish.datamodel.assertion.AssertionAst;
 import org.batfish.datamodel.collections.AdvertisementSet;
 import org.batfish.datamodel.collections.BgpAdvertisementsByVrf;
+import org.batfish.datamodel.collections.ConfigurationIndex;
 import org.batfish.datamodel.collections.EdgeSet;
 import org.batfish.datamodel.collections.InterfaceSet;
 import org.batfish.datamodel.collections.MultiSet;
@@ -131,6 +150,7 @@ import org.batfish.datamodel.collections.NodeVrfSet;
 import org.batfish.datamodel.collections.RoleSet;
 import org.batfish.datamodel.collections.RoutesByVrf;
 import org.batfish.datamodel.collections.TreeMultiSet;
+import org.batfish.datamodel.collections.VendorConfigurationIndex;
 import org.batfish.datamodel.questions.Question;
 import org.batfish.datamodel.questions.Question.InstanceData;
 import org.batfish.datamodel.questions.Question.InstanceData.Variable;
@@ -153,6 +173,7 @@ import org.batfish.grammar.topology.TopologyExtractor;
 import org.batfish.grammar.vyos.VyosCombinedParser;
 import org.batfish.grammar.vyos.VyosFlattener;
 import org.batfish.job.BatfishJobExecutor;
+import org.batfish.job.ConvertConfigurationCache;
 import org.batfish.job.ConvertConfigurationJob;
 import org.batfish.job.ConvertConfigurationResult;
 import org.batfish.job.FlattenVendorConfigurationJob;
@@ -161,6 +182,7 @@ import org.batfish.job.ParseEnvironmentBgpTableJob;
 import org.batfish.job.ParseEnvironmentBgpTableResult;
 import org.batfish.job.ParseEnvironmentRoutingTableJob;
 import org.batfish.job.ParseEnvironmentRoutingTableResult;
+import org.batfish.job.ParseVendorConfigurationCache;
 import org.batfish.job.ParseVendorConfigurationJob;
 import org.batfish.job.ParseVendorConfigurationResult;
 import org.batfish.representation.aws_vpcs.AwsVpcConfiguration;
@@ -168,6 +190,7 @@ import org.batfish.representation.host.HostConfiguration;
 import org.batfish.representation.iptables.IptablesVendorConfiguration;
 import org.batfish.vendor.VendorConfiguration;
 import org.batfish.z3.AclLine;
+import org.batfish.z3.AclLineAnalyzer;
 import org.batfish.z3.AclReachabilityQuerySynthesizer;
 import org.batfish.z3.BlacklistDstIpQuerySynthesizer;
 import org.batfish.z3.CompositeNodJob;
@@ -194,12 +217,31 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
 
    private static final String BASE_TESTRIG_TAG = "BASE";
 
+   /**
+    * Hash of the code this process runs, computed on first use
+    */
+   private static final Supplier<String> BUILD_HASH = Suppliers
+         .memoize(Batfish::computeBuildHash);
+
+   /**
+    * Locks held while the configurations of a testrig are loaded and prepared,
+    * so that concurrent tasks prepare them only once and never see them
+    * half-prepared
+    */
+   private static final ConcurrentMap<TestrigSettings, Object> CONFIGURATION_LOCKS = new ConcurrentHashMap<>();
+
    private static final String DELTA_TESTRIG_TAG = "DELTA";
 
    private static final String DIFFERENTIAL_FLOW_TAG = "DIFFERENTIAL";
 
    private static final String GEN_OSPF_STARTING_IP = "10.0.0.0";
 
+   /**
+    * Maximum number of devices per worker thread that may be between reading
+    * and writing at any time while serializing network configurations
+    */
+   private static final int MAX_DEVICES_IN_FLIGHT_PER_THREAD = 2;
+
    /**
     * The name of the [optional] topology file within a test-rig
     */
@@ -265,6 +307,42 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
       }
    }
 
+   /**
+    * Returns a hash of the jar or class directory this class was loaded from,
+    * which holds the grammars and extractors. Results cached by another build
+    * are then not reused even if it has the same version number. If the code
+    * cannot be read, returns a random value, so that only results cached by
+    * this process are reused.
+    */
+   private static String computeBuildHash() {
+      try {
+         Path codePath = Paths.get(Batfish.class.getProtectionDomain()
+               .getCodeSource().getLocation().toURI());
+         List<Path> files;
+         if (Files.isDirectory(codePath)) {
+            try (Stream<Path> paths = Files.walk(codePath)) {
+               files = paths.filter(Files::isRegularFile).sorted()
+                     .collect(Collectors.toList());
+            }
+         }
+         else {
+            files = Collections.singletonList(codePath);
+         }
+         Hasher hasher = Hashing.sha256().newHasher();
+         for (Path file : files) {
+            hasher.putString(codePath.relativize(file).toString(),
+                  StandardCharsets.UTF_8);
+            hasher.putBytes(com.google.common.io.Files
+                  .asByteSource(file.toFile()).hash(Hashing.sha256())
+                  .asBytes());
+         }
+         return hasher.hash().toString();
+      }
+      catch (IOException | URISyntaxException | SecurityException e) {
+         return UUID.randomUUID().toString();
+      }
+   }
+
    public static String flatten(String input, BatfishLogger logger,
          Settings settings, ConfigurationFormat format, String header) {
       switch (format) {
@@ -430,6 +508,8 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
 
    private final Map<TestrigSettings, DataPlane> _cachedDataPlanes;
 
+   private final Map<TestrigSettings, DerivedStructures> _cachedDerivedStructures;
+
    private final Map<EnvironmentSettings, SortedMap<String, BgpAdvertisementsByVrf>> _cachedEnvironmentBgpTables;
 
    private final Map<EnvironmentSettings, SortedMap<String, RoutesByVrf>> _cachedEnvironmentRoutingTables;
@@ -442,6 +522,11 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
 
    private BatfishLogger _logger;
 
+   /**
+    * Solve times of the NoD jobs run for the question being answered
+    */
+   private NodAnswerElement _nodAnswerElement;
+
    private Settings _settings;
 
    // this variable is used communicate with parent thread on how the job
@@ -457,16 +542,19 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
    public Batfish(Settings settings,
          Map<TestrigSettings, SortedMap<String, Configuration>> cachedConfigurations,
          Map<TestrigSettings, DataPlane> cachedDataPlanes,
+         Map<TestrigSettings, DerivedStructures> cachedDerivedStructures,
          Map<EnvironmentSettings, SortedMap<String, BgpAdvertisementsByVrf>> cachedEnvironmentBgpTables,
          Map<EnvironmentSettings, SortedMap<String, RoutesByVrf>> cachedEnvironmentRoutingTables) {
-      super(settings.getSerializeToText(), settings.getPluginDirs());
+      super(settings.getSerializationFormat(), settings.getPluginDirs());
       _settings = settings;
       _bgpTablePlugins = new TreeMap<>();
       _cachedConfigurations = cachedConfigurations;
       _cachedEnvironmentBgpTables = cachedEnvironmentBgpTables;
       _cachedEnvironmentRoutingTables = cachedEnvironmentRoutingTables;
       _cachedDataPlanes = cachedDataPlanes;
+      _cachedDerivedStructures = cachedDerivedStructures;
       _externalBgpAdvertisementPlugins = new TreeSet<>();
+      _nodAnswerElement = new NodAnswerElement();
       _testrigSettings = settings.getActiveTestrigSettings();
       _baseTestrigSettings = settings.getBaseTestrigSettings();
       _deltaTestrigSettings = settings.getDeltaTestrigSettings();
@@ -523,6 +611,7 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
       loadConfigurations();
 
       initQuestionEnvironments(question, diff, diffActive, dp);
+      _nodAnswerElement = new NodAnswerElement();
       AnswerElement answerElement = null;
       BatfishException exception = null;
       try {
@@ -544,6 +633,10 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
          // success
          answer.setStatus(AnswerStatus.SUCCESS);
          answer.addAnswerElement(answerElement);
+         if (_settings.getZ3SolveTimes()
+               && !_nodAnswerElement.getSolveTimes().isEmpty()) {
+            answer.addAnswerElement(_nodAnswerElement);
+         }
       }
       else {
          // failure
@@ -555,8 +648,9 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
 
    @Override
    public AnswerElement answerAclReachability(String aclNameRegexStr,
-         NamedStructureEquivalenceSets<?> aclEqSets) {
-      if (SystemUtils.IS_OS_MAC_OSX) {
+         NamedStructureEquivalenceSets<?> aclEqSets,
+         ReachabilityEngine engine) {
+      if (SystemUtils.IS_OS_MAC_OSX && engine == ReachabilityEngine.Z3) {
          // TODO: remove when z3 parallelism bug on OSX is fixed
          _settings.setSequential(true);
       }
@@ -576,6 +670,13 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
       checkConfigurations();
       Map<String, Configuration> configurations = loadConfigurations();
 
+      Map<AclLine, Boolean> output = new TreeMap<>();
+      // the bdd engine analyzes every acl in one pass; z3 needs a program
+      // per acl, synthesized once per host
+      AclLineAnalyzer analyzer = engine == ReachabilityEngine.BDD
+            ? new AclLineAnalyzer()
+            : null;
+      Map<String, Synthesizer> aclSynthesizers = new TreeMap<>();
       List<NodSatJob<AclLine>> jobs = new ArrayList<>();
 
       for (Entry<String, ?> e : aclEqSets.getSameNamedStructures().entrySet()) {
@@ -603,72 +704,25 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
                      + "\" contains no lines\n");
                continue;
             }
+            if (analyzer != null) {
+               analyzer.analyze(hostname, acl, output);
+               continue;
+            }
             AclReachabilityQuerySynthesizer query = new AclReachabilityQuerySynthesizer(
                   hostname, aclName, numLines);
-            Synthesizer aclSynthesizer = synthesizeAcls(
-                  Collections.singletonMap(hostname, c));
+            Synthesizer aclSynthesizer = aclSynthesizers.computeIfAbsent(
+                  hostname,
+                  h -> synthesizeAcls(Collections.singletonMap(h, c)));
             NodSatJob<AclLine> job = new NodSatJob<>(_settings, aclSynthesizer,
-                  query);
+                  query, engine);
             jobs.add(job);
          }
       }
 
-      Map<AclLine, Boolean> output = new TreeMap<>();
-      computeNodSatOutput(jobs, output);
-
-      // rearrange output for next step
-      Map<String, Map<String, List<AclLine>>> arrangedAclLines = new TreeMap<>();
-      for (Entry<AclLine, Boolean> e : output.entrySet()) {
-         AclLine line = e.getKey();
-         String hostname = line.getHostname();
-         Map<String, List<AclLine>> byAclName = arrangedAclLines
-               .computeIfAbsent(hostname, k -> new TreeMap<>());
-         String aclName = line.getAclName();
-         List<AclLine> aclLines = byAclName.computeIfAbsent(aclName,
-               k -> new ArrayList<>());
-         aclLines.add(line);
-      }
-
-      // now get earliest more general lines
-      List<NodFirstUnsatJob<AclLine, Integer>> step2Jobs = new ArrayList<>();
-      for (Entry<String, Map<String, List<AclLine>>> e : arrangedAclLines
-            .entrySet()) {
-         String hostname = e.getKey();
-         Configuration c = configurations.get(hostname);
-         Synthesizer aclSynthesizer = synthesizeAcls(
-               Collections.singletonMap(hostname, c));
-         Map<String, List<AclLine>> byAclName = e.getValue();
-         for (Entry<String, List<AclLine>> e2 : byAclName.entrySet()) {
-            String aclName = e2.getKey();
-            IpAccessList ipAccessList = c.getIpAccessLists().get(aclName);
-            List<AclLine> lines = e2.getValue();
-            for (int i = 0; i < lines.size(); i++) {
-               AclLine line = lines.get(i);
-               boolean reachable = output.get(line);
-               if (!reachable) {
-                  List<AclLine> toCheck = new ArrayList<>();
-                  for (int j = 0; j < i; j++) {
-                     AclLine earlierLine = lines.get(j);
-                     boolean earlierIsReachable = output.get(earlierLine);
-                     if (earlierIsReachable) {
-                        toCheck.add(earlierLine);
-                     }
-                  }
-                  EarliestMoreGeneralReachableLineQuerySynthesizer query = new EarliestMoreGeneralReachableLineQuerySynthesizer(
-                        line, toCheck, ipAccessList);
-                  NodFirstUnsatJob<AclLine, Integer> job = new NodFirstUnsatJob<>(
-                        _settings, aclSynthesizer, query);
-                  step2Jobs.add(job);
-               }
-            }
-         }
-      }
-      Map<AclLine, Integer> step2Output = new TreeMap<>();
-      computeNodFirstUnsatOutput(step2Jobs, step2Output);
-      for (AclLine line : output.keySet()) {
-         Integer earliestMoreGeneralReachableLine = step2Output.get(line);
-         line.setEarliestMoreGeneralReachableLine(
-               earliestMoreGeneralReachableLine);
+      if (analyzer == null) {
+         computeNodSatOutput(jobs, output);
+         computeEarliestMoreGeneralReachableLines(output, configurations,
+               aclSynthesizers, engine);
       }
 
       Set<Pair<String, String>> aclsWithUnreachableLines = new TreeSet<>();
@@ -751,6 +805,58 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
       return answerElement;
    }
 
+   /**
+    * Records the outcome of a single parse job the same way
+    * {@link BatfishJobExecutor} does for a batch of jobs.
+    *
+    * @return The parsed configuration, or null if none was produced
+    */
+   private VendorConfiguration applyParseResult(
+         ParseVendorConfigurationResult result, Set<String> hostnames,
+         ParseVendorConfigurationAnswerElement answerElement,
+         List<BatfishException> failureCauses) {
+      String time = CommonUtil.getTime(result.getElapsedTime());
+      Throwable failureCause = result.getFailureCause();
+      if (failureCause == null) {
+         result.applyTo(hostnames, _logger, answerElement);
+         _logger.infof(
+               "Job terminated successfully with result: %s after elapsed time: %s\n",
+               result.toString(), time);
+         return result.getVendorConfiguration();
+      }
+      String failureMessage = "Failure running job after elapsed time: " + time
+            + "\n-----BEGIN JOB LOG-----\n"
+            + result.getHistory().toString(
+                  BatfishLogger.getLogLevel(_settings.getLogLevel()))
+            + "\n-----END JOB LOG-----";
+      BatfishException bfc = new BatfishException(failureMessage,
+            failureCause);
+      result.appendHistory(_logger);
+      if (_settings.getExitOnFirstError()) {
+         throw bfc;
+      }
+      _logger.error(failureMessage + ":\n\t"
+            + ExceptionUtils.getStackTrace(failureCause));
+      failureCauses.add(bfc);
+      if (!_settings.getHaltOnParseError()) {
+         result.applyTo(hostnames, _logger, answerElement);
+      }
+      return null;
+   }
+
+   private Warnings buildParseWarnings() {
+      return new Warnings(_settings.getPedanticAsError(),
+            _settings.getPedanticRecord()
+                  && _logger.isActive(BatfishLogger.LEVEL_PEDANTIC),
+            _settings.getRedFlagAsError(),
+            _settings.getRedFlagRecord()
+                  && _logger.isActive(BatfishLogger.LEVEL_REDFLAG),
+            _settings.getUnimplementedAsError(),
+            _settings.getUnimplementedRecord()
+                  && _logger.isActive(BatfishLogger.LEVEL_UNIMPLEMENTED),
+            _settings.printParseTree());
+   }
+
    private void checkBaseDirExists() {
       Path baseDir = _testrigSettings.getBasePath();
       if (baseDir == null) {
@@ -873,7 +979,8 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
       Set<Flow> flows = new TreeSet<>();
       BatfishJobExecutor<CompositeNodJob, NodAnswerElement, NodJobResult, Set<Flow>> executor = new BatfishJobExecutor<>(
             _settings, _logger, true, "Composite NOD");
-      executor.executeJobs(jobs, flows, answerElement);
+      executor.executeJobs(jobs, flows, answerElement, nodDone());
+      recordNodSolveTimes(answerElement);
       printElapsedTime();
       return flows;
    }
@@ -883,6 +990,69 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
       return _dataPlanePlugin.computeDataPlane(differentialContext);
    }
 
+   /**
+    * Sets the earliest more general reachable line of each unreachable line
+    * in {@code output}
+    */
+   private void computeEarliestMoreGeneralReachableLines(
+         Map<AclLine, Boolean> output,
+         Map<String, Configuration> configurations,
+         Map<String, Synthesizer> aclSynthesizers, ReachabilityEngine engine) {
+      // rearrange output for next step
+      Map<String, Map<String, List<AclLine>>> arrangedAclLines = new TreeMap<>();
+      for (Entry<AclLine, Boolean> e : output.entrySet()) {
+         AclLine line = e.getKey();
+         String hostname = line.getHostname();
+         Map<String, List<AclLine>> byAclName = arrangedAclLines
+               .computeIfAbsent(hostname, k -> new TreeMap<>());
+         String aclName = line.getAclName();
+         List<AclLine> aclLines = byAclName.computeIfAbsent(aclName,
+               k -> new ArrayList<>());
+         aclLines.add(line);
+      }
+
+      // now get earliest more general lines
+      List<NodFirstUnsatJob<AclLine, Integer>> step2Jobs = new ArrayList<>();
+      for (Entry<String, Map<String, List<AclLine>>> e : arrangedAclLines
+            .entrySet()) {
+         String hostname = e.getKey();
+         Configuration c = configurations.get(hostname);
+         Synthesizer aclSynthesizer = aclSynthesizers.get(hostname);
+         Map<String, List<AclLine>> byAclName = e.getValue();
+         for (Entry<String, List<AclLine>> e2 : byAclName.entrySet()) {
+            String aclName = e2.getKey();
+            IpAccessList ipAccessList = c.getIpAccessLists().get(aclName);
+            List<AclLine> lines = e2.getValue();
+            for (int i = 0; i < lines.size(); i++) {
+               AclLine line = lines.get(i);
+               boolean reachable = output.get(line);
+               if (!reachable) {
+                  List<AclLine> toCheck = new ArrayList<>();
+                  for (int j = 0; j < i; j++) {
+                     AclLine earlierLine = lines.get(j);
+                     boolean earlierIsReachable = output.get(earlierLine);
+                     if (earlierIsReachable) {
+                        toCheck.add(earlierLine);
+                     }
+                  }
+                  EarliestMoreGeneralReachableLineQuerySynthesizer query = new EarliestMoreGeneralReachableLineQuerySynthesizer(
+                        line, toCheck, ipAccessList);
+                  NodFirstUnsatJob<AclLine, Integer> job = new NodFirstUnsatJob<>(
+                        _settings, aclSynthesizer, query, engine);
+                  step2Jobs.add(job);
+               }
+            }
+         }
+      }
+      Map<AclLine, Integer> step2Output = new TreeMap<>();
+      computeNodFirstUnsatOutput(step2Jobs, step2Output);
+      for (AclLine line : output.keySet()) {
+         Integer earliestMoreGeneralReachableLine = step2Output.get(line);
+         line.setEarliestMoreGeneralReachableLine(
+               earliestMoreGeneralReachableLine);
+      }
+   }
+
    private void computeEnvironmentBgpTables() {
       EnvironmentSettings envSettings = _testrigSettings
             .getEnvironmentSettings();
@@ -933,11 +1103,7 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
          Map<String, Configuration> configurations, Topology topology) {
       // TODO: confirm VRFs are handled correctly
       InterfaceSet flowSinks = new InterfaceSet();
-      InterfaceSet topologyInterfaces = new InterfaceSet();
-      for (Edge edge : topology.getEdges()) {
-         topologyInterfaces.add(edge.getInterface1());
-         topologyInterfaces.add(edge.getInterface2());
-      }
+      Set<NodeInterfacePair> topologyInterfaces = topology.getInterfaces();
       for (Configuration node : configurations.values()) {
          String hostname = node.getHostname();
          for (Interface iface : node.getInterfaces().values()) {
@@ -956,59 +1122,18 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
    @Override
    public Map<Ip, Set<String>> computeIpOwners(
          Map<String, Configuration> configurations, boolean excludeInactive) {
-      // TODO: confirm VRFs are handled correctly
-      Map<Ip, Set<String>> ipOwners = new HashMap<>();
-      Map<Pair<Prefix, Integer>, Set<Interface>> vrrpGroups = new HashMap<>();
-      configurations.forEach((hostname, c) -> {
-         for (Interface i : c.getInterfaces().values()) {
-            if (i.getActive() || (!excludeInactive && i.getBlacklisted())) {
-               // collect vrrp info
-               i.getVrrpGroups().forEach((groupNum, vrrpGroup) -> {
-                  Prefix prefix = vrrpGroup.getVirtualAddress();
-                  Pair<Prefix, Integer> key = new Pair<>(prefix, groupNum);
-                  Set<Interface> candidates = vrrpGroups.computeIfAbsent(key,
-                        k -> Collections
-                              .newSetFromMap(new IdentityHashMap<>()));
-                  candidates.add(i);
-               });
-               // collect prefixes
-               i.getAllPrefixes().stream().map(p -> p.getAddress())
-                     .forEach(ip -> {
-                        Set<String> owners = ipOwners.computeIfAbsent(ip,
-                              k -> new HashSet<>());
-                        owners.add(hostname);
-                     });
-            }
-         }
-      });
-      vrrpGroups.forEach((p, candidates) -> {
-         int groupNum = p.getSecond();
-         Prefix prefix = p.getFirst();
-         Ip ip = prefix.getAddress();
-         int lowestPriority = Integer.MAX_VALUE;
-         String bestCandidate = null;
-         Set<String> bestCandidates = new HashSet<>();
-         for (Interface candidate : candidates) {
-            VrrpGroup group = candidate.getVrrpGroups().get(groupNum);
-            int currentPriority = group.getPriority();
-            if (currentPriority < lowestPriority) {
-               lowestPriority = currentPriority;
-               bestCandidates.clear();
-               bestCandidate = candidate.getOwner().getHostname();
-            }
-            if (currentPriority == lowestPriority) {
-               bestCandidates.add(candidate.getOwner().getHostname());
-            }
-         }
-         if (bestCandidates.size() != 1) {
-            throw new BatfishException(
-                  "multiple best vrrp candidates:" + bestCandidates);
+      DerivedStructures derived = getDerivedStructures(configurations);
+      if (derived == null) {
+         return newIpOwners(configurations, excludeInactive);
+      }
+      synchronized (derived) {
+         Map<Ip, Set<String>> ipOwners = derived.getIpOwners(excludeInactive);
+         if (ipOwners == null) {
+            ipOwners = newIpOwners(configurations, excludeInactive);
+            derived.setIpOwners(excludeInactive, ipOwners);
          }
-         Set<String> owners = ipOwners.computeIfAbsent(ip,
-               k -> new HashSet<>());
-         owners.add(bestCandidate);
-      });
-      return ipOwners;
+         return ipOwners;
+      }
    }
 
    @Override
@@ -1038,8 +1163,9 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
       Set<Flow> flows = new TreeSet<>();
       BatfishJobExecutor<NodJob, NodAnswerElement, NodJobResult, Set<Flow>> executor = new BatfishJobExecutor<>(
             _settings, _logger, true, "NOD");
-      // todo: do something with nod answer element
-      executor.executeJobs(jobs, flows, new NodAnswerElement());
+      NodAnswerElement answerElement = new NodAnswerElement();
+      executor.executeJobs(jobs, flows, answerElement, nodDone());
+      recordNodSolveTimes(answerElement);
       printElapsedTime();
       return flows;
    }
@@ -1056,31 +1182,18 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
 
    @Override
    public Topology computeTopology(Map<String, Configuration> configurations) {
-      resetTimer();
-      Topology topology = computeTopology(_testrigSettings.getTestRigPath(),
-            configurations);
-      EdgeSet blacklistEdges = getEdgeBlacklist();
-      if (blacklistEdges != null) {
-         EdgeSet edges = topology.getEdges();
-         edges.removeAll(blacklistEdges);
-         if (blacklistEdges.size() > 0) {
-         }
-      }
-      NodeSet blacklistNodes = getNodeBlacklist();
-      if (blacklistNodes != null) {
-         for (String blacklistNode : blacklistNodes) {
-            topology.removeNode(blacklistNode);
-         }
-      }
-      Set<NodeInterfacePair> blacklistInterfaces = getInterfaceBlacklist();
-      if (blacklistInterfaces != null) {
-         for (NodeInterfacePair blacklistInterface : blacklistInterfaces) {
-            topology.removeInterface(blacklistInterface);
+      DerivedStructures derived = getDerivedStructures(configurations);
+      if (derived == null) {
+         return newTopology(configurations);
+      }
+      synchronized (derived) {
+         Topology topology = derived.getTopology();
+         if (topology == null) {
+            topology = newTopology(configurations);
+            derived.setTopology(topology);
          }
+         return topology;
       }
-      Topology prunedTopology = new Topology(topology.getEdges());
-      printElapsedTime();
-      return prunedTopology;
    }
 
    private Topology computeTopology(Path testRigPath,
@@ -1100,28 +1213,71 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
       return topology;
    }
 
+   /**
+    * Converts the vendor configurations serialized in
+    * {@code serializedVendorConfigPath}, reusing the result of any earlier
+    * conversion of an identical vendor configuration found in
+    * {@code cache} (which may be null)
+    */
    private Map<String, Configuration> convertConfigurations(
-         Map<String, GenericConfigObject> vendorConfigurations,
+         Path serializedVendorConfigPath, ConvertConfigurationCache cache,
          ConvertConfigurationAnswerElement answerElement) {
+      Map<Path, String> namesByPath = listSerializedVendorConfigurations(
+            serializedVendorConfigPath);
+      Map<String, String> cacheKeys = new TreeMap<>();
+      List<ConvertConfigurationResult> cachedResults = new ArrayList<>();
+      Path indexPath = getVendorConfigurationIndexPath(
+            serializedVendorConfigPath);
+      if (cache != null && Files.exists(indexPath)) {
+         Map<String, String> sourceKeys = deserializeObject(indexPath,
+               VendorConfigurationIndex.class).getSourceKeys();
+         for (Iterator<Entry<Path, String>> i = namesByPath.entrySet()
+               .iterator(); i.hasNext();) {
+            Entry<Path, String> e = i.next();
+            String name = e.getValue();
+            String sourceKey = sourceKeys.get(name);
+            if (sourceKey == null) {
+               // nothing identifies the input it was built from
+               continue;
+            }
+            String key = cache.getKey(sourceKey);
+            // the main logger keeps no history, so each hit gets its own
+            BatfishLoggerHistory history = new BatfishLogger(
+                  _settings.getLogLevel(), _settings.getTimestamp())
+                        .getHistory();
+            ConvertConfigurationResult cachedResult = cache.get(key, name,
+                  history);
+            if (cachedResult != null) {
+               cachedResults.add(cachedResult);
+               i.remove();
+            }
+            else {
+               cacheKeys.put(name, key);
+            }
+         }
+         answerElement.setCacheHits(cachedResults.size());
+         answerElement.setCacheMisses(namesByPath.size());
+         _logger.infof("Reusing %d cached conversions, converting %d\n",
+               cachedResults.size(), namesByPath.size());
+      }
+      _logger.info("\n*** DESERIALIZING VENDOR CONFIGURATION STRUCTURES ***\n");
+      resetTimer();
+      Map<String, GenericConfigObject> vendorConfigurations = deserializeObjects(
+            namesByPath, GenericConfigObject.class);
+      printElapsedTime();
       _logger.info(
             "\n*** CONVERTING VENDOR CONFIGURATIONS TO INDEPENDENT FORMAT ***\n");
       resetTimer();
       Map<String, Configuration> configurations = new TreeMap<>();
+      for (ConvertConfigurationResult cachedResult : cachedResults) {
+         cachedResult.applyTo(configurations, _logger, answerElement);
+      }
       List<ConvertConfigurationJob> jobs = new ArrayList<>();
       for (String hostname : vendorConfigurations.keySet()) {
-         Warnings warnings = new Warnings(_settings.getPedanticAsError(),
-               _settings.getPedanticRecord()
-                     && _logger.isActive(BatfishLogger.LEVEL_PEDANTIC),
-               _settings.getRedFlagAsError(),
-               _settings.getRedFlagRecord()
-                     && _logger.isActive(BatfishLogger.LEVEL_REDFLAG),
-               _settings.getUnimplementedAsError(),
-               _settings.getUnimplementedRecord()
-                     && _logger.isActive(BatfishLogger.LEVEL_UNIMPLEMENTED),
-               _settings.printParseTree());
+         Warnings warnings = newConversionWarnings();
          GenericConfigObject vc = vendorConfigurations.get(hostname);
          ConvertConfigurationJob job = new ConvertConfigurationJob(_settings,
-               vc, hostname, warnings);
+               vc, hostname, warnings, cache, cacheKeys.get(hostname));
          jobs.add(job);
       }
       BatfishJobExecutor<ConvertConfigurationJob, ConvertConfigurationAnswerElement, ConvertConfigurationResult, Map<String, Configuration>> executor = new BatfishJobExecutor<>(
@@ -1231,12 +1387,12 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
                "Missing vendor-independent configs directory: '"
                      + serializedConfigPath.toString() + "'");
       }
-      Map<Path, String> namesByPath = new TreeMap<>();
+      List<String> names = new ArrayList<>();
       try (DirectoryStream<Path> stream = Files
             .newDirectoryStream(serializedConfigPath)) {
          for (Path serializedConfig : stream) {
             String name = serializedConfig.getFileName().toString();
-            namesByPath.put(serializedConfig, name);
+            names.add(name);
          }
       }
       catch (IOException e) {
@@ -1245,8 +1401,17 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
                      + serializedConfigPath.toString() + "'",
                e);
       }
-      SortedMap<String, Configuration> configurations = deserializeObjects(
-            namesByPath, Configuration.class);
+      // configurations are only deserialized once they are accessed
+      SortedMap<String, Configuration> configurations = new LazySortedMap<>(
+            names, name -> {
+               Path inputPath = serializedConfigPath.resolve(name);
+               _logger.debug("Deserializing: " + Configuration.class.getName()
+                     + " '" + name + "' from '" + inputPath.toString() + "'\n");
+               Configuration c = deserializeObject(inputPath,
+                     Configuration.class);
+               disableUnusableVlanInterfaces(c);
+               return c;
+            });
       printElapsedTime();
       return configurations;
    }
@@ -1330,78 +1495,65 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
          Path serializedVendorConfigPath) {
       _logger.info("\n*** DESERIALIZING VENDOR CONFIGURATION STRUCTURES ***\n");
       resetTimer();
-      Map<Path, String> namesByPath = new TreeMap<>();
-      try (DirectoryStream<Path> serializedConfigs = Files
-            .newDirectoryStream(serializedVendorConfigPath)) {
-         for (Path serializedConfig : serializedConfigs) {
-            String name = serializedConfig.getFileName().toString();
-            namesByPath.put(serializedConfig, name);
-         }
-      }
-      catch (IOException e) {
-         throw new BatfishException("Error reading vendor configs directory",
-               e);
-      }
+      Map<Path, String> namesByPath = listSerializedVendorConfigurations(
+            serializedVendorConfigPath);
       Map<String, GenericConfigObject> vendorConfigurations = deserializeObjects(
             namesByPath, GenericConfigObject.class);
       printElapsedTime();
       return vendorConfigurations;
    }
 
-   private void disableUnusableVlanInterfaces(
-         Map<String, Configuration> configurations) {
-      for (Configuration c : configurations.values()) {
-         Map<Integer, Interface> vlanInterfaces = new HashMap<>();
-         Map<Integer, Integer> vlanMemberCounts = new HashMap<>();
-         Set<Interface> nonVlanInterfaces = new HashSet<>();
-         Integer vlanNumber = null;
-         // Populate vlanInterface and nonVlanInterfaces, and initialize
-         // vlanMemberCounts:
-         for (Interface iface : c.getInterfaces().values()) {
-            if ((iface.getInterfaceType() == InterfaceType.VLAN)
-                  && ((vlanNumber = CommonUtil
-                        .getInterfaceVlanNumber(iface.getName())) != null)) {
-               vlanInterfaces.put(vlanNumber, iface);
-               vlanMemberCounts.put(vlanNumber, 0);
-            }
-            else {
-               nonVlanInterfaces.add(iface);
-            }
+   private void disableUnusableVlanInterfaces(Configuration c) {
+      Map<Integer, Interface> vlanInterfaces = new HashMap<>();
+      Map<Integer, Integer> vlanMemberCounts = new HashMap<>();
+      Set<Interface> nonVlanInterfaces = new HashSet<>();
+      Integer vlanNumber = null;
+      // Populate vlanInterface and nonVlanInterfaces, and initialize
+      // vlanMemberCounts:
+      for (Interface iface : c.getInterfaces().values()) {
+         if ((iface.getInterfaceType() == InterfaceType.VLAN)
+               && ((vlanNumber = CommonUtil
+                     .getInterfaceVlanNumber(iface.getName())) != null)) {
+            vlanInterfaces.put(vlanNumber, iface);
+            vlanMemberCounts.put(vlanNumber, 0);
          }
-         // Update vlanMemberCounts:
-         for (Interface iface : nonVlanInterfaces) {
-            List<SubRange> vlans = new ArrayList<>();
-            vlanNumber = iface.getAccessVlan();
-            if (vlanNumber == 0) { // vlan trunked interface
-               vlans.addAll(iface.getAllowedVlans());
-               vlanNumber = iface.getNativeVlan();
-            }
-            vlans.add(new SubRange(vlanNumber, vlanNumber));
+         else {
+            nonVlanInterfaces.add(iface);
+         }
+      }
+      // Update vlanMemberCounts:
+      for (Interface iface : nonVlanInterfaces) {
+         List<SubRange> vlans = new ArrayList<>();
+         vlanNumber = iface.getAccessVlan();
+         if (vlanNumber == 0) { // vlan trunked interface
+            vlans.addAll(iface.getAllowedVlans());
+            vlanNumber = iface.getNativeVlan();
+         }
+         vlans.add(new SubRange(vlanNumber, vlanNumber));
 
-            for (SubRange sr : vlans) {
-               for (int vlanId = sr.getStart(); vlanId <= sr
-                     .getEnd(); ++vlanId) {
-                  vlanMemberCounts.compute(vlanId,
-                        (k, v) -> (v == null) ? 1 : (v + 1));
-               }
+         for (SubRange sr : vlans) {
+            for (int vlanId = sr.getStart(); vlanId <= sr
+                  .getEnd(); ++vlanId) {
+               vlanMemberCounts.compute(vlanId,
+                     (k, v) -> (v == null) ? 1 : (v + 1));
             }
          }
-         // Disable all "normal" vlan interfaces with zero member counts:
-         String hostname = c.getHostname();
-         SubRange normalVlanRange = c.getNormalVlanRange();
-         for (Map.Entry<Integer, Integer> entry : vlanMemberCounts.entrySet()) {
-            if (entry.getValue() == 0) {
-               vlanNumber = entry.getKey();
-               if ((vlanNumber >= normalVlanRange.getStart())
-                     && (vlanNumber <= normalVlanRange.getEnd())) {
-                  Interface iface = vlanInterfaces.get(vlanNumber);
-                  if ((iface != null) && iface.getAutoState()) {
-                     _logger.warnf(
-                           "WARNING: Disabling unusable vlan interface because no switch port is assigned to it: \"%s:%d\"\n",
-                           hostname, vlanNumber);
-                     iface.setActive(false);
-                     iface.setBlacklisted(true);
-                  }
+      }
+      // Disable all "normal" vlan interfaces with zero member counts:
+      String hostname = c.getHostname();
+      SubRange normalVlanRange = c.getNormalVlanRange();
+      for (Map.Entry<Integer, Integer> entry : vlanMemberCounts.entrySet()) {
+         if (entry.getValue() == 0) {
+            vlanNumber = entry.getKey();
+            if ((vlanNumber >= normalVlanRange.getStart())
+                  && (vlanNumber <= normalVlanRange.getEnd())) {
+               Interface iface = vlanInterfaces.get(vlanNumber);
+               if ((iface != null) && iface.getAutoState()) {
+                  _logger.warnf(
+                        "WARNING: Disabling unusable vlan interface because no switch port is assigned to it: \"%s:%d\"\n",
+                        hostname, vlanNumber);
+                  iface.setActive(false);
+                  iface.setBlacklisted(true);
                }
             }
          }
@@ -1410,8 +1562,32 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
 
    private void disableUnusableVpnInterfaces(
          Map<String, Configuration> configurations) {
-      initRemoteIpsecVpns(configurations);
-      for (Configuration c : configurations.values()) {
+      /*
+       * Only configurations with IPsec VPNs take part. Use the index written
+       * with the configurations to avoid loading the rest, but check any
+       * that are loaded already, since delta configurations may differ from
+       * the index.
+       */
+      ConfigurationIndex index = null;
+      Path indexPath = getConfigurationIndexPath(
+            _testrigSettings.getSerializeIndependentPath());
+      if (configurations instanceof LazySortedMap && Files.exists(indexPath)) {
+         index = deserializeObject(indexPath, ConfigurationIndex.class);
+      }
+      Map<String, Configuration> vpnConfigurations = new TreeMap<>();
+      for (String hostname : configurations.keySet()) {
+         if (index != null && !index.getIpsecVpnHostnames().contains(hostname)
+               && !((LazySortedMap<String, Configuration>) configurations)
+                     .isLoaded(hostname)) {
+            continue;
+         }
+         Configuration c = configurations.get(hostname);
+         if (!c.getIpsecVpns().isEmpty()) {
+            vpnConfigurations.put(hostname, c);
+         }
+      }
+      initRemoteIpsecVpns(vpnConfigurations);
+      for (Configuration c : vpnConfigurations.values()) {
          for (IpsecVpn vpn : c.getIpsecVpns().values()) {
             if (vpn.getRemoteIpsecVpn() == null) {
                String hostname = c.getHostname();
@@ -1777,18 +1953,48 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
    public Map<String, Configuration> getConfigurations(
          Path serializedVendorConfigPath,
          ConvertConfigurationAnswerElement answerElement) {
-      Map<String, GenericConfigObject> vendorConfigurations = deserializeVendorConfigurations(
-            serializedVendorConfigPath);
       Map<String, Configuration> configurations = convertConfigurations(
-            vendorConfigurations, answerElement);
+            serializedVendorConfigPath, getConvertConfigurationCache(),
+            answerElement);
       postProcessConfigurations(configurations.values());
       return configurations;
    }
 
+   /**
+    * Returns the cache of conversion results shared by all testrigs in the
+    * container, or null when there is no container or caching is disabled.
+    * Network configurations are keyed on the keys of their parse results, so
+    * this is disabled along with the parse cache.
+    */
+   private ConvertConfigurationCache getConvertConfigurationCache() {
+      Path containerDir = _settings.getContainerDir();
+      if (containerDir == null) {
+         return null;
+      }
+      if (_settings.getParseCacheMb() <= 0) {
+         _logger.info(
+               "Not caching conversions, since the parse cache is disabled\n");
+         return null;
+      }
+      return new ConvertConfigurationCache(
+            containerDir.resolve(BfConsts.RELPATH_CONVERSION_CACHE_DIR),
+            getWarningsCacheSalt(),
+            _settings.getParseCacheMb() * 1024L * 1024L);
+   }
+
    public DataPlanePlugin getDataPlanePlugin() {
       return _dataPlanePlugin;
    }
 
+   /**
+    * Returns the path of the index accompanying the vendor-independent
+    * configurations serialized in {@code serializedConfigPath}
+    */
+   private static Path getConfigurationIndexPath(Path serializedConfigPath) {
+      return serializedConfigPath.resolveSibling(
+            BfConsts.RELPATH_VENDOR_INDEPENDENT_CONFIG_INDEX);
+   }
+
    private Map<String, Configuration> getDeltaConfigurations() {
       EnvironmentSettings envSettings = _testrigSettings
             .getEnvironmentSettings();
@@ -1811,6 +2017,19 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
       return _deltaTestrigSettings;
    }
 
+   /**
+    * Returns the structures derived so far from {@code configurations}, or
+    * null unless they are the loaded configurations of the active testrig
+    */
+   private DerivedStructures getDerivedStructures(
+         Map<String, Configuration> configurations) {
+      if (configurations != _cachedConfigurations.get(_testrigSettings)) {
+         return null;
+      }
+      return _cachedDerivedStructures.computeIfAbsent(_testrigSettings,
+            k -> new DerivedStructures());
+   }
+
    @Override
    public String getDifferentialFlowTag() {
       // return _settings.getQuestionName() + ":" +
@@ -1952,6 +2171,26 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
       return blacklistNodes;
    }
 
+   /**
+    * Returns the cache of parse results shared by all testrigs in the
+    * container, or null when there is no container or caching is disabled
+    */
+   private ParseVendorConfigurationCache getParseVendorConfigurationCache() {
+      Path containerDir = _settings.getContainerDir();
+      if (containerDir == null || _settings.getParseCacheMb() <= 0) {
+         return null;
+      }
+      // anything that changes parser output must change the salt
+      String salt = String.join(":", getWarningsCacheSalt(),
+            Boolean.toString(_settings.flattenOnTheFly()),
+            Boolean.toString(_settings.getThrowOnLexerError()),
+            Boolean.toString(_settings.getThrowOnParserError()),
+            Boolean.toString(_settings.getUnrecognizedAsRedFlag()));
+      return new ParseVendorConfigurationCache(
+            containerDir.resolve(BfConsts.RELPATH_PARSE_CACHE_DIR), salt,
+            _settings.getParseCacheMb() * 1024L * 1024L);
+   }
+
    @Override
    public SortedMap<String, SortedMap<String, SortedSet<AbstractRoute>>> getRoutes() {
       return _dataPlanePlugin.getRoutes();
@@ -1961,7 +2200,7 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
       return _settings;
    }
 
-   private Set<Edge> getSymmetricEdgePairs(EdgeSet edges) {
+   private Set<Edge> getSymmetricEdgePairs(Set<Edge> edges) {
       LinkedHashSet<Edge> consumedEdges = new LinkedHashSet<>();
       for (Edge edge : edges) {
          if (consumedEdges.contains(edge)) {
@@ -1999,6 +2238,34 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
       return PluginClientType.BATFISH;
    }
 
+   /**
+    * Returns the path of the index accompanying the vendor configurations
+    * serialized in {@code serializedVendorConfigPath}
+    */
+   private static Path getVendorConfigurationIndexPath(
+         Path serializedVendorConfigPath) {
+      return serializedVendorConfigPath.resolveSibling(
+            BfConsts.RELPATH_VENDOR_SPECIFIC_CONFIG_INDEX);
+   }
+
+   /**
+    * Returns a salt for cached parse and conversion results naming this
+    * build and the warning settings, which shape the output of both
+    */
+   private String getWarningsCacheSalt() {
+      return String.join(":", Version.getVersion(), BUILD_HASH.get(),
+            Boolean.toString(_settings.getPedanticAsError()),
+            Boolean.toString(_settings.getPedanticRecord()
+                  && _logger.isActive(BatfishLogger.LEVEL_PEDANTIC)),
+            Boolean.toString(_settings.getRedFlagAsError()),
+            Boolean.toString(_settings.getRedFlagRecord()
+                  && _logger.isActive(BatfishLogger.LEVEL_REDFLAG)),
+            Boolean.toString(_settings.getUnimplementedAsError()),
+            Boolean.toString(_settings.getUnimplementedRecord()
+                  && _logger.isActive(BatfishLogger.LEVEL_UNIMPLEMENTED)),
+            Boolean.toString(_settings.printParseTree()));
+   }
+
    private void histogram(Path testRigPath) {
       Map<Path, String> configurationData = readConfigurationFiles(testRigPath,
             BfConsts.RELPATH_CONFIGURATIONS_DIR);
@@ -2291,6 +2558,72 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
    @Override
    public void initRemoteBgpNeighbors(Map<String, Configuration> configurations,
          Map<Ip, Set<String>> ipOwners) {
+      DerivedStructures derived = getDerivedStructures(configurations);
+      if (derived == null) {
+         linkRemoteBgpNeighbors(configurations, ipOwners);
+         return;
+      }
+      synchronized (derived) {
+         if (derived.getRemoteBgpNeighborsIpOwners() != ipOwners) {
+            linkRemoteBgpNeighbors(configurations, ipOwners);
+            derived.setRemoteBgpNeighborsIpOwners(ipOwners);
+         }
+      }
+   }
+
+   @Override
+   public void initRemoteIpsecVpns(Map<String, Configuration> configurations) {
+      DerivedStructures derived = getDerivedStructures(configurations);
+      if (derived == null) {
+         linkRemoteIpsecVpns(configurations);
+         return;
+      }
+      synchronized (derived) {
+         if (!derived.getRemoteIpsecVpnsInitialized()) {
+            linkRemoteIpsecVpns(configurations);
+            derived.setRemoteIpsecVpnsInitialized(true);
+         }
+      }
+   }
+
+   @Override
+   public void initRemoteOspfNeighbors(
+         Map<String, Configuration> configurations,
+         Map<Ip, Set<String>> ipOwners, Topology topology) {
+      DerivedStructures derived = getDerivedStructures(configurations);
+      if (derived == null) {
+         linkRemoteOspfNeighbors(configurations, ipOwners, topology);
+         return;
+      }
+      synchronized (derived) {
+         if (derived.getRemoteOspfNeighborsIpOwners() != ipOwners
+               || derived.getRemoteOspfNeighborsTopology() != topology) {
+            linkRemoteOspfNeighbors(configurations, ipOwners, topology);
+            derived.setRemoteOspfNeighbors(ipOwners, topology);
+         }
+      }
+   }
+
+   private Map<Path, String> listSerializedVendorConfigurations(
+         Path serializedVendorConfigPath) {
+      Map<Path, String> namesByPath = new TreeMap<>();
+      try (DirectoryStream<Path> serializedConfigs = Files
+            .newDirectoryStream(serializedVendorConfigPath)) {
+         for (Path serializedConfig : serializedConfigs) {
+            String name = serializedConfig.getFileName().toString();
+            namesByPath.put(serializedConfig, name);
+         }
+      }
+      catch (IOException e) {
+         throw new BatfishException("Error reading vendor configs directory",
+               e);
+      }
+      return namesByPath;
+   }
+
+   private void linkRemoteBgpNeighbors(
+         Map<String, Configuration> configurations,
+         Map<Ip, Set<String>> ipOwners) {
       // TODO: handle duplicate ips on different vrfs
       Map<BgpNeighbor, Ip> remoteAddresses = new IdentityHashMap<>();
       Map<Ip, Set<BgpNeighbor>> localAddresses = new HashMap<>();
@@ -2346,8 +2679,7 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
       }
    }
 
-   @Override
-   public void initRemoteIpsecVpns(Map<String, Configuration> configurations) {
+   private void linkRemoteIpsecVpns(Map<String, Configuration> configurations) {
       Map<IpsecVpn, Ip> remoteAddresses = new HashMap<>();
       Map<Ip, Set<IpsecVpn>> externalAddresses = new HashMap<>();
       for (Configuration c : configurations.values()) {
@@ -2393,8 +2725,7 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
       }
    }
 
-   @Override
-   public void initRemoteOspfNeighbors(
+   private void linkRemoteOspfNeighbors(
          Map<String, Configuration> configurations,
          Map<Ip, Set<String>> ipOwners, Topology topology) {
       for (Entry<String, Configuration> e : configurations.entrySet()) {
@@ -2412,71 +2743,66 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
                      OspfArea area = e3.getValue();
                      for (Interface iface : area.getInterfaces()) {
                         String ifaceName = iface.getName();
-                        EdgeSet ifaceEdges = topology.getInterfaceEdges()
-                              .get(new NodeInterfacePair(hostname, ifaceName));
                         boolean hasNeighbor = false;
                         Ip localIp = iface.getPrefix().getAddress();
-                        if (ifaceEdges != null) {
-                           for (Edge edge : ifaceEdges) {
-                              if (edge.getNode1().equals(hostname)) {
-                                 String remoteHostname = edge.getNode2();
-                                 String remoteIfaceName = edge.getInt2();
-                                 Configuration remoteNode = configurations
-                                       .get(remoteHostname);
-                                 Interface remoteIface = remoteNode
-                                       .getInterfaces().get(remoteIfaceName);
-                                 Vrf remoteVrf = remoteIface.getVrf();
-                                 String remoteVrfName = remoteVrf.getName();
-                                 OspfProcess remoteProc = remoteVrf
-                                       .getOspfProcess();
-                                 if (remoteProc.getOspfNeighbors() == null) {
-                                    remoteProc
-                                          .setOspfNeighbors(new TreeMap<>());
-                                 }
-                                 if (remoteProc != null) {
-                                    OspfArea remoteArea = remoteProc.getAreas()
-                                          .get(areaNum);
-                                    if (remoteArea != null
-                                          && remoteArea.getInterfaceNames()
-                                                .contains(remoteIfaceName)) {
-                                       Ip remoteIp = remoteIface.getPrefix()
-                                             .getAddress();
-                                       Pair<Ip, Ip> localKey = new Pair<>(
-                                             localIp, remoteIp);
-                                       OspfNeighbor neighbor = proc
-                                             .getOspfNeighbors().get(localKey);
-                                       if (neighbor == null) {
-                                          hasNeighbor = true;
-
-                                          // initialize local neighbor
-                                          neighbor = new OspfNeighbor(localKey);
-                                          neighbor.setArea(areaNum);
-                                          neighbor.setVrf(vrfName);
-                                          neighbor.setOwner(c);
-                                          neighbor.setInterface(iface);
-                                          proc.getOspfNeighbors().put(localKey,
-                                                neighbor);
-
-                                          // initialize remote neighbor
-                                          Pair<Ip, Ip> remoteKey = new Pair<>(
-                                                remoteIp, localIp);
-                                          OspfNeighbor remoteNeighbor = new OspfNeighbor(
-                                                remoteKey);
-                                          remoteNeighbor.setArea(areaNum);
-                                          remoteNeighbor.setVrf(remoteVrfName);
-                                          remoteNeighbor.setOwner(remoteNode);
-                                          remoteNeighbor
-                                                .setInterface(remoteIface);
-                                          remoteProc.getOspfNeighbors()
-                                                .put(remoteKey, remoteNeighbor);
-
-                                          // link neighbors
-                                          neighbor.setRemoteOspfNeighbor(
-                                                remoteNeighbor);
-                                          remoteNeighbor.setRemoteOspfNeighbor(
-                                                neighbor);
-                                       }
-                                    }
+                        for (NodeInterfacePair remote : topology.getNeighbors(
+                              new NodeInterfacePair(hostname, ifaceName))) {
+                           String remoteHostname = remote.getHostname();
+                           String remoteIfaceName = remote.getInterface();
+                           Configuration remoteNode = configurations
+                                 .get(remoteHostname);
+                           Interface remoteIface = remoteNode
+                                 .getInterfaces().get(remoteIfaceName);
+                           Vrf remoteVrf = remoteIface.getVrf();
+                           String remoteVrfName = remoteVrf.getName();
+                           OspfProcess remoteProc = remoteVrf
+                                 .getOspfProcess();
+                           if (remoteProc.getOspfNeighbors() == null) {
+                              remoteProc
+                                    .setOspfNeighbors(new TreeMap<>());
+                           }
+                           if (remoteProc != null) {
+                              OspfArea remoteArea = remoteProc.getAreas()
+                                    .get(areaNum);
+                              if (remoteArea != null
+                                    && remoteArea.getInterfaceNames()
+                                          .contains(remoteIfaceName)) {
+                                 Ip remoteIp = remoteIface.getPrefix()
+                                       .getAddress();
+                                 Pair<Ip, Ip> localKey = new Pair<>(
+                                       localIp, remoteIp);
+                                 OspfNeighbor neighbor = proc
+                                       .getOspfNeighbors().get(localKey);
+                                 if (neighbor == null) {
+                                    hasNeighbor = true;
+
+                                    // initialize local neighbor
+                                    neighbor = new OspfNeighbor(localKey);
+                                    neighbor.setArea(areaNum);
+                                    neighbor.setVrf(vrfName);
+                                    neighbor.setOwner(c);
+                                    neighbor.setInterface(iface);
+                                    proc.getOspfNeighbors().put(localKey,
+                                          neighbor);
+
+                                    // initialize remote neighbor
+                                    Pair<Ip, Ip> remoteKey = new Pair<>(
+                                          remoteIp, localIp);
+                                    OspfNeighbor remoteNeighbor = new OspfNeighbor(
+                                          remoteKey);
+                                    remoteNeighbor.setArea(areaNum);
+                                    remoteNeighbor.setVrf(remoteVrfName);
+                                    remoteNeighbor.setOwner(remoteNode);
+                                    remoteNeighbor
+                                          .setInterface(remoteIface);
+                                    remoteProc.getOspfNeighbors()
+                                          .put(remoteKey, remoteNeighbor);
+
+                                    // link neighbors
+                                    neighbor.setRemoteOspfNeighbor(
+                                          remoteNeighbor);
+                                    remoteNeighbor.setRemoteOspfNeighbor(
+                                          neighbor);
                                  }
                               }
                            }
@@ -2498,25 +2824,40 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
       }
    }
 
+   /**
+    * Returns the configurations of the active testrig with its environment
+    * applied. They are shared by every task working on the same testrig and
+    * environment, so they are only ever modified here, before they are cached.
+    */
    @Override
    public SortedMap<String, Configuration> loadConfigurations() {
       SortedMap<String, Configuration> configurations = _cachedConfigurations
             .get(_testrigSettings);
-      if (configurations == null) {
-         ConvertConfigurationAnswerElement ccae = loadConvertConfigurationAnswerElement();
-         if (!Version.isCompatibleVersion("Service",
-               "Old processed configurations", ccae.getVersion())) {
-            repairConfigurations();
+      if (configurations != null) {
+         return configurations;
+      }
+      Object lock = CONFIGURATION_LOCKS.computeIfAbsent(_testrigSettings,
+            k -> new Object());
+      synchronized (lock) {
+         configurations = _cachedConfigurations.get(_testrigSettings);
+         if (configurations == null) {
+            ConvertConfigurationAnswerElement ccae = loadConvertConfigurationAnswerElement();
+            if (!Version.isCompatibleVersion("Service",
+                  "Old processed configurations", ccae.getVersion())) {
+               repairConfigurations();
+            }
+            configurations = deserializeConfigurations(
+                  _testrigSettings.getSerializeIndependentPath());
+            processNodeBlacklist(configurations);
+            processInterfaceBlacklist(configurations);
+            processDeltaConfigurations(configurations);
+            disableUnusableVpnInterfaces(configurations);
+            _cachedConfigurations.put(_testrigSettings, configurations);
+            DerivedStructures derived = new DerivedStructures();
+            derived.setRemoteIpsecVpnsInitialized(true);
+            _cachedDerivedStructures.put(_testrigSettings, derived);
          }
-         configurations = deserializeConfigurations(
-               _testrigSettings.getSerializeIndependentPath());
-         _cachedConfigurations.put(_testrigSettings, configurations);
       }
-      processNodeBlacklist(configurations);
-      processInterfaceBlacklist(configurations);
-      processDeltaConfigurations(configurations);
-      disableUnusableVlanInterfaces(configurations);
-      disableUnusableVpnInterfaces(configurations);
       return configurations;
    }
 
@@ -2729,8 +3070,9 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
    }
 
    @Override
-   public AnswerElement multipath(HeaderSpace headerSpace) {
-      if (SystemUtils.IS_OS_MAC_OSX) {
+   public AnswerElement multipath(HeaderSpace headerSpace,
+         ReachabilityEngine engine) {
+      if (SystemUtils.IS_OS_MAC_OSX && engine == ReachabilityEngine.Z3) {
          // TODO: remove when z3 parallelism bug on OSX is fixed
          _settings.setSequential(true);
       }
@@ -2747,12 +3089,18 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
             NodeVrfSet nodes = new NodeVrfSet();
             nodes.add(new Pair<>(node, vrf));
             NodJob job = new NodJob(settings, dataPlaneSynthesizer, query,
-                  nodes, tag);
+                  nodes, tag, engine);
             jobs.add(job);
          }
       });
 
-      flows = computeNodOutput(jobs);
+      try {
+         flows = computeNodOutput(jobs);
+      }
+      finally {
+         // no job is left running once computeNodOutput returns or throws
+         dataPlaneSynthesizer.close();
+      }
 
       getDataPlanePlugin().processFlows(flows);
 
@@ -2765,6 +3113,111 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
       return Driver.newBatch(_settings, description, jobs);
    }
 
+   private Warnings newConversionWarnings() {
+      return new Warnings(_settings.getPedanticAsError(),
+            _settings.getPedanticRecord()
+                  && _logger.isActive(BatfishLogger.LEVEL_PEDANTIC),
+            _settings.getRedFlagAsError(),
+            _settings.getRedFlagRecord()
+                  && _logger.isActive(BatfishLogger.LEVEL_REDFLAG),
+            _settings.getUnimplementedAsError(),
+            _settings.getUnimplementedRecord()
+                  && _logger.isActive(BatfishLogger.LEVEL_UNIMPLEMENTED),
+            _settings.printParseTree());
+   }
+
+   private Map<Ip, Set<String>> newIpOwners(
+         Map<String, Configuration> configurations, boolean excludeInactive) {
+      // TODO: confirm VRFs are handled correctly
+      Map<Ip, Set<String>> ipOwners = new HashMap<>();
+      Map<Pair<Prefix, Integer>, Set<Interface>> vrrpGroups = new HashMap<>();
+      configurations.forEach((hostname, c) -> {
+         for (Interface i : c.getInterfaces().values()) {
+            if (i.getActive() || (!excludeInactive && i.getBlacklisted())) {
+               // collect vrrp info
+               i.getVrrpGroups().forEach((groupNum, vrrpGroup) -> {
+                  Prefix prefix = vrrpGroup.getVirtualAddress();
+                  Pair<Prefix, Integer> key = new Pair<>(prefix, groupNum);
+                  Set<Interface> candidates = vrrpGroups.computeIfAbsent(key,
+                        k -> Collections
+                              .newSetFromMap(new IdentityHashMap<>()));
+                  candidates.add(i);
+               });
+               // collect prefixes
+               i.getAllPrefixes().stream().map(p -> p.getAddress())
+                     .forEach(ip -> {
+                        Set<String> owners = ipOwners.computeIfAbsent(ip,
+                              k -> new HashSet<>());
+                        owners.add(hostname);
+                     });
+            }
+         }
+      });
+      vrrpGroups.forEach((p, candidates) -> {
+         int groupNum = p.getSecond();
+         Prefix prefix = p.getFirst();
+         Ip ip = prefix.getAddress();
+         int lowestPriority = Integer.MAX_VALUE;
+         String bestCandidate = null;
+         Set<String> bestCandidates = new HashSet<>();
+         for (Interface candidate : candidates) {
+            VrrpGroup group = candidate.getVrrpGroups().get(groupNum);
+            int currentPriority = group.getPriority();
+            if (currentPriority < lowestPriority) {
+               lowestPriority = currentPriority;
+               bestCandidates.clear();
+               bestCandidate = candidate.getOwner().getHostname();
+            }
+            if (currentPriority == lowestPriority) {
+               bestCandidates.add(candidate.getOwner().getHostname());
+            }
+         }
+         if (bestCandidates.size() != 1) {
+            throw new BatfishException(
+                  "multiple best vrrp candidates:" + bestCandidates);
+         }
+         Set<String> owners = ipOwners.computeIfAbsent(ip,
+               k -> new HashSet<>());
+         owners.add(bestCandidate);
+      });
+      return ipOwners;
+   }
+
+   private Topology newTopology(Map<String, Configuration> configurations) {
+      resetTimer();
+      Topology topology = computeTopology(_testrigSettings.getTestRigPath(),
+            configurations);
+      EdgeSet blacklistEdges = getEdgeBlacklist();
+      if (blacklistEdges != null) {
+         for (Edge blacklistEdge : blacklistEdges) {
+            topology.removeEdge(blacklistEdge);
+         }
+      }
+      NodeSet blacklistNodes = getNodeBlacklist();
+      if (blacklistNodes != null) {
+         for (String blacklistNode : blacklistNodes) {
+            topology.removeNode(blacklistNode);
+         }
+      }
+      Set<NodeInterfacePair> blacklistInterfaces = getInterfaceBlacklist();
+      if (blacklistInterfaces != null) {
+         for (NodeInterfacePair blacklistInterface : blacklistInterfaces) {
+            topology.removeInterface(blacklistInterface);
+         }
+      }
+      printElapsedTime();
+      return topology;
+   }
+
+   /**
+    * Returns when a batch of NoD reachability jobs may stop early: once any
+    * job has found a flow, if only a witness is wanted
+    */
+   private Predicate<Set<Flow>> nodDone() {
+      boolean witnessOnly = _settings.getZ3WitnessOnly();
+      return flows -> witnessOnly && !flows.isEmpty();
+   }
+
    void outputAnswer(Answer answer) {
       ObjectMapper mapper = new BatfishObjectMapper();
       try {
@@ -2924,6 +3377,150 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
       return ast;
    }
 
+   /**
+    * Reads, parses, and serializes every network configuration file under
+    * {@code configsPath}, keeping a bounded number of devices in flight so
+    * that the text, parse results, and vendor structures of a device become
+    * garbage as soon as its output file has been written. If parsing fails,
+    * the files written so far are removed.
+    *
+    * @return The hostnames of the parsed configurations
+    */
+   private Set<String> parseAndSerializeVendorConfigurations(Path configsPath,
+         Path outputPath, ParseVendorConfigurationAnswerElement answerElement,
+         NodeRoleMap nodeRoles, VendorConfigurationIndex index) {
+      _logger.info(
+            "\n*** PARSING AND SERIALIZING VENDOR CONFIGURATION FILES ***\n");
+      resetTimer();
+      List<Path> configFilePaths = listAllFiles(configsPath);
+      int numThreads = _settings.getSequential() ? 1
+            : Math.min(Runtime.getRuntime().availableProcessors(),
+                  _settings.getJobs());
+      int maxInFlight = numThreads * MAX_DEVICES_IN_FLIGHT_PER_THREAD;
+      ParseVendorConfigurationCache cache = getParseVendorConfigurationCache();
+      // parse tasks yield their result, write tasks yield null
+      CompletionService<ParseVendorConfigurationResult> completionService = new ExecutorCompletionService<>(
+            BatfishJobExecutor.getPool(_settings));
+      Set<Future<ParseVendorConfigurationResult>> pending = new HashSet<>();
+      Set<Future<ParseVendorConfigurationResult>> pendingWrites = new HashSet<>();
+      List<Path> outputPaths = new ArrayList<>();
+      AtomicInteger completed = newBatch(
+            "Parsing and serializing configuration files",
+            configFilePaths.size());
+      Set<String> hostnames = new HashSet<>();
+      List<BatfishException> failureCauses = new ArrayList<>();
+      Iterator<Path> files = configFilePaths.iterator();
+      int inFlight = 0;
+      boolean succeeded = false;
+      try {
+         while (files.hasNext() || inFlight > 0) {
+            if (files.hasNext() && inFlight < maxInFlight) {
+               Path file = files.next();
+               Warnings warnings = buildParseWarnings();
+               pending.add(completionService.submit(() -> {
+                  _logger.debug("Reading: \"" + file.toString() + "\"\n");
+                  String fileText = readConfigurationFile(file);
+                  return new ParseVendorConfigurationJob(_settings, fileText,
+                        file, warnings, ConfigurationFormat.UNKNOWN, cache)
+                              .call();
+               }));
+               inFlight++;
+               continue;
+            }
+            Future<ParseVendorConfigurationResult> future = completionService
+                  .take();
+            pending.remove(future);
+            pendingWrites.remove(future);
+            ParseVendorConfigurationResult result = future.get();
+            VendorConfiguration vc = null;
+            if (result != null) {
+               vc = applyParseResult(result, hostnames, answerElement,
+                     failureCauses);
+            }
+            if (vc == null || (!failureCauses.isEmpty()
+                  && _settings.getHaltOnParseError())) {
+               inFlight--;
+               completed.incrementAndGet();
+               continue;
+            }
+            String hostname = vc.getHostname();
+            if (hostname.contains(File.separator)) {
+               // iptables will get a hostname like configs/iptables-save if
+               // they are not set up correctly using host files
+               _logger.errorf(
+                     "Cannot serialize configuration with hostname %s\n",
+                     hostname);
+               answerElement.addRedFlagWarning(hostname,
+                     new Warning("Cannot serialize network config. Bad hostname "
+                           + hostname.replace("\\", "/"), "MISCELLANEOUS"));
+               inFlight--;
+               completed.incrementAndGet();
+               continue;
+            }
+            String sourceKey = result.getCacheKey();
+            if (nodeRoles != null) {
+               RoleSet roles = nodeRoles.get(hostname);
+               if (roles != null) {
+                  vc.setRoles(roles);
+                  if (sourceKey != null) {
+                     // roles are carried into the converted configuration
+                     sourceKey += ":" + roles;
+                  }
+               }
+            }
+            if (sourceKey != null) {
+               index.getSourceKeys().put(hostname, sourceKey);
+            }
+            Path currentOutputPath = outputPath.resolve(hostname);
+            VendorConfiguration toSerialize = vc;
+            Future<ParseVendorConfigurationResult> write = completionService
+                  .submit(() -> {
+                     _logger.debug("Writing: \"" + currentOutputPath.toString()
+                           + "\"\n");
+                     serializeObject(toSerialize, currentOutputPath);
+                     return null;
+                  });
+            pending.add(write);
+            pendingWrites.add(write);
+            outputPaths.add(currentOutputPath);
+         }
+         if (!failureCauses.isEmpty() && _settings.getHaltOnParseError()) {
+            throw new CompositeBatfishException(
+                  new BatfishException(
+                        "Fatal exception due to failure of at least one job"),
+                  failureCauses);
+         }
+         succeeded = true;
+      }
+      catch (InterruptedException | ExecutionException e) {
+         throw new BatfishException(
+               "Error parsing and serializing configuration files", e);
+      }
+      finally {
+         // the pool is shared, so only cancel the tasks started here
+         for (Future<ParseVendorConfigurationResult> future : pending) {
+            if (!pendingWrites.contains(future)) {
+               future.cancel(true);
+            }
+         }
+         if (!succeeded) {
+            // leave no partial output behind, as when nothing was written
+            // until every configuration had parsed
+            for (Future<ParseVendorConfigurationResult> write : pendingWrites) {
+               try {
+                  Uninterruptibles.getUninterruptibly(write);
+               }
+               catch (ExecutionException e) {
+                  // removed below all the same
+               }
+            }
+            outputPaths.forEach(CommonUtil::deleteIfExists);
+         }
+      }
+      printElapsedTime();
+      return hostnames;
+   }
+
    private AwsVpcConfiguration parseAwsVpcConfigurations(
          Map<Path, String> configurationData) {
       AwsVpcConfiguration config = new AwsVpcConfiguration();
@@ -3153,19 +3750,12 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
       Map<String, VendorConfiguration> vendorConfigurations = new TreeMap<>();
       List<ParseVendorConfigurationJob> jobs = new ArrayList<>();
       for (Path currentFile : configurationData.keySet()) {
-         Warnings warnings = new Warnings(_settings.getPedanticAsError(),
-               _settings.getPedanticRecord()
-                     && _logger.isActive(BatfishLogger.LEVEL_PEDANTIC),
-               _settings.getRedFlagAsError(),
-               _settings.getRedFlagRecord()
-                     && _logger.isActive(BatfishLogger.LEVEL_REDFLAG),
-               _settings.getUnimplementedAsError(),
-               _settings.getUnimplementedRecord()
-                     && _logger.isActive(BatfishLogger.LEVEL_UNIMPLEMENTED),
-               _settings.printParseTree());
+         Warnings warnings = buildParseWarnings();
          String fileText = configurationData.get(currentFile);
+         // not cached: callers use transient state of the parsed structures
          ParseVendorConfigurationJob job = new ParseVendorConfigurationJob(
-               _settings, fileText, currentFile, warnings, configurationFormat);
+               _settings, fileText, currentFile, warnings, configurationFormat,
+               null);
          jobs.add(job);
       }
       BatfishJobExecutor<ParseVendorConfigurationJob, ParseVendorConfigurationAnswerElement, ParseVendorConfigurationResult, Map<String, VendorConfiguration>> executor = new BatfishJobExecutor<>(
@@ -3224,7 +3814,7 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
       pushDeltaEnvironment();
       Topology diffTopology = loadTopology();
       popEnvironment();
-      EdgeSet diffEdges = diffTopology.getEdges();
+      Set<Edge> diffEdges = diffTopology.getEdges();
       for (Edge edge : diffEdges) {
          String ingressNode = edge.getNode1();
          String outInterface = edge.getInt1();
@@ -3254,7 +3844,7 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
       pushBaseEnvironment();
       Topology baseTopology = loadTopology();
       popEnvironment();
-      EdgeSet baseEdges = baseTopology.getEdges();
+      Set<Edge> baseEdges = baseTopology.getEdges();
       EdgeSet missingEdges = new EdgeSet();
       missingEdges.addAll(baseEdges);
       missingEdges.removeAll(diffEdges);
@@ -3300,16 +3890,11 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
 
    private void populateFlowHistory(FlowHistory flowHistory,
          String environmentName, String tag) {
-      List<Flow> flows = _dataPlanePlugin.getHistoryFlows();
-      List<FlowTrace> flowTraces = _dataPlanePlugin.getHistoryFlowTraces();
-      int numEntries = flows.size();
-      for (int i = 0; i < numEntries; i++) {
-         Flow flow = flows.get(i);
+      _dataPlanePlugin.forEachHistoryFlowTrace((flow, flowTrace) -> {
          if (flow.getTag().equals(tag)) {
-            FlowTrace flowTrace = flowTraces.get(i);
             flowHistory.addFlowTrace(flow, environmentName, flowTrace);
          }
-      }
+      });
    }
 
    private void postProcessConfigurations(
@@ -3433,9 +4018,10 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
       _logger.info("Time taken for this task: " + seconds + " seconds\n");
    }
 
+
    private void printSymmetricEdgePairs() {
       Map<String, Configuration> configs = loadConfigurations();
-      EdgeSet edges = synthesizeTopology(configs).getEdges();
+      Set<Edge> edges = synthesizeTopology(configs).getEdges();
       Set<Edge> symmetricEdgePairs = getSymmetricEdgePairs(edges);
       List<Edge> edgeList = new ArrayList<>();
       edgeList.addAll(symmetricEdgePairs);
@@ -3586,6 +4172,11 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
       _testrigSettings = _deltaTestrigSettings;
    }
 
+   private static String readConfigurationFile(Path file) {
+      String fileTextRaw = CommonUtil.readFile(file.toAbsolutePath());
+      return fileTextRaw + ((fileTextRaw.length() != 0) ? "\n" : "");
+   }
+
    private Map<Path, String> readConfigurationFiles(Path testRigPath,
          String configsType) {
       _logger.infof("\n*** READING %s FILES ***\n", configsType);
@@ -3597,9 +4188,7 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
             configFilePaths.size());
       for (Path file : configFilePaths) {
          _logger.debug("Reading: \"" + file.toString() + "\"\n");
-         String fileTextRaw = CommonUtil.readFile(file.toAbsolutePath());
-         String fileText = fileTextRaw
-               + ((fileTextRaw.length() != 0) ? "\n" : "");
+         String fileText = readConfigurationFile(file);
          configurationData.put(file, fileText);
          completed.incrementAndGet();
       }
@@ -3646,6 +4235,18 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
       return fileData;
    }
 
+   /**
+    * Logs the solve times of a batch of NoD jobs and keeps them to report with
+    * the answer when {@link Settings#getZ3SolveTimes()} is set
+    */
+   private void recordNodSolveTimes(NodAnswerElement answerElement) {
+      _logger.debug("NoD solve times by ingress:\n");
+      answerElement.getSolveTimes().forEach((ingress, time) -> {
+         _logger.debugf("  %s: %s\n", ingress, CommonUtil.getTime(time));
+      });
+      _nodAnswerElement.getSolveTimes().putAll(answerElement.getSolveTimes());
+   }
+
    @Override
    public AnswerElement reducedReachability(HeaderSpace headerSpace) {
       if (SystemUtils.IS_OS_MAC_OSX) {
@@ -4048,7 +4649,8 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
    }
 
    private void serializeHostConfigs(Path testRigPath, Path outputPath,
-         ParseVendorConfigurationAnswerElement answerElement) {
+         ParseVendorConfigurationAnswerElement answerElement,
+         VendorConfigurationIndex index) {
       Map<Path, String> configurationData = readConfigurationFiles(testRigPath,
             BfConsts.RELPATH_HOST_CONFIGS_DIR);
       // read the host files
@@ -4140,6 +4742,23 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
          output.put(currentOutputPath, vc);
       });
       serializeObjects(output);
+      // host configurations are not parse-cached, so key their conversions on
+      // all of the host and iptables files they were built from
+      Hasher hasher = Hashing.sha256().newHasher();
+      for (Map<Path, String> data : Arrays.asList(configurationData,
+            iptablesData)) {
+         data.forEach((path, text) -> {
+            hasher.putString(_testrigSettings.getBasePath().relativize(path)
+                  .toString(), StandardCharsets.UTF_8);
+            hasher.putString(text, StandardCharsets.UTF_8);
+         });
+      }
+      String inputsHash = hasher.hash().toString();
+      hostConfigurations.forEach((name, vc) -> {
+         // host configurations replace network ones of the same name
+         index.getSourceKeys().put(name,
+               "host:" + inputsHash + ":" + name + ":" + vc.getRoles());
+      });
       // serialize warnings
       serializeObject(answerElement, _testrigSettings.getParseAnswerPath());
       printElapsedTime();
@@ -4160,6 +4779,8 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
          output.put(currentOutputPath, c);
       });
       serializeObjects(output);
+      serializeObject(new ConfigurationIndex(configurations),
+            getConfigurationIndexPath(outputPath));
       printElapsedTime();
    }
 
@@ -4179,57 +4800,30 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
    }
 
    private void serializeNetworkConfigs(Path testRigPath, Path outputPath,
-         ParseVendorConfigurationAnswerElement answerElement) {
-      Map<Path, String> configurationData = readConfigurationFiles(testRigPath,
-            BfConsts.RELPATH_CONFIGURATIONS_DIR);
-      Map<String, VendorConfiguration> vendorConfigurations = parseVendorConfigurations(
-            configurationData, answerElement, ConfigurationFormat.UNKNOWN);
-      if (vendorConfigurations == null) {
-         throw new BatfishException("Exiting due to parser errors");
-      }
+         ParseVendorConfigurationAnswerElement answerElement,
+         VendorConfigurationIndex index) {
+      NodeRoleMap nodeRoles = null;
       Path nodeRolesPath = _settings.getNodeRolesPath();
       if (nodeRolesPath != null) {
-         NodeRoleMap nodeRoles = parseNodeRoles(testRigPath);
-         for (Entry<String, RoleSet> nodeRolesEntry : nodeRoles.entrySet()) {
-            String hostname = nodeRolesEntry.getKey();
-            VendorConfiguration config = vendorConfigurations.get(hostname);
-            if (config == null) {
+         nodeRoles = parseNodeRoles(testRigPath);
+      }
+      CommonUtil.createDirectories(outputPath);
+      Set<String> hostnames = parseAndSerializeVendorConfigurations(
+            testRigPath.resolve(BfConsts.RELPATH_CONFIGURATIONS_DIR),
+            outputPath, answerElement, nodeRoles, index);
+      if (nodeRoles != null) {
+         for (String hostname : nodeRoles.keySet()) {
+            if (!hostnames.contains(hostname)) {
                throw new BatfishException(
                      "role set assigned to non-existent node: \"" + hostname
                            + "\"");
             }
-            RoleSet roles = nodeRolesEntry.getValue();
-            config.setRoles(roles);
          }
          _logger.info(
                "Serializing node-roles mappings: \"" + nodeRolesPath + "\"...");
          serializeObject(nodeRoles, nodeRolesPath);
          _logger.info("OK\n");
       }
-      _logger.info("\n*** SERIALIZING VENDOR CONFIGURATION STRUCTURES ***\n");
-      resetTimer();
-      CommonUtil.createDirectories(outputPath);
-      Map<Path, VendorConfiguration> output = new TreeMap<>();
-      vendorConfigurations.forEach((name, vc) -> {
-         if (name.contains(File.separator)) {
-            // iptables will get a hostname like configs/iptables-save if they
-            // are not set up correctly using host files
-            _logger.errorf("Cannot serialize configuration with hostname %s\n",
-                  name);
-            answerElement
-                  .addRedFlagWarning(name,
-                        new Warning(
-                              "Cannot serialize network config. Bad hostname "
-                                    + name.replace("\\", "/"),
-                              "MISCELLANEOUS"));
-         }
-         else {
-            Path currentOutputPath = outputPath.resolve(name);
-            output.put(currentOutputPath, vc);
-         }
-      });
-      serializeObjects(output);
-      printElapsedTime();
    }
 
    public <S extends Serializable> void serializeObjects(
@@ -4238,31 +4832,27 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
          return;
       }
       BatfishLogger logger = getLogger();
-      Map<Path, byte[]> dataByPath = new ConcurrentHashMap<>();
       int size = objectsByPath.size();
       String className = objectsByPath.values().iterator().next().getClass()
             .getName();
       AtomicInteger serializeCompleted = newBatch(
-            "Serializing '" + className + "' instances", size);
+            "Serializing and writing '" + className + "' instances to disk",
+            size);
+      // write each object as soon as it is serialized, so that at most one
+      // serialized form per thread is held in memory
       objectsByPath.keySet().parallelStream().forEach(outputPath -> {
          S object = objectsByPath.get(outputPath);
          byte[] gzipData = toGzipData(object);
-         dataByPath.put(outputPath, gzipData);
-         serializeCompleted.incrementAndGet();
-      });
-      AtomicInteger writeCompleted = newBatch(
-            "Packing and writing '" + className + "' instances to disk", size);
-      dataByPath.forEach((outputPath, data) -> {
          logger.debug("Writing: \"" + outputPath.toString() + "\"...");
          try {
-            Files.write(outputPath, data);
+            Files.write(outputPath, gzipData);
          }
          catch (IOException e) {
             throw new BatfishException(
                   "Failed to write: '" + outputPath.toString() + "'");
          }
          logger.debug("OK\n");
-         writeCompleted.incrementAndGet();
+         serializeCompleted.incrementAndGet();
       });
    }
 
@@ -4278,8 +4868,10 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
       if (_settings.getVerboseParse()) {
          answer.addAnswerElement(answerElement);
       }
+      VendorConfigurationIndex index = new VendorConfigurationIndex();
       if (Files.exists(networkConfigsPath)) {
-         serializeNetworkConfigs(testRigPath, outputPath, answerElement);
+         serializeNetworkConfigs(testRigPath, outputPath, answerElement,
+               index);
          configsFound = true;
       }
 
@@ -4288,6 +4880,8 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
             .resolve(BfConsts.RELPATH_AWS_VPC_CONFIGS_DIR);
       if (Files.exists(awsVpcConfigsPath)) {
          answer.append(serializeAwsVpcConfigs(testRigPath, outputPath));
+         // the AWS VPCs replace any network config of the same name
+         index.getSourceKeys().remove(BfConsts.RELPATH_AWS_VPC_CONFIGS_FILE);
          configsFound = true;
       }
 
@@ -4295,7 +4889,7 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
       Path hostConfigsPath = testRigPath
             .resolve(BfConsts.RELPATH_HOST_CONFIGS_DIR);
       if (Files.exists(hostConfigsPath)) {
-         serializeHostConfigs(testRigPath, outputPath, answerElement);
+         serializeHostConfigs(testRigPath, outputPath, answerElement, index);
          configsFound = true;
       }
 
@@ -4305,6 +4899,7 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
 
       // serialize warnings
       serializeObject(answerElement, _testrigSettings.getParseAnswerPath());
+      serializeObject(index, getVendorConfigurationIndexPath(outputPath));
 
       return answer;
    }
@@ -4322,8 +4917,8 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
    public AnswerElement standard(HeaderSpace headerSpace,
          Set<ForwardingAction> actions, String ingressNodeRegexStr,
          String notIngressNodeRegexStr, String finalNodeRegexStr,
-         String notFinalNodeRegexStr) {
-      if (SystemUtils.IS_OS_MAC_OSX) {
+         String notFinalNodeRegexStr, ReachabilityEngine engine) {
+      if (SystemUtils.IS_OS_MAC_OSX && engine == ReachabilityEngine.Z3) {
          // TODO: remove when z3 parallelism bug on OSX is fixed
          _settings.setSequential(true);
       }
@@ -4383,13 +4978,19 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
             NodeVrfSet nodes = new NodeVrfSet();
             nodes.add(new Pair<>(ingressNode, ingressVrf));
             NodJob job = new NodJob(settings, dataPlaneSynthesizer, query,
-                  nodes, tag);
+                  nodes, tag, engine);
             jobs.add(job);
          }
       }
 
       // run jobs and get resulting flows
-      flows = computeNodOutput(jobs);
+      try {
+         flows = computeNodOutput(jobs);
+      }
+      finally {
+         // no job is left running once computeNodOutput returns or throws
+         dataPlaneSynthesizer.close();
+      }
 
       getDataPlanePlugin().processFlows(flows);
 
@@ -4451,8 +5052,7 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
       _logger.info(
             "\n*** SYNTHESIZING TOPOLOGY FROM INTERFACE SUBNET INFORMATION ***\n");
       resetTimer();
-      EdgeSet edges = new EdgeSet();
-      Map<Prefix, Set<NodeInterfacePair>> prefixInterfaces = new HashMap<>();
+      Map<Prefix, SortedSet<NodeInterfacePair>> prefixInterfaces = new HashMap<>();
       configurations.forEach((nodeName, node) -> {
          for (Entry<String, Interface> e : node.getInterfaces().entrySet()) {
             String ifaceName = e.getKey();
@@ -4466,24 +5066,22 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
                      NodeInterfacePair pair = new NodeInterfacePair(nodeName,
                            ifaceName);
                      Set<NodeInterfacePair> interfaceBucket = prefixInterfaces
-                           .computeIfAbsent(network, k -> new HashSet<>());
+                           .computeIfAbsent(network, k -> new TreeSet<>());
                      interfaceBucket.add(pair);
                   }
                }
             }
          }
       });
-      for (Set<NodeInterfacePair> bucket : prefixInterfaces.values()) {
-         for (NodeInterfacePair p1 : bucket) {
-            for (NodeInterfacePair p2 : bucket) {
-               if (!p1.equals(p2)) {
-                  Edge edge = new Edge(p1, p2);
-                  edges.add(edge);
-               }
-            }
+      // interfaces sharing a subnet form a broadcast domain, whose pairwise
+      // edges are only enumerated on demand
+      List<BroadcastDomain> broadcastDomains = new ArrayList<>();
+      prefixInterfaces.forEach((network, bucket) -> {
+         if (bucket.size() > 1) {
+            broadcastDomains.add(new BroadcastDomain(network, bucket));
          }
-      }
-      return new Topology(edges);
+      });
+      return new Topology(new EdgeSet(), broadcastDomains);
    }
 
    @Override
@@ -4570,7 +5168,7 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
    private void writeJsonTopology() {
       try {
          Map<String, Configuration> configs = loadConfigurations();
-         EdgeSet textEdges = synthesizeTopology(configs).getEdges();
+         Set<Edge> textEdges = synthesizeTopology(configs).getEdges();
          JSONArray jEdges = new JSONArray();
          for (Edge textEdge : textEdges) {
             Configuration node1 = configs.get(textEdge.getNode1());
@@ -4598,7 +5196,7 @@ public class Batfish extends PluginConsumer implements AutoCloseable, IBatfish {
 
    private void writeSynthesizedTopology() {
       Map<String, Configuration> configs = loadConfigurations();
-      EdgeSet edges = synthesizeTopology(configs).getEdges();
+      Set<Edge> edges = synthesizeTopology(configs).getEdges();
       _logger.output(BatfishTopologyCombinedParser.HEADER + "\n");
       for (Edge edge : edges) {
          _logger.output(edge.getNode1() + ":" + edge.getInt1() + ","
@@ -0,0 +1,93 @@
+package org.batfish.main;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.Topology;
+
+/**
+ * Structures derived from the loaded configurations of one testrig in one
+ * environment, kept across questions while those configurations stay loaded.
+ * Callers synchronize on the instance.
+ */
+final class DerivedStructures {
+
+   /**
+    * Owners of each ip, keyed by whether inactive interfaces were excluded
+    */
+   private final Map<Boolean, Map<Ip, Set<String>>> _ipOwners;
+
+   /**
+    * The ip owners with which remote bgp neighbors were last initialized, or
+    * null
+    */
+   private Map<Ip, Set<String>> _remoteBgpNeighborsIpOwners;
+
+   private boolean _remoteIpsecVpnsInitialized;
+
+   /**
+    * The ip owners with which remote ospf neighbors were last initialized, or
+    * null
+    */
+   private Map<Ip, Set<String>> _remoteOspfNeighborsIpOwners;
+
+   /**
+    * The topology with which remote ospf neighbors were last initialized, or
+    * null
+    */
+   private Topology _remoteOspfNeighborsTopology;
+
+   private Topology _topology;
+
+   DerivedStructures() {
+      _ipOwners = new HashMap<>();
+   }
+
+   Map<Ip, Set<String>> getIpOwners(boolean excludeInactive) {
+      return _ipOwners.get(excludeInactive);
+   }
+
+   Map<Ip, Set<String>> getRemoteBgpNeighborsIpOwners() {
+      return _remoteBgpNeighborsIpOwners;
+   }
+
+   boolean getRemoteIpsecVpnsInitialized() {
+      return _remoteIpsecVpnsInitialized;
+   }
+
+   Map<Ip, Set<String>> getRemoteOspfNeighborsIpOwners() {
+      return _remoteOspfNeighborsIpOwners;
+   }
+
+   Topology getRemoteOspfNeighborsTopology() {
+      return _remoteOspfNeighborsTopology;
+   }
+
+   Topology getTopology() {
+      return _topology;
+   }
+
+   void setIpOwners(boolean excludeInactive, Map<Ip, Set<String>> ipOwners) {
+      _ipOwners.put(excludeInactive, ipOwners);
+   }
+
+   void setRemoteBgpNeighborsIpOwners(Map<Ip, Set<String>> ipOwners) {
+      _remoteBgpNeighborsIpOwners = ipOwners;
+   }
+
+   void setRemoteIpsecVpnsInitialized(boolean remoteIpsecVpnsInitialized) {
+      _remoteIpsecVpnsInitialized = remoteIpsecVpnsInitialized;
+   }
+
+   void setRemoteOspfNeighbors(Map<Ip, Set<String>> ipOwners,
+         Topology topology) {
+      _remoteOspfNeighborsIpOwners = ipOwners;
+      _remoteOspfNeighborsTopology = topology;
+   }
+
+   void setTopology(Topology topology) {
+      _topology = topology;
+   }
+
+}
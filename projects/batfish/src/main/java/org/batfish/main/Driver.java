@@ -15,7 +15,9 @@ import java.util.logging.Logger;
 import javax.net.ssl.SSLHandshakeException;
 import javax.ws.rs.ProcessingException;
 import javax.ws.rs.client.Client;
+import javax.ws.rs.client.Entity;
 import javax.ws.rs.client.WebTarget;
+import javax.ws.rs.core.Form;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.UriBuilder;
@@ -50,7 +52,8 @@ import org.glassfish.jersey.server.ResourceConfig;
 
 public class Driver {
 
-   private static boolean _idle = true;
+   // shared by all requests to the coordinator so connections can be reused
+   private static Client _coordinatorClient = null;
 
    private static Date _lastPollFromCoordinator = new Date();
 
@@ -58,10 +61,14 @@ public class Driver {
 
    private static Settings _mainSettings = null;
 
+   private static int _runningTasks = 0;
+
    private static ConcurrentMap<String, Task> _taskLog;
 
    private static final Map<TestrigSettings, DataPlane> CACHED_DATA_PLANES = buildDataPlaneCache();
 
+   private static final Map<TestrigSettings, DerivedStructures> CACHED_DERIVED_STRUCTURES = buildDerivedStructuresCache();
+
    private static final Map<EnvironmentSettings, SortedMap<String, BgpAdvertisementsByVrf>> CACHED_ENVIRONMENT_BGP_TABLES = buildEnvironmentBgpTablesCache();
 
    private static final Map<EnvironmentSettings, SortedMap<String, RoutesByVrf>> CACHED_ENVIRONMENT_ROUTING_TABLES = buildEnvironmentRoutingTablesCache();
@@ -96,6 +103,12 @@ public class Driver {
 
    }
 
+   private static synchronized Map<TestrigSettings, DerivedStructures> buildDerivedStructuresCache() {
+      return Collections.synchronizedMap(
+            new LRUMap<TestrigSettings, DerivedStructures>(
+                  MAX_CACHED_TESTRIGS));
+   }
+
    private static Map<EnvironmentSettings, SortedMap<String, BgpAdvertisementsByVrf>> buildEnvironmentBgpTablesCache() {
       return Collections.synchronizedMap(
             new LRUMap<EnvironmentSettings, SortedMap<String, BgpAdvertisementsByVrf>>(
@@ -115,18 +128,59 @@ public class Driver {
 
    }
 
-   private static synchronized boolean claimIdle() {
-      if (_idle) {
-         _idle = false;
+   private static synchronized boolean claimTaskSlot() {
+      if (getFreeTaskSlots() > 0) {
+         _runningTasks++;
          return true;
       }
 
       return false;
    }
 
+   /**
+    * Returns the client used for all requests to the coordinator, building it
+    * on first use
+    */
+   private static synchronized Client getCoordinatorClient() {
+      if (_coordinatorClient == null) {
+         _coordinatorClient = CommonUtil
+               .createHttpClientBuilder(_mainSettings.getSslDisable(),
+                     _mainSettings.getSslTrustAllCerts(),
+                     _mainSettings.getSslKeystoreFile(),
+                     _mainSettings.getSslKeystorePassword(),
+                     _mainSettings.getSslTruststoreFile(),
+                     _mainSettings.getSslTruststorePassword())
+               .build();
+      }
+      return _coordinatorClient;
+   }
+
+   /**
+    * Returns the number of further tasks this service can start now. Beyond
+    * the first, a task is only started if the configured amount of heap is
+    * still free.
+    */
+   public static synchronized int getFreeTaskSlots() {
+      int freeSlots = _mainSettings.getServiceTaskSlots() - _runningTasks;
+      if (freeSlots <= 0) {
+         return 0;
+      }
+      if (_runningTasks > 0) {
+         Runtime runtime = Runtime.getRuntime();
+         long freeBytes = runtime.maxMemory() - runtime.totalMemory()
+               + runtime.freeMemory();
+         long requiredBytes = _mainSettings.getServiceTaskMemoryMb() * 1024L
+               * 1024L;
+         if (freeBytes < requiredBytes) {
+            return 0;
+         }
+      }
+      return freeSlots;
+   }
+
    public static synchronized boolean getIdle() {
       _lastPollFromCoordinator = new Date();
-      return _idle;
+      return getFreeTaskSlots() > 0;
    }
 
    public static BatfishLogger getMainLogger() {
@@ -263,10 +317,6 @@ public class Driver {
       }
    }
 
-   private static synchronized void makeIdle() {
-      _idle = true;
-   }
-
    public static synchronized AtomicInteger newBatch(Settings settings,
          String description, int jobs) {
       Batch batch = null;
@@ -281,16 +331,37 @@ public class Driver {
       }
    }
 
+   /**
+    * Tells the coordinator that the state of a task changed, so that it need
+    * not wait for its next periodic check. Failures are only logged since the
+    * coordinator still checks periodically.
+    */
+   private static void notifyCoordinator(String taskId) {
+      String protocol = _mainSettings.getSslDisable() ? "http" : "https";
+      String taskUpdateUrl = String.format("%s://%s:%s%s/%s", protocol,
+            _mainSettings.getCoordinatorHost(),
+            _mainSettings.getCoordinatorPoolPort(),
+            CoordConsts.SVC_CFG_POOL_MGR, CoordConsts.SVC_RSC_POOL_UPDATE_TASK);
+      try {
+         Form form = new Form(CoordConsts.SVC_KEY_WORKID, taskId);
+         Response response = getCoordinatorClient().target(taskUpdateUrl)
+               .request(MediaType.APPLICATION_JSON).post(Entity.form(form));
+         if (response.getStatus() != Response.Status.OK.getStatusCode()) {
+            _mainLogger.warnf(
+                  "BF: coordinator did not accept update for task %s: %s\n",
+                  taskId, response.getStatusInfo());
+         }
+         response.close();
+      }
+      catch (Exception e) {
+         _mainLogger.warnf("BF: unable to notify coordinator of task %s: %s\n",
+               taskId, e.getMessage());
+      }
+   }
+
    private static boolean registerWithCoordinator(String poolRegUrl) {
       try {
-         Client client = CommonUtil
-               .createHttpClientBuilder(_mainSettings.getSslDisable(),
-                     _mainSettings.getSslTrustAllCerts(),
-                     _mainSettings.getSslKeystoreFile(),
-                     _mainSettings.getSslKeystorePassword(),
-                     _mainSettings.getSslTruststoreFile(),
-                     _mainSettings.getSslTruststorePassword())
-               .build();
+         Client client = getCoordinatorClient();
          WebTarget webTarget = client.target(poolRegUrl)
                .queryParam(CoordConsts.SVC_KEY_ADD_WORKER,
                      _mainSettings.getServiceHost() + ":"
@@ -356,6 +427,10 @@ public class Driver {
       } while (!registrationSuccess);
    }
 
+   private static synchronized void releaseTaskSlot() {
+      _runningTasks--;
+   }
+
    @SuppressWarnings("deprecation")
    private static boolean RunBatfish(final Settings settings) {
 
@@ -363,7 +438,8 @@ public class Driver {
 
       try {
          final Batfish batfish = new Batfish(settings, CACHED_TESTRIGS,
-               CACHED_DATA_PLANES, CACHED_ENVIRONMENT_BGP_TABLES,
+               CACHED_DATA_PLANES, CACHED_DERIVED_STRUCTURES,
+               CACHED_ENVIRONMENT_BGP_TABLES,
                CACHED_ENVIRONMENT_ROUTING_TABLES);
 
          Thread thread = new Thread() {
@@ -464,10 +540,10 @@ public class Driver {
       }
 
       if (settings.canExecute()) {
-         if (claimIdle()) {
+         if (claimTaskSlot()) {
 
-            // lets put a try-catch around all the code around claimIdle
-            // so that we never the worker non-idle accidentally
+            // lets put a try-catch around all the code around claimTaskSlot
+            // so that we never leak a task slot accidentally
 
             try {
 
@@ -482,7 +558,7 @@ public class Driver {
 
                logTask(taskId, task);
 
-               // run batfish on a new thread and set idle to true when done
+               // run batfish on a new thread and free the slot when done
                Thread thread = new Thread() {
                   @Override
                   public void run() {
@@ -495,7 +571,10 @@ public class Driver {
                      }
                      task.setTerminated();
                      jobLogger.close();
-                     makeIdle();
+                     releaseTaskSlot();
+                     if (_mainSettings.getCoordinatorRegister()) {
+                        notifyCoordinator(taskId);
+                     }
                   }
                };
 
@@ -506,12 +585,12 @@ public class Driver {
             catch (Exception e) {
                _mainLogger
                      .error("Exception while running task: " + e.getMessage());
-               makeIdle();
+               releaseTaskSlot();
                return Arrays.asList(BfConsts.SVC_FAILURE_KEY, e.getMessage());
             }
          }
          else {
-            return Arrays.asList(BfConsts.SVC_FAILURE_KEY, "Not idle");
+            return Arrays.asList(BfConsts.SVC_FAILURE_KEY, "No free task slot");
          }
       }
       else {
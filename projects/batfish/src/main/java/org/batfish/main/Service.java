@@ -34,9 +34,11 @@ public class Service {
    @Produces(MediaType.APPLICATION_JSON)
    public JSONArray getStatus() {
       try {
+         JSONObject status = new JSONObject();
+         status.put("idle", Driver.getIdle());
+         status.put("freeslots", Driver.getFreeTaskSlots());
          return new JSONArray(Arrays.asList(
-               BfConsts.SVC_SUCCESS_KEY,
-               (new JSONObject().put("idle", Driver.getIdle())).toString()));
+               BfConsts.SVC_SUCCESS_KEY, status.toString()));
       }
       catch (Exception e) {
          return new JSONArray(
@@ -2,8 +2,8 @@ package org.batfish.representation.cisco;
 
 import java.util.EnumMap;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
 import org.batfish.common.util.ComparableStructure;
@@ -71,7 +71,7 @@ public class BgpProcess extends ComparableStructure<Integer> {
       _afGroups = new HashMap<>();
       _aggregateNetworks = new HashMap<>();
       _aggregateIpv6Networks = new HashMap<>();
-      _allPeerGroups = new HashSet<>();
+      _allPeerGroups = new LinkedHashSet<>();
       _defaultIpv4Activate = true;
       _dynamicIpPeerGroups = new HashMap<>();
       _dynamicIpv6PeerGroups = new HashMap<>();
@@ -0,0 +1,69 @@
+package org.batfish.z3;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.batfish.bdd.BddManager;
+import org.batfish.datamodel.IpAccessList;
+import org.batfish.datamodel.IpAccessListLine;
+
+/**
+ * Finds the unreachable lines of ACLs, and for each one the earliest
+ * reachable line that matches everything it matches, without synthesizing a
+ * datalog program. All ACLs passed to one analyzer share a single diagram
+ * manager, so line matches common to several ACLs are built once. Not
+ * thread-safe.
+ */
+public final class AclLineAnalyzer {
+
+   private final BddManager _manager;
+
+   private final BddProgram _program;
+
+   private final int _sane;
+
+   public AclLineAnalyzer() {
+      _program = new BddProgram();
+      _manager = _program.getManager();
+      _sane = Synthesizer.getSaneExpr().toBdd(_program);
+   }
+
+   /**
+    * Adds the reachability of each line of {@code acl} on {@code hostname} to
+    * {@code output}, setting the earliest more general reachable line of each
+    * unreachable one
+    */
+   public void analyze(String hostname, IpAccessList acl,
+         Map<AclLine, Boolean> output) {
+      String aclName = acl.getName();
+      List<IpAccessListLine> lines = acl.getLines();
+      // packets that match none of the lines seen so far
+      int unmatched = _sane;
+      List<Integer> reachableMatches = new ArrayList<>();
+      List<Integer> reachableLines = new ArrayList<>();
+      for (int i = 0; i < lines.size(); i++) {
+         AclLine aclLine = new AclLine(hostname, aclName, i);
+         int match = _manager.and(_sane,
+               Synthesizer.matchHeaderSpace(lines.get(i)).toBdd(_program));
+         boolean reachable = _manager.and(unmatched, match) != BddManager.FALSE;
+         if (reachable) {
+            reachableMatches.add(match);
+            reachableLines.add(i);
+         }
+         else {
+            for (int j = 0; j < reachableLines.size(); j++) {
+               int notCovered = _manager.and(match,
+                     _manager.not(reachableMatches.get(j)));
+               if (notCovered == BddManager.FALSE) {
+                  aclLine.setEarliestMoreGeneralReachableLine(
+                        reachableLines.get(j));
+                  break;
+               }
+            }
+         }
+         output.put(aclLine, reachable);
+         unmatched = _manager.and(unmatched, _manager.not(match));
+      }
+   }
+
+}
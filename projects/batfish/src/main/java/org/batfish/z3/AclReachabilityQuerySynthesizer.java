@@ -1,17 +1,15 @@
 package org.batfish.z3;
 
-import com.microsoft.z3.BoolExpr;
 import com.microsoft.z3.Context;
-import com.microsoft.z3.Z3Exception;
 import java.util.ArrayList;
 import java.util.List;
 import org.batfish.z3.node.AclMatchExpr;
 import org.batfish.z3.node.AndExpr;
-import org.batfish.z3.node.DeclareRelExpr;
 import org.batfish.z3.node.NumberedQueryExpr;
-import org.batfish.z3.node.QueryExpr;
+import org.batfish.z3.node.PacketRelExpr;
 import org.batfish.z3.node.RuleExpr;
 import org.batfish.z3.node.SaneExpr;
+import org.batfish.z3.node.Statement;
 
 public final class AclReachabilityQuerySynthesizer
       extends SatQuerySynthesizer<AclLine> {
@@ -28,12 +26,28 @@ public final class AclReachabilityQuerySynthesizer
       _hostname = hostname;
       _aclName = aclName;
       _numLines = numLines;
+      for (int line = 0; line < _numLines; line++) {
+         _keys.add(new AclLine(_hostname, _aclName, line));
+      }
+   }
+
+   @Override
+   public List<Statement> getBaseRules(Synthesizer synthesizer) {
+      return synthesizer.getAclRules(_hostname, _aclName);
    }
 
    @Override
-   public NodProgram getNodProgram(NodProgram baseProgram) throws Z3Exception {
-      Context ctx = baseProgram.getContext();
-      NodProgram program = new NodProgram(ctx);
+   public List<PacketRelExpr> getQueryRelations() {
+      List<PacketRelExpr> queryRelations = new ArrayList<>();
+      for (int line = 0; line < _numLines; line++) {
+         queryRelations.add(new NumberedQueryExpr(line));
+      }
+      return queryRelations;
+   }
+
+   @Override
+   public List<RuleExpr> getQueryRules() {
+      List<RuleExpr> rules = new ArrayList<>();
       for (int line = 0; line < _numLines; line++) {
          AclMatchExpr matchAclLine = new AclMatchExpr(_hostname, _aclName,
                line);
@@ -41,23 +55,9 @@ public final class AclReachabilityQuerySynthesizer
          queryConditions.addConjunct(matchAclLine);
          queryConditions.addConjunct(SaneExpr.INSTANCE);
          NumberedQueryExpr queryRel = new NumberedQueryExpr(line);
-         String queryRelName = queryRel.getRelations()
-               .toArray(new String[]{})[0];
-         List<Integer> sizes = new ArrayList<>();
-         sizes.addAll(Synthesizer.PACKET_VAR_SIZES.values());
-         DeclareRelExpr declaration = new DeclareRelExpr(queryRelName, sizes);
-         baseProgram.getRelationDeclarations().put(
-               queryRelName,
-               declaration.toFuncDecl(ctx));
-         RuleExpr queryRule = new RuleExpr(queryConditions, queryRel);
-         List<BoolExpr> rules = program.getRules();
-         rules.add(queryRule.toBoolExpr(baseProgram));
-         QueryExpr query = new QueryExpr(queryRel);
-         BoolExpr queryBoolExpr = query.toBoolExpr(baseProgram);
-         program.getQueries().add(queryBoolExpr);
-         _keys.add(new AclLine(_hostname, _aclName, line));
+         rules.add(new RuleExpr(queryConditions, queryRel));
       }
-      return program;
+      return rules;
    }
 
    @Override
@@ -1,5 +1,17 @@
 package org.batfish.z3;
 
+import com.microsoft.z3.Context;
+import com.microsoft.z3.FuncDecl;
+import com.microsoft.z3.Z3Exception;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.batfish.common.BatfishException;
+import org.batfish.z3.node.DeclareRelExpr;
+import org.batfish.z3.node.PacketRelExpr;
+import org.batfish.z3.node.QueryExpr;
+import org.batfish.z3.node.RuleExpr;
+
 public abstract class BaseQuerySynthesizer implements QuerySynthesizer {
 
    private boolean _negate;
@@ -9,6 +21,63 @@ public abstract class BaseQuerySynthesizer implements QuerySynthesizer {
       return _negate;
    }
 
+   /**
+    * Builds the z3 program for the rules and relations returned by
+    * {@link #getQueryRules()} and {@link #getQueryRelations()}
+    */
+   @Override
+   public NodProgram getNodProgram(NodProgram baseProgram) throws Z3Exception {
+      Context ctx = baseProgram.getContext();
+      NodProgram program = new NodProgram(ctx);
+      // the base program is shared by other queries, so the query relations
+      // are declared in a copy of its declarations
+      Map<String, FuncDecl> declarations = program.getRelationDeclarations();
+      declarations.putAll(baseProgram.getRelationDeclarations());
+      program.getVariables().putAll(baseProgram.getVariables());
+      program.getVariablesAsConsts()
+            .putAll(baseProgram.getVariablesAsConsts());
+      program.getVariableSizes().putAll(baseProgram.getVariableSizes());
+      List<PacketRelExpr> queryRelations = getQueryRelations();
+      for (PacketRelExpr queryRel : queryRelations) {
+         String queryRelName = queryRel.getRelations().iterator().next();
+         if (!declarations.containsKey(queryRelName)) {
+            List<Integer> sizes = new ArrayList<>();
+            sizes.addAll(Synthesizer.PACKET_VAR_SIZES.values());
+            DeclareRelExpr declaration = new DeclareRelExpr(queryRelName,
+                  sizes);
+            declarations.put(queryRelName, declaration.toFuncDecl(ctx));
+         }
+      }
+      for (RuleExpr queryRule : getQueryRules()) {
+         program.getRules().add(queryRule.toBoolExpr(program));
+      }
+      for (PacketRelExpr queryRel : queryRelations) {
+         QueryExpr query = new QueryExpr(queryRel);
+         program.getQueries().add(query.toBoolExpr(program));
+      }
+      return program;
+   }
+
+   /**
+    * Returns the relations holding the answers to this query, one per query,
+    * in the order they are posed
+    */
+   @Override
+   public List<PacketRelExpr> getQueryRelations() {
+      throw new BatfishException(getClass().getSimpleName()
+            + " is not supported by the bdd engine");
+   }
+
+   /**
+    * Returns the rules that, added to the base rules, derive the relations
+    * returned by {@link #getQueryRelations()}
+    */
+   @Override
+   public List<RuleExpr> getQueryRules() {
+      throw new BatfishException(getClass().getSimpleName()
+            + " is not supported by the bdd engine");
+   }
+
    public void setNegate(boolean negate) {
       _negate = negate;
    }
@@ -0,0 +1,249 @@
+package org.batfish.z3;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import org.batfish.bdd.BddManager;
+import org.batfish.common.BatfishException;
+import org.batfish.z3.node.AndExpr;
+import org.batfish.z3.node.BooleanExpr;
+import org.batfish.z3.node.IfExpr;
+import org.batfish.z3.node.RuleExpr;
+import org.batfish.z3.node.Statement;
+import org.batfish.z3.node.TrueExpr;
+
+/**
+ * Evaluates NoD datalog rules over binary decision diagrams instead of z3.
+ * Every relation in the data-plane model ranges over the packet variables
+ * alone, so each relation is a set of packets and the least fixpoint of the
+ * rules can be computed exactly, one diagram per relation.
+ */
+public class BddProgram {
+
+   /**
+    * A rule split into the relation it derives, the part of its body that
+    * does not depend on any relation, and the part that does
+    */
+   private static final class CompiledRule {
+
+      private final int _constantBody;
+
+      private final BooleanExpr _dynamicBody;
+
+      private final String _head;
+
+      private CompiledRule(String head, int constantBody,
+            BooleanExpr dynamicBody) {
+         _head = head;
+         _constantBody = constantBody;
+         _dynamicBody = dynamicBody;
+      }
+
+   }
+
+   /**
+    * Values of the macros bound by enclosing let expressions, innermost scope
+    * first
+    */
+   private final Deque<Map<String, Integer>> _macros;
+
+   private final BddManager _manager;
+
+   private final Map<String, Integer> _relations;
+
+   private final Map<String, int[]> _variables;
+
+   public BddProgram() {
+      int numVars = 0;
+      for (int size : Synthesizer.PACKET_VAR_SIZES.values()) {
+         numVars += size;
+      }
+      _macros = new ArrayDeque<>();
+      _manager = new BddManager(numVars);
+      _relations = new HashMap<>();
+      _variables = new LinkedHashMap<>();
+      // variables are ordered as declared, most significant bit first
+      int level = 0;
+      for (Entry<String, Integer> e : Synthesizer.PACKET_VAR_SIZES
+            .entrySet()) {
+         int size = e.getValue();
+         int[] bits = new int[size];
+         for (int i = 0; i < size; i++) {
+            bits[i] = _manager.var(level + size - 1 - i);
+         }
+         _variables.put(e.getKey(), bits);
+         level += size;
+      }
+   }
+
+   private CompiledRule compile(RuleExpr rule) {
+      BooleanExpr subExpression = rule.getSubExpression();
+      BooleanExpr head;
+      BooleanExpr body;
+      if (subExpression instanceof IfExpr) {
+         IfExpr ifExpr = (IfExpr) subExpression;
+         head = ifExpr.getConsequent();
+         body = ifExpr.getAntecedent();
+      }
+      else {
+         head = subExpression;
+         body = TrueExpr.INSTANCE;
+      }
+      Set<String> headRelations = head.getRelations();
+      if (headRelations.size() != 1) {
+         throw new BatfishException("Rule does not derive a single relation: "
+               + rule.toString());
+      }
+      String headRelation = headRelations.iterator().next();
+      int constantBody = BddManager.TRUE;
+      List<BooleanExpr> dynamicConjuncts = new ArrayList<>();
+      List<BooleanExpr> conjuncts = new ArrayList<>();
+      if (body instanceof AndExpr) {
+         conjuncts.addAll(((AndExpr) body).getConjuncts());
+      }
+      else {
+         conjuncts.add(body);
+      }
+      for (BooleanExpr conjunct : conjuncts) {
+         if (conjunct.getRelations().isEmpty()) {
+            constantBody = _manager.and(constantBody, conjunct.toBdd(this));
+         }
+         else {
+            dynamicConjuncts.add(conjunct);
+         }
+      }
+      BooleanExpr dynamicBody;
+      if (dynamicConjuncts.isEmpty()) {
+         dynamicBody = null;
+      }
+      else if (dynamicConjuncts.size() == 1) {
+         dynamicBody = dynamicConjuncts.get(0);
+      }
+      else {
+         AndExpr and = new AndExpr();
+         for (BooleanExpr conjunct : dynamicConjuncts) {
+            and.addConjunct(conjunct);
+         }
+         dynamicBody = and;
+      }
+      return new CompiledRule(headRelation, constantBody, dynamicBody);
+   }
+
+   /**
+    * Returns the value bound to {@code macro} by the innermost enclosing let
+    * expression
+    */
+   public int getMacro(String macro) {
+      for (Map<String, Integer> macros : _macros) {
+         Integer bdd = macros.get(macro);
+         if (bdd != null) {
+            return bdd;
+         }
+      }
+      throw new BatfishException("Reference to unbound macro: " + macro);
+   }
+
+   public BddManager getManager() {
+      return _manager;
+   }
+
+   /**
+    * Returns a concrete value for each packet variable such that the
+    * resulting packet is in {@code bdd}, choosing the lowest values first, or
+    * null if {@code bdd} is empty
+    */
+   public Map<String, Long> getModel(int bdd) {
+      boolean[] assignment = _manager.satOne(bdd);
+      if (assignment == null) {
+         return null;
+      }
+      Map<String, Long> model = new LinkedHashMap<>();
+      int level = 0;
+      for (Entry<String, Integer> e : Synthesizer.PACKET_VAR_SIZES
+            .entrySet()) {
+         int size = e.getValue();
+         long value = 0;
+         for (int i = 0; i < size; i++) {
+            value <<= 1;
+            if (assignment[level + i]) {
+               value |= 1;
+            }
+         }
+         model.put(e.getKey(), value);
+         level += size;
+      }
+      return model;
+   }
+
+   public void popMacros() {
+      _macros.pop();
+   }
+
+   public void pushMacros(Map<String, Integer> macros) {
+      _macros.push(macros);
+   }
+
+   /**
+    * Returns the set of packets derived so far for {@code relation}
+    */
+   public int getRelation(String relation) {
+      Integer bdd = _relations.get(relation);
+      return bdd == null ? BddManager.FALSE : bdd;
+   }
+
+   public int[] getVariable(String variable) {
+      return _variables.get(variable);
+   }
+
+   /**
+    * Derives every relation defined by the rules among {@code statements}
+    * until nothing changes. Statements other than rules are ignored.
+    */
+   public void solve(List<? extends Statement> statements) {
+      List<CompiledRule> rules = new ArrayList<>();
+      Map<String, List<CompiledRule>> dependents = new HashMap<>();
+      for (Statement statement : statements) {
+         if (!(statement instanceof RuleExpr)) {
+            continue;
+         }
+         CompiledRule rule = compile((RuleExpr) statement);
+         rules.add(rule);
+         if (rule._dynamicBody != null) {
+            for (String relation : rule._dynamicBody.getRelations()) {
+               dependents.computeIfAbsent(relation, r -> new ArrayList<>())
+                     .add(rule);
+            }
+         }
+      }
+      Deque<CompiledRule> worklist = new ArrayDeque<>(rules);
+      Set<CompiledRule> queued = new HashSet<>(rules);
+      while (!worklist.isEmpty()) {
+         CompiledRule rule = worklist.poll();
+         queued.remove(rule);
+         int body = rule._constantBody;
+         if (rule._dynamicBody != null && body != BddManager.FALSE) {
+            body = _manager.and(body, rule._dynamicBody.toBdd(this));
+         }
+         int oldValue = getRelation(rule._head);
+         int newValue = _manager.or(oldValue, body);
+         if (newValue != oldValue) {
+            _relations.put(rule._head, newValue);
+            for (CompiledRule dependent : dependents.getOrDefault(rule._head,
+                  Collections.emptyList())) {
+               if (queued.add(dependent)) {
+                  worklist.add(dependent);
+               }
+            }
+         }
+      }
+   }
+
+}
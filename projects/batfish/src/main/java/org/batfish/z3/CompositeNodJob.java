@@ -28,6 +28,8 @@ import org.batfish.job.BatfishJob;
 
 public class CompositeNodJob extends BatfishJob<NodJobResult> {
 
+   private final long _costEstimate;
+
    private List<Synthesizer> _dataPlaneSynthesizers;
 
    private final NodeVrfSet _nodeVrfSet;
@@ -54,10 +56,23 @@ public class CompositeNodJob extends BatfishJob<NodJobResult> {
       _nodeVrfSet = new NodeVrfSet();
       _nodeVrfSet.addAll(nodeVrfSet);
       _tag = tag;
+      long costEstimate = 0;
+      for (Synthesizer synthesizer : _dataPlaneSynthesizers) {
+         for (Pair<String, String> nodeVrf : _nodeVrfSet) {
+            costEstimate += synthesizer.getCostEstimate(nodeVrf.getFirst());
+         }
+      }
+      _costEstimate = costEstimate;
    }
 
    @Override
    public NodJobResult call() throws Exception {
+      NodJobResult result = computeNodJobResult();
+      result.setIngress(_nodeVrfSet.toString());
+      return result;
+   }
+
+   private NodJobResult computeNodJobResult() {
       long startTime = System.currentTimeMillis();
       long elapsedTime;
       NodProgram latestProgram = null;
@@ -67,6 +82,9 @@ public class CompositeNodJob extends BatfishJob<NodJobResult> {
          p.add("fixedpoint.engine", "datalog");
          p.add("fixedpoint.datalog.default_relation", "doc");
          p.add("fixedpoint.print_answer", true);
+         if (_settings.getZ3TimeoutMs() > 0) {
+            p.add("fixedpoint.timeout", _settings.getZ3TimeoutMs());
+         }
          for (int i = 0; i < _numPrograms; i++) {
             Synthesizer dataPlaneSynthesizer = _dataPlaneSynthesizers.get(i);
             QuerySynthesizer querySynthesizer = _querySynthesizers.get(i);
@@ -92,7 +110,8 @@ public class CompositeNodJob extends BatfishJob<NodJobResult> {
                   break;
 
                case UNKNOWN:
-                  throw new BatfishException("Query satisfiability unknown");
+                  throw new BatfishException("Query satisfiability unknown: "
+                        + fix.getReasonUnknown());
 
                case UNSATISFIABLE:
                   break;
@@ -124,6 +143,11 @@ public class CompositeNodJob extends BatfishJob<NodJobResult> {
          }
          BoolExpr compositeQuery = ctx.mkAnd(answers);
          Solver solver = ctx.mkSolver();
+         if (_settings.getZ3TimeoutMs() > 0) {
+            Params solverParams = ctx.mkParams();
+            solverParams.add("timeout", _settings.getZ3TimeoutMs());
+            solver.setParameters(solverParams);
+         }
          solver.add(compositeQuery);
          Status solverStatus = solver.check();
          switch (solverStatus) {
@@ -131,7 +155,9 @@ public class CompositeNodJob extends BatfishJob<NodJobResult> {
             break;
 
          case UNKNOWN:
-            throw new BatfishException("Stage 2 query satisfiability unknown");
+            throw new BatfishException(
+                  "Stage 2 query satisfiability unknown: "
+                        + solver.getReasonUnknown());
 
          case UNSATISFIABLE:
             elapsedTime = System.currentTimeMillis() - startTime;
@@ -160,7 +186,7 @@ public class CompositeNodJob extends BatfishJob<NodJobResult> {
          elapsedTime = System.currentTimeMillis() - startTime;
          return new NodJobResult(elapsedTime, _logger.getHistory(), flows);
       }
-      catch (Z3Exception e) {
+      catch (BatfishException | Z3Exception e) {
          elapsedTime = System.currentTimeMillis() - startTime;
          return new NodJobResult(elapsedTime, _logger.getHistory(),
                new BatfishException(
@@ -174,4 +200,9 @@ public class CompositeNodJob extends BatfishJob<NodJobResult> {
       return NodJob.createFlow(node, vrf, constraints, _tag);
    }
 
+   @Override
+   public long getCostEstimate() {
+      return _costEstimate;
+   }
+
 }
@@ -1,20 +1,18 @@
 package org.batfish.z3;
 
-import com.microsoft.z3.BoolExpr;
 import com.microsoft.z3.Context;
-import com.microsoft.z3.Z3Exception;
 import java.util.ArrayList;
 import java.util.List;
 import org.batfish.datamodel.IpAccessList;
 import org.batfish.datamodel.IpAccessListLine;
 import org.batfish.z3.node.AndExpr;
 import org.batfish.z3.node.BooleanExpr;
-import org.batfish.z3.node.DeclareRelExpr;
 import org.batfish.z3.node.NotExpr;
 import org.batfish.z3.node.NumberedQueryExpr;
-import org.batfish.z3.node.QueryExpr;
+import org.batfish.z3.node.PacketRelExpr;
 import org.batfish.z3.node.RuleExpr;
 import org.batfish.z3.node.SaneExpr;
+import org.batfish.z3.node.Statement;
 
 public class EarliestMoreGeneralReachableLineQuerySynthesizer
       extends FirstUnsatQuerySynthesizer<AclLine, Integer> {
@@ -38,12 +36,29 @@ public class EarliestMoreGeneralReachableLineQuerySynthesizer
       _hostname = _unreachableLine.getHostname();
       _aclName = _unreachableLine.getAclName();
       _list = list;
+      for (AclLine earlierReachableLine : _earlierReachableLines) {
+         _resultsByQueryIndex.add(earlierReachableLine.getLine());
+      }
+   }
+
+   @Override
+   public List<Statement> getBaseRules(Synthesizer synthesizer) {
+      return synthesizer.getAclRules(_hostname, _aclName);
+   }
+
+   @Override
+   public List<PacketRelExpr> getQueryRelations() {
+      List<PacketRelExpr> queryRelations = new ArrayList<>();
+      for (AclLine earlierReachableLine : _earlierReachableLines) {
+         queryRelations
+               .add(new NumberedQueryExpr(earlierReachableLine.getLine()));
+      }
+      return queryRelations;
    }
 
    @Override
-   public NodProgram getNodProgram(NodProgram baseProgram) throws Z3Exception {
-      Context ctx = baseProgram.getContext();
-      NodProgram program = new NodProgram(ctx);
+   public List<RuleExpr> getQueryRules() {
+      List<RuleExpr> rules = new ArrayList<>();
       int unreachableLineIndex = _unreachableLine.getLine();
       IpAccessListLine unreachableLine = _list.getLines()
             .get(unreachableLineIndex);
@@ -59,23 +74,9 @@ public class EarliestMoreGeneralReachableLineQuerySynthesizer
          queryConditions.addConjunct(matchUnreachableLineHeaderSpace);
          queryConditions.addConjunct(SaneExpr.INSTANCE);
          NumberedQueryExpr queryRel = new NumberedQueryExpr(earlierLineIndex);
-         String queryRelName = queryRel.getRelations()
-               .toArray(new String[]{})[0];
-         List<Integer> sizes = new ArrayList<>();
-         sizes.addAll(Synthesizer.PACKET_VAR_SIZES.values());
-         DeclareRelExpr declaration = new DeclareRelExpr(queryRelName, sizes);
-         baseProgram.getRelationDeclarations().put(
-               queryRelName,
-               declaration.toFuncDecl(ctx));
-         RuleExpr queryRule = new RuleExpr(queryConditions, queryRel);
-         List<BoolExpr> rules = program.getRules();
-         rules.add(queryRule.toBoolExpr(baseProgram));
-         QueryExpr query = new QueryExpr(queryRel);
-         BoolExpr queryBoolExpr = query.toBoolExpr(baseProgram);
-         program.getQueries().add(queryBoolExpr);
-         _resultsByQueryIndex.add(earlierLineIndex);
+         rules.add(new RuleExpr(queryConditions, queryRel));
       }
-      return program;
+      return rules;
    }
 
    @Override
@@ -3,6 +3,7 @@ package org.batfish.z3;
 import com.microsoft.z3.Context;
 import java.util.ArrayList;
 import java.util.List;
+import org.batfish.z3.node.Statement;
 
 public abstract class FirstUnsatQuerySynthesizer<Key, Result>
       extends BaseQuerySynthesizer {
@@ -16,6 +17,11 @@ public abstract class FirstUnsatQuerySynthesizer<Key, Result>
       _resultsByQueryIndex = new ArrayList<>();
    }
 
+   /**
+    * Returns the rules the query rules are evaluated against by the bdd engine
+    */
+   public abstract List<Statement> getBaseRules(Synthesizer synthesizer);
+
    public Key getKey() {
       return _key;
    }
@@ -1,14 +1,14 @@
 package org.batfish.z3;
 
-import com.microsoft.z3.BoolExpr;
-import com.microsoft.z3.Z3Exception;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import org.batfish.datamodel.HeaderSpace;
 import org.batfish.z3.node.AcceptExpr;
 import org.batfish.z3.node.AndExpr;
 import org.batfish.z3.node.DropExpr;
 import org.batfish.z3.node.OriginateVrfExpr;
-import org.batfish.z3.node.QueryExpr;
+import org.batfish.z3.node.PacketRelExpr;
 import org.batfish.z3.node.QueryRelationExpr;
 import org.batfish.z3.node.RuleExpr;
 import org.batfish.z3.node.SaneExpr;
@@ -31,8 +31,12 @@ public class MultipathInconsistencyQuerySynthesizer
    }
 
    @Override
-   public NodProgram getNodProgram(NodProgram baseProgram) throws Z3Exception {
-      NodProgram program = new NodProgram(baseProgram.getContext());
+   public List<PacketRelExpr> getQueryRelations() {
+      return Collections.singletonList(QueryRelationExpr.INSTANCE);
+   }
+
+   @Override
+   public List<RuleExpr> getQueryRules() {
       OriginateVrfExpr originate = new OriginateVrfExpr(_hostname, _vrf);
       RuleExpr injectSymbolicPackets = new RuleExpr(originate);
       AndExpr queryConditions = new AndExpr();
@@ -43,15 +47,7 @@ public class MultipathInconsistencyQuerySynthesizer
       RuleExpr queryRule = new RuleExpr(
             queryConditions,
             QueryRelationExpr.INSTANCE);
-      List<BoolExpr> rules = program.getRules();
-      BoolExpr injectSymbolicPacketsBoolExpr = injectSymbolicPackets
-            .toBoolExpr(baseProgram);
-      rules.add(injectSymbolicPacketsBoolExpr);
-      rules.add(queryRule.toBoolExpr(baseProgram));
-      QueryExpr query = new QueryExpr(QueryRelationExpr.INSTANCE);
-      BoolExpr queryBoolExpr = query.toBoolExpr(baseProgram);
-      program.getQueries().add(queryBoolExpr);
-      return program;
+      return Arrays.asList(injectSymbolicPackets, queryRule);
    }
 
 }
@@ -7,27 +7,40 @@ import com.microsoft.z3.FuncDecl;
 import com.microsoft.z3.Params;
 import com.microsoft.z3.Status;
 import com.microsoft.z3.Z3Exception;
+import java.util.ArrayList;
+import java.util.List;
+import org.batfish.bdd.BddManager;
 import org.batfish.common.BatfishException;
 import org.batfish.config.Settings;
+import org.batfish.datamodel.ReachabilityEngine;
 import org.batfish.job.BatfishJob;
+import org.batfish.z3.node.PacketRelExpr;
+import org.batfish.z3.node.Statement;
 
 public class NodFirstUnsatJob<Key, Result>
       extends BatfishJob<NodFirstUnsatResult<Key, Result>> {
 
+   private final ReachabilityEngine _engine;
+
    private final FirstUnsatQuerySynthesizer<Key, Result> _query;
 
    private final Synthesizer _synthesizer;
 
    public NodFirstUnsatJob(
          Settings settings, Synthesizer synthesizer,
-         FirstUnsatQuerySynthesizer<Key, Result> query) {
+         FirstUnsatQuerySynthesizer<Key, Result> query,
+         ReachabilityEngine engine) {
       super(settings);
       _synthesizer = synthesizer;
       _query = query;
+      _engine = engine;
    }
 
    @Override
    public NodFirstUnsatResult<Key, Result> call() throws Exception {
+      if (_engine == ReachabilityEngine.BDD) {
+         return callBdd();
+      }
       long startTime = System.currentTimeMillis();
       long elapsedTime;
       try (Context ctx = new Context()) {
@@ -84,4 +97,38 @@ public class NodFirstUnsatJob<Key, Result>
                      "Error running NoD on concatenated data plane", e));
       }
    }
+
+   private NodFirstUnsatResult<Key, Result> callBdd() {
+      long startTime = System.currentTimeMillis();
+      long elapsedTime;
+      try {
+         BddProgram program = new BddProgram();
+         List<Statement> rules = new ArrayList<>();
+         rules.addAll(_query.getBaseRules(_synthesizer));
+         rules.addAll(_query.getQueryRules());
+         program.solve(rules);
+         Key key = _query.getKey();
+         List<PacketRelExpr> queryRelations = _query.getQueryRelations();
+         for (int queryNum = 0; queryNum < queryRelations.size(); queryNum++) {
+            String queryRelation = queryRelations.get(queryNum).getRelations()
+                  .iterator().next();
+            if (program.getRelation(queryRelation) == BddManager.FALSE) {
+               elapsedTime = System.currentTimeMillis() - startTime;
+               return new NodFirstUnsatResult<>(key, queryNum,
+                     _query.getResultsByQueryIndex().get(queryNum),
+                     _logger.getHistory(), elapsedTime);
+            }
+         }
+         elapsedTime = System.currentTimeMillis() - startTime;
+         return new NodFirstUnsatResult<>(key, null, null, _logger.getHistory(),
+               elapsedTime);
+      }
+      catch (BatfishException e) {
+         elapsedTime = System.currentTimeMillis() - startTime;
+         return new NodFirstUnsatResult<>(elapsedTime, _logger.getHistory(),
+               new BatfishException(
+                     "Error running bdd engine on concatenated data plane",
+                     e));
+      }
+   }
 }
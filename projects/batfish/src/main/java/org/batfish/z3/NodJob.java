@@ -25,9 +25,12 @@ import org.batfish.config.Settings;
 import org.batfish.datamodel.Flow;
 import org.batfish.datamodel.Ip;
 import org.batfish.datamodel.IpProtocol;
+import org.batfish.datamodel.ReachabilityEngine;
 import org.batfish.datamodel.State;
 import org.batfish.datamodel.collections.NodeVrfSet;
 import org.batfish.job.BatfishJob;
+import org.batfish.z3.node.PacketRelExpr;
+import org.batfish.z3.node.Statement;
 
 public final class NodJob extends BatfishJob<NodJobResult> {
 
@@ -127,8 +130,12 @@ public final class NodJob extends BatfishJob<NodJobResult> {
       return flowBuilder.build();
    }
 
+   private final long _costEstimate;
+
    private Synthesizer _dataPlaneSynthesizer;
 
+   private final ReachabilityEngine _engine;
+
    private final NodeVrfSet _nodeVrfSet;
 
    private QuerySynthesizer _querySynthesizer;
@@ -137,28 +144,49 @@ public final class NodJob extends BatfishJob<NodJobResult> {
 
    public NodJob(
          Settings settings, Synthesizer dataPlaneSynthesizer,
-         QuerySynthesizer querySynthesizer, NodeVrfSet nodeVrfSet, String tag) {
+         QuerySynthesizer querySynthesizer, NodeVrfSet nodeVrfSet, String tag,
+         ReachabilityEngine engine) {
       super(settings);
       _dataPlaneSynthesizer = dataPlaneSynthesizer;
+      _engine = engine;
       _querySynthesizer = querySynthesizer;
       _nodeVrfSet = new NodeVrfSet();
       _nodeVrfSet.addAll(nodeVrfSet);
       _tag = tag;
+      long costEstimate = 0;
+      for (Pair<String, String> nodeVrf : _nodeVrfSet) {
+         costEstimate += dataPlaneSynthesizer
+               .getCostEstimate(nodeVrf.getFirst());
+      }
+      _costEstimate = costEstimate;
    }
 
    @Override
    public NodJobResult call() throws Exception {
+      NodJobResult result = _engine == ReachabilityEngine.BDD
+            ? computeNodJobResultBdd()
+            : computeNodJobResult();
+      result.setIngress(_nodeVrfSet.toString());
+      return result;
+   }
+
+   private NodJobResult computeNodJobResult() {
       long startTime = System.currentTimeMillis();
       long elapsedTime;
-      try (Context ctx = new Context()) {
+      try {
+         // the data-plane program is shared by all jobs on this thread
          NodProgram baseProgram = _dataPlaneSynthesizer
-               .synthesizeNodDataPlaneProgram(ctx);
+               .getThreadDataPlaneProgram();
+         Context ctx = baseProgram.getContext();
          NodProgram queryProgram = _querySynthesizer.getNodProgram(baseProgram);
          NodProgram program = baseProgram.append(queryProgram);
          Params p = ctx.mkParams();
          p.add("fixedpoint.engine", "datalog");
          p.add("fixedpoint.datalog.default_relation", "doc");
          p.add("fixedpoint.print_answer", true);
+         if (_settings.getZ3TimeoutMs() > 0) {
+            p.add("fixedpoint.timeout", _settings.getZ3TimeoutMs());
+         }
          Fixedpoint fix = ctx.mkFixedpoint();
          fix.setParameters(p);
          for (FuncDecl relationDeclaration : program.getRelationDeclarations()
@@ -174,7 +202,8 @@ public final class NodJob extends BatfishJob<NodJobResult> {
             case SATISFIABLE:
                break;
             case UNKNOWN:
-               throw new BatfishException("Query satisfiability unknown");
+               throw new BatfishException("Query satisfiability unknown: "
+                     + fix.getReasonUnknown());
             case UNSATISFIABLE:
                break;
             default:
@@ -198,6 +227,11 @@ public final class NodJob extends BatfishJob<NodJobResult> {
             solverInput = ctx.mkNot(solverInput);
          }
          Solver solver = ctx.mkSolver();
+         if (_settings.getZ3TimeoutMs() > 0) {
+            Params solverParams = ctx.mkParams();
+            solverParams.add("timeout", _settings.getZ3TimeoutMs());
+            solver.setParameters(solverParams);
+         }
          solver.add(solverInput);
          Status solverStatus = solver.check();
          switch (solverStatus) {
@@ -205,7 +239,9 @@ public final class NodJob extends BatfishJob<NodJobResult> {
             break;
 
          case UNKNOWN:
-            throw new BatfishException("Stage 2 query satisfiability unknown");
+            throw new BatfishException(
+                  "Stage 2 query satisfiability unknown: "
+                        + solver.getReasonUnknown());
 
          case UNSATISFIABLE:
             elapsedTime = System.currentTimeMillis() - startTime;
@@ -233,7 +269,7 @@ public final class NodJob extends BatfishJob<NodJobResult> {
          elapsedTime = System.currentTimeMillis() - startTime;
          return new NodJobResult(elapsedTime, _logger.getHistory(), flows);
       }
-      catch (Z3Exception e) {
+      catch (BatfishException | Z3Exception e) {
          elapsedTime = System.currentTimeMillis() - startTime;
          return new NodJobResult(elapsedTime, _logger.getHistory(),
                new BatfishException(
@@ -241,10 +277,56 @@ public final class NodJob extends BatfishJob<NodJobResult> {
       }
    }
 
+   private NodJobResult computeNodJobResultBdd() {
+      long startTime = System.currentTimeMillis();
+      long elapsedTime;
+      try {
+         BddProgram program = new BddProgram();
+         List<Statement> rules = new ArrayList<>();
+         rules.addAll(_dataPlaneSynthesizer.getDataPlaneRules());
+         rules.addAll(_querySynthesizer.getQueryRules());
+         program.solve(rules);
+         List<PacketRelExpr> queryRelations = _querySynthesizer
+               .getQueryRelations();
+         String queryRelation = queryRelations.get(queryRelations.size() - 1)
+               .getRelations().iterator().next();
+         int answer = program.getRelation(queryRelation);
+         if (_querySynthesizer.getNegate()) {
+            answer = program.getManager().not(answer);
+         }
+         Map<String, Long> constraints = program.getModel(answer);
+         if (constraints == null) {
+            elapsedTime = System.currentTimeMillis() - startTime;
+            return new NodJobResult(elapsedTime, _logger.getHistory());
+         }
+         Set<Flow> flows = new HashSet<>();
+         for (Pair<String, String> nodeVrf : _nodeVrfSet) {
+            String node = nodeVrf.getFirst();
+            String vrf = nodeVrf.getSecond();
+            Flow flow = createFlow(node, vrf, constraints);
+            flows.add(flow);
+         }
+         elapsedTime = System.currentTimeMillis() - startTime;
+         return new NodJobResult(elapsedTime, _logger.getHistory(), flows);
+      }
+      catch (BatfishException e) {
+         elapsedTime = System.currentTimeMillis() - startTime;
+         return new NodJobResult(elapsedTime, _logger.getHistory(),
+               new BatfishException(
+                     "Error running bdd engine on concatenated data plane",
+                     e));
+      }
+   }
+
    private Flow createFlow(
          String node, String vrf,
          Map<String, Long> constraints) {
       return createFlow(node, vrf, constraints, _tag);
    }
 
+   @Override
+   public long getCostEstimate() {
+      return _costEstimate;
+   }
+
 }
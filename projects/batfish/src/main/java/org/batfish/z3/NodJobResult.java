@@ -11,10 +11,13 @@ import org.batfish.job.BatfishJobResult;
 public class NodJobResult
       extends BatfishJobResult<Set<Flow>, NodAnswerElement> {
 
+   private Set<Flow> _flows;
+
    /**
-    * Elapsed time in milliseconds
+    * The ingress points queried by the job, by which its solve time is
+    * reported
     */
-   private Set<Flow> _flows;
+   private String _ingress;
 
    public NodJobResult(long elapsedTime, BatfishLoggerHistory history) {
       super(elapsedTime, history);
@@ -44,12 +47,19 @@ public class NodJobResult
          Set<Flow> flows, BatfishLogger logger,
          NodAnswerElement answerElement) {
       flows.addAll(_flows);
+      if (_ingress != null) {
+         answerElement.getSolveTimes().put(_ingress, getElapsedTime());
+      }
    }
 
    public Set<Flow> getFlows() {
       return _flows;
    }
 
+   public void setIngress(String ingress) {
+      _ingress = ingress;
+   }
+
    @Override
    public String toString() {
       int numFlows = _flows.size();
@@ -4,15 +4,24 @@ import com.microsoft.z3.BitVecExpr;
 import com.microsoft.z3.BoolExpr;
 import com.microsoft.z3.Context;
 import com.microsoft.z3.FuncDecl;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import org.batfish.common.BatfishException;
 
 public class NodProgram {
 
    private Context _context;
 
+   /**
+    * Values of the macros bound by enclosing let expressions, innermost scope
+    * first
+    */
+   private final Deque<Map<String, BoolExpr>> _macros;
+
    private final List<BoolExpr> _queries;
 
    private final Map<String, FuncDecl> _relationDeclarations;
@@ -27,6 +36,7 @@ public class NodProgram {
 
    public NodProgram(Context context) {
       _context = context;
+      _macros = new ArrayDeque<>();
       _queries = new ArrayList<>();
       _relationDeclarations = new LinkedHashMap<>();
       _rules = new ArrayList<>();
@@ -56,6 +66,20 @@ public class NodProgram {
       return _context;
    }
 
+   /**
+    * Returns the expression bound to {@code macro} by the innermost enclosing
+    * let expression
+    */
+   public BoolExpr getMacro(String macro) {
+      for (Map<String, BoolExpr> macros : _macros) {
+         BoolExpr expr = macros.get(macro);
+         if (expr != null) {
+            return expr;
+         }
+      }
+      throw new BatfishException("Reference to unbound macro: " + macro);
+   }
+
    public List<BoolExpr> getQueries() {
       return _queries;
    }
@@ -80,4 +104,12 @@ public class NodProgram {
       return _variableSizes;
    }
 
+   public void popMacros() {
+      _macros.pop();
+   }
+
+   public void pushMacros(Map<String, BoolExpr> macros) {
+      _macros.push(macros);
+   }
+
 }
@@ -7,28 +7,40 @@ import com.microsoft.z3.FuncDecl;
 import com.microsoft.z3.Params;
 import com.microsoft.z3.Status;
 import com.microsoft.z3.Z3Exception;
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import org.batfish.bdd.BddManager;
 import org.batfish.common.BatfishException;
 import org.batfish.config.Settings;
+import org.batfish.datamodel.ReachabilityEngine;
 import org.batfish.job.BatfishJob;
+import org.batfish.z3.node.PacketRelExpr;
+import org.batfish.z3.node.Statement;
 
 public class NodSatJob<Key> extends BatfishJob<NodSatResult<Key>> {
 
+   private final ReachabilityEngine _engine;
+
    private final SatQuerySynthesizer<Key> _query;
 
    private final Synthesizer _synthesizer;
 
    public NodSatJob(
          Settings settings, Synthesizer synthesizer,
-         SatQuerySynthesizer<Key> query) {
+         SatQuerySynthesizer<Key> query, ReachabilityEngine engine) {
       super(settings);
       _synthesizer = synthesizer;
       _query = query;
+      _engine = engine;
    }
 
    @Override
    public NodSatResult<Key> call() throws Exception {
+      if (_engine == ReachabilityEngine.BDD) {
+         return callBdd();
+      }
       Map<Key, Boolean> results = new LinkedHashMap<>();
       long startTime = System.currentTimeMillis();
       long elapsedTime;
@@ -82,4 +94,34 @@ public class NodSatJob<Key> extends BatfishJob<NodSatResult<Key>> {
                      "Error running NoD on concatenated data plane", e));
       }
    }
+
+   private NodSatResult<Key> callBdd() {
+      Map<Key, Boolean> results = new LinkedHashMap<>();
+      long startTime = System.currentTimeMillis();
+      long elapsedTime;
+      try {
+         BddProgram program = new BddProgram();
+         List<Statement> rules = new ArrayList<>();
+         rules.addAll(_query.getBaseRules(_synthesizer));
+         rules.addAll(_query.getQueryRules());
+         program.solve(rules);
+         List<PacketRelExpr> queryRelations = _query.getQueryRelations();
+         for (int queryNum = 0; queryNum < queryRelations.size(); queryNum++) {
+            String queryRelation = queryRelations.get(queryNum).getRelations()
+                  .iterator().next();
+            Key key = _query.getKeys().get(queryNum);
+            results.put(key,
+                  program.getRelation(queryRelation) != BddManager.FALSE);
+         }
+         elapsedTime = System.currentTimeMillis() - startTime;
+         return new NodSatResult<>(results, _logger.getHistory(), elapsedTime);
+      }
+      catch (BatfishException e) {
+         elapsedTime = System.currentTimeMillis() - startTime;
+         return new NodSatResult<>(elapsedTime, _logger.getHistory(),
+               new BatfishException(
+                     "Error running bdd engine on concatenated data plane",
+                     e));
+      }
+   }
 }
@@ -1,6 +1,9 @@
 package org.batfish.z3;
 
 import com.microsoft.z3.Z3Exception;
+import java.util.List;
+import org.batfish.z3.node.PacketRelExpr;
+import org.batfish.z3.node.RuleExpr;
 
 public interface QuerySynthesizer {
 
@@ -8,4 +11,8 @@ public interface QuerySynthesizer {
 
    NodProgram getNodProgram(NodProgram baseProgram) throws Z3Exception;
 
+   List<PacketRelExpr> getQueryRelations();
+
+   List<RuleExpr> getQueryRules();
+
 }
@@ -1,8 +1,7 @@
 package org.batfish.z3;
 
-import com.microsoft.z3.BoolExpr;
-import com.microsoft.z3.Z3Exception;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -28,7 +27,7 @@ import org.batfish.z3.node.NodeDropNoRouteExpr;
 import org.batfish.z3.node.NodeDropNullRouteExpr;
 import org.batfish.z3.node.OrExpr;
 import org.batfish.z3.node.OriginateVrfExpr;
-import org.batfish.z3.node.QueryExpr;
+import org.batfish.z3.node.PacketRelExpr;
 import org.batfish.z3.node.QueryRelationExpr;
 import org.batfish.z3.node.RuleExpr;
 import org.batfish.z3.node.SaneExpr;
@@ -54,9 +53,12 @@ public class ReachabilityQuerySynthesizer extends BaseQuerySynthesizer {
    }
 
    @Override
-   public NodProgram getNodProgram(NodProgram baseProgram) throws Z3Exception {
-      NodProgram program = new NodProgram(baseProgram.getContext());
+   public List<PacketRelExpr> getQueryRelations() {
+      return Collections.singletonList(QueryRelationExpr.INSTANCE);
+   }
 
+   @Override
+   public List<RuleExpr> getQueryRules() {
       // create rules for injecting symbolic packets into ingress node(s)
       List<RuleExpr> originateRules = new ArrayList<>();
       for (String ingressNode : _ingressNodeVrfs.keySet()) {
@@ -179,16 +181,10 @@ public class ReachabilityQuerySynthesizer extends BaseQuerySynthesizer {
       RuleExpr queryRule = new RuleExpr(
             queryConditions,
             QueryRelationExpr.INSTANCE);
-      List<BoolExpr> rules = program.getRules();
-      for (RuleExpr originateRule : originateRules) {
-         BoolExpr originateBoolExpr = originateRule.toBoolExpr(baseProgram);
-         rules.add(originateBoolExpr);
-      }
-      rules.add(queryRule.toBoolExpr(baseProgram));
-      QueryExpr query = new QueryExpr(QueryRelationExpr.INSTANCE);
-      BoolExpr queryBoolExpr = query.toBoolExpr(baseProgram);
-      program.getQueries().add(queryBoolExpr);
-      return program;
+      List<RuleExpr> rules = new ArrayList<>();
+      rules.addAll(originateRules);
+      rules.add(queryRule);
+      return rules;
    }
 
 }
@@ -3,6 +3,7 @@ package org.batfish.z3;
 import com.microsoft.z3.Context;
 import java.util.ArrayList;
 import java.util.List;
+import org.batfish.z3.node.Statement;
 
 public abstract class SatQuerySynthesizer<Key> extends BaseQuerySynthesizer {
 
@@ -12,6 +13,11 @@ public abstract class SatQuerySynthesizer<Key> extends BaseQuerySynthesizer {
       _keys = new ArrayList<>();
    }
 
+   /**
+    * Returns the rules the query rules are evaluated against by the bdd engine
+    */
+   public abstract List<Statement> getBaseRules(Synthesizer synthesizer);
+
    public List<Key> getKeys() {
       return _keys;
    }
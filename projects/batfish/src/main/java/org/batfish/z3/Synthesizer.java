@@ -15,11 +15,11 @@ import java.util.Map.Entry;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 import org.batfish.common.BatfishException;
 import org.batfish.common.util.CommonUtil;
 import org.batfish.datamodel.Configuration;
 import org.batfish.datamodel.DataPlane;
-import org.batfish.datamodel.Edge;
 import org.batfish.datamodel.HeaderSpace;
 import org.batfish.datamodel.IcmpCode;
 import org.batfish.datamodel.IcmpType;
@@ -35,10 +35,11 @@ import org.batfish.datamodel.Protocol;
 import org.batfish.datamodel.State;
 import org.batfish.datamodel.SubRange;
 import org.batfish.datamodel.TcpFlags;
+import org.batfish.datamodel.Topology;
 import org.batfish.datamodel.Zone;
-import org.batfish.datamodel.collections.EdgeSet;
 import org.batfish.datamodel.collections.FibMap;
 import org.batfish.datamodel.collections.FibRow;
+import org.batfish.datamodel.collections.FibSet;
 import org.batfish.datamodel.collections.InterfaceSet;
 import org.batfish.datamodel.collections.NodeInterfacePair;
 import org.batfish.datamodel.collections.NodeSet;
@@ -105,7 +106,7 @@ import org.batfish.z3.node.TrueExpr;
 import org.batfish.z3.node.UnoriginalExpr;
 import org.batfish.z3.node.VarIntExpr;
 
-public class Synthesizer {
+public class Synthesizer implements AutoCloseable {
    public static final int DSCP_BITS = 6;
    public static final String DSCP_VAR = "dscp";
    public static final String DST_IP_VAR = "dst_ip";
@@ -203,6 +204,79 @@ public class Synthesizer {
       return funcDecls;
    }
 
+   /**
+    * Returns the condition under which packet fields make sense together,
+    * e.g. no ports unless the protocol is TCP or UDP
+    */
+   public static BooleanExpr getSaneExpr() {
+      AndExpr noPortNumbers = new AndExpr();
+      EqExpr noDstPort = new EqExpr(
+            new VarIntExpr(DST_PORT_VAR),
+            new LitIntExpr(0, PORT_BITS));
+      EqExpr noSrcPort = new EqExpr(
+            new VarIntExpr(SRC_PORT_VAR),
+            new LitIntExpr(0, PORT_BITS));
+      noPortNumbers.addConjunct(noDstPort);
+      noPortNumbers.addConjunct(noSrcPort);
+      AndExpr noTcpFlags = new AndExpr();
+      LitIntExpr zero = new LitIntExpr(0, 1);
+      noTcpFlags
+            .addConjunct(new EqExpr(new VarIntExpr(TCP_FLAGS_CWR_VAR), zero));
+      noTcpFlags
+            .addConjunct(new EqExpr(new VarIntExpr(TCP_FLAGS_ECE_VAR), zero));
+      noTcpFlags
+            .addConjunct(new EqExpr(new VarIntExpr(TCP_FLAGS_URG_VAR), zero));
+      noTcpFlags
+            .addConjunct(new EqExpr(new VarIntExpr(TCP_FLAGS_ACK_VAR), zero));
+      noTcpFlags
+            .addConjunct(new EqExpr(new VarIntExpr(TCP_FLAGS_PSH_VAR), zero));
+      noTcpFlags
+            .addConjunct(new EqExpr(new VarIntExpr(TCP_FLAGS_RST_VAR), zero));
+      noTcpFlags
+            .addConjunct(new EqExpr(new VarIntExpr(TCP_FLAGS_SYN_VAR), zero));
+      noTcpFlags
+            .addConjunct(new EqExpr(new VarIntExpr(TCP_FLAGS_FIN_VAR), zero));
+      EqExpr noIcmpCode = new EqExpr(
+            new VarIntExpr(ICMP_CODE_VAR),
+            new LitIntExpr(IcmpCode.UNSET, ICMP_CODE_BITS));
+      EqExpr noIcmpType = new EqExpr(
+            new VarIntExpr(ICMP_TYPE_VAR),
+            new LitIntExpr(IcmpType.UNSET, ICMP_TYPE_BITS));
+      AndExpr noIcmp = new AndExpr();
+      noIcmp.addConjunct(noIcmpType);
+      noIcmp.addConjunct(noIcmpCode);
+      EqExpr icmpProtocol = new EqExpr(
+            new VarIntExpr(IP_PROTOCOL_VAR),
+            new LitIntExpr(IpProtocol.ICMP.number(), PROTOCOL_BITS));
+      EqExpr tcpProtocol = new EqExpr(
+            new VarIntExpr(IP_PROTOCOL_VAR),
+            new LitIntExpr(IpProtocol.TCP.number(), PROTOCOL_BITS));
+      EqExpr udpProtocol = new EqExpr(
+            new VarIntExpr(IP_PROTOCOL_VAR),
+            new LitIntExpr(IpProtocol.UDP.number(), PROTOCOL_BITS));
+      AndExpr tcp = new AndExpr();
+      tcp.addConjunct(tcpProtocol);
+      tcp.addConjunct(noIcmp);
+      AndExpr udp = new AndExpr();
+      udp.addConjunct(udpProtocol);
+      udp.addConjunct(noIcmp);
+      udp.addConjunct(noTcpFlags);
+      AndExpr icmp = new AndExpr();
+      icmp.addConjunct(icmpProtocol);
+      icmp.addConjunct(noTcpFlags);
+      icmp.addConjunct(noPortNumbers);
+      AndExpr otherIp = new AndExpr();
+      otherIp.addConjunct(noIcmp);
+      otherIp.addConjunct(noTcpFlags);
+      otherIp.addConjunct(noPortNumbers);
+      OrExpr isSane = new OrExpr();
+      isSane.addDisjunct(icmp);
+      isSane.addDisjunct(tcp);
+      isSane.addDisjunct(udp);
+      isSane.addDisjunct(otherIp);
+      return isSane;
+   }
+
    public static List<Statement> getVarDeclExprs() {
       List<Statement> statements = new ArrayList<>();
       statements.add(new Comment("Variable Declarations"));
@@ -974,8 +1048,61 @@ public class Synthesizer {
       }
    }
 
+   static NodProgram synthesizeNodProgram(
+         Context ctx,
+         List<Statement> ruleStatements) {
+      NodProgram nodProgram = new NodProgram(ctx);
+      Map<String, FuncDecl> relDeclFuncDecls = getRelDeclFuncDecls(
+            ruleStatements, ctx);
+      nodProgram.getRelationDeclarations().putAll(relDeclFuncDecls);
+      Map<String, BitVecExpr> variables = nodProgram.getVariables();
+      Map<String, BitVecExpr> variablesAsConsts = nodProgram
+            .getVariablesAsConsts();
+      int deBruinIndex = 0;
+      for (Entry<String, Integer> e : PACKET_VAR_SIZES.entrySet()) {
+         String var = e.getKey();
+         int size = e.getValue();
+         BitVecExpr varExpr = (BitVecExpr) ctx.mkBound(
+               deBruinIndex,
+               ctx.mkBitVecSort(size));
+         BitVecExpr varAsConstExpr = (BitVecExpr) ctx.mkConst(
+               var,
+               ctx.mkBitVecSort(size));
+         variables.put(var, varExpr);
+         variablesAsConsts.put(var, varAsConstExpr);
+         deBruinIndex++;
+      }
+      List<BoolExpr> rules = nodProgram.getRules();
+      for (Statement statement : ruleStatements) {
+         if (statement instanceof RuleExpr) {
+            RuleExpr ruleExpr = (RuleExpr) statement;
+            BoolExpr rule = ruleExpr.toBoolExpr(nodProgram);
+            rules.add(rule);
+         }
+      }
+      return nodProgram;
+   }
+
+   /**
+    * Set by {@link #close()}, after which no new context is created. Guarded
+    * by {@link #_contexts}.
+    */
+   private boolean _closed;
+
    private final Map<String, Configuration> _configurations;
 
+   /**
+    * Contexts created for the per-thread data-plane programs, released by
+    * {@link #close()}
+    */
+   private final List<Context> _contexts;
+
+   /**
+    * Data-plane rules, generated once and shared by every program synthesized
+    * from this synthesizer
+    */
+   private List<Statement> _dataPlaneRules;
+
    private final FibMap _fibs;
 
    private InterfaceSet _flowSinks;
@@ -984,7 +1111,14 @@ public class Synthesizer {
 
    private final boolean _simplify;
 
-   private final EdgeSet _topologyEdges;
+   /**
+    * Data-plane programs by the thread that owns them. Kept in a map rather
+    * than a {@link ThreadLocal} since job threads are pooled and outlive this
+    * synthesizer.
+    */
+   private final Map<Thread, NodProgram> _threadDataPlanePrograms;
+
+   private final Topology _topology;
 
    private final Map<String, Set<Interface>> _topologyInterfaces;
 
@@ -994,11 +1128,13 @@ public class Synthesizer {
          Map<String, Configuration> configurations,
          boolean simplify) {
       _configurations = configurations;
+      _contexts = new ArrayList<>();
       _fibs = null;
       // _prFibs = null;
-      _topologyEdges = null;
+      _topology = null;
       _flowSinks = null;
       _simplify = simplify;
+      _threadDataPlanePrograms = new ConcurrentHashMap<>();
       _topologyInterfaces = null;
       _warnings = new ArrayList<>();
    }
@@ -1007,28 +1143,46 @@ public class Synthesizer {
          Map<String, Configuration> configurations,
          DataPlane dataPlane, boolean simplify) {
       _configurations = configurations;
+      _contexts = new ArrayList<>();
       _fibs = dataPlane.getFibs();
       // _prFibs = dataPlane.getPolicyRouteFibNodeMap();
-      _topologyEdges = dataPlane.getTopologyEdges();
+      _topology = dataPlane.getTopology();
       _flowSinks = dataPlane.getFlowSinks();
       _simplify = simplify;
+      _threadDataPlanePrograms = new ConcurrentHashMap<>();
       _topologyInterfaces = new TreeMap<>();
       _warnings = new ArrayList<>();
       computeTopologyInterfaces();
       pruneInterfaces();
    }
 
+   @Override
+   public void close() {
+      synchronized (_contexts) {
+         _closed = true;
+         for (Context ctx : _contexts) {
+            ctx.close();
+         }
+         _contexts.clear();
+      }
+      _threadDataPlanePrograms.clear();
+   }
+
    private void computeTopologyInterfaces() {
       for (String hostname : _configurations.keySet()) {
          _topologyInterfaces.put(hostname, new TreeSet<Interface>());
       }
-      for (Edge edge : _topologyEdges) {
-         String hostname = edge.getNode1();
+      for (NodeInterfacePair iface : _topology.getInterfaces()) {
+         if (_topology.getNeighbors(iface).isEmpty()) {
+            // no edge leaves this interface
+            continue;
+         }
+         String hostname = iface.getHostname();
          if (!_topologyInterfaces.containsKey(hostname)) {
             _topologyInterfaces.put(hostname, new TreeSet<Interface>());
          }
          Set<Interface> interfaces = _topologyInterfaces.get(hostname);
-         String interfaceName = edge.getInt1();
+         String interfaceName = iface.getInterface();
          Interface i = _configurations.get(hostname).getInterfaces()
                .get(interfaceName);
          interfaces.add(i);
@@ -1061,6 +1215,107 @@ public class Synthesizer {
       return statements;
    }
 
+   /**
+    * Returns the rules checking {@code aclName} on {@code hostname}, as used
+    * by ACL reachability queries
+    */
+   public List<Statement> getAclRules(String hostname, String aclName) {
+      List<Statement> ruleStatements = new ArrayList<>();
+      List<Statement> sane = getSane();
+      List<Statement> matchAclRules = getMatchAclRules(hostname, aclName);
+      ruleStatements.addAll(sane);
+      ruleStatements.addAll(matchAclRules);
+      return simplify(ruleStatements);
+   }
+
+   public synchronized List<Statement> getDataPlaneRules() {
+      if (_dataPlaneRules != null) {
+         return _dataPlaneRules;
+      }
+      List<Statement> ruleStatements = new ArrayList<>();
+      List<Statement> dropRules = getDropRules();
+      List<Statement> acceptRules = getAcceptRules();
+      List<Statement> sane = getSane();
+      List<Statement> flowSinkAcceptRules = getFlowSinkAcceptRules();
+      List<Statement> originateToPostInRules = getOriginateToPostInRules();
+      List<Statement> originateVrfToPostInVrfRules = getOriginateVrfToPostInVrfRules();
+      List<Statement> postInInterfaceToPostInRules = getPostInInterfaceToPostInRules();
+      List<Statement> postInInterfaceToNonInboundSrcInterface =
+            getPostInInterfaceToNonInboundSrcInterface();
+      List<Statement> postInToInboundInterface = getPostInToInboundInterface();
+      List<Statement> inboundInterfaceToNodeAccept = getInboundInterfaceToNodeAccept();
+      List<Statement> inboundInterfaceToNodeDrop = getInboundInterfaceToNodeDrop();
+      List<Statement> postInToPreOutRules = getPostInToPreOutRules();
+      List<Statement> preOutToDestRouteRules = getPreOutToDestRouteRules();
+      List<Statement> destRouteToPreOutEdgeRules = getDestRouteToPreOutEdgeRules();
+      List<Statement> preOutEdgeToPreOutInterfaceRules = getPreOutEdgeToPreOutInterfaceRules();
+      List<Statement> policyRouteRules = getPolicyRouteRules();
+      List<Statement> matchAclRules = getMatchAclRules();
+      List<Statement> toNeighborsRules = getToNeighborsRules();
+      List<Statement> preInInterfaceToPostInInterfaceRules =
+            getPreInInterfaceToPostInInterfaceRules();
+      List<Statement> preOutInterfaceToPostOutInterfaceRules =
+            getPreOutInterfaceToPostOutInterfaceRules();
+      List<Statement> nodeAcceptToRoleAcceptRules = getNodeAcceptToRoleAcceptRules();
+      List<Statement> externalSrcIpRules = getExternalSrcIpRules();
+      List<Statement> externalDstIpRules = getExternalDstIpRules();
+      List<Statement> postOutIfaceToNodeTransitRules = getPostOutIfaceToNodeTransitRules();
+      List<Statement> roleOriginateToNodeOriginateRules = getRoleOriginateToNodeOriginateRules();
+
+      ruleStatements.addAll(dropRules);
+      ruleStatements.addAll(acceptRules);
+      ruleStatements.addAll(sane);
+      ruleStatements.addAll(flowSinkAcceptRules);
+      ruleStatements.addAll(originateToPostInRules);
+      ruleStatements.addAll(originateVrfToPostInVrfRules);
+      ruleStatements.addAll(postInInterfaceToPostInRules);
+      ruleStatements.addAll(postInInterfaceToNonInboundSrcInterface);
+      ruleStatements.addAll(postInToInboundInterface);
+      ruleStatements.addAll(inboundInterfaceToNodeAccept);
+      ruleStatements.addAll(inboundInterfaceToNodeDrop);
+      ruleStatements.addAll(postInToPreOutRules);
+      ruleStatements.addAll(preOutToDestRouteRules);
+      ruleStatements.addAll(destRouteToPreOutEdgeRules);
+      ruleStatements.addAll(preOutEdgeToPreOutInterfaceRules);
+      ruleStatements.addAll(policyRouteRules);
+      ruleStatements.addAll(matchAclRules);
+      ruleStatements.addAll(toNeighborsRules);
+      ruleStatements.addAll(preInInterfaceToPostInInterfaceRules);
+      ruleStatements.addAll(preOutInterfaceToPostOutInterfaceRules);
+      ruleStatements.addAll(nodeAcceptToRoleAcceptRules);
+      ruleStatements.addAll(externalSrcIpRules);
+      ruleStatements.addAll(externalDstIpRules);
+      ruleStatements.addAll(postOutIfaceToNodeTransitRules);
+      ruleStatements.addAll(roleOriginateToNodeOriginateRules);
+
+      _dataPlaneRules = simplify(ruleStatements);
+      return _dataPlaneRules;
+   }
+
+   /**
+    * Returns a rough measure of the work done by the solver for a query
+    * starting at {@code hostname}: the number of fib rows and acl lines on
+    * that node
+    */
+   public long getCostEstimate(String hostname) {
+      long cost = 0;
+      if (_fibs != null) {
+         Map<String, FibSet> vrfFibs = _fibs.get(hostname);
+         if (vrfFibs != null) {
+            for (FibSet fib : vrfFibs.values()) {
+               cost += fib.size();
+            }
+         }
+      }
+      Configuration c = _configurations.get(hostname);
+      if (c != null) {
+         for (IpAccessList acl : c.getIpAccessLists().values()) {
+            cost += acl.getLines().size();
+         }
+      }
+      return cost;
+   }
+
    private List<Statement> getDestRouteToPreOutEdgeRules() {
       List<Statement> statements = new ArrayList<>();
       statements.add(new Comment(
@@ -2167,18 +2422,20 @@ public class Synthesizer {
          RuleExpr rule = new RuleExpr(preOutEdge, preOutInt);
          statements.add(rule);
       }
-      for (Edge edge : _topologyEdges) {
-         String hostnameOut = edge.getNode1();
-         String hostnameIn = edge.getNode2();
-         String intOut = edge.getInt1();
-         String intIn = edge.getInt2();
-         PreOutEdgeExpr preOutEdge = new PreOutEdgeExpr(hostnameOut, intOut,
-               hostnameIn, intIn);
-         PreOutInterfaceExpr preOutInt = new PreOutInterfaceExpr(
-               hostnameOut,
-               intOut);
-         RuleExpr rule = new RuleExpr(preOutEdge, preOutInt);
-         statements.add(rule);
+      for (NodeInterfacePair out : _topology.getInterfaces()) {
+         for (NodeInterfacePair in : _topology.getNeighbors(out)) {
+            String hostnameOut = out.getHostname();
+            String hostnameIn = in.getHostname();
+            String intOut = out.getInterface();
+            String intIn = in.getInterface();
+            PreOutEdgeExpr preOutEdge = new PreOutEdgeExpr(hostnameOut, intOut,
+                  hostnameIn, intIn);
+            PreOutInterfaceExpr preOutInt = new PreOutInterfaceExpr(
+                  hostnameOut,
+                  intOut);
+            RuleExpr rule = new RuleExpr(preOutEdge, preOutInt);
+            statements.add(rule);
+         }
       }
       return statements;
    }
@@ -2394,100 +2651,63 @@ public class Synthesizer {
    private List<Statement> getSane() {
       List<Statement> statements = new ArrayList<>();
       statements.add(new Comment("Make sure packet fields make sense"));
-      AndExpr noPortNumbers = new AndExpr();
-      EqExpr noDstPort = new EqExpr(
-            new VarIntExpr(DST_PORT_VAR),
-            new LitIntExpr(0, PORT_BITS));
-      EqExpr noSrcPort = new EqExpr(
-            new VarIntExpr(SRC_PORT_VAR),
-            new LitIntExpr(0, PORT_BITS));
-      noPortNumbers.addConjunct(noDstPort);
-      noPortNumbers.addConjunct(noSrcPort);
-      AndExpr noTcpFlags = new AndExpr();
-      LitIntExpr zero = new LitIntExpr(0, 1);
-      noTcpFlags
-            .addConjunct(new EqExpr(new VarIntExpr(TCP_FLAGS_CWR_VAR), zero));
-      noTcpFlags
-            .addConjunct(new EqExpr(new VarIntExpr(TCP_FLAGS_ECE_VAR), zero));
-      noTcpFlags
-            .addConjunct(new EqExpr(new VarIntExpr(TCP_FLAGS_URG_VAR), zero));
-      noTcpFlags
-            .addConjunct(new EqExpr(new VarIntExpr(TCP_FLAGS_ACK_VAR), zero));
-      noTcpFlags
-            .addConjunct(new EqExpr(new VarIntExpr(TCP_FLAGS_PSH_VAR), zero));
-      noTcpFlags
-            .addConjunct(new EqExpr(new VarIntExpr(TCP_FLAGS_RST_VAR), zero));
-      noTcpFlags
-            .addConjunct(new EqExpr(new VarIntExpr(TCP_FLAGS_SYN_VAR), zero));
-      noTcpFlags
-            .addConjunct(new EqExpr(new VarIntExpr(TCP_FLAGS_FIN_VAR), zero));
-      EqExpr noIcmpCode = new EqExpr(
-            new VarIntExpr(ICMP_CODE_VAR),
-            new LitIntExpr(IcmpCode.UNSET, ICMP_CODE_BITS));
-      EqExpr noIcmpType = new EqExpr(
-            new VarIntExpr(ICMP_TYPE_VAR),
-            new LitIntExpr(IcmpType.UNSET, ICMP_TYPE_BITS));
-      AndExpr noIcmp = new AndExpr();
-      noIcmp.addConjunct(noIcmpType);
-      noIcmp.addConjunct(noIcmpCode);
-      EqExpr icmpProtocol = new EqExpr(
-            new VarIntExpr(IP_PROTOCOL_VAR),
-            new LitIntExpr(IpProtocol.ICMP.number(), PROTOCOL_BITS));
-      EqExpr tcpProtocol = new EqExpr(
-            new VarIntExpr(IP_PROTOCOL_VAR),
-            new LitIntExpr(IpProtocol.TCP.number(), PROTOCOL_BITS));
-      EqExpr udpProtocol = new EqExpr(
-            new VarIntExpr(IP_PROTOCOL_VAR),
-            new LitIntExpr(IpProtocol.UDP.number(), PROTOCOL_BITS));
-      AndExpr tcp = new AndExpr();
-      tcp.addConjunct(tcpProtocol);
-      tcp.addConjunct(noIcmp);
-      AndExpr udp = new AndExpr();
-      udp.addConjunct(udpProtocol);
-      udp.addConjunct(noIcmp);
-      udp.addConjunct(noTcpFlags);
-      AndExpr icmp = new AndExpr();
-      icmp.addConjunct(icmpProtocol);
-      icmp.addConjunct(noTcpFlags);
-      icmp.addConjunct(noPortNumbers);
-      AndExpr otherIp = new AndExpr();
-      otherIp.addConjunct(noIcmp);
-      otherIp.addConjunct(noTcpFlags);
-      otherIp.addConjunct(noPortNumbers);
-      OrExpr isSane = new OrExpr();
-      isSane.addDisjunct(icmp);
-      isSane.addDisjunct(tcp);
-      isSane.addDisjunct(udp);
-      isSane.addDisjunct(otherIp);
-      RuleExpr rule = new RuleExpr(isSane, SaneExpr.INSTANCE);
+      RuleExpr rule = new RuleExpr(getSaneExpr(), SaneExpr.INSTANCE);
       statements.add(rule);
       return statements;
    }
 
+   /**
+    * Returns the data-plane program loaded into a context owned by the calling
+    * thread, synthesizing it on the first call from that thread. The returned
+    * program must not be modified, and must only be used from the calling
+    * thread. Must not be called once this synthesizer is closed.
+    */
+   public NodProgram getThreadDataPlaneProgram() throws Z3Exception {
+      Thread thread = Thread.currentThread();
+      NodProgram program = _threadDataPlanePrograms.get(thread);
+      if (program == null) {
+         Context ctx;
+         synchronized (_contexts) {
+            if (_closed) {
+               throw new BatfishException(
+                     "Cannot synthesize a data-plane program after close");
+            }
+            ctx = new Context();
+            _contexts.add(ctx);
+         }
+         program = synthesizeNodDataPlaneProgram(ctx);
+         _threadDataPlanePrograms.put(thread, program);
+      }
+      return program;
+   }
+
    private List<Statement> getToNeighborsRules() {
       List<Statement> statements = new ArrayList<>();
       statements.add(new Comment("Topology edge rules"));
-      for (Edge edge : _topologyEdges) {
-         String hostnameOut = edge.getNode1();
-         String hostnameIn = edge.getNode2();
-         String intOut = edge.getInt1();
-         String intIn = edge.getInt2();
-         if (isFlowSink(hostnameIn, intIn) || isFlowSink(hostnameOut, intOut)) {
-            continue;
-         }
+      for (NodeInterfacePair out : _topology.getInterfaces()) {
+         for (NodeInterfacePair in : _topology.getNeighbors(out)) {
+            String hostnameOut = out.getHostname();
+            String hostnameIn = in.getHostname();
+            String intOut = out.getInterface();
+            String intIn = in.getInterface();
+            if (isFlowSink(hostnameIn, intIn)
+                  || isFlowSink(hostnameOut, intOut)) {
+               continue;
+            }
 
-         PostOutInterfaceExpr postOutIface = new PostOutInterfaceExpr(
-               hostnameOut, intOut);
-         PreOutEdgeExpr preOutEdge = new PreOutEdgeExpr(hostnameOut, intOut,
-               hostnameIn, intIn);
-         PreInInterfaceExpr preInIface = new PreInInterfaceExpr(
-               hostnameIn,
-               intIn);
-         AndExpr conditions = new AndExpr();
-         conditions.addConjunct(postOutIface);
-         conditions.addConjunct(preOutEdge);
-         RuleExpr propagateToAdjacent = new RuleExpr(conditions, preInIface);
-         statements.add(propagateToAdjacent);
+            PostOutInterfaceExpr postOutIface = new PostOutInterfaceExpr(
+                  hostnameOut, intOut);
+            PreOutEdgeExpr preOutEdge = new PreOutEdgeExpr(hostnameOut, intOut,
+                  hostnameIn, intIn);
+            PreInInterfaceExpr preInIface = new PreInInterfaceExpr(
+                  hostnameIn,
+                  intIn);
+            AndExpr conditions = new AndExpr();
+            conditions.addConjunct(postOutIface);
+            conditions.addConjunct(preOutEdge);
+            RuleExpr propagateToAdjacent = new RuleExpr(conditions, preInIface);
+            statements.add(propagateToAdjacent);
+         }
       }
       return statements;
    }
@@ -2527,117 +2747,23 @@ public class Synthesizer {
    public NodProgram synthesizeNodAclProgram(
          String hostname, String aclName,
          Context ctx) throws Z3Exception {
-
-      List<Statement> ruleStatements = new ArrayList<>();
-      List<Statement> sane = getSane();
-      List<Statement> matchAclRules = getMatchAclRules(hostname, aclName);
-
-      ruleStatements.addAll(sane);
-      ruleStatements.addAll(matchAclRules);
-      return synthesizeNodProgram(ctx, ruleStatements);
+      return synthesizeNodProgram(ctx, getAclRules(hostname, aclName));
    }
 
    public NodProgram synthesizeNodDataPlaneProgram(Context ctx)
          throws Z3Exception {
-      List<Statement> ruleStatements = new ArrayList<>();
-      List<Statement> dropRules = getDropRules();
-      List<Statement> acceptRules = getAcceptRules();
-      List<Statement> sane = getSane();
-      List<Statement> flowSinkAcceptRules = getFlowSinkAcceptRules();
-      List<Statement> originateToPostInRules = getOriginateToPostInRules();
-      List<Statement> originateVrfToPostInVrfRules = getOriginateVrfToPostInVrfRules();
-      List<Statement> postInInterfaceToPostInRules = getPostInInterfaceToPostInRules();
-      List<Statement> postInInterfaceToNonInboundSrcInterface =
-            getPostInInterfaceToNonInboundSrcInterface();
-      List<Statement> postInToInboundInterface = getPostInToInboundInterface();
-      List<Statement> inboundInterfaceToNodeAccept = getInboundInterfaceToNodeAccept();
-      List<Statement> inboundInterfaceToNodeDrop = getInboundInterfaceToNodeDrop();
-      List<Statement> postInToPreOutRules = getPostInToPreOutRules();
-      List<Statement> preOutToDestRouteRules = getPreOutToDestRouteRules();
-      List<Statement> destRouteToPreOutEdgeRules = getDestRouteToPreOutEdgeRules();
-      List<Statement> preOutEdgeToPreOutInterfaceRules = getPreOutEdgeToPreOutInterfaceRules();
-      List<Statement> policyRouteRules = getPolicyRouteRules();
-      List<Statement> matchAclRules = getMatchAclRules();
-      List<Statement> toNeighborsRules = getToNeighborsRules();
-      List<Statement> preInInterfaceToPostInInterfaceRules =
-            getPreInInterfaceToPostInInterfaceRules();
-      List<Statement> preOutInterfaceToPostOutInterfaceRules =
-            getPreOutInterfaceToPostOutInterfaceRules();
-      List<Statement> nodeAcceptToRoleAcceptRules = getNodeAcceptToRoleAcceptRules();
-      List<Statement> externalSrcIpRules = getExternalSrcIpRules();
-      List<Statement> externalDstIpRules = getExternalDstIpRules();
-      List<Statement> postOutIfaceToNodeTransitRules = getPostOutIfaceToNodeTransitRules();
-      List<Statement> roleOriginateToNodeOriginateRules = getRoleOriginateToNodeOriginateRules();
-
-      ruleStatements.addAll(dropRules);
-      ruleStatements.addAll(acceptRules);
-      ruleStatements.addAll(sane);
-      ruleStatements.addAll(flowSinkAcceptRules);
-      ruleStatements.addAll(originateToPostInRules);
-      ruleStatements.addAll(originateVrfToPostInVrfRules);
-      ruleStatements.addAll(postInInterfaceToPostInRules);
-      ruleStatements.addAll(postInInterfaceToNonInboundSrcInterface);
-      ruleStatements.addAll(postInToInboundInterface);
-      ruleStatements.addAll(inboundInterfaceToNodeAccept);
-      ruleStatements.addAll(inboundInterfaceToNodeDrop);
-      ruleStatements.addAll(postInToPreOutRules);
-      ruleStatements.addAll(preOutToDestRouteRules);
-      ruleStatements.addAll(destRouteToPreOutEdgeRules);
-      ruleStatements.addAll(preOutEdgeToPreOutInterfaceRules);
-      ruleStatements.addAll(policyRouteRules);
-      ruleStatements.addAll(matchAclRules);
-      ruleStatements.addAll(toNeighborsRules);
-      ruleStatements.addAll(preInInterfaceToPostInInterfaceRules);
-      ruleStatements.addAll(preOutInterfaceToPostOutInterfaceRules);
-      ruleStatements.addAll(nodeAcceptToRoleAcceptRules);
-      ruleStatements.addAll(externalSrcIpRules);
-      ruleStatements.addAll(externalDstIpRules);
-      ruleStatements.addAll(postOutIfaceToNodeTransitRules);
-      ruleStatements.addAll(roleOriginateToNodeOriginateRules);
-
-      return synthesizeNodProgram(ctx, ruleStatements);
+      return synthesizeNodProgram(ctx, getDataPlaneRules());
    }
 
-   private NodProgram synthesizeNodProgram(
-         Context ctx,
-         List<Statement> ruleStatements) {
-      NodProgram nodProgram = new NodProgram(ctx);
-      Map<String, FuncDecl> relDeclFuncDecls = getRelDeclFuncDecls(
-            ruleStatements, ctx);
-      nodProgram.getRelationDeclarations().putAll(relDeclFuncDecls);
-      Map<String, BitVecExpr> variables = nodProgram.getVariables();
-      Map<String, BitVecExpr> variablesAsConsts = nodProgram
-            .getVariablesAsConsts();
-      int deBruinIndex = 0;
-      for (Entry<String, Integer> e : PACKET_VAR_SIZES.entrySet()) {
-         String var = e.getKey();
-         int size = e.getValue();
-         BitVecExpr varExpr = (BitVecExpr) ctx.mkBound(
-               deBruinIndex,
-               ctx.mkBitVecSort(size));
-         BitVecExpr varAsConstExpr = (BitVecExpr) ctx.mkConst(
-               var,
-               ctx.mkBitVecSort(size));
-         variables.put(var, varExpr);
-         variablesAsConsts.put(var, varAsConstExpr);
-         deBruinIndex++;
+   private List<Statement> simplify(List<Statement> ruleStatements) {
+      if (!_simplify) {
+         return ruleStatements;
       }
-      List<BoolExpr> rules = nodProgram.getRules();
-      for (Statement rawStatement : ruleStatements) {
-         Statement statement;
-         if (_simplify) {
-            statement = rawStatement.simplify();
-         }
-         else {
-            statement = rawStatement;
-         }
-         if (statement instanceof RuleExpr) {
-            RuleExpr ruleExpr = (RuleExpr) statement;
-            BoolExpr rule = ruleExpr.toBoolExpr(nodProgram);
-            rules.add(rule);
-         }
+      List<Statement> simplified = new ArrayList<>();
+      for (Statement statement : ruleStatements) {
+         simplified.add(statement.simplify());
       }
-      return nodProgram;
+      return simplified;
    }
 
 }
@@ -7,6 +7,8 @@ import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import org.batfish.bdd.BddManager;
+import org.batfish.z3.BddProgram;
 import org.batfish.z3.NodProgram;
 
 public class AndExpr extends BooleanExpr implements ComplexExpr {
@@ -122,6 +124,19 @@ public class AndExpr extends BooleanExpr implements ComplexExpr {
       }
    }
 
+   @Override
+   public int toBdd(BddProgram bddProgram) {
+      BddManager bdd = bddProgram.getManager();
+      int result = BddManager.TRUE;
+      for (BooleanExpr conjunct : _conjuncts) {
+         result = bdd.and(result, conjunct.toBdd(bddProgram));
+         if (result == BddManager.FALSE) {
+            break;
+         }
+      }
+      return result;
+   }
+
    @Override
    public BoolExpr toBoolExpr(NodProgram nodProgram) throws Z3Exception {
       Context ctx = nodProgram.getContext();
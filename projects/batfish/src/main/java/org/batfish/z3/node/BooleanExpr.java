@@ -2,6 +2,7 @@ package org.batfish.z3.node;
 
 import com.microsoft.z3.BoolExpr;
 import com.microsoft.z3.Z3Exception;
+import org.batfish.z3.BddProgram;
 import org.batfish.z3.NodProgram;
 
 public abstract class BooleanExpr extends Expr {
@@ -11,6 +12,12 @@ public abstract class BooleanExpr extends Expr {
       return this;
    }
 
+   /**
+    * Returns the set of packets satisfying this expression under the current
+    * relation values of {@code bddProgram}
+    */
+   public abstract int toBdd(BddProgram bddProgram);
+
    public abstract BoolExpr toBoolExpr(NodProgram nodProgram)
          throws Z3Exception;
 
@@ -7,6 +7,9 @@ import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import org.batfish.bdd.BddManager;
+import org.batfish.common.BatfishException;
+import org.batfish.z3.BddProgram;
 import org.batfish.z3.NodProgram;
 
 public class EqExpr extends BooleanExpr implements ComplexExpr {
@@ -74,6 +77,21 @@ public class EqExpr extends BooleanExpr implements ComplexExpr {
       }
    }
 
+   @Override
+   public int toBdd(BddProgram bddProgram) {
+      BddManager bdd = bddProgram.getManager();
+      int[] lhs = _lhs.toBdd(bddProgram);
+      int[] rhs = _rhs.toBdd(bddProgram);
+      if (lhs.length != rhs.length) {
+         throw new BatfishException("Width mismatch in: " + toString());
+      }
+      int result = BddManager.TRUE;
+      for (int i = 0; i < lhs.length && result != BddManager.FALSE; i++) {
+         result = bdd.and(result, bdd.biimp(lhs[i], rhs[i]));
+      }
+      return result;
+   }
+
    @Override
    public BoolExpr toBoolExpr(NodProgram nodProgram) throws Z3Exception {
       Context ctx = nodProgram.getContext();
@@ -7,6 +7,8 @@ import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import org.batfish.bdd.BddManager;
+import org.batfish.z3.BddProgram;
 import org.batfish.z3.NodProgram;
 
 public class IfExpr extends BooleanExpr implements ComplexExpr {
@@ -26,6 +28,14 @@ public class IfExpr extends BooleanExpr implements ComplexExpr {
       refreshSubExpressions();
    }
 
+   public BooleanExpr getAntecedent() {
+      return _antecedent;
+   }
+
+   public BooleanExpr getConsequent() {
+      return _consequent;
+   }
+
    @Override
    public Set<String> getRelations() {
       Set<String> relations = new HashSet<>();
@@ -93,6 +103,13 @@ public class IfExpr extends BooleanExpr implements ComplexExpr {
       }
    }
 
+   @Override
+   public int toBdd(BddProgram bddProgram) {
+      BddManager bdd = bddProgram.getManager();
+      return bdd.or(bdd.not(_antecedent.toBdd(bddProgram)),
+            _consequent.toBdd(bddProgram));
+   }
+
    @Override
    public BoolExpr toBoolExpr(NodProgram nodProgram) throws Z3Exception {
       Context ctx = nodProgram.getContext();
@@ -1,10 +1,17 @@
 package org.batfish.z3.node;
 
 import com.microsoft.z3.Z3Exception;
+import org.batfish.z3.BddProgram;
 import org.batfish.z3.NodProgram;
 
 public abstract class IntExpr extends Expr {
 
+   /**
+    * Returns one diagram per bit of this expression, least significant bit
+    * first
+    */
+   public abstract int[] toBdd(BddProgram bddProgram);
+
    public abstract com.microsoft.z3.BitVecExpr toBitVecExpr(
          NodProgram nodProgram) throws Z3Exception;
 }
@@ -3,7 +3,12 @@ package org.batfish.z3.node;
 import com.microsoft.z3.BoolExpr;
 import com.microsoft.z3.Z3Exception;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.batfish.z3.BddProgram;
 import org.batfish.z3.NodProgram;
 
 public class LetExpr extends BooleanExpr implements ComplexExpr {
@@ -28,11 +33,31 @@ public class LetExpr extends BooleanExpr implements ComplexExpr {
       return _macroDefs;
    }
 
+   @Override
+   public Set<String> getRelations() {
+      Set<String> relations = new HashSet<>();
+      relations.addAll(_expression.getRelations());
+      for (MacroDefExpr macroDef : _macroDefs) {
+         relations.addAll(macroDef.getExpression().getRelations());
+      }
+      return relations;
+   }
+
    @Override
    public List<Expr> getSubExpressions() {
       return _subExpressions;
    }
 
+   @Override
+   public Set<String> getVariables() {
+      Set<String> variables = new HashSet<>();
+      variables.addAll(_expression.getVariables());
+      for (MacroDefExpr macroDef : _macroDefs) {
+         variables.addAll(macroDef.getExpression().getVariables());
+      }
+      return variables;
+   }
+
    private void refreshSubexpressions() {
       _subExpressions.clear();
       _subExpressions.add(new IdExpr("let"));
@@ -44,11 +69,37 @@ public class LetExpr extends BooleanExpr implements ComplexExpr {
       }
    }
 
+   @Override
+   public int toBdd(BddProgram bddProgram) {
+      // bindings are parallel, so every definition sees the outer scope
+      Map<String, Integer> macros = new HashMap<>();
+      for (MacroDefExpr macroDef : _macroDefs) {
+         macros.put(macroDef.getMacro(),
+               macroDef.getExpression().toBdd(bddProgram));
+      }
+      bddProgram.pushMacros(macros);
+      try {
+         return _expression.toBdd(bddProgram);
+      }
+      finally {
+         bddProgram.popMacros();
+      }
+   }
+
    @Override
    public BoolExpr toBoolExpr(NodProgram nodProgram) throws Z3Exception {
-      throw new UnsupportedOperationException(
-            "no implementation for generated method");
-      // TODO Auto-generated method stub
+      Map<String, BoolExpr> macros = new HashMap<>();
+      for (MacroDefExpr macroDef : _macroDefs) {
+         macros.put(macroDef.getMacro(),
+               macroDef.getExpression().toBoolExpr(nodProgram));
+      }
+      nodProgram.pushMacros(macros);
+      try {
+         return _expression.toBoolExpr(nodProgram);
+      }
+      finally {
+         nodProgram.popMacros();
+      }
    }
 
 }
@@ -3,7 +3,9 @@ package org.batfish.z3.node;
 import com.microsoft.z3.BitVecExpr;
 import com.microsoft.z3.Context;
 import com.microsoft.z3.Z3Exception;
+import org.batfish.bdd.BddManager;
 import org.batfish.datamodel.Ip;
+import org.batfish.z3.BddProgram;
 import org.batfish.z3.NodProgram;
 
 public class LitIntExpr extends IntExpr {
@@ -68,6 +70,15 @@ public class LitIntExpr extends IntExpr {
       sb.append(getNumString());
    }
 
+   @Override
+   public int[] toBdd(BddProgram bddProgram) {
+      int[] bits = new int[_bits];
+      for (int i = 0; i < _bits; i++) {
+         bits[i] = ((_num >> i) & 1) != 0 ? BddManager.TRUE : BddManager.FALSE;
+      }
+      return bits;
+   }
+
    @Override
    public BitVecExpr toBitVecExpr(NodProgram nodProgram) throws Z3Exception {
       Context ctx = nodProgram.getContext();
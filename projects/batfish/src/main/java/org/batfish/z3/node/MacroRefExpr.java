@@ -2,6 +2,7 @@ package org.batfish.z3.node;
 
 import com.microsoft.z3.BoolExpr;
 import com.microsoft.z3.Z3Exception;
+import org.batfish.z3.BddProgram;
 import org.batfish.z3.NodProgram;
 
 public class MacroRefExpr extends BooleanExpr {
@@ -17,11 +18,14 @@ public class MacroRefExpr extends BooleanExpr {
       sb.append(_macro);
    }
 
+   @Override
+   public int toBdd(BddProgram bddProgram) {
+      return bddProgram.getMacro(_macro);
+   }
+
    @Override
    public BoolExpr toBoolExpr(NodProgram nodProgram) throws Z3Exception {
-      throw new UnsupportedOperationException(
-            "no implementation for generated method");
-      // TODO Auto-generated method stub
+      return nodProgram.getMacro(_macro);
    }
 
 }
@@ -6,6 +6,7 @@ import com.microsoft.z3.Z3Exception;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
+import org.batfish.z3.BddProgram;
 import org.batfish.z3.NodProgram;
 
 public class NotExpr extends BooleanExpr implements ComplexExpr {
@@ -71,6 +72,11 @@ public class NotExpr extends BooleanExpr implements ComplexExpr {
       }
    }
 
+   @Override
+   public int toBdd(BddProgram bddProgram) {
+      return bddProgram.getManager().not(_arg.toBdd(bddProgram));
+   }
+
    @Override
    public BoolExpr toBoolExpr(NodProgram nodProgram) throws Z3Exception {
       Context ctx = nodProgram.getContext();
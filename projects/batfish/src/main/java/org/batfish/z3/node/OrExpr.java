@@ -7,6 +7,8 @@ import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import org.batfish.bdd.BddManager;
+import org.batfish.z3.BddProgram;
 import org.batfish.z3.NodProgram;
 
 public class OrExpr extends BooleanExpr implements ComplexExpr {
@@ -123,6 +125,19 @@ public class OrExpr extends BooleanExpr implements ComplexExpr {
       }
    }
 
+   @Override
+   public int toBdd(BddProgram bddProgram) {
+      BddManager bdd = bddProgram.getManager();
+      int result = BddManager.FALSE;
+      for (BooleanExpr disjunct : _disjuncts) {
+         result = bdd.or(result, disjunct.toBdd(bddProgram));
+         if (result == BddManager.TRUE) {
+            break;
+         }
+      }
+      return result;
+   }
+
    @Override
    public BoolExpr toBoolExpr(NodProgram nodProgram) throws Z3Exception {
       Context ctx = nodProgram.getContext();
@@ -3,6 +3,7 @@ package org.batfish.z3.node;
 import com.microsoft.z3.BoolExpr;
 import com.microsoft.z3.Z3Exception;
 import org.batfish.datamodel.Prefix;
+import org.batfish.z3.BddProgram;
 import org.batfish.z3.NodProgram;
 import org.batfish.z3.Synthesizer;
 
@@ -39,6 +40,11 @@ public class PrefixMatchExpr extends BooleanExpr {
       return _expr.simplify();
    }
 
+   @Override
+   public int toBdd(BddProgram bddProgram) {
+      return _expr.toBdd(bddProgram);
+   }
+
    @Override
    public BoolExpr toBoolExpr(NodProgram nodProgram) throws Z3Exception {
       return _expr.toBoolExpr(nodProgram);
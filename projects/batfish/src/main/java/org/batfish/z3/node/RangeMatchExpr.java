@@ -4,6 +4,7 @@ import com.microsoft.z3.BoolExpr;
 import com.microsoft.z3.Z3Exception;
 import java.util.Set;
 import org.batfish.datamodel.SubRange;
+import org.batfish.z3.BddProgram;
 import org.batfish.z3.NodProgram;
 
 public class RangeMatchExpr extends BooleanExpr {
@@ -170,6 +171,11 @@ public class RangeMatchExpr extends BooleanExpr {
       _expr.print(sb, indent);
    }
 
+   @Override
+   public int toBdd(BddProgram bddProgram) {
+      return _expr.toBdd(bddProgram);
+   }
+
    @Override
    public BoolExpr toBoolExpr(NodProgram nodProgram) throws Z3Exception {
       return _expr.toBoolExpr(nodProgram);
@@ -9,6 +9,7 @@ import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import org.batfish.z3.BddProgram;
 import org.batfish.z3.NodProgram;
 
 public class RelExpr extends BooleanExpr implements ComplexExpr {
@@ -49,6 +50,11 @@ public class RelExpr extends BooleanExpr implements ComplexExpr {
       return variables;
    }
 
+   @Override
+   public int toBdd(BddProgram bddProgram) {
+      return bddProgram.getRelation(_name);
+   }
+
    @Override
    public BoolExpr toBoolExpr(NodProgram nodProgram) throws Z3Exception {
       Context ctx = nodProgram.getContext();
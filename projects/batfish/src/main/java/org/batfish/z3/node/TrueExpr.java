@@ -2,6 +2,8 @@ package org.batfish.z3.node;
 
 import com.microsoft.z3.BoolExpr;
 import com.microsoft.z3.Z3Exception;
+import org.batfish.bdd.BddManager;
+import org.batfish.z3.BddProgram;
 import org.batfish.z3.NodProgram;
 
 public class TrueExpr extends BooleanExpr {
@@ -16,6 +18,11 @@ public class TrueExpr extends BooleanExpr {
       sb.append("true");
    }
 
+   @Override
+   public int toBdd(BddProgram bddProgram) {
+      return BddManager.TRUE;
+   }
+
    @Override
    public BoolExpr toBoolExpr(NodProgram nodProgram) throws Z3Exception {
       return nodProgram.getContext().mkTrue();
@@ -4,6 +4,7 @@ import com.microsoft.z3.Z3Exception;
 import java.util.Collections;
 import java.util.Set;
 import org.batfish.common.BatfishException;
+import org.batfish.z3.BddProgram;
 import org.batfish.z3.NodProgram;
 
 public class VarIntExpr extends IntExpr {
@@ -42,6 +43,16 @@ public class VarIntExpr extends IntExpr {
       sb.append(_var);
    }
 
+   @Override
+   public int[] toBdd(BddProgram bddProgram) {
+      int[] ret = bddProgram.getVariable(_var);
+      if (ret == null) {
+         throw new BatfishException(
+               "bddProgram missing mapping for variable: '" + _var + "'");
+      }
+      return ret;
+   }
+
    @Override
    public com.microsoft.z3.BitVecExpr toBitVecExpr(NodProgram nodProgram)
          throws Z3Exception {
@@ -0,0 +1,59 @@
+package org.batfish.bdd;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link BddManager}
+ */
+public class BddManagerTest {
+
+   @Test
+   public void testCanonical() {
+      BddManager bdd = new BddManager(3);
+      int a = bdd.var(0);
+      int b = bdd.var(1);
+      int c = bdd.var(2);
+      // a & (b | c) == (a & b) | (a & c)
+      int lhs = bdd.and(a, bdd.or(b, c));
+      int rhs = bdd.or(bdd.and(a, b), bdd.and(a, c));
+      assertThat(lhs, equalTo(rhs));
+      // De Morgan
+      assertThat(bdd.not(bdd.and(a, b)),
+            equalTo(bdd.or(bdd.not(a), bdd.not(b))));
+      assertThat(bdd.and(a, bdd.not(a)), equalTo(BddManager.FALSE));
+      assertThat(bdd.or(a, bdd.not(a)), equalTo(BddManager.TRUE));
+      assertThat(bdd.biimp(a, a), equalTo(BddManager.TRUE));
+   }
+
+   @Test
+   public void testGrow() {
+      BddManager bdd = new BddManager(16);
+      // parity of 16 variables needs more nodes than the initial table holds
+      // once every intermediate result is kept
+      int parity = BddManager.FALSE;
+      for (int i = 0; i < 16; i++) {
+         parity = bdd.not(bdd.biimp(parity, bdd.var(i)));
+      }
+      int xorAgain = BddManager.FALSE;
+      for (int i = 15; i >= 0; i--) {
+         xorAgain = bdd.not(bdd.biimp(xorAgain, bdd.var(i)));
+      }
+      assertThat(parity, equalTo(xorAgain));
+   }
+
+   @Test
+   public void testSatOne() {
+      BddManager bdd = new BddManager(3);
+      assertThat(bdd.satOne(BddManager.FALSE), nullValue());
+      boolean[] assignment = bdd.satOne(bdd.or(bdd.var(0),
+            bdd.and(bdd.var(1), bdd.var(2))));
+      assertThat(assignment[0], equalTo(false));
+      assertThat(assignment[1], equalTo(true));
+      assertThat(assignment[2], equalTo(true));
+   }
+
+}
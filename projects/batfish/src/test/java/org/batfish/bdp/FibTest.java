@@ -0,0 +1,58 @@
+package org.batfish.bdp;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.Map;
+import java.util.Set;
+import org.batfish.datamodel.AbstractRoute;
+import org.batfish.datamodel.ConnectedRoute;
+import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.Prefix;
+import org.batfish.datamodel.Route;
+import org.batfish.datamodel.StaticRoute;
+import org.junit.Test;
+
+/**
+ * Tests for recursive next-hop resolution in {@link Fib}
+ */
+public class FibTest {
+
+   @Test
+   public void testRecursiveResolution() {
+      Rib rib = new Rib(null);
+      AbstractRoute connected = new ConnectedRoute(new Prefix("10.0.0.0/24"),
+            "e0");
+      AbstractRoute loopbackRoute = new StaticRoute(new Prefix("1.1.1.1/32"),
+            new Ip("10.0.0.1"), null, 1, 0);
+      rib.mergeRoute(connected);
+      rib.mergeRoute(loopbackRoute);
+      // many routes recursing through the same loopback
+      for (int i = 0; i < 100; i++) {
+         rib.mergeRoute(new StaticRoute(new Prefix(new Ip(i << 24), 8),
+               new Ip("1.1.1.1"), null, 1, 0));
+      }
+      // a route recursing through itself
+      rib.mergeRoute(new StaticRoute(new Prefix("200.0.0.0/8"),
+            new Ip("200.0.0.1"), null, 1, 0));
+      Fib fib = new Fib(rib);
+
+      Map<String, Map<Ip, Set<AbstractRoute>>> nextHopInterfaces = fib
+            .getNextHopInterfaces(new Ip("50.1.2.3"));
+      assertThat(nextHopInterfaces.keySet(), contains("e0"));
+      assertThat(nextHopInterfaces.get("e0").keySet(),
+            contains(new Ip("10.0.0.1")));
+      assertThat(nextHopInterfaces.get("e0").get(new Ip("10.0.0.1")),
+            contains(connected));
+
+      assertThat(fib.getNextHopInterfaces(new Ip("1.1.1.1")),
+            equalTo(nextHopInterfaces));
+      assertThat(fib.getNextHopInterfaces(new Ip("10.0.0.5")).get("e0")
+            .keySet(), contains(Route.UNSET_ROUTE_NEXT_HOP_IP));
+      assertThat(fib.getNextHopInterfaces(new Ip("200.1.1.1")).isEmpty(),
+            is(true));
+   }
+
+}
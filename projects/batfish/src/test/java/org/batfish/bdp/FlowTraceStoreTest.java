@@ -0,0 +1,109 @@
+package org.batfish.bdp;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import org.batfish.datamodel.Edge;
+import org.batfish.datamodel.Flow;
+import org.batfish.datamodel.FlowDisposition;
+import org.batfish.datamodel.FlowTrace;
+import org.batfish.datamodel.FlowTraceHop;
+import org.batfish.datamodel.Ip;
+import org.junit.Test;
+
+/**
+ * Tests for {@link FlowTraceStore}
+ */
+public class FlowTraceStoreTest {
+
+   private static Map<Flow, Set<FlowTrace>> flowTraces(int numFlows) {
+      Map<Flow, Set<FlowTrace>> flowTraces = new HashMap<>();
+      for (int i = 0; i < numFlows; i++) {
+         Flow.Builder builder = new Flow.Builder();
+         builder.setIngressNode("a");
+         builder.setDstIp(new Ip(i));
+         builder.setTag("tag");
+         Flow flow = builder.build();
+         Set<FlowTrace> traces = new TreeSet<>();
+         // equal but distinct edges and routes
+         traces.add(new FlowTrace(FlowDisposition.ACCEPTED,
+               Arrays.asList(new FlowTraceHop(new Edge("a", "e0", "b", "e0"),
+                     new TreeSet<>(Collections.singleton("route")), null)),
+               FlowDisposition.ACCEPTED.toString()));
+         flowTraces.put(flow, traces);
+      }
+      return flowTraces;
+   }
+
+   private static void put(FlowTraceStore store, BdpDataPlane dp,
+         Map<Flow, Set<FlowTrace>> flowTraces) {
+      FlowTraceStore.Batch batch = store.newBatch();
+      batch.add(flowTraces);
+      store.put(dp, batch);
+   }
+
+   private static List<FlowTrace> traces(FlowTraceStore store,
+         BdpDataPlane dp) {
+      List<FlowTrace> traces = new ArrayList<>();
+      store.forEach(dp, (flow, trace) -> traces.add(trace));
+      return traces;
+   }
+
+   @Test
+   public void testInMemoryHopsAreShared() {
+      FlowTraceStore store = new FlowTraceStore(Integer.MAX_VALUE, true);
+      BdpDataPlane dp = new BdpDataPlane();
+      put(store, dp, flowTraces(2));
+      List<FlowTrace> traces = traces(store, dp);
+      assertThat(traces.size(), equalTo(2));
+      FlowTraceHop hop0 = traces.get(0).getHops().get(0);
+      FlowTraceHop hop1 = traces.get(1).getHops().get(0);
+      assertThat(hop1.getEdge(), sameInstance(hop0.getEdge()));
+      assertThat(hop1.getRoutes(), sameInstance(hop0.getRoutes()));
+   }
+
+   @Test
+   public void testSpilledTracesAreReadBack() {
+      FlowTraceStore store = new FlowTraceStore(1, true);
+      BdpDataPlane dp = new BdpDataPlane();
+      Map<Flow, Set<FlowTrace>> flowTraces = flowTraces(3);
+      // the first group spills, the second is written straight to disk
+      Map<Flow, Set<FlowTrace>> firstGroup = new HashMap<>();
+      Map<Flow, Set<FlowTrace>> secondGroup = new HashMap<>();
+      flowTraces.forEach((flow, traces) -> {
+         if (firstGroup.size() < 2) {
+            firstGroup.put(flow, traces);
+         }
+         else {
+            secondGroup.put(flow, traces);
+         }
+      });
+      FlowTraceStore.Batch batch = store.newBatch();
+      batch.add(firstGroup);
+      batch.add(secondGroup);
+      store.put(dp, batch);
+      List<Flow> flows = new ArrayList<>();
+      List<FlowTrace> traces = new ArrayList<>();
+      store.forEach(dp, (flow, trace) -> {
+         flows.add(flow);
+         traces.add(trace);
+      });
+      assertThat(flows, equalTo(new ArrayList<>(new TreeSet<>(flowTraces
+            .keySet()))));
+      assertThat(traces.get(2), equalTo(flowTraces.get(flows.get(2))
+            .iterator().next()));
+      // replacing the batch removes its spill file
+      put(store, dp, flowTraces(0));
+      assertThat(traces(store, dp).isEmpty(), equalTo(true));
+   }
+
+}
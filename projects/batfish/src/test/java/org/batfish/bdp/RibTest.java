@@ -0,0 +1,163 @@
+package org.batfish.bdp;
+
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import org.batfish.datamodel.AbstractRoute;
+import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.Prefix;
+import org.batfish.datamodel.StaticRoute;
+import org.junit.Test;
+
+/**
+ * Tests for the route trie backing {@link AbstractRib}, checked against a
+ * linear reference implementation of the same merge and longest-prefix-match
+ * semantics.
+ */
+public class RibTest {
+
+   /**
+    * Reference RIB keeping routes in a flat map from network to routes
+    */
+   private static class ReferenceRib {
+
+      private final Rib _rib = new Rib(null);
+
+      private final Map<Prefix, Set<AbstractRoute>> _routesByNetwork = new HashMap<>();
+
+      public Set<AbstractRoute> getRoutes() {
+         Set<AbstractRoute> routes = new HashSet<>();
+         _routesByNetwork.values().forEach(routes::addAll);
+         return routes;
+      }
+
+      public Set<AbstractRoute> longestPrefixMatch(Ip address) {
+         Set<AbstractRoute> longestMatch = new HashSet<>();
+         int longestMatchLength = -1;
+         for (Map.Entry<Prefix, Set<AbstractRoute>> e : _routesByNetwork
+               .entrySet()) {
+            Prefix network = e.getKey();
+            if (network.contains(address)
+                  && network.getPrefixLength() > longestMatchLength) {
+               longestMatch = e.getValue();
+               longestMatchLength = network.getPrefixLength();
+            }
+         }
+         return longestMatch;
+      }
+
+      public boolean mergeRoute(AbstractRoute route) {
+         Prefix network = route.getNetwork().getNetworkPrefix();
+         Set<AbstractRoute> routes = _routesByNetwork.get(network);
+         if (routes == null) {
+            routes = new HashSet<>();
+            routes.add(route);
+            _routesByNetwork.put(network, routes);
+            return true;
+         }
+         int preferenceComparison = _rib.comparePreference(route,
+               routes.iterator().next());
+         if (preferenceComparison < 0) {
+            return false;
+         }
+         else if (preferenceComparison == 0) {
+            return routes.add(route);
+         }
+         else {
+            routes.clear();
+            routes.add(route);
+            return true;
+         }
+      }
+
+   }
+
+   private static final int NUM_LOOKUPS = 2000;
+
+   private static final int NUM_ROUTES = 3000;
+
+   private static Ip randomIp(Random random) {
+      // confine addresses to a few /8s and /16s so that networks overlap
+      long firstOctet = 10 + random.nextInt(3);
+      long secondOctet = random.nextInt(4);
+      long rest = random.nextInt(1 << 16);
+      return new Ip((firstOctet << 24) | (secondOctet << 16) | rest);
+   }
+
+   private static AbstractRoute randomRoute(Random random) {
+      int prefixLength = random.nextInt(Prefix.MAX_PREFIX_LENGTH + 1);
+      Ip address = randomIp(random);
+      if (random.nextBoolean()) {
+         address = address.getNetworkAddress(prefixLength);
+      }
+      Prefix network = new Prefix(address, prefixLength);
+      int administrativeCost = 1 + random.nextInt(2);
+      return new StaticRoute(network, null, "iface" + random.nextInt(3),
+            administrativeCost, 0);
+   }
+
+   @Test
+   public void testEmptyRib() {
+      Rib rib = new Rib(null);
+      assertThat(rib.getRoutes(), empty());
+      assertThat(rib.longestPrefixMatch(new Ip("1.2.3.4")), empty());
+   }
+
+   @Test
+   public void testMatchesReference() {
+      Random random = new Random(0);
+      Rib rib = new Rib(null);
+      ReferenceRib reference = new ReferenceRib();
+      List<AbstractRoute> routes = new ArrayList<>();
+      for (int i = 0; i < NUM_ROUTES; i++) {
+         AbstractRoute route = randomRoute(random);
+         routes.add(route);
+         assertThat(rib.mergeRoute(route),
+               equalTo(reference.mergeRoute(route)));
+      }
+      assertThat(rib.getRoutes(), equalTo(reference.getRoutes()));
+      for (AbstractRoute route : routes) {
+         Prefix network = route.getNetwork();
+         for (Ip address : new Ip[] { network.getNetworkAddress(),
+               network.getEndAddress() }) {
+            assertThat(
+                  new HashSet<>(rib.longestPrefixMatch(address)),
+                  equalTo(reference.longestPrefixMatch(address)));
+         }
+      }
+      for (int i = 0; i < NUM_LOOKUPS; i++) {
+         Ip address = random.nextBoolean() ? randomIp(random)
+               : new Ip(random.nextInt() & 0xFFFFFFFFL);
+         assertThat(
+               new HashSet<>(rib.longestPrefixMatch(address)),
+               equalTo(reference.longestPrefixMatch(address)));
+      }
+   }
+
+   @Test
+   public void testDefaultAndHostRoutes() {
+      Rib rib = new Rib(null);
+      AbstractRoute defaultRoute = new StaticRoute(Prefix.ZERO, null, "d", 1,
+            0);
+      AbstractRoute hostRoute = new StaticRoute(new Prefix("1.2.3.4/32"),
+            null, "h", 1, 0);
+      rib.mergeRoute(hostRoute);
+      rib.mergeRoute(defaultRoute);
+      assertThat(rib.longestPrefixMatch(new Ip("1.2.3.4")),
+            equalTo(Collections.singleton(hostRoute)));
+      assertThat(rib.longestPrefixMatch(new Ip("1.2.3.5")),
+            equalTo(Collections.singleton(defaultRoute)));
+      assertThat(rib.longestPrefixMatch(new Ip("255.255.255.255")),
+            equalTo(Collections.singleton(defaultRoute)));
+   }
+
+}
@@ -0,0 +1,114 @@
+package org.batfish.bdp;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.Edge;
+import org.batfish.datamodel.Flow;
+import org.batfish.datamodel.FlowDisposition;
+import org.batfish.datamodel.FlowTrace;
+import org.batfish.datamodel.FlowTraceHop;
+import org.batfish.datamodel.Interface;
+import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.IpAccessList;
+import org.batfish.datamodel.IpAccessListLine;
+import org.batfish.datamodel.LineAction;
+import org.batfish.datamodel.SubRange;
+import org.junit.Test;
+
+/**
+ * Tests for {@link TracerouteBatch}
+ */
+public class TracerouteBatchTest {
+
+   private static Flow flow(String ingressNode, int srcPort, String tag) {
+      return flow(ingressNode, srcPort, 0, tag);
+   }
+
+   private static Flow flow(String ingressNode, int srcPort, int dstPort,
+         String tag) {
+      Flow.Builder builder = new Flow.Builder();
+      builder.setIngressNode(ingressNode);
+      builder.setDstIp(new Ip("1.1.1.1"));
+      builder.setDstPort(dstPort);
+      builder.setSrcPort(srcPort);
+      builder.setTag(tag);
+      return builder.build();
+   }
+
+   private static TracerouteBatch newBatch() {
+      BdpDataPlane dp = new BdpDataPlane();
+      dp.setNodes(Collections.emptyMap());
+      return new TracerouteBatch(dp);
+   }
+
+   @Test
+   public void testClassifyGroupsOnUninspectedFields() {
+      IpAccessListLine line = new IpAccessListLine();
+      line.setAction(LineAction.ACCEPT);
+      line.setDstPorts(new TreeSet<>(Collections.singleton(new SubRange(80,
+            80))));
+      Configuration c = new Configuration("a");
+      Interface iface = new Interface("e0");
+      iface.setIncomingFilter(
+            new IpAccessList("filter", Collections.singletonList(line)));
+      c.getInterfaces().put(iface.getName(), iface);
+      Map<String, Node> nodes = new HashMap<>();
+      nodes.put(c.getHostname(), new Node(c, nodes));
+      BdpDataPlane dp = new BdpDataPlane();
+      dp.setNodes(nodes);
+
+      // the filter inspects destination ports but not source ports
+      Set<Flow> flows = new HashSet<>(Arrays.asList(flow("a", 1, 80, "t1"),
+            flow("a", 2, 80, "t1"), flow("a", 1, 443, "t1")));
+      Collection<List<Flow>> classes = new TracerouteBatch(dp)
+            .classify(flows);
+      assertThat(classes.size(), equalTo(2));
+   }
+
+   @Test
+   public void testClassifyWithoutFilters() {
+      Set<Flow> flows = new HashSet<>(Arrays.asList(flow("a", 1, "t1"),
+            flow("a", 2, "t2"), flow("b", 1, "t1")));
+      Collection<List<Flow>> classes = newBatch().classify(flows);
+      assertThat(classes.size(), equalTo(2));
+   }
+
+   @Test
+   public void testFanOutRewritesTransformedFlows() {
+      TracerouteBatch batch = newBatch();
+      Flow representative = flow("a", 1, "t1");
+      Flow member = flow("a", 2, "t2");
+      Edge edge = new Edge("a", "e0", "b", "e0");
+      Set<FlowTrace> plainTraces = new TreeSet<>();
+      plainTraces.add(new FlowTrace(FlowDisposition.ACCEPTED,
+            Arrays.asList(new FlowTraceHop(edge, new TreeSet<>(), null)),
+            FlowDisposition.ACCEPTED.toString()));
+      assertThat(batch.fanOut(plainTraces, member), sameInstance(plainTraces));
+
+      Flow.Builder natted = new Flow.Builder(representative);
+      natted.setSrcIp(new Ip("2.2.2.2"));
+      Set<FlowTrace> nattedTraces = new TreeSet<>();
+      nattedTraces.add(new FlowTrace(FlowDisposition.ACCEPTED,
+            Arrays.asList(
+                  new FlowTraceHop(edge, new TreeSet<>(), natted.build())),
+            FlowDisposition.ACCEPTED.toString()));
+      Flow memberHopFlow = batch.fanOut(nattedTraces, member).iterator()
+            .next().getHops().get(0).getTransformedFlow();
+      assertThat(memberHopFlow.getSrcPort(), equalTo(2));
+      assertThat(memberHopFlow.getTag(), equalTo("t2"));
+      assertThat(memberHopFlow.getSrcIp(), equalTo(new Ip("2.2.2.2")));
+   }
+
+}
@@ -0,0 +1,100 @@
+package org.batfish.job;
+
+import static org.hamcrest.Matchers.contains;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.batfish.common.BatfishLogger;
+import org.batfish.config.Settings;
+import org.batfish.datamodel.answers.NodAnswerElement;
+import org.junit.Test;
+
+/**
+ * Tests for {@link BatfishJobExecutor}
+ */
+public class BatfishJobExecutorTest {
+
+   private static final class CostJob extends BatfishJob<CostJobResult> {
+
+      private final long _cost;
+
+      private CostJob(Settings settings, long cost) {
+         super(settings);
+         _cost = cost;
+      }
+
+      @Override
+      public CostJobResult call() {
+         return new CostJobResult(_cost, _logger);
+      }
+
+      @Override
+      public long getCostEstimate() {
+         return _cost;
+      }
+
+   }
+
+   private static final class CostJobResult
+         extends BatfishJobResult<List<Long>, NodAnswerElement> {
+
+      private final long _cost;
+
+      private CostJobResult(long cost, BatfishLogger logger) {
+         super(0, logger.getHistory());
+         _cost = cost;
+      }
+
+      @Override
+      public void appendHistory(BatfishLogger logger) {
+      }
+
+      @Override
+      public void applyTo(List<Long> output, BatfishLogger logger,
+            NodAnswerElement answerElement) {
+         output.add(_cost);
+      }
+
+   }
+
+   private static List<CostJob> jobs(Settings settings, long... costs) {
+      List<CostJob> jobs = new ArrayList<>();
+      for (long cost : costs) {
+         jobs.add(new CostJob(settings, cost));
+      }
+      return jobs;
+   }
+
+   private static BatfishJobExecutor<CostJob, NodAnswerElement, CostJobResult, List<Long>> newExecutor(
+         Settings settings) {
+      return new BatfishJobExecutor<>(settings,
+            new BatfishLogger(settings.getLogLevel(), false), true,
+            "test");
+   }
+
+   private static Settings sequentialSettings() {
+      Settings settings = new Settings();
+      settings.setSequential(true);
+      return settings;
+   }
+
+   @Test
+   public void testCostliestJobsRunFirst() {
+      Settings settings = sequentialSettings();
+      List<Long> output = new ArrayList<>();
+      newExecutor(settings).executeJobs(jobs(settings, 1, 3, 2), output,
+            new NodAnswerElement());
+      assertThat(output, contains(3L, 2L, 1L));
+   }
+
+   @Test
+   public void testStopsOnceDone() {
+      Settings settings = sequentialSettings();
+      List<Long> output = new ArrayList<>();
+      newExecutor(settings).executeJobs(jobs(settings, 1, 3, 2), output,
+            new NodAnswerElement(), o -> o.contains(3L));
+      assertThat(output, contains(3L));
+   }
+
+}
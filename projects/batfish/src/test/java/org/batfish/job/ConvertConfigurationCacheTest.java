@@ -0,0 +1,61 @@
+package org.batfish.job;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Map;
+import org.batfish.common.BatfishLogger;
+import org.batfish.common.Warnings;
+import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.answers.ConvertConfigurationAnswerElement;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests for {@link ConvertConfigurationCache}
+ */
+public class ConvertConfigurationCacheTest {
+
+   @Rule
+   public TemporaryFolder folder = new TemporaryFolder();
+
+   private static BatfishLogger newLogger() {
+      return new BatfishLogger(BatfishLogger.getLogLevelStr(
+            BatfishLogger.LEVEL_OUTPUT), false);
+   }
+
+   @Test
+   public void testHitAfterPut() throws IOException {
+      Path dir = folder.newFolder("cache").toPath();
+      ConvertConfigurationCache cache = new ConvertConfigurationCache(dir,
+            "v1", Long.MAX_VALUE);
+      String key = cache.getKey("r1-parse-key");
+      assertThat(cache.get(key, "r1", newLogger().getHistory()), nullValue());
+      Map<String, Configuration> configurations = Collections
+            .singletonMap("r1", new Configuration("r1"));
+      cache.put(key, new ConvertConfigurationResult(0,
+            newLogger().getHistory(), new Warnings(), "r1", configurations,
+            new ConvertConfigurationAnswerElement()));
+      ConvertConfigurationResult hit = cache.get(key, "r1",
+            newLogger().getHistory());
+      assertThat(hit.getConfigurations().keySet(),
+            equalTo(configurations.keySet()));
+   }
+
+   @Test
+   public void testKeyDependsOnSalt() throws IOException {
+      Path dir = folder.newFolder("cache").toPath();
+      String key1 = new ConvertConfigurationCache(dir, "v1", Long.MAX_VALUE)
+            .getKey("r1-parse-key");
+      String key2 = new ConvertConfigurationCache(dir, "v2", Long.MAX_VALUE)
+            .getKey("r1-parse-key");
+      assertThat(key1, not(equalTo(key2)));
+   }
+
+}
@@ -0,0 +1,102 @@
+package org.batfish.job;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import org.batfish.common.BatfishLogger;
+import org.batfish.common.ParseTreeSentences;
+import org.batfish.common.Warnings;
+import org.batfish.datamodel.ConfigurationFormat;
+import org.batfish.representation.host.HostConfiguration;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests for {@link ParseVendorConfigurationCache}
+ */
+public class ParseVendorConfigurationCacheTest {
+
+   @Rule
+   public TemporaryFolder folder = new TemporaryFolder();
+
+   private static BatfishLogger.BatfishLoggerHistory newHistory() {
+      return new BatfishLogger(
+            BatfishLogger.getLogLevelStr(BatfishLogger.LEVEL_OUTPUT), false)
+                  .getHistory();
+   }
+
+   private static ParseVendorConfigurationResult newResult(Path file,
+         String hostname) {
+      HostConfiguration vc = new HostConfiguration();
+      vc.setHostname(hostname);
+      return new ParseVendorConfigurationResult(0, newHistory(), file, vc,
+            new Warnings(), new ParseTreeSentences());
+   }
+
+   @Test
+   public void testHitAfterPut() throws IOException {
+      Path dir = folder.newFolder("cache").toPath();
+      Path file = folder.newFile("r1.cfg").toPath();
+      ParseVendorConfigurationCache cache = new ParseVendorConfigurationCache(
+            dir, "v1", Long.MAX_VALUE);
+      String key = cache.getKey("configs/r1.cfg", ConfigurationFormat.HOST,
+            "text");
+      assertThat(cache.get(key, file, 0, newHistory()), nullValue());
+      cache.put(key, newResult(file, "r1"));
+      ParseVendorConfigurationResult hit = cache.get(key, file, 0,
+            newHistory());
+      assertThat(hit.getVendorConfiguration().getHostname(), equalTo("r1"));
+   }
+
+   @Test
+   public void testLeastRecentlyUsedIsEvicted() throws IOException {
+      Path dir = folder.newFolder("cache").toPath();
+      Path file = folder.newFile("r1.cfg").toPath();
+      ParseVendorConfigurationCache unbounded = new ParseVendorConfigurationCache(
+            dir, "v1", Long.MAX_VALUE);
+      String key1 = unbounded.getKey("configs/r1.cfg",
+            ConfigurationFormat.HOST, "text1");
+      String key2 = unbounded.getKey("configs/r1.cfg",
+            ConfigurationFormat.HOST, "text2");
+      String key3 = unbounded.getKey("configs/r1.cfg",
+            ConfigurationFormat.HOST, "text3");
+      unbounded.put(key1, newResult(file, "r1"));
+      unbounded.put(key2, newResult(file, "r1"));
+      Files.setLastModifiedTime(dir.resolve(key1), FileTime.fromMillis(1000));
+      Files.setLastModifiedTime(dir.resolve(key2), FileTime.fromMillis(2000));
+      long entryBytes = Files.size(dir.resolve(key1));
+      // room for two entries: putting a third evicts the oldest
+      ParseVendorConfigurationCache bounded = new ParseVendorConfigurationCache(
+            dir, "v1", entryBytes * 2);
+      bounded.put(key3, newResult(file, "r1"));
+      assertThat(bounded.get(key1, file, 0, newHistory()), nullValue());
+      assertThat(bounded.get(key2, file, 0, newHistory()), notNullValue());
+      assertThat(bounded.get(key3, file, 0, newHistory()), notNullValue());
+   }
+
+   @Test
+   public void testPartialEntriesAreNotEvicted() throws IOException {
+      Path dir = folder.newFolder("cache").toPath();
+      Path file = folder.newFile("r1.cfg").toPath();
+      // an entry another writer has not moved into place yet, older than and
+      // as large as anything the cache could hold
+      Path partial = Files.write(dir.resolve("other.tmp"), new byte[4096]);
+      Files.setLastModifiedTime(partial, FileTime.fromMillis(1000));
+      ParseVendorConfigurationCache cache = new ParseVendorConfigurationCache(
+            dir, "v1", 4096);
+      String key = cache.getKey("configs/r1.cfg", ConfigurationFormat.HOST,
+            "text");
+      cache.put(key, newResult(file, "r1"));
+      assertThat(Files.exists(partial), is(true));
+      assertThat(cache.get(key, file, 0, newHistory()), notNullValue());
+   }
+
+}
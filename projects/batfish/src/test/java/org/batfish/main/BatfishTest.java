@@ -5,13 +5,26 @@ import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.collection.IsEmptyCollection.empty;
 import static org.junit.Assert.assertThat;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import org.batfish.common.BatfishException;
+import org.batfish.common.BatfishLogger;
+import org.batfish.common.BfConsts;
+import org.batfish.common.util.BatfishObjectMapper;
+import org.batfish.common.util.CommonUtil;
+import org.batfish.config.Settings;
+import org.batfish.datamodel.IpAccessList;
+import org.batfish.datamodel.ReachabilityEngine;
+import org.batfish.datamodel.answers.AnswerElement;
+import org.batfish.datamodel.collections.NamedStructureEquivalenceSets;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
@@ -22,12 +35,90 @@ import org.junit.rules.TemporaryFolder;
  */
 public class BatfishTest {
 
+   /**
+    * Answer of the harness's aclReachability test on the example testrig,
+    * computed by z3
+    */
+   private static final String ACL_REACHABILITY_REF = "../../tests/basic/aclReachability.ref";
+
+   private static final String EXAMPLE_TESTRIG = "../../test_rigs/example";
+
+   private static Batfish newBatfish(Path containerDir, String... commands) {
+      List<String> args = new ArrayList<>();
+      Collections.addAll(args, "-" + BfConsts.ARG_CONTAINER_DIR,
+            containerDir.toString(), "-" + BfConsts.ARG_TESTRIG, "testrig",
+            "-" + BfConsts.ARG_ENVIRONMENT_NAME,
+            BfConsts.RELPATH_DEFAULT_ENVIRONMENT_NAME,
+            "-" + BfConsts.ARG_LOG_LEVEL,
+            BatfishLogger.getLogLevelStr(BatfishLogger.LEVEL_ERROR));
+      for (String command : commands) {
+         args.add("-" + command);
+      }
+      Settings settings = new Settings(args.toArray(new String[] {}));
+      settings.setLogger(new BatfishLogger(settings.getLogLevel(), false));
+      settings.setSequential(true);
+      Batfish.initTestrigSettings(settings);
+      return new Batfish(settings, new HashMap<>(), new HashMap<>(),
+            new HashMap<>(), new HashMap<>(), new HashMap<>());
+   }
+
    @Rule
    public TemporaryFolder folder = new TemporaryFolder();
 
    @Rule
    public ExpectedException thrown = ExpectedException.none();
 
+   @Test
+   public void testBddAclReachabilityMatchesReference() throws IOException {
+      Path containerDir = folder.newFolder("container").toPath();
+      CommonUtil.copyDirectory(Paths.get(EXAMPLE_TESTRIG),
+            containerDir.resolve("testrig")
+                  .resolve(BfConsts.RELPATH_TEST_RIG_DIR));
+      Batfish batfish = newBatfish(containerDir,
+            BfConsts.COMMAND_PARSE_VENDOR_SPECIFIC,
+            BfConsts.COMMAND_PARSE_VENDOR_INDEPENDENT);
+      batfish.run();
+      NamedStructureEquivalenceSets<IpAccessList> aclEqSets = new NamedStructureEquivalenceSets<>(
+            IpAccessList.class.getSimpleName());
+      batfish.loadConfigurations().forEach((hostname, c) -> c
+            .getIpAccessLists().forEach((aclName, acl) -> {
+               if (!aclName.startsWith("~")) {
+                  aclEqSets.add(hostname, aclName, acl);
+               }
+            }));
+      AnswerElement answerElement = batfish.answerAclReachability(".*",
+            aclEqSets, ReachabilityEngine.BDD);
+      BatfishObjectMapper mapper = new BatfishObjectMapper();
+      JsonNode expected = mapper.readTree(new File(ACL_REACHABILITY_REF))
+            .get("answerElements").get(0);
+      assertThat(mapper.readTree(mapper.writeValueAsString(answerElement)),
+            equalTo(expected));
+   }
+
+   @Test
+   public void testDuplicateHostnamesLeaveNoVendorOutput() throws IOException {
+      Path containerDir = folder.newFolder("container").toPath();
+      Path configsDir = containerDir.resolve("testrig")
+            .resolve(BfConsts.RELPATH_TEST_RIG_DIR)
+            .resolve(BfConsts.RELPATH_CONFIGURATIONS_DIR);
+      Files.createDirectories(configsDir);
+      Files.write(configsDir.resolve("a.cfg"),
+            "!\nhostname r1\n!\n".getBytes());
+      Files.write(configsDir.resolve("b.cfg"),
+            "!\nhostname r1\n!\n".getBytes());
+      Batfish batfish = newBatfish(containerDir,
+            BfConsts.COMMAND_PARSE_VENDOR_SPECIFIC);
+      try {
+         batfish.run();
+      }
+      catch (BatfishException e) {
+         assertThat(e.getMessage(), equalTo("Duplicate hostname: r1"));
+      }
+      Path vendorPath = batfish.getSettings().getBaseTestrigSettings()
+            .getSerializeVendorPath();
+      assertThat(Files.exists(vendorPath.resolve("r1")), is(false));
+   }
+
    @Test
    public void throwsExceptionWithSpecificType() {
       Path nonExistPath = folder.getRoot().toPath().resolve("nonExistent");
@@ -0,0 +1,53 @@
+package org.batfish.z3;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import org.batfish.datamodel.IpAccessList;
+import org.batfish.datamodel.IpAccessListLine;
+import org.batfish.datamodel.IpWildcard;
+import org.batfish.datamodel.LineAction;
+import org.junit.Test;
+
+/**
+ * Tests for {@link AclLineAnalyzer}
+ */
+public class AclLineAnalyzerTest {
+
+   private static IpAccessListLine line(LineAction action, String dstIp) {
+      IpAccessListLine line = new IpAccessListLine();
+      line.setAction(action);
+      line.setDstIps(
+            new TreeSet<>(Collections.singleton(new IpWildcard(dstIp))));
+      return line;
+   }
+
+   @Test
+   public void testAnalyze() {
+      IpAccessList acl = new IpAccessList("acl",
+            Arrays.asList(line(LineAction.REJECT, "1.2.0.0/16"),
+                  line(LineAction.ACCEPT, "1.0.0.0/8"),
+                  line(LineAction.REJECT, "1.2.3.0/24"),
+                  line(LineAction.REJECT, "1.3.0.0/16")));
+      Map<AclLine, Boolean> output = new TreeMap<>();
+      new AclLineAnalyzer().analyze("host", acl, output);
+      List<AclLine> lines = new ArrayList<>(output.keySet());
+      assertThat(new ArrayList<>(output.values()),
+            equalTo(Arrays.asList(true, true, false, false)));
+      assertThat(lines.get(1).getEarliestMoreGeneralReachableLine(),
+            nullValue());
+      assertThat(lines.get(2).getEarliestMoreGeneralReachableLine(),
+            equalTo(0));
+      assertThat(lines.get(3).getEarliestMoreGeneralReachableLine(),
+            equalTo(1));
+   }
+
+}
@@ -0,0 +1,195 @@
+package org.batfish.z3;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assume.assumeNoException;
+
+import com.microsoft.z3.Context;
+import com.microsoft.z3.Fixedpoint;
+import com.microsoft.z3.FuncDecl;
+import com.microsoft.z3.Params;
+import com.microsoft.z3.Status;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.batfish.bdd.BddManager;
+import org.batfish.common.BatfishException;
+import org.batfish.datamodel.IpProtocol;
+import org.batfish.z3.node.AndExpr;
+import org.batfish.z3.node.BooleanExpr;
+import org.batfish.z3.node.EqExpr;
+import org.batfish.z3.node.LetExpr;
+import org.batfish.z3.node.LitIntExpr;
+import org.batfish.z3.node.MacroDefExpr;
+import org.batfish.z3.node.MacroRefExpr;
+import org.batfish.z3.node.NumberedQueryExpr;
+import org.batfish.z3.node.QueryExpr;
+import org.batfish.z3.node.RuleExpr;
+import org.batfish.z3.node.Statement;
+import org.batfish.z3.node.VarIntExpr;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+/**
+ * Tests for {@link BddProgram}
+ */
+public class BddProgramTest {
+
+   private static final int[] DST_PORTS = { 22, 80, 443 };
+
+   private static final int[] IP_PROTOCOLS = { IpProtocol.TCP.number(),
+         IpProtocol.UDP.number() };
+
+   private static final int[] SRC_PORTS = { 22, 1024 };
+
+   private static AndExpr and(BooleanExpr... conjuncts) {
+      AndExpr and = new AndExpr();
+      for (BooleanExpr conjunct : conjuncts) {
+         and.addConjunct(conjunct);
+      }
+      return and;
+   }
+
+   private static EqExpr eq(String var, long value) {
+      return new EqExpr(new VarIntExpr(var),
+            new LitIntExpr(value, Synthesizer.PACKET_VAR_SIZES.get(var)));
+   }
+
+   /**
+    * Returns the packet with the given fields, and every other field zero
+    */
+   private static AndExpr packet(int dstPort, int srcPort, int ipProtocol) {
+      AndExpr packet = new AndExpr();
+      for (String var : Synthesizer.PACKET_VARS) {
+         long value = 0;
+         switch (var) {
+         case Synthesizer.DST_PORT_VAR:
+            value = dstPort;
+            break;
+         case Synthesizer.SRC_PORT_VAR:
+            value = srcPort;
+            break;
+         case Synthesizer.IP_PROTOCOL_VAR:
+            value = ipProtocol;
+            break;
+         default:
+            break;
+         }
+         packet.addConjunct(eq(var, value));
+      }
+      return packet;
+   }
+
+   /**
+    * Returns a recursive program deriving relation {@code a}, followed by one
+    * rule per packet in the cross product of the test field values deriving
+    * a numbered query relation if that packet is in {@code a}. The fields
+    * tested by the program only take those values, so the answers for the
+    * packets determine {@code a}.
+    */
+   private static List<Statement> program() {
+      NumberedQueryExpr a = new NumberedQueryExpr(1000);
+      NumberedQueryExpr b = new NumberedQueryExpr(1001);
+      List<Statement> statements = new ArrayList<>();
+      BooleanExpr web = new LetExpr(
+            Collections.singletonList(new MacroDefExpr("web",
+                  eq(Synthesizer.DST_PORT_VAR, 80))),
+            and(new MacroRefExpr("web"),
+                  eq(Synthesizer.IP_PROTOCOL_VAR, IpProtocol.TCP.number())));
+      statements.add(new RuleExpr(web, a));
+      statements.add(new RuleExpr(a, b));
+      statements.add(new RuleExpr(eq(Synthesizer.SRC_PORT_VAR, 22), b));
+      statements.add(new RuleExpr(
+            and(b, eq(Synthesizer.DST_PORT_VAR, 443)), a));
+      int queryNum = 0;
+      for (int dstPort : DST_PORTS) {
+         for (int srcPort : SRC_PORTS) {
+            for (int ipProtocol : IP_PROTOCOLS) {
+               statements.add(new RuleExpr(
+                     and(a, packet(dstPort, srcPort, ipProtocol)),
+                     new NumberedQueryExpr(queryNum++)));
+            }
+         }
+      }
+      return statements;
+   }
+
+   private static List<Boolean> reachableBdd() {
+      BddProgram program = new BddProgram();
+      program.solve(program());
+      List<Boolean> reachable = new ArrayList<>();
+      for (int queryNum = 0; queryNum < numQueries(); queryNum++) {
+         String relation = new NumberedQueryExpr(queryNum).getRelations()
+               .iterator().next();
+         reachable.add(program.getRelation(relation) != BddManager.FALSE);
+      }
+      return reachable;
+   }
+
+   private static int numQueries() {
+      return DST_PORTS.length * SRC_PORTS.length * IP_PROTOCOLS.length;
+   }
+
+   @Rule
+   public ExpectedException thrown = ExpectedException.none();
+
+   @Test
+   public void testLetExpandsMacros() {
+      List<Boolean> expected = new ArrayList<>();
+      for (int dstPort : DST_PORTS) {
+         for (int srcPort : SRC_PORTS) {
+            for (int ipProtocol : IP_PROTOCOLS) {
+               expected.add((dstPort == 80
+                     && ipProtocol == IpProtocol.TCP.number())
+                     || (dstPort == 443 && srcPort == 22));
+            }
+         }
+      }
+      assertThat(reachableBdd(), equalTo(expected));
+   }
+
+   @Test
+   public void testMatchesZ3() {
+      Context ctx;
+      try {
+         ctx = new Context();
+      }
+      catch (LinkageError e) {
+         assumeNoException("z3 native library is not available", e);
+         return;
+      }
+      List<Boolean> reachableZ3 = new ArrayList<>();
+      try {
+         NodProgram program = Synthesizer.synthesizeNodProgram(ctx,
+               program());
+         Params p = ctx.mkParams();
+         p.add("fixedpoint.engine", "datalog");
+         p.add("fixedpoint.datalog.default_relation", "doc");
+         Fixedpoint fix = ctx.mkFixedpoint();
+         fix.setParameters(p);
+         for (FuncDecl relationDeclaration : program.getRelationDeclarations()
+               .values()) {
+            fix.registerRelation(relationDeclaration);
+         }
+         program.getRules().forEach(rule -> fix.addRule(rule, null));
+         for (int queryNum = 0; queryNum < numQueries(); queryNum++) {
+            QueryExpr query = new QueryExpr(new NumberedQueryExpr(queryNum));
+            reachableZ3.add(fix.query(
+                  query.toBoolExpr(program)) == Status.SATISFIABLE);
+         }
+      }
+      finally {
+         ctx.close();
+      }
+      assertThat(reachableBdd(), equalTo(reachableZ3));
+   }
+
+   @Test
+   public void testUnboundMacro() {
+      thrown.expect(BatfishException.class);
+      thrown.expectMessage("web");
+      new MacroRefExpr("web").toBdd(new BddProgram());
+   }
+
+}
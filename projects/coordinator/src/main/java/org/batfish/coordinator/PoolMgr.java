@@ -29,6 +29,9 @@ public class PoolMgr {
       }
    }
 
+   // shared by all status requests to workers so connections can be reused
+   private Client _client;
+
    private final BatfishLogger _logger;
 
    private final Settings _settings;
@@ -71,6 +74,21 @@ public class PoolMgr {
       return workers;
    }
 
+   private synchronized Client getClient() {
+      if (_client == null) {
+         _client = CommonUtil
+               .createHttpClientBuilder(
+                     _settings.getSslPoolDisable(),
+                     _settings.getSslPoolTrustAllCerts(),
+                     _settings.getSslPoolKeystoreFile(),
+                     _settings.getSslPoolKeystorePassword(),
+                     _settings.getSslPoolTruststoreFile(),
+                     _settings.getSslPoolTruststorePassword())
+               .build();
+      }
+      return _client;
+   }
+
    public synchronized HashMap<String, String> getPoolStatus() {
       HashMap<String, String> copy = new HashMap<>();
 
@@ -83,17 +101,24 @@ public class PoolMgr {
 
    public synchronized String getWorkerForAssignment() {
 
+      // prefer the idle worker with the most free task slots
+      String worker = null;
+      int maxFreeSlots = 0;
       for (Entry<String, WorkerStatus> workerEntry : workerPool.entrySet()) {
-         if (workerEntry.getValue()
-               .getStatus() == WorkerStatus.StatusCode.IDLE) {
-            updateWorkerStatus(
-                  workerEntry.getKey(),
-                  WorkerStatus.StatusCode.TRYINGTOASSIGN);
-            return workerEntry.getKey();
+         WorkerStatus status = workerEntry.getValue();
+         if (status.getStatus() == WorkerStatus.StatusCode.IDLE
+               && (worker == null || status.getFreeSlots() > maxFreeSlots)) {
+            worker = workerEntry.getKey();
+            maxFreeSlots = status.getFreeSlots();
          }
       }
 
-      return null;
+      if (worker != null) {
+         updateWorkerStatus(worker, WorkerStatus.StatusCode.TRYINGTOASSIGN,
+               maxFreeSlots);
+      }
+
+      return worker;
    }
 
    public WorkerStatus getWorkerStatus(String worker) {
@@ -105,11 +130,20 @@ public class PoolMgr {
       }
    }
 
-   public void markAssignmentResult(
+   public synchronized void markAssignmentResult(
          String worker,
          boolean assignmentSuccessful) {
-      updateWorkerStatus(worker, assignmentSuccessful
-            ? WorkerStatus.StatusCode.BUSY : WorkerStatus.StatusCode.IDLE);
+      WorkerStatus status = getWorkerStatus(worker);
+      if (status == null) {
+         return;
+      }
+      int freeSlots = status.getFreeSlots();
+      if (assignmentSuccessful) {
+         freeSlots = Math.max(0, freeSlots - 1);
+      }
+      // until the next refresh, assume the worker has one slot fewer
+      updateWorkerStatus(worker, freeSlots > 0 ? WorkerStatus.StatusCode.IDLE
+            : WorkerStatus.StatusCode.BUSY, freeSlots);
    }
 
    public void refreshWorkerStatus() {
@@ -125,16 +159,7 @@ public class PoolMgr {
       // +"\n");
 
       try {
-         // Client client = ClientBuilder.newClient();
-         Client client = CommonUtil
-               .createHttpClientBuilder(
-                     _settings.getSslPoolDisable(),
-                     _settings.getSslPoolTrustAllCerts(),
-                     _settings.getSslPoolKeystoreFile(),
-                     _settings.getSslPoolKeystorePassword(),
-                     _settings.getSslPoolTruststoreFile(),
-                     _settings.getSslPoolTruststorePassword())
-               .build();
+         Client client = getClient();
          String protocol = _settings.getSslPoolDisable() ? "http" : "https";
          WebTarget webTarget = client
                .target(String.format("%s://%s%s/%s", protocol, worker,
@@ -175,12 +200,18 @@ public class PoolMgr {
 
             boolean status = jObj.getBoolean("idle");
 
+            // workers that predate task slots run one task at a time
+            int freeSlots = jObj.has("freeslots") ? jObj.getInt("freeslots")
+                  : status ? 1 : 0;
+
             // update the status, except leave the ones with TRYINGTOASSIGN
             // alone
             if (getWorkerStatus(worker)
                   .getStatus() != WorkerStatus.StatusCode.TRYINGTOASSIGN) {
-               updateWorkerStatus(worker, status ? WorkerStatus.StatusCode.IDLE
-                     : WorkerStatus.StatusCode.BUSY);
+               updateWorkerStatus(worker,
+                     freeSlots > 0 ? WorkerStatus.StatusCode.IDLE
+                           : WorkerStatus.StatusCode.BUSY,
+                     freeSlots);
             }
          }
       }
@@ -212,4 +243,13 @@ public class PoolMgr {
          workerPool.get(worker).UpdateStatus(statusCode);
       }
    }
+
+   private synchronized void updateWorkerStatus(
+         String worker,
+         WorkerStatus.StatusCode statusCode,
+         int freeSlots) {
+      if (workerPool.containsKey(worker)) {
+         workerPool.get(worker).UpdateStatus(statusCode, freeSlots);
+      }
+   }
 }
@@ -4,7 +4,11 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.UUID;
+import javax.ws.rs.Consumes;
+import javax.ws.rs.FormParam;
 import javax.ws.rs.GET;
+import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
 import javax.ws.rs.core.Context;
@@ -137,4 +141,32 @@ public class PoolMgrService {
 
       return new JSONArray(Arrays.asList(CoordConsts.SVC_KEY_SUCCESS, "done"));
    }
+
+   /**
+    * Called by workers when the state of a task changes, so that it is checked
+    * right away rather than at the next periodic check
+    *
+    * @param workId
+    *           The id of the work whose task changed state
+    * @return
+    */
+   @POST
+   @Path(CoordConsts.SVC_RSC_POOL_UPDATE_TASK)
+   @Consumes(MediaType.APPLICATION_FORM_URLENCODED)
+   @Produces(MediaType.APPLICATION_JSON)
+   public JSONArray updateTask(
+         @FormParam(CoordConsts.SVC_KEY_WORKID) String workId) {
+      try {
+         _logger.info("PMS:updateTask " + workId + "\n");
+         Main.getWorkMgr().scheduleTaskCheck(UUID.fromString(workId));
+      }
+      catch (Exception e) {
+         String stackTrace = ExceptionUtils.getFullStackTrace(e);
+         _logger.error("PMS:updateTask exception: " + stackTrace);
+         return new JSONArray(
+               Arrays.asList(CoordConsts.SVC_KEY_FAILURE, e.getMessage()));
+      }
+
+      return new JSONArray(Arrays.asList(CoordConsts.SVC_KEY_SUCCESS, "done"));
+   }
 }
@@ -13,11 +13,11 @@ import java.util.TreeMap;
 import java.util.TreeSet;
 import java.util.UUID;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import javax.ws.rs.ProcessingException;
 import javax.ws.rs.client.Client;
-import javax.ws.rs.client.ClientBuilder;
 import javax.ws.rs.client.WebTarget;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
@@ -74,40 +74,67 @@ public class WorkMgr {
       return envFilenames;
    }
 
+   /**
+    * Returns whether {@code name} is taken by a directory the container keeps
+    * alongside its testrigs, and so cannot name a testrig
+    */
+   private static boolean isReservedTestrigName(String name) {
+      return name.equals(BfConsts.RELPATH_CONVERSION_CACHE_DIR)
+            || name.equals(BfConsts.RELPATH_PARSE_CACHE_DIR);
+   }
+
+   // runs periodic and pushed task checks and assignments one at a time
+   private final ScheduledExecutorService _executor;
+
    private final BatfishLogger _logger;
 
    private final Settings _settings;
 
+   // shared by all requests to workers so connections can be reused
+   private Client _workerClient;
+
    private WorkQueueMgr _workQueueMgr;
 
    public WorkMgr(Settings settings, BatfishLogger logger) {
+      this(settings, logger, new WorkQueueMgr());
+   }
+
+   WorkMgr(
+         Settings settings, BatfishLogger logger,
+         WorkQueueMgr workQueueMgr) {
       _settings = settings;
       _logger = logger;
-      _workQueueMgr = new WorkQueueMgr();
+      _workQueueMgr = workQueueMgr;
+      _executor = Executors.newScheduledThreadPool(1);
    }
 
    private void assignWork() {
 
       try {
-         QueuedWork work = _workQueueMgr.getWorkForAssignment();
+         // keep assigning while there is work and a worker with a free slot,
+         // stopping at the first failed assignment
+         boolean assigned = true;
+         while (assigned) {
+            QueuedWork work = _workQueueMgr.getWorkForAssignment();
+
+            // get out if no work was found
+            if (work == null) {
+               // _logger.info("WM:AssignWork: No unassigned work\n");
+               return;
+            }
 
-         // get out if no work was found
-         if (work == null) {
-            // _logger.info("WM:AssignWork: No unassigned work\n");
-            return;
-         }
+            String idleWorker = Main.getPoolMgr().getWorkerForAssignment();
 
-         String idleWorker = Main.getPoolMgr().getWorkerForAssignment();
+            // get out if no idle worker was found, but release the work first
+            if (idleWorker == null) {
+               _workQueueMgr.markAssignmentFailure(work);
 
-         // get out if no idle worker was found, but release the work first
-         if (idleWorker == null) {
-            _workQueueMgr.markAssignmentFailure(work);
+               _logger.info("WM:AssignWork: No idle worker\n");
+               return;
+            }
 
-            _logger.info("WM:AssignWork: No idle worker\n");
-            return;
+            assigned = assignWork(work, idleWorker);
          }
-
-         assignWork(work, idleWorker);
       }
       catch (Exception e) {
          String stackTrace = ExceptionUtils.getFullStackTrace(e);
@@ -115,7 +142,7 @@ public class WorkMgr {
       }
    }
 
-   private void assignWork(QueuedWork work, String worker) {
+   private boolean assignWork(QueuedWork work, String worker) {
 
       _logger.info("WM:AssignWork: Trying to assign " + work + " to " + worker
             + " \n");
@@ -147,16 +174,7 @@ public class WorkMgr {
                      work.getId().toString() + BfConsts.SUFFIX_ANSWER_JSON_FILE)
                      .toString());
 
-         // Client client = ClientBuilder.newClient();
-         Client client = CommonUtil
-               .createHttpClientBuilder(
-                     _settings.getSslWorkDisable(),
-                     _settings.getSslWorkTrustAllCerts(),
-                     _settings.getSslWorkKeystoreFile(),
-                     _settings.getSslWorkKeystorePassword(),
-                     _settings.getSslWorkTruststoreFile(),
-                     _settings.getSslWorkTruststorePassword())
-               .build();
+         Client client = getWorkerClient();
          String protocol = _settings.getSslWorkDisable() ? "http" : "https";
          WebTarget webTarget = client
                .target(String.format("%s://%s%s/%s", protocol, worker,
@@ -211,6 +229,7 @@ public class WorkMgr {
       // mark the assignment results for both work and worker
       if (assignmentError) {
          _workQueueMgr.markAssignmentError(work);
+         _workQueueMgr.runCompletionCallbacks(work);
       }
       else if (assigned) {
          _workQueueMgr.markAssignmentSuccess(work, worker);
@@ -220,6 +239,7 @@ public class WorkMgr {
       }
 
       Main.getPoolMgr().markAssignmentResult(worker, assigned);
+      return assigned;
    }
 
    private void checkTask() {
@@ -250,7 +270,7 @@ public class WorkMgr {
       task.setStatus(TaskStatus.UnreachableOrBadResponse);
 
       try {
-         Client client = ClientBuilder.newClient();
+         Client client = getWorkerClient();
          String protocol = _settings.getSslWorkDisable() ? "http" : "https";
          WebTarget webTarget = client
                .target(String.format("%s://%s%s/%s", protocol, worker,
@@ -300,6 +320,7 @@ public class WorkMgr {
       }
 
       _workQueueMgr.processTaskCheckResult(work, task);
+      _workQueueMgr.runCompletionCallbacks(work);
 
       // if the task ended, send a hint to the pool manager to look up worker
       // status
@@ -741,6 +762,21 @@ public class WorkMgr {
       return _workQueueMgr.getWork(workItemId);
    }
 
+   private synchronized Client getWorkerClient() {
+      if (_workerClient == null) {
+         _workerClient = CommonUtil
+               .createHttpClientBuilder(
+                     _settings.getSslWorkDisable(),
+                     _settings.getSslWorkTrustAllCerts(),
+                     _settings.getSslWorkKeystoreFile(),
+                     _settings.getSslWorkKeystorePassword(),
+                     _settings.getSslWorkTruststoreFile(),
+                     _settings.getSslWorkTruststorePassword())
+               .build();
+      }
+      return _workerClient;
+   }
+
    public String initContainer(String containerName, String containerPrefix) {
       if (containerName == null || containerName.equals("")) {
          containerName = containerPrefix + "_" + UUID.randomUUID();
@@ -849,6 +885,7 @@ public class WorkMgr {
       SortedSet<String> testrigs = new TreeSet<>(
             CommonUtil.getSubdirectories(testrigsDir).stream()
                   .map(dir -> dir.getFileName().toString())
+                  .filter(name -> !isReservedTestrigName(name))
                   .collect(Collectors.toSet()));
       return testrigs;
    }
@@ -909,6 +946,37 @@ public class WorkMgr {
       return success;
    }
 
+   public void removeCompletionCallback(QueuedWork work, Runnable callback) {
+      _workQueueMgr.removeCompletionCallback(work, callback);
+   }
+
+   /**
+    * Checks the task of the given work without waiting for the next period,
+    * e.g., because its worker reported that the task ended, and then assigns
+    * work to any task slot that freed up
+    */
+   public void scheduleTaskCheck(UUID workId) {
+      _executor.execute(() -> {
+         try {
+            QueuedWork work = _workQueueMgr.getWorkForChecking(workId);
+            if (work != null) {
+               String assignedWorker = work.getAssignedWorker();
+               if (assignedWorker == null) {
+                  _workQueueMgr.makeWorkUnassigned(work);
+               }
+               else {
+                  checkTask(work, assignedWorker);
+               }
+            }
+         }
+         catch (Exception e) {
+            _logger.error("Got exception in scheduleTaskCheck: "
+                  + ExceptionUtils.getFullStackTrace(e));
+         }
+         assignWork();
+      });
+   }
+
    public void startWorkManager() {
       // for some bizarre reason, this ordering of scheduling checktask before
       // assignwork, is important
@@ -920,7 +988,7 @@ public class WorkMgr {
       // Main.getSettings().getPeriodCheckWorkMs(),
       // TimeUnit.MILLISECONDS);
 
-      Executors.newScheduledThreadPool(1).scheduleAtFixedRate(
+      _executor.scheduleAtFixedRate(
             new AssignWorkTask(), 0, Main.getSettings().getPeriodAssignWorkMs(),
             TimeUnit.MILLISECONDS);
 
@@ -1036,6 +1104,10 @@ public class WorkMgr {
    public void uploadTestrig(
          String containerName, String testrigName,
          InputStream fileStream) {
+      if (isReservedTestrigName(testrigName)) {
+         throw new BatfishException(
+               "Testrig name: '" + testrigName + "' is reserved");
+      }
       Path containerDir = getdirContainer(containerName);
       Path testrigDir = containerDir
             .resolve(Paths.get(BfConsts.RELPATH_TESTRIGS_DIR, testrigName));
@@ -1091,4 +1163,12 @@ public class WorkMgr {
       CommonUtil.delete(zipFile);
    }
 
+   /**
+    * Runs {@code callback} once the given work completes, right away if it
+    * already has
+    */
+   public void whenComplete(QueuedWork work, Runnable callback) {
+      _workQueueMgr.whenComplete(work, callback);
+   }
+
 }
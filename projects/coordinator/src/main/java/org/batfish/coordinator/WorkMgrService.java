@@ -8,12 +8,15 @@ import java.util.Arrays;
 import java.util.Map;
 import java.util.SortedSet;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import java.util.zip.ZipException;
 import javax.ws.rs.Consumes;
 import javax.ws.rs.GET;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.Suspended;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import org.apache.commons.io.FileExistsException;
@@ -39,6 +42,8 @@ import org.glassfish.jersey.media.multipart.FormDataParam;
 @Path(CoordConsts.SVC_CFG_WORK_MGR)
 public class WorkMgrService {
 
+   private static final long MAX_WORK_STATUS_WAIT_MS = 30 * 1000;
+
    BatfishLogger _logger = Main.getLogger();
    Settings _settings = Main.getSettings();
 
@@ -661,15 +666,21 @@ public class WorkMgrService {
     *
     * @param apiKey
     * @param workId
-    * @return
+    * @param waitMs
+    *           (optional) How long to wait for the work to complete before
+    *           returning its status, at most 30 seconds. No request thread is
+    *           held meanwhile. Without it, or if it is not positive, the
+    *           status is returned immediately.
     */
    @POST
    @Path(CoordConsts.SVC_RSC_GET_WORKSTATUS)
    @Produces(MediaType.APPLICATION_JSON)
-   public JSONArray getWorkStatus(
+   public void getWorkStatus(
+         @Suspended AsyncResponse asyncResponse,
          @FormDataParam(CoordConsts.SVC_KEY_API_KEY) String apiKey,
          @FormDataParam(CoordConsts.SVC_KEY_VERSION) String clientVersion,
-         @FormDataParam(CoordConsts.SVC_KEY_WORKID) String workId) {
+         @FormDataParam(CoordConsts.SVC_KEY_WORKID) String workId,
+         @FormDataParam(CoordConsts.SVC_KEY_WAIT_MS) String waitMs) {
       try {
          _logger.info("WMS:getWorkStatus " + workId + "\n");
 
@@ -683,15 +694,53 @@ public class WorkMgrService {
          QueuedWork work = Main.getWorkMgr().getWork(UUID.fromString(workId));
 
          if (work == null) {
-            return new JSONArray(Arrays.asList(
+            asyncResponse.resume(new JSONArray(Arrays.asList(
                   CoordConsts.SVC_KEY_FAILURE,
-                  "work with the specified id does not exist or is not inaccessible"));
+                  "work with the specified id does not exist or is not inaccessible")));
+            return;
          }
 
          checkContainerAccessibility(
                apiKey,
                work.getWorkItem().getContainerName());
 
+         long waitMillis = waitMs == null || waitMs.equals("") ? 0
+               : Long.parseLong(waitMs);
+         if (waitMillis <= 0) {
+            // a zero timeout would mean waiting forever
+            asyncResponse.resume(getWorkStatusResponse(work));
+            return;
+         }
+
+         // answer when the work completes or the wait ends, whichever is
+         // first; resuming an already resumed response has no effect
+         Runnable respond = () -> asyncResponse
+               .resume(getWorkStatusResponse(work));
+         asyncResponse.setTimeoutHandler(response -> {
+            Main.getWorkMgr().removeCompletionCallback(work, respond);
+            respond.run();
+         });
+         asyncResponse.setTimeout(
+               Math.min(waitMillis, MAX_WORK_STATUS_WAIT_MS),
+               TimeUnit.MILLISECONDS);
+         Main.getWorkMgr().whenComplete(work, respond);
+      }
+      catch (FileExistsException | FileNotFoundException
+            | IllegalArgumentException | AccessControlException e) {
+         _logger.error("WMS:getWorkStatus exception: " + e.getMessage() + "\n");
+         asyncResponse.resume(new JSONArray(
+               Arrays.asList(CoordConsts.SVC_KEY_FAILURE, e.getMessage())));
+      }
+      catch (Exception e) {
+         String stackTrace = ExceptionUtils.getFullStackTrace(e);
+         _logger.error("WMS:getWorkStatus exception: " + stackTrace);
+         asyncResponse.resume(new JSONArray(
+               Arrays.asList(CoordConsts.SVC_KEY_FAILURE, e.getMessage())));
+      }
+   }
+
+   private JSONArray getWorkStatusResponse(QueuedWork work) {
+      try {
          BatfishObjectMapper mapper = new BatfishObjectMapper();
          String taskStr = mapper
                .writeValueAsString(work.getLastTaskCheckResult());
@@ -704,12 +753,6 @@ public class WorkMgrService {
                            work.getStatus().toString())
                      .put(CoordConsts.SVC_KEY_TASKSTATUS, taskStr))));
       }
-      catch (FileExistsException | FileNotFoundException
-            | IllegalArgumentException | AccessControlException e) {
-         _logger.error("WMS:getWorkStatus exception: " + e.getMessage() + "\n");
-         return new JSONArray(
-               Arrays.asList(CoordConsts.SVC_KEY_FAILURE, e.getMessage()));
-      }
       catch (Exception e) {
          String stackTrace = ExceptionUtils.getFullStackTrace(e);
          _logger.error("WMS:getWorkStatus exception: " + stackTrace);
@@ -1,5 +1,9 @@
 package org.batfish.coordinator;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import org.apache.commons.lang.exception.ExceptionUtils;
 import org.batfish.common.BatfishLogger;
@@ -23,11 +27,16 @@ public class WorkQueueMgr {
    }
 
    BatfishLogger _logger = Main.getLogger();
+
+   // callbacks waiting for incomplete work to complete, by work id
+   private final Map<UUID, List<Runnable>> _completionCallbacks;
+
    private WorkQueue _queueCompletedWork;
 
    private WorkQueue _queueIncompleteWork;
 
    public WorkQueueMgr() {
+      _completionCallbacks = new HashMap<>();
       if (Main.getSettings().getQueueType() == WorkQueue.Type.azure) {
          String storageConnectionString = String.format(
                "DefaultEndpointsProtocol=%s;AccountName=%s;AccountKey=%s",
@@ -110,7 +119,7 @@ public class WorkQueueMgr {
       return null;
    }
 
-   public QueuedWork getWorkForChecking() {
+   public synchronized QueuedWork getWorkForChecking() {
       for (QueuedWork work : _queueIncompleteWork) {
          if (work.getStatus() == WorkStatusCode.ASSIGNED) {
             work.setStatus(WorkStatusCode.CHECKINGSTATUS);
@@ -120,6 +129,26 @@ public class WorkQueueMgr {
       return null;
    }
 
+   /**
+    * Claims the work with the given id for checking, or returns null if it is
+    * not currently assigned (e.g., because it is already being checked)
+    */
+   public synchronized QueuedWork getWorkForChecking(UUID workId) {
+      QueuedWork work = getWork(workId, QueueType.INCOMPLETE);
+      if (work != null && work.getStatus() == WorkStatusCode.ASSIGNED) {
+         work.setStatus(WorkStatusCode.CHECKINGSTATUS);
+         return work;
+      }
+      return null;
+   }
+
+   private static boolean isDone(QueuedWork work) {
+      WorkStatusCode status = work.getStatus();
+      return status == WorkStatusCode.ASSIGNMENTERROR
+            || status == WorkStatusCode.TERMINATEDABNORMALLY
+            || status == WorkStatusCode.TERMINATEDNORMALLY;
+   }
+
    public synchronized void makeWorkUnassigned(QueuedWork work) {
       work.setStatus(WorkStatusCode.UNASSIGNED);
    }
@@ -209,4 +238,49 @@ public class WorkQueueMgr {
 
       return _queueIncompleteWork.enque(work);
    }
+
+   public synchronized void removeCompletionCallback(
+         QueuedWork work,
+         Runnable callback) {
+      List<Runnable> callbacks = _completionCallbacks.get(work.getId());
+      if (callbacks != null) {
+         callbacks.remove(callback);
+         if (callbacks.isEmpty()) {
+            _completionCallbacks.remove(work.getId());
+         }
+      }
+   }
+
+   /**
+    * Runs the callbacks registered for the work if it has completed. Called
+    * after its status changes, outside the lock so that callbacks may block.
+    */
+   public void runCompletionCallbacks(QueuedWork work) {
+      List<Runnable> callbacks;
+      synchronized (this) {
+         if (!isDone(work)) {
+            return;
+         }
+         callbacks = _completionCallbacks.remove(work.getId());
+      }
+      if (callbacks != null) {
+         callbacks.forEach(Runnable::run);
+      }
+   }
+
+   /**
+    * Runs {@code callback} once the work completes or fails to be assigned,
+    * right away if it already has
+    */
+   public void whenComplete(QueuedWork work, Runnable callback) {
+      synchronized (this) {
+         if (!isDone(work)) {
+            _completionCallbacks
+                  .computeIfAbsent(work.getId(), id -> new ArrayList<>())
+                  .add(callback);
+            return;
+         }
+      }
+      callback.run();
+   }
 }
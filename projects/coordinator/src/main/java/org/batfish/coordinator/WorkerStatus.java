@@ -12,6 +12,7 @@ public class WorkerStatus {
       UNREACHABLE
    }
 
+   private int _freeSlots;
    private Date _lastUpdated;
    private StatusCode _statusCode;
 
@@ -20,6 +21,14 @@ public class WorkerStatus {
       _lastUpdated = new Date();
    }
 
+   /**
+    * Returns the number of further tasks the worker last reported it could
+    * start
+    */
+   public int getFreeSlots() {
+      return _freeSlots;
+   }
+
    public Date getLastUpdateTime() {
       return _lastUpdated;
    }
@@ -30,11 +39,17 @@ public class WorkerStatus {
 
    @Override
    public String toString() {
-      return String.format("%s (%s)", _statusCode, _lastUpdated);
+      return String.format("%s [%d free slots] (%s)", _statusCode, _freeSlots,
+            _lastUpdated);
    }
 
    public void UpdateStatus(StatusCode statusCode) {
       _statusCode = statusCode;
       _lastUpdated = new Date();
    }
+
+   public void UpdateStatus(StatusCode statusCode, int freeSlots) {
+      UpdateStatus(statusCode);
+      _freeSlots = freeSlots;
+   }
 }
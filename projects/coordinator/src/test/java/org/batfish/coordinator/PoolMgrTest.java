@@ -0,0 +1,90 @@
+package org.batfish.coordinator;
+
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.junit.Assert.assertThat;
+
+import org.batfish.common.BatfishLogger;
+import org.batfish.coordinator.WorkerStatus.StatusCode;
+import org.batfish.coordinator.config.Settings;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for {@link PoolMgr}
+ */
+public class PoolMgrTest {
+
+   private PoolMgr _poolMgr;
+
+   /**
+    * Adds a worker nothing listens on, waits for the initial background
+    * refresh to find it unreachable, then sets the given status
+    */
+   private void addWorker(String worker, StatusCode statusCode, int freeSlots)
+         throws InterruptedException {
+      _poolMgr.addToPool(worker);
+      long deadline = System.currentTimeMillis() + 10 * 1000;
+      while (_poolMgr.getWorkerStatus(worker).getStatus() == StatusCode.UNKNOWN
+            && System.currentTimeMillis() < deadline) {
+         Thread.sleep(10);
+      }
+      _poolMgr.getWorkerStatus(worker).UpdateStatus(statusCode, freeSlots);
+   }
+
+   @Before
+   public void initPoolMgr() throws Exception {
+      Main.mainInit(new String[] {});
+      _poolMgr = new PoolMgr(new Settings(new String[] {}),
+            new BatfishLogger("debug", false));
+   }
+
+   @Test
+   public void testGetWorkerForAssignmentPrefersMostFreeSlots()
+         throws InterruptedException {
+      addWorker("localhost:1", StatusCode.IDLE, 1);
+      addWorker("localhost:2", StatusCode.IDLE, 3);
+      addWorker("localhost:3", StatusCode.BUSY, 0);
+      addWorker("localhost:4", StatusCode.UNREACHABLE, 5);
+
+      assertThat(_poolMgr.getWorkerForAssignment(), is("localhost:2"));
+      WorkerStatus status = _poolMgr.getWorkerStatus("localhost:2");
+      assertThat(status.getStatus(), is(StatusCode.TRYINGTOASSIGN));
+      assertThat(status.getFreeSlots(), is(3));
+
+      // a worker being assigned to is not offered again
+      assertThat(_poolMgr.getWorkerForAssignment(), is("localhost:1"));
+      assertThat(_poolMgr.getWorkerForAssignment(), nullValue());
+   }
+
+   @Test
+   public void testMarkAssignmentResultFailureKeepsSlots()
+         throws InterruptedException {
+      addWorker("localhost:1", StatusCode.IDLE, 2);
+      _poolMgr.getWorkerForAssignment();
+
+      _poolMgr.markAssignmentResult("localhost:1", false);
+      WorkerStatus status = _poolMgr.getWorkerStatus("localhost:1");
+      assertThat(status.getStatus(), is(StatusCode.IDLE));
+      assertThat(status.getFreeSlots(), is(2));
+   }
+
+   @Test
+   public void testMarkAssignmentResultSuccessUsesSlot()
+         throws InterruptedException {
+      addWorker("localhost:1", StatusCode.IDLE, 2);
+
+      _poolMgr.getWorkerForAssignment();
+      _poolMgr.markAssignmentResult("localhost:1", true);
+      WorkerStatus status = _poolMgr.getWorkerStatus("localhost:1");
+      assertThat(status.getStatus(), is(StatusCode.IDLE));
+      assertThat(status.getFreeSlots(), is(1));
+
+      _poolMgr.getWorkerForAssignment();
+      _poolMgr.markAssignmentResult("localhost:1", true);
+      assertThat(status.getStatus(), is(StatusCode.BUSY));
+      assertThat(status.getFreeSlots(), is(0));
+      assertThat(_poolMgr.getWorkerForAssignment(), nullValue());
+   }
+
+}
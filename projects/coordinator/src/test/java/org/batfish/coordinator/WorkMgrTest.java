@@ -4,14 +4,34 @@ import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.core.IsEqual.equalTo;
 import static org.junit.Assert.assertThat;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Arrays;
 import java.util.SortedSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import javax.ws.rs.GET;
+import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.MediaType;
 import org.batfish.common.BatfishException;
 import org.batfish.common.BatfishLogger;
 import org.batfish.common.BfConsts;
+import org.batfish.common.BfConsts.TaskStatus;
+import org.batfish.common.CoordConsts.WorkStatusCode;
+import org.batfish.common.Task;
+import org.batfish.common.WorkItem;
+import org.batfish.common.util.BatfishObjectMapper;
 import org.batfish.coordinator.config.Settings;
+import org.codehaus.jettison.json.JSONArray;
+import org.glassfish.grizzly.http.server.HttpServer;
+import org.glassfish.jersey.grizzly2.httpserver.GrizzlyHttpServerFactory;
+import org.glassfish.jersey.jettison.JettisonFeature;
+import org.glassfish.jersey.server.ResourceConfig;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -23,6 +43,27 @@ import org.junit.rules.TemporaryFolder;
  */
 public class WorkMgrTest {
 
+   /**
+    * Worker that reports every task as having terminated normally
+    */
+   @javax.ws.rs.Path(BfConsts.SVC_BASE_RSC)
+   public static class FinishedTaskWorker {
+
+      @GET
+      @javax.ws.rs.Path(BfConsts.SVC_GET_TASKSTATUS_RSC)
+      @Produces(MediaType.APPLICATION_JSON)
+      public JSONArray getTaskStatus(
+            @QueryParam(BfConsts.SVC_TASKID_KEY) String taskId)
+            throws Exception {
+         Task task = new Task(null);
+         task.setStatus(TaskStatus.TerminatedNormally);
+         String taskStr = new BatfishObjectMapper().writeValueAsString(task);
+         return new JSONArray(
+               Arrays.asList(BfConsts.SVC_SUCCESS_KEY, taskStr));
+      }
+
+   }
+
    private WorkMgr manager;
 
    @Rule
@@ -87,4 +128,46 @@ public class WorkMgrTest {
       assertThat(questions.size(), is(3));
       assertThat(questions.toString(), equalTo("[access, initinfo, nodes]"));
    }
+
+   @Test
+   public void scheduleTaskCheckCompletesFinishedTask() throws Exception {
+      int port;
+      try (ServerSocket socket = new ServerSocket(0)) {
+         port = socket.getLocalPort();
+      }
+      HttpServer worker = GrizzlyHttpServerFactory.createHttpServer(
+            URI.create("http://localhost:" + port),
+            new ResourceConfig(FinishedTaskWorker.class)
+                  .register(new JettisonFeature()));
+      try {
+         WorkQueueMgr workQueueMgr = new WorkQueueMgr();
+         WorkMgr workMgr = new WorkMgr(new Settings(new String[] {}),
+               new BatfishLogger("debug", false), workQueueMgr);
+         QueuedWork work = new QueuedWork(
+               new WorkItem("container", "testrig"));
+         workQueueMgr.queueUnassignedWork(work);
+         workQueueMgr.markAssignmentSuccess(work, "localhost:" + port);
+
+         CountDownLatch completed = new CountDownLatch(1);
+         workMgr.whenComplete(work, completed::countDown);
+         workMgr.scheduleTaskCheck(work.getId());
+
+         assertThat(completed.await(10, TimeUnit.SECONDS), is(true));
+         assertThat(work.getStatus(),
+               equalTo(WorkStatusCode.TERMINATEDNORMALLY));
+      }
+      finally {
+         worker.shutdownNow();
+      }
+   }
+
+   @Test
+   public void uploadTestrigWithReservedName() throws IOException {
+      String containerPath = folder.newFolder("container").getPath();
+      thrown.expect(BatfishException.class);
+      thrown.expectMessage(equalTo("Testrig name: '"
+            + BfConsts.RELPATH_PARSE_CACHE_DIR + "' is reserved"));
+      manager.uploadTestrig(containerPath, BfConsts.RELPATH_PARSE_CACHE_DIR,
+            new ByteArrayInputStream(new byte[0]));
+   }
 }
@@ -0,0 +1,80 @@
+package org.batfish.coordinator;
+
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import org.batfish.common.BfConsts.TaskStatus;
+import org.batfish.common.CoordConsts.WorkStatusCode;
+import org.batfish.common.Task;
+import org.batfish.common.WorkItem;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for {@link WorkQueueMgr}
+ */
+public class WorkQueueMgrTest {
+
+   private static Task task(TaskStatus status) {
+      Task task = new Task(null);
+      task.setStatus(status);
+      return task;
+   }
+
+   private WorkQueueMgr _manager;
+
+   private QueuedWork _work;
+
+   @Before
+   public void initManager() throws Exception {
+      Main.mainInit(new String[] {});
+      _manager = new WorkQueueMgr();
+      _work = new QueuedWork(new WorkItem("container", "testrig"));
+      _manager.queueUnassignedWork(_work);
+   }
+
+   @Test
+   public void testGetWorkForCheckingClaimsAssignedWorkOnce() {
+      assertThat(_manager.getWorkForChecking(_work.getId()), nullValue());
+      _manager.markAssignmentSuccess(_work, "worker:9999");
+      assertThat(_manager.getWorkForChecking(_work.getId()), is(_work));
+      assertThat(_work.getStatus(), is(WorkStatusCode.CHECKINGSTATUS));
+      assertThat(_manager.getWorkForChecking(_work.getId()), nullValue());
+      assertThat(_manager.getWorkForChecking(), nullValue());
+   }
+
+   @Test
+   public void testRemovedCompletionCallbackDoesNotRun() {
+      AtomicInteger runs = new AtomicInteger();
+      Runnable callback = runs::incrementAndGet;
+      _manager.whenComplete(_work, callback);
+      _manager.removeCompletionCallback(_work, callback);
+      _manager.markAssignmentError(_work);
+      _manager.runCompletionCallbacks(_work);
+      assertThat(runs.get(), is(0));
+   }
+
+   @Test
+   public void testWhenCompleteRunsOnceWorkCompletes() {
+      AtomicInteger runs = new AtomicInteger();
+      _manager.whenComplete(_work, runs::incrementAndGet);
+      _manager.markAssignmentSuccess(_work, "worker:9999");
+
+      _manager.processTaskCheckResult(_work, task(TaskStatus.InProgress));
+      _manager.runCompletionCallbacks(_work);
+      assertThat(runs.get(), is(0));
+
+      _manager.processTaskCheckResult(_work,
+            task(TaskStatus.TerminatedNormally));
+      _manager.runCompletionCallbacks(_work);
+      _manager.runCompletionCallbacks(_work);
+      assertThat(runs.get(), is(1));
+
+      // callbacks for work that already completed run right away
+      _manager.whenComplete(_work, runs::incrementAndGet);
+      assertThat(runs.get(), is(2));
+   }
+
+}
@@ -6,6 +6,7 @@ import java.util.TreeSet;
 import org.batfish.common.Answerer;
 import org.batfish.common.plugin.IBatfish;
 import org.batfish.datamodel.IpAccessList;
+import org.batfish.datamodel.ReachabilityEngine;
 import org.batfish.datamodel.answers.AnswerElement;
 import org.batfish.datamodel.collections.NamedStructureEquivalenceSets;
 import org.batfish.datamodel.questions.Question;
@@ -38,7 +39,9 @@ public class AclReachabilityQuestionPlugin extends QuestionPlugin {
 
          return _batfish.answerAclReachability(
                question.getAclNameRegex(),
-               aclEqSets);
+               aclEqSets,
+               question.getEngine() == null ? ReachabilityEngine.Z3
+                     : question.getEngine());
       }
 
    }
@@ -57,6 +60,9 @@ public class AclReachabilityQuestionPlugin extends QuestionPlugin {
     *           Regular expression for names of the ACLs to analyze. Default
     *           value is '.*' (i.e., all ACLs).
     *
+    * @param engine
+    *           Solver to use, either 'z3' or 'bdd'. Default value is 'z3'.
+    *
     * @param nodeRegex
     *           Regular expression for names of nodes to include. Default value
     *           is '.*' (all nodes).
@@ -68,10 +74,14 @@ public class AclReachabilityQuestionPlugin extends QuestionPlugin {
 
       private static final String ACL_NAME_REGEX_VAR = "aclNameRegex";
 
+      private static final String ENGINE_VAR = "engine";
+
       private static final String NODE_REGEX_VAR = "nodeRegex";
 
       private String _aclNameRegex;
 
+      private ReachabilityEngine _engine;
+
       private String _nodeRegex;
 
       public AclReachabilityQuestion() {
@@ -89,6 +99,14 @@ public class AclReachabilityQuestionPlugin extends QuestionPlugin {
          return false;
       }
 
+      /**
+       * Solver used for the query; z3 when unset
+       */
+      @JsonProperty(ENGINE_VAR)
+      public ReachabilityEngine getEngine() {
+         return _engine;
+      }
+
       @Override
       public String getName() {
          return "aclreachability";
@@ -117,6 +135,11 @@ public class AclReachabilityQuestionPlugin extends QuestionPlugin {
          _aclNameRegex = regex;
       }
 
+      @JsonProperty(ENGINE_VAR)
+      public void setEngine(ReachabilityEngine engine) {
+         _engine = engine;
+      }
+
       @JsonProperty(NODE_REGEX_VAR)
       public void setNodeRegex(String regex) {
          _nodeRegex = regex;
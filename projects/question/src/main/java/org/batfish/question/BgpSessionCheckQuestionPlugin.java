@@ -1,7 +1,6 @@
 package org.batfish.question;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -556,7 +555,10 @@ public class BgpSessionCheckQuestionPlugin extends QuestionPlugin {
          BgpSessionCheckAnswerElement answerElement = new BgpSessionCheckAnswerElement();
          Set<Ip> allInterfaceIps = new HashSet<>();
          Set<Ip> loopbackIps = new HashSet<>();
-         Map<Ip, Set<String>> ipOwners = new HashMap<>();
+         // shared with the other users of the remote neighbors, so that
+         // they are linked once rather than for each question
+         Map<Ip, Set<String>> ipOwners = _batfish
+               .computeIpOwners(configurations, true);
          for (Configuration c : configurations.values()) {
             for (Interface i : c.getInterfaces().values()) {
                if (i.getActive()) {
@@ -567,12 +569,6 @@ public class BgpSessionCheckQuestionPlugin extends QuestionPlugin {
                            loopbackIps.add(address);
                         }
                         allInterfaceIps.add(address);
-                        Set<String> currentIpOwners = ipOwners.get(address);
-                        if (currentIpOwners == null) {
-                           currentIpOwners = new HashSet<>();
-                           ipOwners.put(address, currentIpOwners);
-                        }
-                        currentIpOwners.add(c.getHostname());
                      }
                   }
                }
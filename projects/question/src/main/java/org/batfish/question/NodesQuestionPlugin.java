@@ -365,8 +365,9 @@ public class NodesQuestionPlugin extends QuestionPlugin {
             }
          }
          SortedMap<String, Configuration> answerNodes = new TreeMap<>();
-         answerNodes.putAll(configurations);
-         answerNodes.keySet().retainAll(nodes);
+         for (String node : nodes) {
+            answerNodes.put(node, configurations.get(node));
+         }
 
          return new NodesAnswerElement(answerNodes, question.getSummary());
       }
@@ -13,6 +13,7 @@ import org.batfish.datamodel.HeaderSpace;
 import org.batfish.datamodel.IpProtocol;
 import org.batfish.datamodel.IpWildcard;
 import org.batfish.datamodel.Protocol;
+import org.batfish.datamodel.ReachabilityEngine;
 import org.batfish.datamodel.ReachabilityType;
 import org.batfish.datamodel.SubRange;
 import org.batfish.datamodel.answers.AnswerElement;
@@ -67,8 +68,14 @@ public class ReachabilityQuestionPlugin extends QuestionPlugin {
          }
       }
 
+      private ReachabilityEngine engine(ReachabilityQuestion question) {
+         ReachabilityEngine engine = question.getEngine();
+         return engine == null ? ReachabilityEngine.Z3 : engine;
+      }
+
       private AnswerElement multipath(ReachabilityQuestion question) {
-         return _batfish.multipath(question.getHeaderSpace());
+         return _batfish.multipath(question.getHeaderSpace(),
+               engine(question));
       }
 
       private AnswerElement pathDiff(ReachabilityQuestion question) {
@@ -83,7 +90,7 @@ public class ReachabilityQuestionPlugin extends QuestionPlugin {
          return _batfish.standard(question.getHeaderSpace(),
                question.getActions(), question.getIngressNodeRegex(),
                question.getNotIngressNodeRegex(), question.getFinalNodeRegex(),
-               question.getNotFinalNodeRegex());
+               question.getNotFinalNodeRegex(), engine(question));
       }
    }
 
@@ -127,6 +134,8 @@ public class ReachabilityQuestionPlugin extends QuestionPlugin {
 
       private static final String DST_PROTOCOLS_VAR = "dstProtocols";
 
+      private static final String ENGINE_VAR = "engine";
+
       private static final String FINAL_NODE_REGEX_VAR = "finalNodeRegex";
 
       private static final String FRAGMENT_OFFSETS_VAR = "fragmentOffsets";
@@ -185,6 +194,8 @@ public class ReachabilityQuestionPlugin extends QuestionPlugin {
 
       private SortedSet<ForwardingAction> _actions;
 
+      private ReachabilityEngine _engine;
+
       private String _finalNodeRegex;
 
       private final HeaderSpace _headerSpace;
@@ -233,6 +244,14 @@ public class ReachabilityQuestionPlugin extends QuestionPlugin {
          return _headerSpace.getDstProtocols();
       }
 
+      /**
+       * Solver used for the query; z3 when unset
+       */
+      @JsonProperty(ENGINE_VAR)
+      public ReachabilityEngine getEngine() {
+         return _engine;
+      }
+
       @JsonProperty(FINAL_NODE_REGEX_VAR)
       public String getFinalNodeRegex() {
          return _finalNodeRegex;
@@ -398,6 +417,10 @@ public class ReachabilityQuestionPlugin extends QuestionPlugin {
                retString += String.format(" | %s=%s", REACHABILITY_TYPE_VAR,
                      _reachabilityType);
             }
+            if (_engine != null) {
+               retString += String.format(" | %s=%s", ENGINE_VAR,
+                     _engine.reachabilityEngineName());
+            }
             if (getNegateHeader()) {
                retString += " | negateHeader=true";
             }
@@ -558,6 +581,11 @@ public class ReachabilityQuestionPlugin extends QuestionPlugin {
          _headerSpace.setDstProtocols(new TreeSet<>(dstProtocols));
       }
 
+      @JsonProperty(ENGINE_VAR)
+      public void setEngine(ReachabilityEngine engine) {
+         _engine = engine;
+      }
+
       @JsonProperty(FINAL_NODE_REGEX_VAR)
       public void setFinalNodeRegex(String regex) {
          _finalNodeRegex = regex;